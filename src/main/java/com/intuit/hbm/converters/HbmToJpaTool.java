@@ -1,34 +1,77 @@
 package com.intuit.hbm.converters;
 
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.classic.util.ContextInitializer;
+import ch.qos.logback.core.joran.spi.JoranException;
+import com.intuit.hbm.converters.common.ConversionContext;
 import com.intuit.hbm.converters.helper.ArgsParser;
 import com.intuit.hbm.converters.helper.FileHelper;
+import com.intuit.hbm.converters.manifest.ManifestRunner;
 import com.intuit.hbm.converters.model.InputModel;
+import com.intuit.hbm.converters.model.RunMode;
+import com.intuit.hbm.converters.shard.ShardMerger;
 import com.intuit.hbm.converters.handler.FileConversionHandler;
 import com.intuit.hbm.converters.task.ConcurrentTaskExecutor;
 import com.intuit.hbm.converters.task.ConversionTaskBuilder;
+import com.intuit.hbm.converters.task.MemoryBudget;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ObjectUtils;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+
+import java.net.URL;
 
 /**
  * HbmToJpaTool is a tool used for converting Hibernate Mapping files (HBM files) to Java Persistence API (JPA) standard ORM files.
  */
 @Slf4j
 public class HbmToJpaTool {
+    // Classpath location of the logging configuration of the command line tool
+    private static final String LOGGING_CONFIG = "cli/logback.xml";
 
     /**
      * The main method that is first invoked at runtime.
-     * Creates an instance of HbmToJpaTool and starts the HBM to JPA conversion process with the input arguments.
+     * Configures the logging of the tool, then creates an instance of HbmToJpaTool and starts the HBM to JPA
+     * conversion process with the input arguments.
      *
      * @param args Command line arguments
      */
     public static void main(String args[]) {
+        configureLogging();
         new HbmToJpaTool().process(args);
     }
 
+    /**
+     * Applies the logging configuration of the command line tool, unless a configuration file is given with
+     * -Dlogback.configurationFile. The configuration is not named logback.xml, so that it is not picked up by an
+     * application embedding the converter as a library.
+     */
+    private static void configureLogging() {
+        ILoggerFactory loggerFactory = LoggerFactory.getILoggerFactory();
+        URL config = HbmToJpaTool.class.getClassLoader().getResource(LOGGING_CONFIG);
+        if (System.getProperty(ContextInitializer.CONFIG_FILE_PROPERTY) != null || !(loggerFactory instanceof LoggerContext)
+                || config == null) {
+            return;
+        }
+        LoggerContext loggerContext = (LoggerContext) loggerFactory;
+        loggerContext.reset();
+        JoranConfigurator configurator = new JoranConfigurator();
+        configurator.setContext(loggerContext);
+        try {
+            configurator.doConfigure(config);
+        } catch (JoranException e) {
+            log.warn("Event=HbmToJpaConversion SubEvent=ConfigureLogging Status=Failed Config={}", LOGGING_CONFIG, e);
+        }
+    }
+
     /**
      * Begins the process of converting Hibernate Mapping files (HBM) to Java Persistence API (JPA).
      * It first logs the beginning of the conversion, then attempts to parse the input arguments.
-     * If the input arguments are not empty, it creates a FileConversionHandler instance to handle the processing of the task.
+     * If the input arguments are not empty, it creates the ConversionContext of the run and a FileConversionHandler
+     * instance to handle the processing of the task, or merges the shard reports of a sharded run.
+     * With a manifest, the jobs it lists are converted by a ManifestRunner sharing one task executor.
+     * Closing the context logs the run summary.
      * Logs any exceptions that occur during the process.
      * Finally, logs the completion of the process, along with the total time taken for the process to complete in milliseconds.
      *
@@ -40,9 +83,20 @@ public class HbmToJpaTool {
         try {
             InputModel inputModel = new ArgsParser().parseInputArgs(args);
             if (ObjectUtils.isNotEmpty(inputModel)) {
-                //create handler instance and process task
-                FileConversionHandler fileConversionHandler = new FileConversionHandler(inputModel, FileHelper.getInstance(), new ConversionTaskBuilder(), new ConcurrentTaskExecutor());
-                fileConversionHandler.processTask();
+                if (inputModel.getManifestPath() != null) {
+                    new ManifestRunner(inputModel, args, FileHelper.getInstance(), newTaskExecutor(inputModel)).run();
+                    return;
+                }
+                try (ConversionContext context = new ConversionContext(inputModel)) {
+                    if (inputModel.getRunMode() == RunMode.MERGE_SHARDS) {
+                        new ShardMerger(FileHelper.getInstance(), context).merge();
+                        return;
+                    }
+                    //create handler instance and process task
+                    FileConversionHandler fileConversionHandler = new FileConversionHandler(inputModel, FileHelper.getInstance(),
+                            new ConversionTaskBuilder(context), newTaskExecutor(inputModel));
+                    fileConversionHandler.processTask();
+                }
             }
         } catch (Exception e) {
             log.error("Event=HbmToJpaConversion Status=Failed", e);
@@ -51,4 +105,14 @@ public class HbmToJpaTool {
             log.info("Event=HbmToJpaConversion Status=Done totalTimeTaken={}ms", end - start);
         }
     }
+
+    /**
+     * Creates the executor of the conversion tasks of a run, with its memory budget and timeouts.
+     *
+     * @param inputModel The settings of the run.
+     * @return A new ConcurrentTaskExecutor.
+     */
+    private static ConcurrentTaskExecutor newTaskExecutor(InputModel inputModel) {
+        return new ConcurrentTaskExecutor(MemoryBudget.forRun(inputModel), inputModel.getFileTimeoutMillis(), inputModel.getRunTimeoutMillis());
+    }
 }
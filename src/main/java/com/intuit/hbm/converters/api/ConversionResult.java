@@ -0,0 +1,86 @@
+package com.intuit.hbm.converters.api;
+
+import com.intuit.hbm.converters.model.ConversionIssue;
+import com.intuit.hbm.converters.model.ConverterType;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ConversionResult holds the converted content of a .hbm file for every output target of an
+ * {@link InMemoryConverter}, with the issues found while converting it. It is immutable.
+ */
+@Getter
+public class ConversionResult {
+    // Name of the .hbm file, such as Paycheck.query.hbm.xml
+    private final String sourceFileName;
+    // Converted content by output target, in the order of the targets
+    private final Map<ConverterType, String> outputs;
+    // Name of the converted file by output target, such as Paycheck.xml
+    private final Map<ConverterType, String> outputFileNames;
+    // Mappings which are not converted, or converted with a different behaviour, and schema violations of the output
+    private final List<ConversionIssue> issues;
+
+    /**
+     * Creates a ConversionResult.
+     *
+     * @param sourceFileName  The name of the .hbm file.
+     * @param outputs         The converted content by output target.
+     * @param outputFileNames The name of the converted file by output target.
+     * @param issues          The issues found while converting the file.
+     */
+    ConversionResult(String sourceFileName, Map<ConverterType, String> outputs, Map<ConverterType, String> outputFileNames,
+                     List<ConversionIssue> issues) {
+        this.sourceFileName = sourceFileName;
+        this.outputs = Collections.unmodifiableMap(new EnumMap<>(outputs));
+        this.outputFileNames = Collections.unmodifiableMap(new EnumMap<>(outputFileNames));
+        this.issues = Collections.unmodifiableList(issues);
+    }
+
+    /**
+     * Returns the converted content of an output target.
+     *
+     * @param converterType The output target.
+     * @return The converted content.
+     * @throws IllegalArgumentException if the file was not converted to the target.
+     */
+    public String getOutput(ConverterType converterType) {
+        String output = outputs.get(converterType);
+        if (output == null) {
+            throw new IllegalArgumentException("No output for converter type " + converterType);
+        }
+        return output;
+    }
+
+    /**
+     * Returns the name of the converted file of an output target, as the command line tool would write it.
+     *
+     * @param converterType The output target.
+     * @return The name of the converted file, with its extension.
+     * @throws IllegalArgumentException if the file was not converted to the target.
+     */
+    public String getOutputFileName(ConverterType converterType) {
+        getOutput(converterType);
+        return outputFileNames.get(converterType);
+    }
+
+    /**
+     * Writes the converted content of an output target in UTF-8, the encoding of the converted files.
+     * The stream is not closed.
+     *
+     * @param converterType The output target.
+     * @param outputStream  The stream to write to.
+     * @throws IOException              if the content cannot be written.
+     * @throws IllegalArgumentException if the file was not converted to the target.
+     */
+    public void writeTo(ConverterType converterType, OutputStream outputStream) throws IOException {
+        outputStream.write(getOutput(converterType).getBytes(StandardCharsets.UTF_8));
+        outputStream.flush();
+    }
+}
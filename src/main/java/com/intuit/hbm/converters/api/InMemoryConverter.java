@@ -0,0 +1,145 @@
+package com.intuit.hbm.converters.api;
+
+import com.intuit.hbm.converters.common.ConversionContext;
+import com.intuit.hbm.converters.converter.Converter;
+import com.intuit.hbm.converters.converter.ConverterFactory;
+import com.intuit.hbm.converters.converter.HbmToJpaConverter;
+import com.intuit.hbm.converters.helper.FileHelper;
+import com.intuit.hbm.converters.model.ConversionIssue;
+import com.intuit.hbm.converters.model.ConverterType;
+import com.intuit.hbm.converters.model.EntityMappings;
+import com.intuit.hbm.converters.model.InputModel;
+import com.intuit.hbm.converters.task.ConversionTaskBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.dom4j.Document;
+import org.xml.sax.InputSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * InMemoryConverter converts the content of .hbm files without reading or writing any file, for callers embedding
+ * the conversion in their own build or service.
+ * <p>
+ * It uses the extraction and rendering of the command line tool, so that a file converted in memory is the same as
+ * the file the tool writes. An instance is created once and reused: the templates and parsers are kept by the
+ * worker threads between conversions, and the ORM schema is compiled once. It is thread-safe, every conversion
+ * keeping its state to itself.
+ * <p>
+ * Only the conversion of a file is done: the run-wide outputs of the tool, such as the conversion report, the lint
+ * report, the query catalog and the cache and fetch properties, are not produced. The issues of every conversion are
+ * returned with its result instead.
+ */
+@Slf4j
+public class InMemoryConverter {
+    private final ConversionContext context;
+    private final HbmToJpaConverter hbmToJpaConverter;
+    private final Map<ConverterType, Converter> targets = new EnumMap<>(ConverterType.class);
+
+    /**
+     * Creates an InMemoryConverter with the default settings.
+     *
+     * @param converterTypes The output targets, the ORM file when none is given.
+     * @throws IllegalArgumentException when a converter type is not supported.
+     */
+    public InMemoryConverter(ConverterType... converterTypes) {
+        this(new InputModel(null, null, null, converterTypes.length == 0
+                ? Arrays.asList(ConverterType.HBMToORM) : Arrays.asList(converterTypes)));
+    }
+
+    /**
+     * Creates an InMemoryConverter with the output targets and conversion options of a model, such as the conversion
+     * of the class mappings, the normalization of the queries and the validation of the ORM file. The paths of the
+     * model are ignored, nothing is read or written.
+     *
+     * @param inputModel The output targets and conversion options.
+     * @throws IllegalArgumentException when a converter type is not supported.
+     */
+    public InMemoryConverter(InputModel inputModel) {
+        InputModel settings = new InputModel(null, null, null, inputModel.getConverterTypes());
+        settings.setConvertEntities(inputModel.isConvertEntities());
+        settings.setNormalizeQueries(inputModel.isNormalizeQueries());
+        settings.setValidateOutput(inputModel.isValidateOutput());
+        this.context = new ConversionContext(settings);
+        this.hbmToJpaConverter = new HbmToJpaConverter(FileHelper.getInstance(), context);
+        for (ConverterType converterType : settings.getConverterTypes()) {
+            targets.put(converterType, ConverterFactory.getTarget(converterType, hbmToJpaConverter));
+        }
+    }
+
+    /**
+     * Converts the content of a .hbm file read from a stream. The stream is not closed.
+     *
+     * @param sourceFileName The name of the .hbm file, such as Paycheck.query.hbm.xml.
+     * @param inputStream    The content of the .hbm file, its encoding given by its XML declaration.
+     * @return The converted content of every output target.
+     * @throws com.intuit.hbm.converters.exception.FileConversionException if the content is not well-formed XML or
+     *                                                                     cannot be converted.
+     */
+    public ConversionResult convert(String sourceFileName, InputStream inputStream) {
+        return convert(sourceFileName, new InputSource(inputStream));
+    }
+
+    /**
+     * Converts the content of a .hbm file.
+     *
+     * @param sourceFileName The name of the .hbm file, such as Paycheck.query.hbm.xml.
+     * @param content        The content of the .hbm file, its encoding given by its XML declaration.
+     * @return The converted content of every output target.
+     * @throws com.intuit.hbm.converters.exception.FileConversionException if the content is not well-formed XML or
+     *                                                                     cannot be converted.
+     */
+    public ConversionResult convert(String sourceFileName, byte[] content) {
+        return convert(sourceFileName, new ByteArrayInputStream(content));
+    }
+
+    /**
+     * Converts the content of a .hbm file given as text.
+     *
+     * @param sourceFileName The name of the .hbm file, such as Paycheck.query.hbm.xml.
+     * @param content        The content of the .hbm file.
+     * @return The converted content of every output target.
+     * @throws com.intuit.hbm.converters.exception.FileConversionException if the content is not well-formed XML or
+     *                                                                     cannot be converted.
+     */
+    public ConversionResult convert(String sourceFileName, String content) {
+        return convert(sourceFileName, new InputSource(new StringReader(content)));
+    }
+
+    /**
+     * Extracts the mappings of a .hbm file once and renders them for every output target. The ORM file is validated
+     * when output validation is enabled, its schema violations added to the issues. As in the command line tool, the
+     * converted files are named after the name of the .hbm file up to its first dot, and the name of the .hbm file is
+     * the source file of the issues and of the generated code.
+     *
+     * @param sourceFileName The name of the .hbm file.
+     * @param inputSource    The content of the .hbm file.
+     * @return The converted content of every output target.
+     */
+    private ConversionResult convert(String sourceFileName, InputSource inputSource) {
+        long start = System.currentTimeMillis();
+        String fileName = ConversionTaskBuilder.getFileName(sourceFileName);
+        Document hbmDoc = FileHelper.getInstance().readInput(inputSource, sourceFileName);
+        EntityMappings entityMappings = hbmToJpaConverter.getEntityMappings(hbmDoc);
+        List<ConversionIssue> issues = new ArrayList<>(entityMappings.getIssues());
+        Map<ConverterType, String> outputs = new EnumMap<>(ConverterType.class);
+        Map<ConverterType, String> outputFileNames = new EnumMap<>(ConverterType.class);
+        for (Map.Entry<ConverterType, Converter> target : targets.entrySet()) {
+            String output = FileHelper.render(target.getValue().render(entityMappings, sourceFileName, fileName));
+            if (target.getKey() == ConverterType.HBMToORM) {
+                issues.addAll(context.getOrmSchemaValidator().validate(output, sourceFileName));
+            }
+            outputs.put(target.getKey(), output);
+            outputFileNames.put(target.getKey(), target.getValue().getOutputFileName(fileName) + target.getValue().getFileExtension());
+        }
+        log.debug("Event=HbmToJpaConversion SubEvent=InMemoryConversion Status=Done SourceFileName={} Issues={} TimeTaken={}ms",
+                sourceFileName, issues.size(), System.currentTimeMillis() - start);
+        return new ConversionResult(sourceFileName, outputs, outputFileNames, issues);
+    }
+}
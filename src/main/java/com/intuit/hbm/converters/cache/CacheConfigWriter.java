@@ -0,0 +1,189 @@
+package com.intuit.hbm.converters.cache;
+
+import com.intuit.hbm.converters.common.Constants;
+import com.intuit.hbm.converters.common.PropertiesConfigWriter;
+import com.intuit.hbm.converters.model.CacheSetting;
+import com.intuit.hbm.converters.model.ConversionIssue;
+import com.intuit.hbm.converters.model.Entity;
+import com.intuit.hbm.converters.model.EntityMappings;
+import com.intuit.hbm.converters.model.OneToManyMapping;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CacheConfigWriter collects the second-level cache declarations of the converted class and collection mappings.
+ * <p>
+ * The ORM file only declares that an entity is cacheable. The concurrency strategy and region of every cached entity
+ * and collection are carried by the hibernate.classcache and hibernate.collectioncache properties, which are
+ * written with the suggested shared cache mode to a properties file for the persistence unit when the run is closed,
+ * merged with the properties of the files which were not converted in this run. When no file was requested, every
+ * setting which is not carried is reported as a conversion issue instead.
+ */
+@Slf4j
+public class CacheConfigWriter extends PropertiesConfigWriter {
+    public static final String SHARED_CACHE_MODE = "javax.persistence.sharedCache.mode";
+    public static final String CLASS_CACHE_PREFIX = "hibernate.classcache.";
+    public static final String COLLECTION_CACHE_PREFIX = "hibernate.collectioncache.";
+
+    /**
+     * Creates a CacheConfigWriter.
+     *
+     * @param configPath The path of the cache properties file, or null to report the settings which are not carried.
+     */
+    public CacheConfigWriter(String configPath) {
+        super(configPath, "cache properties");
+    }
+
+    /**
+     * Adds the cache settings of the entities extracted from a file.
+     *
+     * @param sourceFile     The name of the source file, used in the issues.
+     * @param entityMappings The mappings extracted from the file.
+     * @return The issues about cache settings which are not carried over, or declared differently in another file.
+     */
+    public List<ConversionIssue> add(String sourceFile, EntityMappings entityMappings) {
+        List<ConversionIssue> issues = new ArrayList<>();
+        addSource(sourceFile);
+        for (Entity entity : entityMappings.getEntities()) {
+            String className = qualify(entityMappings.getPackageName(), entity.getClassName());
+            if (entity.getCache() != null) {
+                add(sourceFile, Constants.CLASS_TAG, entity.getClassName(), CLASS_CACHE_PREFIX + className, entity.getCache(), issues);
+            }
+            for (OneToManyMapping oneToMany : entity.getOneToManyMappings()) {
+                if (oneToMany.getCache() != null) {
+                    add(sourceFile, Constants.ONE_TO_MANY, entity.getClassName() + "." + oneToMany.getName(),
+                            COLLECTION_CACHE_PREFIX + className + "." + oneToMany.getName(), oneToMany.getCache(), issues);
+                }
+            }
+        }
+        return issues;
+    }
+
+    /**
+     * Adds the cache property of a class or collection.
+     *
+     * @param sourceFile The name of the source file.
+     * @param element    The hbm element declaring the cache.
+     * @param name       The name of the class or collection, used in the issues.
+     * @param property   The name of the cache property.
+     * @param cache      The cache setting.
+     * @param issues     List the issues are added to.
+     */
+    private void add(String sourceFile, String element, String name, String property, CacheSetting cache, List<ConversionIssue> issues) {
+        String previous = addProperty(sourceFile, property, cache.getPropertyValue());
+        if (previous != null && !previous.equals(cache.getPropertyValue())) {
+            issues.add(new ConversionIssue(sourceFile, element, name,
+                    "Cache " + cache.getPropertyValue() + " conflicts with cache " + previous + " declared in another file"));
+        } else if (!isEnabled()) {
+            issues.add(new ConversionIssue(sourceFile, element, name, "Cache " + cache.getPropertyValue()
+                    + " is only carried by the properties written with --cache-config"));
+        }
+    }
+
+    /**
+     * Logs the suggested shared cache mode and the number of cached entities and collections.
+     *
+     * @param properties The cache properties of every file, sorted by name.
+     * @param keptCount  The number of source files whose properties were kept from the existing file.
+     */
+    @Override
+    protected void logProperties(Map<String, String> properties, int keptCount) {
+        long cachedEntities = properties.keySet().stream().filter(property -> property.startsWith(CLASS_CACHE_PREFIX)).count();
+        log.info("Event=HbmToJpaConversion SubEvent=CacheConfig CachedEntities={} CachedCollections={} SharedCacheMode={} KeptFilesCount={} ConfigFile={}",
+                cachedEntities, properties.size() - cachedEntities, getSharedCacheMode(properties), keptCount, getConfigPath());
+    }
+
+    /**
+     * Writes the comment of the file and the shared cache mode, when a cached mapping was converted.
+     *
+     * @param writer     The writer of the properties file.
+     * @param properties The cache properties of every file, sorted by name.
+     * @throws IOException if the file cannot be written.
+     */
+    @Override
+    protected void writeHeader(Writer writer, Map<String, String> properties) throws IOException {
+        writer.write("# Second-level cache settings of the converted hbm mappings, to add to the properties of the persistence unit.\n");
+        if (!properties.isEmpty()) {
+            writer.write("# The shared cache mode caches the entities declared cacheable in the ORM files only.\n");
+            writer.write(SHARED_CACHE_MODE + "=" + getSharedCacheMode(properties) + "\n");
+        }
+    }
+
+    /**
+     * Returns the shared cache mode suggested for the persistence unit.
+     *
+     * @param properties The cache properties of every file.
+     * @return The shared cache mode, which only caches the entities declared cacheable, as in the hbm mappings.
+     */
+    private static String getSharedCacheMode(Map<String, String> properties) {
+        return properties.isEmpty() ? "UNSPECIFIED" : "ENABLE_SELECTIVE";
+    }
+
+    /**
+     * Returns the line of a cache property.
+     *
+     * @param name  The name of the property.
+     * @param value The value of the property.
+     * @return The line, its value escaped.
+     */
+    @Override
+    protected String formatProperty(String name, String value) {
+        return name + "=" + escape(value);
+    }
+
+    /**
+     * Reads the cache property of a line.
+     *
+     * @param line The line of the properties file.
+     * @return The name and value of the property, or null if the line is a comment or another property.
+     */
+    @Override
+    protected String[] parseProperty(String line) {
+        int separator = line.indexOf('=');
+        if (separator < 0 || !line.startsWith(CLASS_CACHE_PREFIX) && !line.startsWith(COLLECTION_CACHE_PREFIX)) {
+            return null;
+        }
+        return new String[]{line.substring(0, separator), unescape(line.substring(separator + 1))};
+    }
+
+    /**
+     * Escapes the characters of a property value which a properties file does not read literally.
+     *
+     * @param value The value.
+     * @return The escaped value.
+     */
+    private static String escape(String value) {
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || (c == ' ' && i == 0)) {
+                builder.append('\\');
+            }
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Reads a property value escaped by {@link #escape(String)}.
+     *
+     * @param value The escaped value.
+     * @return The value.
+     */
+    private static String unescape(String value) {
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                c = value.charAt(++i);
+            }
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,26 @@
+package com.intuit.hbm.converters.catalog;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * CatalogEntry is a POJO that describes where a named query is defined and what it returns.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class CatalogEntry {
+    // Name of the query
+    private String name;
+    // Path of the hbm file defining the query
+    private String sourceFile;
+    // Path of the converted file defining the query
+    private String outputFile;
+    // Language of the query
+    private QueryKind kind;
+    // Result class or result set mapping of a native query, null when it has none
+    private String result;
+    // Hash of the query text with its whitespace collapsed, equal for queries differing only by formatting
+    private long queryHash;
+}
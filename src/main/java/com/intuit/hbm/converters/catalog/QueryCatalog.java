@@ -0,0 +1,207 @@
+package com.intuit.hbm.converters.catalog;
+
+import com.intuit.hbm.converters.exception.FileConversionException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * QueryCatalog reads the query catalog written by a {@link QueryCatalogBuilder}: a binary index of every named
+ * query of a conversion run, mapped in memory so that a lookup reads a few pages of the file without parsing it.
+ * <p>
+ * The file starts with a header (magic, version, entry count, offset of the string table), followed by fixed-size
+ * entries sorted by the hash of the query name, then by name and source file, and by the string table. An entry
+ * holds the hash of the name, the hash of the query text, the offsets of its strings in the string table and the
+ * kind of the query. A string is its length in bytes followed by its UTF-8 bytes. All numbers are big-endian.
+ * <p>
+ * A lookup binary searches the entries for the hash of the name and compares the name bytes of the entries with
+ * that hash, so only the matching entries are decoded. Lookups may run concurrently.
+ */
+public class QueryCatalog implements Closeable {
+    // "HQCI", hbm query catalog index
+    static final int MAGIC = 0x48514349;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    // nameHash, queryHash, name, sourceFile, outputFile, result, kind
+    static final int ENTRY_SIZE = 8 + 8 + 4 * 5;
+    // Offset of a missing string
+    static final int NO_STRING = -1;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int entryCount;
+    private final int stringsOffset;
+
+    /**
+     * Opens a query catalog.
+     *
+     * @param catalogFile The path of the catalog file.
+     * @throws FileConversionException if the file cannot be read or is not a query catalog.
+     */
+    public QueryCatalog(Path catalogFile) {
+        try {
+            channel = FileChannel.open(catalogFile, StandardOpenOption.READ);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new FileConversionException("Unable to open query catalog " + catalogFile, e);
+        }
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            close();
+            throw new FileConversionException("Not a query catalog: " + catalogFile);
+        }
+        entryCount = buffer.getInt(8);
+        stringsOffset = buffer.getInt(12);
+    }
+
+    /**
+     * Returns the number of queries in the catalog.
+     *
+     * @return The number of entries.
+     */
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Finds every definition of a named query. A query name is defined more than once when several hbm files
+     * define it, in which case the definitions are ordered by source file.
+     *
+     * @param name The name of the query.
+     * @return The definitions of the query, empty if it is not in the catalog.
+     */
+    public List<CatalogEntry> lookup(String name) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        long nameHash = hash(nameBytes);
+        // lowest entry whose name hash is not lower than the hash looked for
+        int low = 0;
+        int high = entryCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (buffer.getLong(entryOffset(middle)) < nameHash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        List<CatalogEntry> entries = new ArrayList<>();
+        for (int i = low; i < entryCount && buffer.getLong(entryOffset(i)) == nameHash; i++) {
+            int entry = entryOffset(i);
+            if (stringEquals(buffer.getInt(entry + 16), nameBytes)) {
+                entries.add(new CatalogEntry(name, readString(buffer.getInt(entry + 20)), readString(buffer.getInt(entry + 24)),
+                        QueryKind.values()[buffer.getInt(entry + 32)], readString(buffer.getInt(entry + 28)), buffer.getLong(entry + 8)));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Decodes every entry of the catalog, in the order of the file.
+     *
+     * @return The entries.
+     */
+    List<CatalogEntry> getEntries() {
+        List<CatalogEntry> entries = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            int entry = entryOffset(i);
+            entries.add(new CatalogEntry(readString(buffer.getInt(entry + 16)), readString(buffer.getInt(entry + 20)),
+                    readString(buffer.getInt(entry + 24)), QueryKind.values()[buffer.getInt(entry + 32)],
+                    readString(buffer.getInt(entry + 28)), buffer.getLong(entry + 8)));
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the offset of an entry in the file.
+     *
+     * @param index The index of the entry.
+     * @return The offset of the entry.
+     */
+    private static int entryOffset(int index) {
+        return HEADER_SIZE + index * ENTRY_SIZE;
+    }
+
+    /**
+     * Compares a string of the string table with the given bytes, without decoding it.
+     *
+     * @param offset The offset of the string in the string table.
+     * @param bytes  The UTF-8 bytes to compare.
+     * @return true if the string has the given bytes.
+     */
+    private boolean stringEquals(int offset, byte[] bytes) {
+        int position = stringsOffset + offset;
+        if (buffer.getInt(position) != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (buffer.get(position + 4 + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes a string of the string table.
+     *
+     * @param offset The offset of the string in the string table, or {@link #NO_STRING}.
+     * @return The string, null for {@link #NO_STRING}.
+     */
+    private String readString(int offset) {
+        if (offset == NO_STRING) {
+            return null;
+        }
+        int position = stringsOffset + offset;
+        byte[] bytes = new byte[buffer.getInt(position)];
+        ByteBuffer view = buffer.duplicate();
+        view.position(position + 4);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Hashes bytes with the 64-bit FNV-1a hash, which is stable across runs and JVMs.
+     *
+     * @param bytes The bytes to hash.
+     * @return The hash.
+     */
+    public static long hash(byte[] bytes) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Hashes the text of a query with its whitespace collapsed, so that queries differing only by their
+     * formatting have the same hash.
+     *
+     * @param query The text of the query.
+     * @return The hash.
+     */
+    public static long hashQuery(String query) {
+        return hash(query.trim().replaceAll("\\s+", " ").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Closes the catalog file. The mapped pages are released once the catalog is no longer referenced.
+     */
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new FileConversionException("Unable to close query catalog", e);
+        }
+    }
+}
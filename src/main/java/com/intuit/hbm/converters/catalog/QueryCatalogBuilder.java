@@ -0,0 +1,261 @@
+package com.intuit.hbm.converters.catalog;
+
+import com.intuit.hbm.converters.exception.FileConversionException;
+import com.intuit.hbm.converters.helper.FileHelper;
+import com.intuit.hbm.converters.model.EntityMappings;
+import com.intuit.hbm.converters.model.NamedNativeQuery;
+import com.intuit.hbm.converters.model.NamedQuery;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * QueryCatalogBuilder collects the named queries of every converted file and writes the query catalog read by
+ * {@link QueryCatalog} when the run is closed.
+ * <p>
+ * The converter stages the mappings of a file on the converting thread, and they are committed to the catalog once
+ * the converted file is written, so a file which failed or timed out is not cataloged. The entries are hashed by the
+ * worker threads as the files complete, and only sorted and written when the run is closed. The catalog is written
+ * to a temporary file renamed in place, so a reader never sees a partial catalog. The builder is disabled when no
+ * catalog file was requested.
+ * <p>
+ * A run may convert part of the source files only: a resumed run, a shard of a sharded run, or a merge run skipping
+ * the unchanged files. The entries of an existing catalog are therefore kept for the source files the run did not
+ * convert, and replaced for the files it did. A run converting no file leaves the catalog as it is.
+ */
+@Slf4j
+public class QueryCatalogBuilder implements Closeable {
+    private static final Comparator<Entry> ENTRY_ORDER = Comparator.comparingLong((Entry entry) -> entry.nameHash)
+            .thenComparing(entry -> entry.name)
+            .thenComparing(entry -> entry.sourceFile);
+
+    private final String catalogPath;
+    private final Queue<Entry> entries = new ConcurrentLinkedQueue<>();
+    // The source files converted by the run, whose entries replace those of the existing catalog
+    private final Set<String> convertedSources = ConcurrentHashMap.newKeySet();
+    // The mappings of the file being converted by the current thread, until the file is committed or discarded
+    private final ThreadLocal<EntityMappings> stagedMappings = new ThreadLocal<>();
+
+    /**
+     * Creates a QueryCatalogBuilder.
+     *
+     * @param catalogPath The path of the catalog file, or null to disable the catalog.
+     */
+    public QueryCatalogBuilder(String catalogPath) {
+        this.catalogPath = catalogPath;
+    }
+
+    /**
+     * Returns whether the queries are cataloged in this run.
+     *
+     * @return true if a catalog file was requested.
+     */
+    public boolean isEnabled() {
+        return catalogPath != null;
+    }
+
+    /**
+     * Stages the mappings of the file being converted by the current thread.
+     *
+     * @param entityMappings The mappings extracted from the file.
+     */
+    public void stage(EntityMappings entityMappings) {
+        if (isEnabled()) {
+            stagedMappings.set(entityMappings);
+        }
+    }
+
+    /**
+     * Adds the queries of the mappings staged by the current thread to the catalog, once their converted file is written.
+     * A file converted without being parsed has no mappings staged, it is committed without queries.
+     *
+     * @param sourceFile The path of the source file.
+     * @param outputFile The path of the converted file.
+     */
+    public void commit(String sourceFile, String outputFile) {
+        if (!isEnabled()) {
+            return;
+        }
+        convertedSources.add(sourceFile);
+        EntityMappings entityMappings = stagedMappings.get();
+        if (entityMappings == null) {
+            return;
+        }
+        stagedMappings.remove();
+        for (NamedQuery namedQuery : entityMappings.getNamedQueries()) {
+            add(namedQuery.getName(), sourceFile, outputFile, QueryKind.HQL, null, namedQuery.getQuery());
+        }
+        for (NamedNativeQuery namedNativeQuery : entityMappings.getNamedNativeQueries()) {
+            String result = namedNativeQuery.getIsReturnClass() ? namedNativeQuery.getResultClass()
+                    : namedNativeQuery.getIsResultSetMapping() ? namedNativeQuery.getResultSetMapping() : null;
+            add(namedNativeQuery.getName(), sourceFile, outputFile, QueryKind.NATIVE, result, namedNativeQuery.getQuery());
+        }
+    }
+
+    /**
+     * Adds a query to the catalog. A query without a name cannot be looked up and is left out.
+     *
+     * @param name       The name of the query.
+     * @param sourceFile The path of the source file.
+     * @param outputFile The path of the converted file.
+     * @param kind       The language of the query.
+     * @param result     The result class or result set mapping, may be null.
+     * @param query      The text of the query.
+     */
+    private void add(String name, String sourceFile, String outputFile, QueryKind kind, String result, String query) {
+        if (name != null) {
+            entries.add(new Entry(name, sourceFile, outputFile, kind, result, QueryCatalog.hashQuery(query)));
+        }
+    }
+
+    /**
+     * Drops the mappings staged by the current thread, when the conversion of their file did not complete.
+     */
+    public void discard() {
+        stagedMappings.remove();
+    }
+
+    /**
+     * Merges the entries with those of the existing catalog, sorts them and writes the catalog file.
+     *
+     * @throws FileConversionException if the catalog file cannot be written.
+     */
+    @Override
+    public void close() {
+        Path target = isEnabled() ? Paths.get(catalogPath).toAbsolutePath() : null;
+        if (!isEnabled() || convertedSources.isEmpty() && Files.exists(target)) {
+            return;
+        }
+        List<Entry> sortedEntries = new ArrayList<>(entries);
+        int keptCount = addPreviousEntries(target, sortedEntries);
+        sortedEntries.sort(ENTRY_ORDER);
+
+        // the strings are shared by the entries, a converted file usually defines many queries
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        DataOutputStream stringsOutput = new DataOutputStream(strings);
+        Map<String, Integer> stringOffsets = new HashMap<>();
+        ByteArrayOutputStream index = new ByteArrayOutputStream(QueryCatalog.HEADER_SIZE + sortedEntries.size() * QueryCatalog.ENTRY_SIZE);
+        DataOutputStream indexOutput = new DataOutputStream(index);
+        Path tempFile = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            indexOutput.writeInt(QueryCatalog.MAGIC);
+            indexOutput.writeInt(QueryCatalog.VERSION);
+            indexOutput.writeInt(sortedEntries.size());
+            indexOutput.writeInt(QueryCatalog.HEADER_SIZE + sortedEntries.size() * QueryCatalog.ENTRY_SIZE);
+            for (Entry entry : sortedEntries) {
+                indexOutput.writeLong(entry.nameHash);
+                indexOutput.writeLong(entry.queryHash);
+                indexOutput.writeInt(addString(entry.name, stringOffsets, stringsOutput));
+                indexOutput.writeInt(addString(entry.sourceFile, stringOffsets, stringsOutput));
+                indexOutput.writeInt(addString(entry.outputFile, stringOffsets, stringsOutput));
+                indexOutput.writeInt(addString(entry.result, stringOffsets, stringsOutput));
+                indexOutput.writeInt(entry.kind.ordinal());
+            }
+            try (OutputStream outputStream = Files.newOutputStream(tempFile)) {
+                index.writeTo(outputStream);
+                strings.writeTo(outputStream);
+            }
+            FileHelper.moveReplacing(tempFile, target);
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw new FileConversionException("Unable to write query catalog " + catalogPath, e);
+        }
+        log.info("Event=HbmToJpaConversion SubEvent=QueryCatalog Status=Done QueriesCount={} KeptQueriesCount={} CatalogSize={} CatalogFile={}",
+                sortedEntries.size(), keptCount, index.size() + strings.size(), catalogPath);
+    }
+
+    /**
+     * Adds the entries of the existing catalog whose source file was not converted by the run.
+     * A file which is not a catalog is replaced.
+     *
+     * @param target  The path of the catalog file.
+     * @param entries The entries of the run.
+     * @return The number of entries kept from the existing catalog.
+     */
+    private int addPreviousEntries(Path target, List<Entry> entries) {
+        if (!Files.exists(target)) {
+            return 0;
+        }
+        int keptCount = 0;
+        try (QueryCatalog previous = new QueryCatalog(target)) {
+            for (CatalogEntry entry : previous.getEntries()) {
+                if (!convertedSources.contains(entry.getSourceFile())) {
+                    entries.add(new Entry(entry.getName(), entry.getSourceFile(), entry.getOutputFile(), entry.getKind(),
+                            entry.getResult(), entry.getQueryHash()));
+                    keptCount++;
+                }
+            }
+        } catch (FileConversionException e) {
+            log.warn("Event=HbmToJpaConversion SubEvent=QueryCatalog Status=Replaced Reason={} CatalogFile={}", e.getMessage(), catalogPath);
+        }
+        return keptCount;
+    }
+
+    /**
+     * Adds a string to the string table, unless it is already there.
+     *
+     * @param value         The string, may be null.
+     * @param stringOffsets The offset of every string already in the table.
+     * @param stringsOutput The string table.
+     * @return The offset of the string in the table, or {@link QueryCatalog#NO_STRING} for null.
+     * @throws IOException never, the table is in memory.
+     */
+    private static int addString(String value, Map<String, Integer> stringOffsets, DataOutputStream stringsOutput) throws IOException {
+        if (value == null) {
+            return QueryCatalog.NO_STRING;
+        }
+        Integer offset = stringOffsets.get(value);
+        if (offset == null) {
+            offset = stringsOutput.size();
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            stringsOutput.writeInt(bytes.length);
+            stringsOutput.write(bytes);
+            stringOffsets.put(value, offset);
+        }
+        return offset;
+    }
+
+    /**
+     * A query of the catalog, hashed when its file is committed.
+     */
+    private static class Entry {
+        private final String name;
+        private final long nameHash;
+        private final String sourceFile;
+        private final String outputFile;
+        private final QueryKind kind;
+        private final String result;
+        private final long queryHash;
+
+        private Entry(String name, String sourceFile, String outputFile, QueryKind kind, String result, long queryHash) {
+            this.name = name;
+            this.nameHash = QueryCatalog.hash(name.getBytes(StandardCharsets.UTF_8));
+            this.sourceFile = sourceFile;
+            this.outputFile = outputFile;
+            this.kind = kind;
+            this.result = result;
+            this.queryHash = queryHash;
+        }
+    }
+}
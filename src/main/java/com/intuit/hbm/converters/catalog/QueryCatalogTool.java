@@ -0,0 +1,63 @@
+package com.intuit.hbm.converters.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QueryCatalogTool looks up named queries in the query catalog written by a conversion run with {@code --catalog}.
+ * <p>
+ * Usage: {@code QueryCatalogTool <catalog file> <query name>...}. Every definition of a query is printed as a tab
+ * separated line: query name, kind, source file, converted file, result class or result set mapping ("-" when none)
+ * and query hash. A query which is not in the catalog is printed with "NOT_FOUND".
+ */
+@Slf4j
+public class QueryCatalogTool {
+
+    /**
+     * Looks up the queries named in the arguments and exits with status 1 if one of them is not in the catalog.
+     *
+     * @param args The catalog file followed by the query names.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: QueryCatalogTool <catalog file> <query name>...");
+            System.exit(2);
+        }
+        if (lookup(args, System.out) > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Looks up the queries named in the arguments and prints their definitions.
+     *
+     * @param args The catalog file followed by the query names.
+     * @param out  The stream the definitions are printed to.
+     * @return The number of queries which are not in the catalog.
+     */
+    static int lookup(String[] args, PrintStream out) {
+        int notFoundCount = 0;
+        try (QueryCatalog catalog = new QueryCatalog(Paths.get(args[0]))) {
+            for (int i = 1; i < args.length; i++) {
+                long start = System.nanoTime();
+                List<CatalogEntry> entries = catalog.lookup(args[i]);
+                log.debug("Event=HbmToJpaConversion SubEvent=CatalogLookup QueryName={} EntriesCount={} TimeTaken={}us",
+                        args[i], entries.size(), TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                if (entries.isEmpty()) {
+                    notFoundCount++;
+                    out.println(args[i] + "\tNOT_FOUND");
+                }
+                for (CatalogEntry entry : entries) {
+                    out.println(String.join("\t", entry.getName(), entry.getKind().name(), entry.getSourceFile(),
+                            entry.getOutputFile(), entry.getResult() == null ? "-" : entry.getResult(),
+                            String.format("%016x", entry.getQueryHash())));
+                }
+            }
+        }
+        return notFoundCount;
+    }
+}
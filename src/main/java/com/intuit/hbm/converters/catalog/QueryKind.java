@@ -0,0 +1,11 @@
+package com.intuit.hbm.converters.catalog;
+
+/**
+ * QueryKind tells the language of a named query recorded in the query catalog.
+ */
+public enum QueryKind {
+    // A named HQL query, converted into a <named-query>
+    HQL,
+    // A named SQL query, converted into a <named-native-query>
+    NATIVE
+}
@@ -0,0 +1,168 @@
+package com.intuit.hbm.converters.checkpoint;
+
+import com.intuit.hbm.converters.exception.FileConversionException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CheckpointJournal records the source files whose converted file has been written, so that a run which dies
+ * partway through can be resumed instead of started over.
+ * <p>
+ * Every completed file is appended as one line holding its path, size and modification time, and the line is
+ * flushed before the next file is recorded, so that a killed process loses at most the line being written.
+ * When resuming, the lines of the previous runs are loaded and the files they list are skipped, unless the file
+ * has changed since.
+ * <p>
+ * When the run merges into an orm file, the converted content of a file only reaches the orm file when the run is
+ * closed, so the completed files are kept in memory and appended when the journal is closed, after the merge. A run
+ * which dies before it merged records none of its files, which are converted again when it is resumed.
+ * The journal is disabled when no checkpoint file was requested.
+ */
+@Slf4j
+public class CheckpointJournal implements Closeable {
+    // Separator of the fields of an entry
+    private static final String SEPARATOR = "\t";
+
+    private final Path checkpointFile;
+    private final Set<String> completedFiles = ConcurrentHashMap.newKeySet();
+    // The entries recorded in this run, until the journal is closed, or null when they are written at once
+    private final List<String> deferredEntries;
+    private BufferedWriter writer;
+
+    /**
+     * Creates a CheckpointJournal which writes every entry as soon as it is recorded.
+     *
+     * @param checkpointFilePath The path of the checkpoint file, or null to disable checkpoints.
+     * @param resume             Whether the files completed by previous runs should be skipped.
+     * @throws FileConversionException if the checkpoint file cannot be read or opened.
+     */
+    public CheckpointJournal(String checkpointFilePath, boolean resume) {
+        this(checkpointFilePath, resume, false);
+    }
+
+    /**
+     * Creates a CheckpointJournal.
+     *
+     * @param checkpointFilePath The path of the checkpoint file, or null to disable checkpoints.
+     * @param resume             Whether the files completed by previous runs should be skipped.
+     * @param deferred           Whether the entries are only written when the journal is closed.
+     * @throws FileConversionException if the checkpoint file cannot be read or opened.
+     */
+    public CheckpointJournal(String checkpointFilePath, boolean resume, boolean deferred) {
+        this.deferredEntries = deferred ? new ArrayList<>() : null;
+        this.checkpointFile = checkpointFilePath == null ? null : Paths.get(checkpointFilePath);
+        if (checkpointFile == null) {
+            return;
+        }
+        try {
+            boolean tornLastLine = false;
+            if (resume && Files.exists(checkpointFile)) {
+                String content = new String(Files.readAllBytes(checkpointFile), StandardCharsets.UTF_8);
+                String[] lines = content.split("\n");
+                tornLastLine = !content.isEmpty() && !content.endsWith("\n");
+                // a torn last line is incomplete, the file it names is converted again
+                completedFiles.addAll(Arrays.asList(lines).subList(0, tornLastLine ? lines.length - 1 : lines.length));
+                log.info("Event=HbmToJpaConversion SubEvent=Resume CompletedFiles={} CheckpointFile={}", completedFiles.size(), checkpointFile);
+            }
+            writer = Files.newBufferedWriter(checkpointFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    resume ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            if (tornLastLine) {
+                // terminate the torn line, so that the next entry starts on its own line
+                writer.write('\n');
+                writer.flush();
+            }
+        } catch (IOException e) {
+            throw new FileConversionException("Unable to open checkpoint file " + checkpointFile, e);
+        }
+    }
+
+    /**
+     * Returns whether checkpoints are recorded in this run.
+     *
+     * @return true if a checkpoint file was requested.
+     */
+    public boolean isEnabled() {
+        return writer != null;
+    }
+
+    /**
+     * Checks whether a previous run completed the conversion of a file which has not changed since.
+     *
+     * @param sourceFile The source file.
+     * @return true if the file can be skipped.
+     */
+    public boolean isCompleted(File sourceFile) {
+        return completedFiles.contains(toEntry(sourceFile));
+    }
+
+    /**
+     * Records that the converted file of a source file has been written, or staged for the merge when the entries
+     * are deferred.
+     *
+     * @param sourceFile The source file.
+     */
+    public void recordCompleted(File sourceFile) {
+        if (!isEnabled()) {
+            return;
+        }
+        String entry = toEntry(sourceFile);
+        synchronized (this) {
+            if (deferredEntries != null) {
+                deferredEntries.add(entry);
+                return;
+            }
+            try {
+                writer.write(entry);
+                writer.write('\n');
+                writer.flush();
+            } catch (IOException e) {
+                log.error("Event=HbmToJpaConversion SubEvent=CheckpointJournal Status=Failed SourceFileName={}", sourceFile, e);
+            }
+        }
+    }
+
+    /**
+     * Writes the deferred entries and closes the checkpoint file.
+     */
+    @Override
+    public synchronized void close() {
+        if (writer != null) {
+            try {
+                if (deferredEntries != null) {
+                    for (String entry : deferredEntries) {
+                        writer.write(entry);
+                        writer.write('\n');
+                    }
+                    deferredEntries.clear();
+                }
+                writer.close();
+            } catch (IOException e) {
+                log.error("Event=HbmToJpaConversion SubEvent=CheckpointJournal Status=Failed", e);
+            }
+        }
+    }
+
+    /**
+     * Returns the checkpoint entry of a source file: its absolute path, size and modification time.
+     *
+     * @param sourceFile The source file.
+     * @return The entry, without line separator.
+     */
+    private static String toEntry(File sourceFile) {
+        return sourceFile.getAbsolutePath() + SEPARATOR + sourceFile.length() + SEPARATOR + sourceFile.lastModified();
+    }
+}
@@ -7,12 +7,21 @@ package com.intuit.hbm.converters.common;
 public class Constants {
     // The extension for the ORM files.
     public static final String FILE_ENDS_WITH_ORM_EXT = ".xml";
+    // The extension for the generated Java files.
+    public static final String FILE_ENDS_WITH_JAVA_EXT = ".java";
     // Commonly used XML tags and attributes in the hbm files.
     public static final String NAME = "name";
     public static final String QUERY = "query";
     public static final String RETURN_TAG = "return";
     public static final String RETURN_SCALAR = "return-scalar";
     public static final String SQL_QUERY = "sql-query";
+    public static final String RETURN_JOIN = "return-join";
+    public static final String RETURN_PROPERTY = "return-property";
+    public static final String RETURN_COLUMN = "return-column";
+    public static final String RETURN_DISCRIMINATOR = "return-discriminator";
+    public static final String LOAD_COLLECTION = "load-collection";
+    public static final String ALIAS = "alias";
+    public static final String LOCK_MODE = "lock-mode";
     public static final String COLUMN = "column";
     public static final String MAPPING = "Mapping";
     public static final String CLASS_TAG = "class";
@@ -21,4 +30,56 @@ public class Constants {
     public static final String NAMED_NATIVE_QUERIES = "NamedNativeQueries";
     public static final String SQL_RESULT_SET_MAPPINGS = "SqlResultSetMappings";
     public static final String PACKAGE = "package";
+    // Query attributes in the hbm files, carried as query hints.
+    public static final String CACHEABLE = "cacheable";
+    public static final String CACHE_REGION = "cache-region";
+    public static final String CACHE_MODE = "cache-mode";
+    public static final String FETCH_SIZE = "fetch-size";
+    public static final String TIMEOUT = "timeout";
+    public static final String READ_ONLY = "read-only";
+    public static final String FLUSH_MODE = "flush-mode";
+    public static final String COMMENT = "comment";
+    public static final String CALLABLE = "callable";
+    // Class mapping elements and attributes in the hbm files.
+    public static final String ENTITIES = "Entities";
+    public static final String TABLE = "table";
+    public static final String SCHEMA = "schema";
+    public static final String CATALOG = "catalog";
+    public static final String ID = "id";
+    public static final String GENERATOR = "generator";
+    public static final String PARAM = "param";
+    public static final String VERSION = "version";
+    public static final String TIMESTAMP = "timestamp";
+    public static final String PROPERTY = "property";
+    public static final String MANY_TO_ONE = "many-to-one";
+    public static final String ONE_TO_MANY = "one-to-many";
+    public static final String KEY = "key";
+    public static final String INVERSE = "inverse";
+    public static final String CASCADE = "cascade";
+    public static final String ACCESS = "access";
+    public static final String DEFAULT_ACCESS = "default-access";
+    public static final String LENGTH = "length";
+    public static final String NOT_NULL = "not-null";
+    public static final String UNIQUE = "unique";
+    public static final String INSERT = "insert";
+    public static final String UPDATE = "update";
+    public static final String CACHE = "cache";
+    public static final String USAGE = "usage";
+    public static final String REGION = "region";
+    public static final String LAZY = "lazy";
+    public static final String DEFAULT_LAZY = "default-lazy";
+    public static final String FETCH = "fetch";
+    public static final String OUTER_JOIN = "outer-join";
+    public static final String BATCH_SIZE = "batch-size";
+    // Elements and attributes of the generated ORM files.
+    public static final String ENTITY_MAPPINGS_TAG = "entity-mappings";
+    public static final String NAMED_QUERY_TAG = "named-query";
+    public static final String NAMED_NATIVE_QUERY_TAG = "named-native-query";
+    public static final String SQL_RESULT_SET_MAPPING_TAG = "sql-result-set-mapping";
+    public static final String COLUMN_RESULT_TAG = "column-result";
+    public static final String ENTITY_RESULT_TAG = "entity-result";
+    public static final String FIELD_RESULT_TAG = "field-result";
+    public static final String ENTITY_CLASS = "entity-class";
+    public static final String RESULT_CLASS = "result-class";
+    public static final String RESULT_SET_MAPPING = "result-set-mapping";
 }
@@ -0,0 +1,105 @@
+package com.intuit.hbm.converters.common;
+
+import com.intuit.hbm.converters.cache.CacheConfigWriter;
+import com.intuit.hbm.converters.catalog.QueryCatalogBuilder;
+import com.intuit.hbm.converters.checkpoint.CheckpointJournal;
+import com.intuit.hbm.converters.fetch.FetchConfigWriter;
+import com.intuit.hbm.converters.journal.EventJournal;
+import com.intuit.hbm.converters.lint.QueryLinter;
+import com.intuit.hbm.converters.merge.OrmMerger;
+import com.intuit.hbm.converters.model.ConverterType;
+import com.intuit.hbm.converters.model.InputModel;
+import com.intuit.hbm.converters.model.WriteMode;
+import com.intuit.hbm.converters.report.ConversionReport;
+import com.intuit.hbm.converters.shard.ShardReport;
+import com.intuit.hbm.converters.task.TaskScheduler;
+import com.intuit.hbm.converters.validation.OrmSchemaValidator;
+import lombok.Getter;
+
+import java.io.Closeable;
+
+/**
+ * ConversionContext holds the state shared by all the tasks of one conversion run:
+ * the parsed input arguments and the collaborators that observe the run.
+ * It is created once per run and closed when all tasks have completed.
+ */
+@Getter
+public class ConversionContext implements Closeable {
+    private final InputModel inputModel;
+    private final EventJournal eventJournal;
+    private final ConversionReport conversionReport;
+    private final QueryLinter queryLinter;
+    private final OrmSchemaValidator ormSchemaValidator;
+    private final CheckpointJournal checkpointJournal;
+    private final ShardReport shardReport;
+    private final TaskScheduler taskScheduler;
+    private final QueryCatalogBuilder queryCatalogBuilder;
+    private final OrmMerger ormMerger;
+    private final CacheConfigWriter cacheConfigWriter;
+    private final FetchConfigWriter fetchConfigWriter;
+
+    /**
+     * Creates the context of a conversion run from the parsed input arguments.
+     *
+     * @param inputModel The parsed input arguments.
+     */
+    public ConversionContext(InputModel inputModel) {
+        this.inputModel = inputModel;
+        // created first, as its history may be the journal this run overwrites
+        this.taskScheduler = TaskScheduler.forRun(inputModel);
+        this.eventJournal = new EventJournal(inputModel.getJournalPath(), inputModel.isVerbose());
+        this.conversionReport = new ConversionReport(inputModel.getReportPath());
+        this.queryLinter = new QueryLinter(inputModel.getLintReportPath());
+        this.ormSchemaValidator = new OrmSchemaValidator(inputModel.isValidateOutput());
+        // in merge mode, a file is only completed once the run merged it into the orm file
+        this.checkpointJournal = new CheckpointJournal(inputModel.getCheckpointPath(), inputModel.isResume(),
+                inputModel.getWriteMode() == WriteMode.MERGE);
+        this.shardReport = new ShardReport(inputModel.getShardSpec(), inputModel.getSrcDirectoryPath(), inputModel.getDestDirPath());
+        this.queryCatalogBuilder = new QueryCatalogBuilder(inputModel.getCatalogPath());
+        this.ormMerger = new OrmMerger(inputModel.getWriteMode() == WriteMode.MERGE ? inputModel.getDestDirPath() : null, inputModel);
+        this.cacheConfigWriter = new CacheConfigWriter(inputModel.getCacheConfigPath());
+        this.fetchConfigWriter = new FetchConfigWriter(inputModel.getFetchConfigPath());
+    }
+
+    /**
+     * Creates a context with default settings, used when a component is created without an explicit run.
+     *
+     * @return A new context with default settings.
+     */
+    public static ConversionContext defaultContext() {
+        return new ConversionContext(new InputModel(null, null, null, ConverterType.HBMToORM));
+    }
+
+    /**
+     * Closes the context, in this order:
+     * <ul>
+     * <li>logs the predicted and actual time of the tasks,</li>
+     * <li>writes the shard report and the query catalog,</li>
+     * <li>merges the converted files into the orm file,</li>
+     * <li>closes the checkpoint file, once the files it records are merged,</li>
+     * <li>writes the cache and fetch properties,</li>
+     * <li>flushes the event journal and logs the run summary,</li>
+     * <li>writes the conversion report,</li>
+     * <li>writes the lint report once the pending query checks are done.</li>
+     * </ul>
+     */
+    @Override
+    public void close() {
+        try {
+            taskScheduler.close();
+            shardReport.close();
+            queryCatalogBuilder.close();
+            ormMerger.close();
+            checkpointJournal.close();
+            cacheConfigWriter.close();
+            fetchConfigWriter.close();
+            eventJournal.close();
+        } finally {
+            try {
+                conversionReport.close();
+            } finally {
+                queryLinter.close();
+            }
+        }
+    }
+}
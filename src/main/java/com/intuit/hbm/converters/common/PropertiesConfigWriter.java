@@ -0,0 +1,255 @@
+package com.intuit.hbm.converters.common;
+
+import com.intuit.hbm.converters.exception.FileConversionException;
+import com.intuit.hbm.converters.helper.FileHelper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * PropertiesConfigWriter collects the properties of the files converted in a run, to add to the properties of the
+ * persistence unit, and writes them to a properties file when the run is closed.
+ * <p>
+ * The properties are written by source file, each group headed by a comment naming the file. When the file exists,
+ * the groups of the files which were not converted in this run are kept, so that a run converting part of the files,
+ * such as a resumed run, a merge which skips the unchanged files or a shard, does not drop the properties of the
+ * others. A run which converted no file leaves the file as it is. The file is written to a temporary file and moved
+ * in place, so that it is never left half written.
+ */
+public abstract class PropertiesConfigWriter implements Closeable {
+    private static final String SOURCE_PREFIX = "# Source: ";
+
+    private final String configPath;
+    private final String description;
+    // Properties by source file and name, sorted so that the file does not depend on the order the files complete in
+    private final Map<String, Map<String, String>> sources = new ConcurrentSkipListMap<>();
+    // Value of every property in the file which first added it in this run
+    private final Map<String, String> firstValues = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a PropertiesConfigWriter.
+     *
+     * @param configPath  The path of the properties file, or null if no file was requested.
+     * @param description The description of the properties, used in the errors.
+     */
+    protected PropertiesConfigWriter(String configPath, String description) {
+        this.configPath = configPath;
+        this.description = description;
+    }
+
+    /**
+     * Returns whether the properties are written in this run.
+     *
+     * @return true if a properties file was requested.
+     */
+    public boolean isEnabled() {
+        return configPath != null;
+    }
+
+    /**
+     * Returns the path of the properties file.
+     *
+     * @return The path of the properties file, or null if no file was requested.
+     */
+    public String getConfigPath() {
+        return configPath;
+    }
+
+    /**
+     * Records that a file was converted in this run, its properties replacing those it has in the existing file.
+     *
+     * @param sourceFile The name of the source file, null for a document which was not read from a file.
+     * @return The properties of the file by name.
+     */
+    protected Map<String, String> addSource(String sourceFile) {
+        return sources.computeIfAbsent(Objects.toString(sourceFile, ""), key -> new ConcurrentSkipListMap<>());
+    }
+
+    /**
+     * Adds a property of a converted file.
+     *
+     * @param sourceFile The name of the source file.
+     * @param name       The name of the property.
+     * @param value      The value of the property.
+     * @return The value of the property in the file which first added it in this run, null if none did.
+     */
+    protected String addProperty(String sourceFile, String name, String value) {
+        addSource(sourceFile).merge(name, value, this::mergeValues);
+        return firstValues.putIfAbsent(name, value);
+    }
+
+    /**
+     * Returns the value of a property added more than once. By default the last value is taken, as when the
+     * properties file is loaded.
+     *
+     * @param previous The value added first.
+     * @param value    The value added last.
+     * @return The value of the property.
+     */
+    protected String mergeValues(String previous, String value) {
+        return value;
+    }
+
+    /**
+     * Returns the properties of the files converted in this run.
+     *
+     * @return The properties by name, sorted by name.
+     */
+    public Map<String, String> getProperties() {
+        return merge(sources);
+    }
+
+    /**
+     * Merges the properties of several files, in the order of the files.
+     *
+     * @param groups The properties by source file and name.
+     * @return The properties by name, sorted by name.
+     */
+    private Map<String, String> merge(Map<String, Map<String, String>> groups) {
+        Map<String, String> properties = new TreeMap<>();
+        for (Map<String, String> group : groups.values()) {
+            group.forEach((name, value) -> properties.merge(name, value, this::mergeValues));
+        }
+        return properties;
+    }
+
+    /**
+     * Merges the properties with those of the files which were not converted in this run, logs them and writes the
+     * properties file. The file is left as it is when no file was converted. Without a properties file, the
+     * properties of the run are only logged.
+     *
+     * @throws FileConversionException if the file cannot be written.
+     */
+    @Override
+    public void close() {
+        if (!isEnabled()) {
+            Map<String, String> properties = getProperties();
+            if (!properties.isEmpty()) {
+                logProperties(properties, 0);
+            }
+            return;
+        }
+        Path target = Paths.get(configPath).toAbsolutePath();
+        if (sources.isEmpty() && Files.exists(target)) {
+            return;
+        }
+        Map<String, Map<String, String>> groups = new TreeMap<>(sources);
+        int keptCount = addPreviousSources(target, groups);
+        Map<String, String> properties = merge(groups);
+        logProperties(properties, keptCount);
+        Path tempFile = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                writeHeader(writer, properties);
+                for (Map.Entry<String, Map<String, String>> group : groups.entrySet()) {
+                    if (group.getValue().isEmpty()) {
+                        continue;
+                    }
+                    writer.write(SOURCE_PREFIX + group.getKey() + "\n");
+                    for (Map.Entry<String, String> property : group.getValue().entrySet()) {
+                        writer.write(formatProperty(property.getKey(), property.getValue()) + "\n");
+                    }
+                }
+            }
+            FileHelper.moveReplacing(tempFile, target);
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw new FileConversionException("Failed to write the " + description + " to " + configPath, e);
+        }
+    }
+
+    /**
+     * Adds the groups of the existing properties file whose source files were not converted in this run.
+     *
+     * @param target The properties file.
+     * @param groups The properties by source file the kept groups are added to.
+     * @return The number of source files whose properties were kept.
+     * @throws FileConversionException if the existing file cannot be read.
+     */
+    private int addPreviousSources(Path target, Map<String, Map<String, String>> groups) {
+        if (!Files.isRegularFile(target)) {
+            return 0;
+        }
+        int keptCount = 0;
+        try (BufferedReader reader = Files.newBufferedReader(target, StandardCharsets.UTF_8)) {
+            Map<String, String> group = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(SOURCE_PREFIX)) {
+                    String sourceFile = line.substring(SOURCE_PREFIX.length());
+                    group = sources.containsKey(sourceFile) ? null : groups.computeIfAbsent(sourceFile, key -> new TreeMap<>());
+                    keptCount += group != null && group.isEmpty() ? 1 : 0;
+                    continue;
+                }
+                String[] property = group == null ? null : parseProperty(line);
+                if (property != null) {
+                    group.put(property[0], property[1]);
+                }
+            }
+        } catch (IOException e) {
+            throw new FileConversionException("Failed to read the " + description + " of " + configPath, e);
+        }
+        return keptCount;
+    }
+
+    /**
+     * Returns the name of a class qualified with the package of its file.
+     *
+     * @param packageName The package of the file, may be null.
+     * @param className   The name of the class, qualified or not.
+     * @return The qualified name of the class.
+     */
+    protected static String qualify(String packageName, String className) {
+        return packageName == null || packageName.isEmpty() || className.contains(".") ? className : packageName + "." + className;
+    }
+
+    /**
+     * Logs the properties written in this run.
+     *
+     * @param properties The properties of every file, sorted by name.
+     * @param keptCount  The number of source files whose properties were kept from the existing file.
+     */
+    protected abstract void logProperties(Map<String, String> properties, int keptCount);
+
+    /**
+     * Writes the comments and the properties derived from the properties of every file, before the groups of files.
+     *
+     * @param writer     The writer of the properties file.
+     * @param properties The properties of every file, sorted by name.
+     * @throws IOException if the file cannot be written.
+     */
+    protected abstract void writeHeader(Writer writer, Map<String, String> properties) throws IOException;
+
+    /**
+     * Returns the line of a property of a file.
+     *
+     * @param name  The name of the property.
+     * @param value The value of the property.
+     * @return The line, without line separator.
+     */
+    protected abstract String formatProperty(String name, String value);
+
+    /**
+     * Reads the property of a line written by {@link #formatProperty(String, String)}.
+     *
+     * @param line The line of the properties file.
+     * @return The name and value of the property, or null if the line is not a property.
+     */
+    protected abstract String[] parseProperty(String line);
+}
@@ -1,8 +1,13 @@
 package com.intuit.hbm.converters.converter;
 
+import com.intuit.hbm.converters.common.Constants;
+import com.intuit.hbm.converters.model.EntityMappings;
 import org.antlr.stringtemplate.StringTemplate;
 import org.dom4j.Document;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * The IConverter interface should be implemented by any
  * class which intends to define the logic of converting a
@@ -20,4 +25,54 @@ public interface Converter {
      * @param destDirectoryPath The directory path where the converted file would be stored.
      */
     StringTemplate convertFile(Document hbmDoc, String fileName, String destDirectoryPath);
+
+    /**
+     * Converts a file found to contain none of the elements returned by {@link #getScannedElements()}, without
+     * parsing it. The result is the same as the conversion of the parsed file.
+     *
+     * @param packageName The package of the mappings of the file, may be null.
+     * @param sourceFile  The name of the .hbm file.
+     * @param fileName    The name of the file after conversion.
+     * @return Template of the converted file.
+     */
+    StringTemplate convertEmpty(String packageName, String sourceFile, String fileName);
+
+    /**
+     * Renders mappings already extracted from a .hbm file, so that a file extracted once can be rendered to several
+     * output targets. The result is the same as the conversion of the parsed file.
+     *
+     * @param entityMappings The mappings extracted from the .hbm file.
+     * @param sourceFile     The name of the .hbm file.
+     * @param fileName       The name of the file after conversion.
+     * @return Template of the converted file.
+     */
+    StringTemplate render(EntityMappings entityMappings, String sourceFile, String fileName);
+
+    /**
+     * Returns the names of the elements of a .hbm file which are converted. A file without any of them is not parsed.
+     *
+     * @return The element names, the named queries by default. An empty list to parse every file.
+     */
+    default List<String> getScannedElements() {
+        return Arrays.asList(Constants.QUERY, Constants.SQL_QUERY);
+    }
+
+    /**
+     * Returns the name of the converted file, without extension.
+     *
+     * @param fileName The name of the source file without extension.
+     * @return The name of the converted file, the source file name by default.
+     */
+    default String getOutputFileName(String fileName) {
+        return fileName;
+    }
+
+    /**
+     * Returns the extension of the converted file.
+     *
+     * @return The extension, ".xml" by default.
+     */
+    default String getFileExtension() {
+        return Constants.FILE_ENDS_WITH_ORM_EXT;
+    }
 }
@@ -1,13 +1,19 @@
 package com.intuit.hbm.converters.converter;
 
+import com.intuit.hbm.converters.common.ConversionContext;
 import com.intuit.hbm.converters.helper.FileHelper;
 import com.intuit.hbm.converters.model.ConverterType;
 import com.intuit.hbm.converters.service.ConverterService;
+import com.intuit.hbm.converters.service.HbmToJavaRegistryService;
 import com.intuit.hbm.converters.service.HbmtoJpaService;
+import com.intuit.hbm.converters.service.MultiTargetService;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * A factory class to provide instances of different converter types based on the input fileType.
- * Currently, supports only HbmToJpaConverter.
+ * Supports HbmToJpaConverter and JavaRegistryConverter, and several of them rendering the same extracted mappings.
  */
 public class ConverterFactory {
     /**
@@ -19,9 +25,71 @@ public class ConverterFactory {
      * @throws IllegalArgumentException when the fileType passed is not supported.
      */
     public static ConverterService getConverter(ConverterType converterType) {
+        return getConverter(converterType, ConversionContext.defaultContext());
+    }
+
+    /**
+     * A factory method that provides instances of IConverter implementations bound to a conversion run.
+     * Throws IllegalArgumentException in case of unsupported file types.
+     *
+     * @param converterType The type of converter to be returned.
+     * @param context       The state shared by all the conversions of the run.
+     * @return an instance of the specified converter type.
+     * @throws IllegalArgumentException when the fileType passed is not supported.
+     */
+    public static ConverterService getConverter(ConverterType converterType, ConversionContext context) {
+        switch (converterType) {
+            case HBMToORM:
+                return new HbmtoJpaService(FileHelper.getInstance(), new HbmToJpaConverter(FileHelper.getInstance(), context), context);
+            case HBMToJavaRegistry:
+                return new HbmToJavaRegistryService(FileHelper.getInstance(), new JavaRegistryConverter(FileHelper.getInstance(),
+                        new HbmToJpaConverter(FileHelper.getInstance(), context)), context);
+            default:
+                throw new IllegalArgumentException("Invalid converter type.");
+        }
+    }
+
+    /**
+     * A factory method that provides the converter service of the output targets of a conversion run.
+     * A single target gets its own service, several targets share a service which extracts every file once and
+     * renders it for each target.
+     * Throws IllegalArgumentException in case of unsupported file types.
+     *
+     * @param converterTypes The output targets, at least one.
+     * @param context        The state shared by all the conversions of the run.
+     * @return an instance of the converter service of the targets.
+     * @throws IllegalArgumentException when a fileType passed is not supported or no target is given.
+     */
+    public static ConverterService getConverter(List<ConverterType> converterTypes, ConversionContext context) {
+        if (converterTypes.isEmpty()) {
+            throw new IllegalArgumentException("Invalid converter type.");
+        }
+        if (converterTypes.size() == 1) {
+            return getConverter(converterTypes.get(0), context);
+        }
+        HbmToJpaConverter hbmToJpaConverter = new HbmToJpaConverter(FileHelper.getInstance(), context);
+        List<Converter> targets = new ArrayList<>();
+        for (ConverterType converterType : converterTypes) {
+            targets.add(getTarget(converterType, hbmToJpaConverter));
+        }
+        return new MultiTargetService(FileHelper.getInstance(), hbmToJpaConverter, targets, context);
+    }
+
+    /**
+     * Returns the converter rendering the mappings extracted by a HbmToJpaConverter for an output target, also used by
+     * the in-memory conversion API.
+     *
+     * @param converterType     The output target.
+     * @param hbmToJpaConverter Extracts the mappings, and renders the ORM target.
+     * @return the converter of the target.
+     * @throws IllegalArgumentException when the fileType passed is not supported.
+     */
+    public static Converter getTarget(ConverterType converterType, HbmToJpaConverter hbmToJpaConverter) {
         switch (converterType) {
             case HBMToORM:
-                return new HbmtoJpaService(FileHelper.getInstance(), new HbmToJpaConverter(FileHelper.getInstance()));
+                return hbmToJpaConverter;
+            case HBMToJavaRegistry:
+                return new JavaRegistryConverter(FileHelper.getInstance(), hbmToJpaConverter);
             default:
                 throw new IllegalArgumentException("Invalid converter type.");
         }
@@ -0,0 +1,689 @@
+package com.intuit.hbm.converters.converter;
+
+import com.intuit.hbm.converters.common.Constants;
+import com.intuit.hbm.converters.model.BasicMapping;
+import com.intuit.hbm.converters.model.CacheSetting;
+import com.intuit.hbm.converters.model.ConversionIssue;
+import com.intuit.hbm.converters.model.Entity;
+import com.intuit.hbm.converters.model.IdMapping;
+import com.intuit.hbm.converters.model.ManyToOneMapping;
+import com.intuit.hbm.converters.model.OneToManyMapping;
+import org.apache.commons.lang3.StringUtils;
+import org.dom4j.Document;
+import org.dom4j.Element;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Extracts the entities from the class mappings of a hbm file.
+ * Supports the class, id, version, property, many-to-one and one-to-many (set, bag and list) mappings.
+ * Every element or attribute which has no equivalent in the JPA ORM mapping is reported as a
+ * {@link ConversionIssue} instead of being dropped silently.
+ */
+public class EntityExtractor {
+    // Class children converted, or intentionally ignored, by this extractor
+    private static final Set<String> CONVERTED_CLASS_CHILDREN = new HashSet<>(Arrays.asList(
+            Constants.ID, Constants.VERSION, Constants.TIMESTAMP, Constants.PROPERTY, Constants.MANY_TO_ONE,
+            "set", "bag", "list", "meta", "comment", Constants.CACHE));
+    // Root elements converted, or intentionally ignored, by the converter
+    private static final Set<String> CONVERTED_ROOT_ELEMENTS = new HashSet<>(Arrays.asList(
+            Constants.CLASS_TAG, Constants.QUERY, Constants.SQL_QUERY, "meta"));
+    // Class attributes which change the behaviour of Hibernate and have no JPA equivalent
+    private static final List<String> UNSUPPORTED_CLASS_ATTRIBUTES = Arrays.asList(
+            "entity-name", "where", "dynamic-update", "dynamic-insert", "select-before-update", "optimistic-lock",
+            "polymorphism", "persister", "check", "rowid", "subselect", "discriminator-value");
+    // Hibernate types mapped to a JPA temporal type
+    private static final Map<String, String> TEMPORAL_TYPES = new HashMap<>();
+    // Hibernate types mapped as JPA large objects
+    private static final Set<String> LOB_TYPES = new HashSet<>(Arrays.asList(
+            "text", "clob", "blob", "materialized_clob", "materialized_blob", "image"));
+    // Hibernate types which need a custom JPA AttributeConverter
+    private static final Set<String> CONVERTER_TYPES = new HashSet<>(Arrays.asList(
+            "yes_no", "true_false", "numeric_boolean"));
+    // JPA cascade elements, in the order required by the ORM schema
+    private static final List<String> CASCADE_ORDER = Arrays.asList(
+            "cascade-all", "cascade-persist", "cascade-merge", "cascade-remove", "cascade-refresh", "cascade-detach");
+    private static final String ORPHAN_REMOVAL = "orphan-removal";
+    // Cache concurrency strategies, all supported by the Hibernate cache properties
+    private static final Set<String> CACHE_USAGES = new HashSet<>(Arrays.asList(
+            "read-only", "read-write", "nonstrict-read-write", "transactional"));
+
+    static {
+        TEMPORAL_TYPES.put("date", "DATE");
+        TEMPORAL_TYPES.put("calendar_date", "DATE");
+        TEMPORAL_TYPES.put("time", "TIME");
+        TEMPORAL_TYPES.put("timestamp", "TIMESTAMP");
+        TEMPORAL_TYPES.put("calendar", "TIMESTAMP");
+    }
+
+    /**
+     * Retrieves all the entities from the class mappings of the .hbm file.
+     * Inverse one-to-many collections are resolved against the many-to-one associations of the same file.
+     *
+     * @param hbmDoc XML Document parsed from the .hbm file.
+     * @param issues List the conversion issues are added to.
+     * @return ArrayList containing all the entities.
+     */
+    public ArrayList<Entity> getEntities(Document hbmDoc, List<ConversionIssue> issues) {
+        ArrayList<Entity> entities = new ArrayList<>();
+        Element root = hbmDoc.getRootElement();
+        String sourceFile = hbmDoc.getName();
+        String defaultAccess = root.attributeValue(Constants.DEFAULT_ACCESS, Constants.PROPERTY);
+        boolean defaultLazy = !"false".equals(root.attributeValue(Constants.DEFAULT_LAZY));
+        for (Element element : root.elements()) {
+            if (!CONVERTED_ROOT_ELEMENTS.contains(element.getName())) {
+                issues.add(new ConversionIssue(sourceFile, element.getName(), nameOf(element), "Element is not converted"));
+            }
+        }
+        List<InverseCollection> inverseCollections = new ArrayList<>();
+        for (Element classElement : root.elements(Constants.CLASS_TAG)) {
+            entities.add(getEntity(sourceFile, classElement, defaultAccess, defaultLazy, inverseCollections, issues));
+        }
+        for (InverseCollection inverseCollection : inverseCollections) {
+            resolveMappedBy(sourceFile, inverseCollection, entities, issues);
+        }
+        return entities;
+    }
+
+    /**
+     * Converts a class mapping into an Entity.
+     *
+     * @param sourceFile         Name of the .hbm file.
+     * @param classElement       The class element.
+     * @param defaultAccess      The default access of the .hbm file.
+     * @param defaultLazy        Whether the associations and collections of the .hbm file are lazy by default.
+     * @param inverseCollections List the inverse collections are added to, to be resolved once all classes are known.
+     * @param issues             List the conversion issues are added to.
+     * @return The entity.
+     */
+    private Entity getEntity(String sourceFile, Element classElement, String defaultAccess, boolean defaultLazy,
+                             List<InverseCollection> inverseCollections, List<ConversionIssue> issues) {
+        String className = classElement.attributeValue(Constants.NAME);
+        Entity entity = new Entity(className, getAccess(sourceFile, classElement, className, defaultAccess, issues));
+        entity.setTable(classElement.attributeValue(Constants.TABLE));
+        entity.setSchema(classElement.attributeValue(Constants.SCHEMA));
+        entity.setCatalog(classElement.attributeValue(Constants.CATALOG));
+        for (String attribute : UNSUPPORTED_CLASS_ATTRIBUTES) {
+            if (classElement.attributeValue(attribute) != null) {
+                issues.add(new ConversionIssue(sourceFile, Constants.CLASS_TAG, className,
+                        "Attribute " + attribute + "=\"" + classElement.attributeValue(attribute) + "\" is not converted"));
+            }
+        }
+        if ("false".equals(classElement.attributeValue("mutable"))) {
+            issues.add(new ConversionIssue(sourceFile, Constants.CLASS_TAG, className, "Immutable class is mapped as a mutable entity"));
+        }
+        entity.setCache(getCache(sourceFile, classElement, className, issues));
+        if (!isLazy(classElement, defaultLazy)) {
+            issues.add(new ConversionIssue(sourceFile, Constants.CLASS_TAG, className,
+                    "Class is never proxied in the hbm mapping, associations to the entity are loaded as declared by their own fetch type"));
+        }
+        entity.setBatchSize(getBatchSize(sourceFile, classElement, className, issues));
+
+        for (Element child : classElement.elements()) {
+            String path = className + "." + child.attributeValue(Constants.NAME);
+            switch (child.getName()) {
+                case Constants.ID:
+                    entity.setId(getId(sourceFile, child, path, issues));
+                    break;
+                case Constants.VERSION:
+                case Constants.TIMESTAMP:
+                    BasicMapping version = getBasic(sourceFile, child, path, issues);
+                    if (Constants.TIMESTAMP.equals(child.getName())) {
+                        version.setTemporal("TIMESTAMP");
+                    }
+                    entity.setVersion(version);
+                    break;
+                case Constants.PROPERTY:
+                    if (child.attributeValue("formula") != null) {
+                        issues.add(new ConversionIssue(sourceFile, child.getName(), path, "Formula property is not converted"));
+                    } else {
+                        entity.getBasicMappings().add(getBasic(sourceFile, child, path, issues));
+                    }
+                    break;
+                case Constants.MANY_TO_ONE:
+                    ManyToOneMapping manyToOne = getManyToOne(sourceFile, child, path, defaultLazy, issues);
+                    if (manyToOne != null) {
+                        entity.getManyToOneMappings().add(manyToOne);
+                    }
+                    break;
+                case "set":
+                case "bag":
+                case "list":
+                    OneToManyMapping oneToMany = getOneToMany(sourceFile, child, path, defaultLazy, issues);
+                    if (oneToMany != null) {
+                        entity.getOneToManyMappings().add(oneToMany);
+                        if ("true".equals(child.attributeValue(Constants.INVERSE))) {
+                            inverseCollections.add(new InverseCollection(className, path, oneToMany));
+                        }
+                    }
+                    break;
+                default:
+                    if (!CONVERTED_CLASS_CHILDREN.contains(child.getName())) {
+                        issues.add(new ConversionIssue(sourceFile, child.getName(), path, "Element is not converted"));
+                        reportLostCache(sourceFile, child, path, issues);
+                    }
+            }
+        }
+        if (entity.getId() == null) {
+            issues.add(new ConversionIssue(sourceFile, Constants.CLASS_TAG, className, "Class has no simple id, the entity has no identifier"));
+        }
+        return entity;
+    }
+
+    /**
+     * Determines the JPA access type of a class from the default access of the .hbm file.
+     *
+     * @param sourceFile    Name of the .hbm file.
+     * @param classElement  The class element.
+     * @param className     The name of the class.
+     * @param defaultAccess The default access of the .hbm file.
+     * @param issues        List the conversion issues are added to.
+     * @return FIELD or PROPERTY.
+     */
+    private String getAccess(String sourceFile, Element classElement, String className, String defaultAccess, List<ConversionIssue> issues) {
+        if ("field".equals(defaultAccess)) {
+            return "FIELD";
+        }
+        if (!Constants.PROPERTY.equals(defaultAccess)) {
+            issues.add(new ConversionIssue(sourceFile, classElement.getName(), className,
+                    "Custom access " + defaultAccess + " is not converted, PROPERTY access is used"));
+        }
+        return "PROPERTY";
+    }
+
+    /**
+     * Converts an id element into an IdMapping.
+     *
+     * @param sourceFile Name of the .hbm file.
+     * @param idElement  The id element.
+     * @param path       The class and attribute name, used in issues.
+     * @param issues     List the conversion issues are added to.
+     * @return The identifier mapping.
+     */
+    private IdMapping getId(String sourceFile, Element idElement, String path, List<ConversionIssue> issues) {
+        IdMapping id = new IdMapping(idElement.attributeValue(Constants.NAME), getColumn(sourceFile, idElement, path, issues));
+        Element generator = idElement.element(Constants.GENERATOR);
+        String generatorClass = generator == null ? "assigned" : generator.attributeValue(Constants.CLASS_TAG);
+        if (generatorClass == null) {
+            issues.add(new ConversionIssue(sourceFile, Constants.GENERATOR, path,
+                    "Generator without class is not converted, identifier values must be assigned"));
+            return id;
+        }
+        switch (generatorClass) {
+            case "assigned":
+                break;
+            case "identity":
+                id.setGenerationStrategy("IDENTITY");
+                break;
+            case "sequence":
+            case "enhanced-sequence":
+            case "org.hibernate.id.enhanced.SequenceStyleGenerator":
+                id.setGenerationStrategy("SEQUENCE");
+                String sequenceName = getParam(generator, "sequence");
+                if (sequenceName == null) {
+                    sequenceName = getParam(generator, "sequence_name");
+                }
+                id.setSequenceName(sequenceName == null ? "hibernate_sequence" : sequenceName);
+                break;
+            case "native":
+                id.setGenerationStrategy("AUTO");
+                issues.add(new ConversionIssue(sourceFile, Constants.GENERATOR, path,
+                        "Generator native is mapped to AUTO, the JPA provider chooses the strategy"));
+                break;
+            default:
+                issues.add(new ConversionIssue(sourceFile, Constants.GENERATOR, path,
+                        "Generator " + generatorClass + " is not converted, identifier values must be assigned"));
+        }
+        return id;
+    }
+
+    /**
+     * Converts a property, version or timestamp element into a BasicMapping.
+     *
+     * @param sourceFile Name of the .hbm file.
+     * @param element    The property element.
+     * @param path       The class and attribute name, used in issues.
+     * @param issues     List the conversion issues are added to.
+     * @return The basic mapping.
+     */
+    private BasicMapping getBasic(String sourceFile, Element element, String path, List<ConversionIssue> issues) {
+        BasicMapping basic = new BasicMapping(element.attributeValue(Constants.NAME), getColumn(sourceFile, element, path, issues));
+        basic.setLength(getColumnAttribute(element, Constants.LENGTH));
+        basic.setNotNull("true".equals(getColumnAttribute(element, Constants.NOT_NULL)));
+        basic.setUnique("true".equals(getColumnAttribute(element, Constants.UNIQUE)));
+        basic.setInsertable(!"false".equals(element.attributeValue(Constants.INSERT)));
+        basic.setUpdatable(!"false".equals(element.attributeValue(Constants.UPDATE)));
+        checkAccess(sourceFile, element, path, issues);
+
+        String type = element.attributeValue(Constants.TYPE);
+        if (type == null && element.element(Constants.TYPE) != null) {
+            type = element.element(Constants.TYPE).attributeValue(Constants.NAME);
+        }
+        if (type != null) {
+            if (TEMPORAL_TYPES.containsKey(type)) {
+                basic.setTemporal(TEMPORAL_TYPES.get(type));
+            } else if (LOB_TYPES.contains(type)) {
+                basic.setLob(true);
+            } else if (CONVERTER_TYPES.contains(type) || type.contains(".")) {
+                issues.add(new ConversionIssue(sourceFile, element.getName(), path,
+                        "Type " + type + " is not converted, it needs a JPA AttributeConverter"));
+            }
+        }
+        if (element.attributeValue("generated") != null) {
+            issues.add(new ConversionIssue(sourceFile, element.getName(), path, "Generated property is not converted"));
+        }
+        return basic;
+    }
+
+    /**
+     * Converts a many-to-one element into a ManyToOneMapping.
+     *
+     * @param sourceFile Name of the .hbm file.
+     * @param element     The many-to-one element.
+     * @param path        The class and attribute name, used in issues.
+     * @param defaultLazy Whether the associations of the .hbm file are lazy by default.
+     * @param issues      List the conversion issues are added to.
+     * @return The association mapping, or null if it cannot be converted.
+     */
+    private ManyToOneMapping getManyToOne(String sourceFile, Element element, String path, boolean defaultLazy, List<ConversionIssue> issues) {
+        if (element.attributeValue("formula") != null || element.attributeValue("property-ref") != null) {
+            issues.add(new ConversionIssue(sourceFile, element.getName(), path, "Association by formula or property-ref is not converted"));
+            return null;
+        }
+        ManyToOneMapping manyToOne = new ManyToOneMapping(element.attributeValue(Constants.NAME),
+                element.attributeValue(Constants.CLASS_TAG), getColumn(sourceFile, element, path, issues));
+        manyToOne.setNotNull("true".equals(getColumnAttribute(element, Constants.NOT_NULL)));
+        manyToOne.setInsertable(!"false".equals(element.attributeValue(Constants.INSERT)));
+        manyToOne.setUpdatable(!"false".equals(element.attributeValue(Constants.UPDATE)));
+        manyToOne.setFetch(getFetch(sourceFile, element, path, defaultLazy, issues));
+        Set<String> cascades = getCascades(sourceFile, element, path, issues);
+        if (cascades.remove(ORPHAN_REMOVAL)) {
+            issues.add(new ConversionIssue(sourceFile, element.getName(), path, "Cascade delete-orphan is not supported on many-to-one"));
+        }
+        manyToOne.getCascades().addAll(cascades);
+        if ("true".equals(element.attributeValue(Constants.UNIQUE))) {
+            issues.add(new ConversionIssue(sourceFile, element.getName(), path, "Unique constraint of the foreign key is not converted"));
+        }
+        if ("ignore".equals(element.attributeValue("not-found"))) {
+            issues.add(new ConversionIssue(sourceFile, element.getName(), path, "not-found=\"ignore\" is not converted"));
+        }
+        checkAccess(sourceFile, element, path, issues);
+        return manyToOne;
+    }
+
+    /**
+     * Converts a set, bag or list element into a OneToManyMapping.
+     * Collections of values or many-to-many collections are reported and not converted.
+     *
+     * @param sourceFile Name of the .hbm file.
+     * @param element     The collection element.
+     * @param path        The class and attribute name, used in issues.
+     * @param defaultLazy Whether the collections of the .hbm file are lazy by default.
+     * @param issues      List the conversion issues are added to.
+     * @return The collection mapping, or null if it cannot be converted.
+     */
+    private OneToManyMapping getOneToMany(String sourceFile, Element element, String path, boolean defaultLazy, List<ConversionIssue> issues) {
+        Element oneToManyElement = element.element(Constants.ONE_TO_MANY);
+        if (oneToManyElement == null) {
+            issues.add(new ConversionIssue(sourceFile, element.getName(), path, "Collection without one-to-many is not converted"));
+            reportLostCache(sourceFile, element, path, issues);
+            return null;
+        }
+        Element keyElement = element.element(Constants.KEY);
+        String keyColumn = keyElement == null ? null : getColumn(sourceFile, keyElement, path, issues);
+        OneToManyMapping oneToMany = new OneToManyMapping(element.attributeValue(Constants.NAME),
+                oneToManyElement.attributeValue(Constants.CLASS_TAG), keyColumn);
+        if ("list".equals(element.getName())) {
+            Element index = element.element("list-index") != null ? element.element("list-index") : element.element("index");
+            if (index != null) {
+                oneToMany.setOrderColumn(getColumn(sourceFile, index, path, issues));
+            }
+        }
+        Set<String> cascades = getCascades(sourceFile, element, path, issues);
+        oneToMany.setOrphanRemoval(cascades.remove(ORPHAN_REMOVAL));
+        oneToMany.getCascades().addAll(cascades);
+        oneToMany.setCache(getCache(sourceFile, element, path, issues));
+        oneToMany.setFetch(getFetch(sourceFile, element, path, defaultLazy, issues));
+        oneToMany.setBatchSize(getBatchSize(sourceFile, element, path, issues));
+        for (String attribute : Arrays.asList("order-by", "where", "sort")) {
+            if (element.attributeValue(attribute) != null) {
+                issues.add(new ConversionIssue(sourceFile, element.getName(), path,
+                        "Attribute " + attribute + "=\"" + element.attributeValue(attribute) + "\" is not converted"));
+            }
+        }
+        for (Element child : element.elements()) {
+            if (!Arrays.asList(Constants.KEY, Constants.ONE_TO_MANY, "list-index", "index", "meta", "comment", Constants.CACHE).contains(child.getName())) {
+                issues.add(new ConversionIssue(sourceFile, child.getName(), path, "Element is not converted"));
+            }
+        }
+        checkAccess(sourceFile, element, path, issues);
+        return oneToMany;
+    }
+
+    /**
+     * Converts the lazy, fetch and outer-join attributes of an association or collection into a JPA fetch type.
+     * fetch="join" is mapped to EAGER, which Hibernate loads by a join as the hbm mapping does. The settings whose
+     * loading differs from the hbm mapping are reported: a non-lazy select, which Hibernate turns into a join,
+     * fetch="subselect", lazy="no-proxy" and lazy="extra".
+     *
+     * @param sourceFile  Name of the .hbm file.
+     * @param element     The many-to-one or collection element.
+     * @param path        The class and attribute name, used in issues.
+     * @param defaultLazy Whether the associations and collections of the .hbm file are lazy by default.
+     * @param issues      List the conversion issues are added to.
+     * @return LAZY or EAGER.
+     */
+    private String getFetch(String sourceFile, Element element, String path, boolean defaultLazy, List<ConversionIssue> issues) {
+        String fetch = element.attributeValue(Constants.FETCH);
+        String outerJoin = element.attributeValue(Constants.OUTER_JOIN);
+        if (fetch == null && ("true".equals(outerJoin) || "false".equals(outerJoin))) {
+            fetch = "true".equals(outerJoin) ? "join" : "select";
+        }
+        if ("join".equals(fetch)) {
+            return "EAGER";
+        }
+        if ("subselect".equals(fetch)) {
+            issues.add(new ConversionIssue(sourceFile, element.getName(), path,
+                    "fetch=\"subselect\" has no ORM equivalent, the collections are loaded by one select per owner"));
+        }
+        if (!isLazy(element, defaultLazy)) {
+            issues.add(new ConversionIssue(sourceFile, element.getName(), path,
+                    "Non-lazy select is mapped to EAGER, which Hibernate loads by a join instead of a separate select"));
+            return "EAGER";
+        }
+        String lazy = element.attributeValue(Constants.LAZY);
+        if ("no-proxy".equals(lazy)) {
+            issues.add(new ConversionIssue(sourceFile, element.getName(), path,
+                    "lazy=\"no-proxy\" is mapped to LAZY, which loads a proxy unless the entity classes are bytecode enhanced"));
+        } else if ("extra".equals(lazy)) {
+            issues.add(new ConversionIssue(sourceFile, element.getName(), path,
+                    "lazy=\"extra\" is mapped to LAZY, size() and contains() initialize the whole collection"));
+        }
+        return "LAZY";
+    }
+
+    /**
+     * Returns whether a class, association or collection is lazy, from its lazy attribute or the default of the .hbm file.
+     *
+     * @param element     The class, many-to-one or collection element.
+     * @param defaultLazy Whether the mappings of the .hbm file are lazy by default.
+     * @return false if the mapping is declared or defaulted lazy="false".
+     */
+    private boolean isLazy(Element element, boolean defaultLazy) {
+        String lazy = element.attributeValue(Constants.LAZY);
+        return lazy == null ? defaultLazy : !"false".equals(lazy);
+    }
+
+    /**
+     * Reads the batch-size attribute of a class or collection mapping. The ORM file has no batch size, it is carried by
+     * the Hibernate default batch fetch size of the persistence unit.
+     *
+     * @param sourceFile Name of the .hbm file.
+     * @param element    The class or collection element.
+     * @param path       The class or collection name, used in issues.
+     * @param issues     List the conversion issues are added to.
+     * @return The batch size, or null if the instances are loaded one by one.
+     */
+    private Integer getBatchSize(String sourceFile, Element element, String path, List<ConversionIssue> issues) {
+        String batchSize = element.attributeValue(Constants.BATCH_SIZE);
+        if (batchSize == null) {
+            return null;
+        }
+        try {
+            int size = Integer.parseInt(batchSize.trim());
+            if (size > 0) {
+                return size > 1 ? size : null;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        issues.add(new ConversionIssue(sourceFile, element.getName(), path, "Attribute batch-size=\"" + batchSize + "\" is not a batch size"));
+        return null;
+    }
+
+    /**
+     * Converts the cache element of a class or collection mapping into a CacheSetting.
+     * The ORM file only declares that an entity is cacheable, the concurrency strategy and the region are carried
+     * by the Hibernate cache properties of the persistence unit.
+     *
+     * @param sourceFile Name of the .hbm file.
+     * @param element    The class or collection element.
+     * @param path       The class or collection name, used in issues.
+     * @param issues     List the conversion issues are added to.
+     * @return The cache setting, or null if the mapping is not cached or its cache cannot be converted.
+     */
+    private CacheSetting getCache(String sourceFile, Element element, String path, List<ConversionIssue> issues) {
+        Element cacheElement = element.element(Constants.CACHE);
+        if (cacheElement == null) {
+            return null;
+        }
+        String usage = cacheElement.attributeValue(Constants.USAGE);
+        if (!CACHE_USAGES.contains(usage)) {
+            issues.add(new ConversionIssue(sourceFile, Constants.CACHE, path, "Cache usage " + usage + " is not converted, the mapping is not cached"));
+            return null;
+        }
+        if ("non-lazy".equals(cacheElement.attributeValue("include"))) {
+            issues.add(new ConversionIssue(sourceFile, Constants.CACHE, path, "Cache include=\"non-lazy\" is not converted, lazy properties are cached too"));
+        }
+        return new CacheSetting(usage, cacheElement.attributeValue(Constants.REGION));
+    }
+
+    /**
+     * Reports the cache of a mapping which is not converted, as the data it kept off the database is no longer cached.
+     *
+     * @param sourceFile Name of the .hbm file.
+     * @param element    The mapping element which is not converted.
+     * @param path       The class and attribute name, used in issues.
+     * @param issues     List the conversion issues are added to.
+     */
+    private void reportLostCache(String sourceFile, Element element, String path, List<ConversionIssue> issues) {
+        if (element.element(Constants.CACHE) != null) {
+            issues.add(new ConversionIssue(sourceFile, Constants.CACHE, path, "Cache of a mapping which is not converted is lost"));
+        }
+    }
+
+    /**
+     * Resolves the attribute owning an inverse collection: the many-to-one of the target entity mapped to the key column.
+     * If the owner is not mapped in the same file, the collection keeps a read-only join column.
+     *
+     * @param sourceFile        Name of the .hbm file.
+     * @param inverseCollection The inverse collection.
+     * @param entities          All the entities of the file.
+     * @param issues            List the conversion issues are added to.
+     */
+    private void resolveMappedBy(String sourceFile, InverseCollection inverseCollection, List<Entity> entities, List<ConversionIssue> issues) {
+        OneToManyMapping oneToMany = inverseCollection.oneToMany;
+        for (Entity entity : entities) {
+            if (!simpleName(entity.getClassName()).equals(simpleName(oneToMany.getTargetEntity()))) {
+                continue;
+            }
+            for (ManyToOneMapping manyToOne : entity.getManyToOneMappings()) {
+                if (manyToOne.getJoinColumn() != null && manyToOne.getJoinColumn().equalsIgnoreCase(oneToMany.getJoinColumn())
+                        && simpleName(inverseCollection.ownerClass).equals(simpleName(manyToOne.getTargetEntity()))) {
+                    oneToMany.setMappedBy(manyToOne.getName());
+                    oneToMany.setJoinColumn(null);
+                    return;
+                }
+            }
+        }
+        oneToMany.setInverse(true);
+        issues.add(new ConversionIssue(sourceFile, Constants.ONE_TO_MANY, inverseCollection.path,
+                "Owner of the inverse collection is not mapped in this file, the collection is mapped through a read-only join column"));
+    }
+
+    /**
+     * Converts the cascade attribute of an association into JPA cascade elements.
+     * Orphan removal is returned as {@link #ORPHAN_REMOVAL} for the caller to handle.
+     *
+     * @param sourceFile Name of the .hbm file.
+     * @param element    The association element.
+     * @param path       The class and attribute name, used in issues.
+     * @param issues     List the conversion issues are added to.
+     * @return The cascade elements, in the order required by the ORM schema.
+     */
+    private Set<String> getCascades(String sourceFile, Element element, String path, List<ConversionIssue> issues) {
+        Set<String> cascades = new HashSet<>();
+        String cascade = element.attributeValue(Constants.CASCADE);
+        if (cascade == null) {
+            return cascades;
+        }
+        for (String style : cascade.split(",")) {
+            switch (style.trim()) {
+                case "all":
+                    cascades.add("cascade-all");
+                    break;
+                case "all-delete-orphan":
+                    cascades.add("cascade-all");
+                    cascades.add(ORPHAN_REMOVAL);
+                    break;
+                case "delete-orphan":
+                    cascades.add(ORPHAN_REMOVAL);
+                    break;
+                case "save-update":
+                    cascades.add("cascade-persist");
+                    cascades.add("cascade-merge");
+                    break;
+                case "persist":
+                    cascades.add("cascade-persist");
+                    break;
+                case "merge":
+                    cascades.add("cascade-merge");
+                    break;
+                case "delete":
+                    cascades.add("cascade-remove");
+                    break;
+                case "refresh":
+                    cascades.add("cascade-refresh");
+                    break;
+                case "evict":
+                    cascades.add("cascade-detach");
+                    break;
+                case "none":
+                case "":
+                    break;
+                default:
+                    issues.add(new ConversionIssue(sourceFile, element.getName(), path, "Cascade " + style.trim() + " is not converted"));
+            }
+        }
+        Set<String> ordered = new LinkedHashSet<>();
+        for (String jpaCascade : CASCADE_ORDER) {
+            if (cascades.contains(jpaCascade)) {
+                ordered.add(jpaCascade);
+            }
+        }
+        if (cascades.contains(ORPHAN_REMOVAL)) {
+            ordered.add(ORPHAN_REMOVAL);
+        }
+        return ordered;
+    }
+
+    /**
+     * Returns the column of an element, from its column attribute or its first nested column element.
+     *
+     * @param sourceFile Name of the .hbm file.
+     * @param element    The mapping element.
+     * @param path       The class and attribute name, used in issues.
+     * @param issues     List the conversion issues are added to.
+     * @return The column name, or null when it defaults to the attribute name.
+     */
+    private String getColumn(String sourceFile, Element element, String path, List<ConversionIssue> issues) {
+        String column = element.attributeValue(Constants.COLUMN);
+        if (column != null) {
+            return column;
+        }
+        List<Element> columns = element.elements(Constants.COLUMN);
+        if (columns.size() > 1) {
+            issues.add(new ConversionIssue(sourceFile, element.getName(), path, "Multi-column mapping is not converted, only the first column is mapped"));
+        }
+        return columns.isEmpty() ? null : columns.get(0).attributeValue(Constants.NAME);
+    }
+
+    /**
+     * Returns an attribute of the column of an element, declared on the element or on its nested column element.
+     *
+     * @param element   The mapping element.
+     * @param attribute The name of the attribute.
+     * @return The attribute value, or null if it is not declared.
+     */
+    private String getColumnAttribute(Element element, String attribute) {
+        String value = element.attributeValue(attribute);
+        Element column = element.element(Constants.COLUMN);
+        if (value == null && column != null) {
+            value = column.attributeValue(attribute);
+        }
+        return value;
+    }
+
+    /**
+     * Reports an attribute access declared on a single property, which is not converted.
+     *
+     * @param sourceFile Name of the .hbm file.
+     * @param element    The mapping element.
+     * @param path       The class and attribute name, used in issues.
+     * @param issues     List the conversion issues are added to.
+     */
+    private void checkAccess(String sourceFile, Element element, String path, List<ConversionIssue> issues) {
+        String access = element.attributeValue(Constants.ACCESS);
+        if (access != null) {
+            issues.add(new ConversionIssue(sourceFile, element.getName(), path, "Attribute access " + access + " is not converted"));
+        }
+    }
+
+    /**
+     * Returns the value of a generator parameter.
+     *
+     * @param generator The generator element.
+     * @param name      The name of the parameter.
+     * @return The trimmed value, or null if the parameter is not declared.
+     */
+    private String getParam(Element generator, String name) {
+        for (Element param : generator.elements(Constants.PARAM)) {
+            if (name.equals(param.attributeValue(Constants.NAME))) {
+                return param.getTextTrim();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a human-readable name of an element, used in issues.
+     *
+     * @param element The element.
+     * @return The value of its name attribute, or of its class attribute.
+     */
+    private String nameOf(Element element) {
+        return element.attributeValue(Constants.NAME, element.attributeValue(Constants.CLASS_TAG, ""));
+    }
+
+    /**
+     * Returns the unqualified name of a class.
+     *
+     * @param className The class name, may be null.
+     * @return The part after the last dot.
+     */
+    private static String simpleName(String className) {
+        return StringUtils.defaultString(StringUtils.substringAfterLast("." + className, "."));
+    }
+
+    /**
+     * An inverse collection waiting for its owning attribute to be resolved.
+     */
+    private static class InverseCollection {
+        private final String ownerClass;
+        private final String path;
+        private final OneToManyMapping oneToMany;
+
+        InverseCollection(String ownerClass, String path, OneToManyMapping oneToMany) {
+            this.ownerClass = ownerClass;
+            this.path = path;
+            this.oneToMany = oneToMany;
+        }
+    }
+}
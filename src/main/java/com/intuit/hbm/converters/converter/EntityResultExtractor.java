@@ -0,0 +1,241 @@
+package com.intuit.hbm.converters.converter;
+
+import com.intuit.hbm.converters.common.Constants;
+import com.intuit.hbm.converters.model.ConversionIssue;
+import com.intuit.hbm.converters.model.EntityResult;
+import com.intuit.hbm.converters.model.FieldResult;
+import org.dom4j.Document;
+import org.dom4j.Element;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extracts the entities hydrated by a native query from the return and return-join elements of its hbm sql-query.
+ * Every entity of the result set becomes an entity result, with the columns of its return-property elements as field
+ * results, so that a query hydrating several entities from one joined result set stays a single round trip.
+ * The class of a joined entity is resolved from the class mappings of the same file.
+ * Everything an entity result cannot express is reported as a {@link ConversionIssue}.
+ */
+public class EntityResultExtractor {
+    // Placeholders such as {p.*} or {p.name}, which Hibernate expands from the aliases of the hbm returns
+    private static final Pattern ALIAS_PLACEHOLDER = Pattern.compile("\\{(\\w+)\\.[\\w*]+}");
+    // Properties referencing a single entity
+    private static final Set<String> TO_ONE_ELEMENTS = new HashSet<>(Arrays.asList(Constants.MANY_TO_ONE, "one-to-one"));
+    // Properties referencing a collection of entities
+    private static final Set<String> COLLECTION_ELEMENTS = new HashSet<>(Arrays.asList("set", "bag", "list", "map", "idbag", "array"));
+    // Elements of a collection naming the class of its entities
+    private static final List<String> COLLECTION_CLASS_ELEMENTS = Arrays.asList(Constants.ONE_TO_MANY, "many-to-many");
+
+    /**
+     * Retrieves the entity results of a native query.
+     * A query returning a single entity without property columns, placeholders or scalars needs no result set
+     * mapping, it is converted to a result class, and no entity result is returned for it.
+     *
+     * @param sqlQueryElement The sql-query element.
+     * @param sourceFile      The name of the .hbm file, for the issues.
+     * @param issues          List the parts of the returns which cannot be converted are added to.
+     * @return The entity results, in the order of the return elements followed by the return-join elements.
+     */
+    public List<EntityResult> getEntityResults(Element sqlQueryElement, String sourceFile, List<ConversionIssue> issues) {
+        String queryName = sqlQueryElement.attributeValue(Constants.NAME);
+        List<Element> returns = sqlQueryElement.elements(Constants.RETURN_TAG);
+        List<Element> joins = sqlQueryElement.elements(Constants.RETURN_JOIN);
+        for (Element loadCollection : sqlQueryElement.elements(Constants.LOAD_COLLECTION)) {
+            issues.add(new ConversionIssue(sourceFile, loadCollection.getName(), queryName, "Element is not converted"));
+        }
+        Matcher placeholder = ALIAS_PLACEHOLDER.matcher(sqlQueryElement.getText());
+        boolean placeholders = placeholder.find();
+        if (returns.isEmpty() && joins.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (returns.size() == 1 && joins.isEmpty() && returns.get(0).elements().isEmpty() && !placeholders
+                && sqlQueryElement.element(Constants.RETURN_SCALAR) == null) {
+            return Collections.emptyList();
+        }
+        if (placeholders) {
+            issues.add(new ConversionIssue(sourceFile, sqlQueryElement.getName(), queryName, "Alias placeholder " + placeholder.group()
+                    + " is only expanded by the Java registry, the query of the ORM file has to list the columns"));
+        }
+        reportReordering(sqlQueryElement, sourceFile, issues);
+
+        List<EntityResult> entityResults = new ArrayList<>();
+        Map<String, String> classesByAlias = new HashMap<>();
+        for (Element returnElement : returns) {
+            String alias = returnElement.attributeValue(Constants.ALIAS);
+            String entityClass = returnElement.attributeValue(Constants.CLASS_TAG);
+            if (entityClass == null) {
+                issues.add(new ConversionIssue(sourceFile, returnElement.getName(), queryName,
+                        "Return without class is not converted, add the entity result of " + alias));
+                continue;
+            }
+            reportLockMode(returnElement, sourceFile, queryName, issues);
+            EntityResult entityResult = new EntityResult(alias, entityClass, null, null, getDiscriminatorColumn(returnElement));
+            entityResult.getFieldResults().addAll(getFieldResults(returnElement));
+            entityResults.add(entityResult);
+            classesByAlias.put(alias, entityClass);
+        }
+        for (Element join : joins) {
+            String alias = join.attributeValue(Constants.ALIAS);
+            String path = join.attributeValue(Constants.PROPERTY, "");
+            int dot = path.indexOf('.');
+            if (dot <= 0 || dot == path.length() - 1) {
+                issues.add(new ConversionIssue(sourceFile, join.getName(), queryName, "Return-join property " + path + " is not owner.property"));
+                continue;
+            }
+            reportLockMode(join, sourceFile, queryName, issues);
+            String ownerAlias = path.substring(0, dot);
+            String property = path.substring(dot + 1);
+            Element propertyElement = findProperty(sqlQueryElement.getDocument(), classesByAlias.get(ownerAlias), property);
+            String entityClass = getReferencedClass(propertyElement);
+            if (entityClass == null) {
+                issues.add(new ConversionIssue(sourceFile, join.getName(), queryName, "Class of " + path
+                        + " is not mapped in the file, the joined entity is only converted to the Java registry"));
+            } else if (COLLECTION_ELEMENTS.contains(propertyElement.getName())) {
+                issues.add(new ConversionIssue(sourceFile, join.getName(), queryName, "Collection " + path
+                        + " is hydrated as entity results, it is only initialized by the Java registry"));
+            }
+            EntityResult entityResult = new EntityResult(alias, entityClass, ownerAlias, property, getDiscriminatorColumn(join));
+            entityResult.getFieldResults().addAll(getFieldResults(join));
+            entityResults.add(entityResult);
+            classesByAlias.put(alias, entityClass);
+        }
+        return entityResults;
+    }
+
+    /**
+     * Retrieves the field results of a return or return-join element. A property mapped to several columns has a
+     * field result of the same name for each of its columns.
+     *
+     * @param returnElement The return or return-join element.
+     * @return The field results.
+     */
+    private static List<FieldResult> getFieldResults(Element returnElement) {
+        List<FieldResult> fieldResults = new ArrayList<>();
+        for (Element returnProperty : returnElement.elements(Constants.RETURN_PROPERTY)) {
+            String name = returnProperty.attributeValue(Constants.NAME);
+            String column = returnProperty.attributeValue(Constants.COLUMN);
+            if (column != null) {
+                fieldResults.add(new FieldResult(name, column));
+            }
+            for (Element returnColumn : returnProperty.elements(Constants.RETURN_COLUMN)) {
+                fieldResults.add(new FieldResult(name, returnColumn.attributeValue(Constants.NAME)));
+            }
+        }
+        return fieldResults;
+    }
+
+    /**
+     * Returns the discriminator column of a return or return-join element.
+     *
+     * @param returnElement The return or return-join element.
+     * @return The column of its return-discriminator element, empty if it has none.
+     */
+    private static String getDiscriminatorColumn(Element returnElement) {
+        Element discriminator = returnElement.element(Constants.RETURN_DISCRIMINATOR);
+        return discriminator == null ? "" : discriminator.attributeValue(Constants.COLUMN, "");
+    }
+
+    /**
+     * Reports a lock mode, which an entity result cannot carry.
+     *
+     * @param returnElement The return or return-join element.
+     * @param sourceFile    The name of the .hbm file.
+     * @param queryName     The name of the query.
+     * @param issues        List the issue is added to.
+     */
+    private static void reportLockMode(Element returnElement, String sourceFile, String queryName, List<ConversionIssue> issues) {
+        String lockMode = returnElement.attributeValue(Constants.LOCK_MODE, "read");
+        if (!"read".equals(lockMode)) {
+            issues.add(new ConversionIssue(sourceFile, returnElement.getName(), queryName,
+                    "Attribute lock-mode=\"" + lockMode + "\" has no equivalent in an entity result"));
+        }
+    }
+
+    /**
+     * Reports a return-scalar preceding an entity, whose column moves after the entities in the rows of the result,
+     * as the entity results of a mapping come before its column results.
+     *
+     * @param sqlQueryElement The sql-query element.
+     * @param sourceFile      The name of the .hbm file.
+     * @param issues          List the issue is added to.
+     */
+    private static void reportReordering(Element sqlQueryElement, String sourceFile, List<ConversionIssue> issues) {
+        boolean scalar = false;
+        for (Element child : sqlQueryElement.elements()) {
+            if (Constants.RETURN_SCALAR.equals(child.getName())) {
+                scalar = true;
+            } else if (scalar && (Constants.RETURN_TAG.equals(child.getName()) || Constants.RETURN_JOIN.equals(child.getName()))) {
+                issues.add(new ConversionIssue(sourceFile, sqlQueryElement.getName(), sqlQueryElement.attributeValue(Constants.NAME),
+                        "Return-scalar precedes an entity, its column follows the entities in the rows of the result"));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Finds the mapping of a property of a class mapped in the same file.
+     *
+     * @param hbmDoc     The hbm document, may be null.
+     * @param ownerClass The class owning the property, null if unknown.
+     * @param property   The name of the property.
+     * @return The element mapping the property, null if not found.
+     */
+    private static Element findProperty(Document hbmDoc, String ownerClass, String property) {
+        if (hbmDoc == null || ownerClass == null) {
+            return null;
+        }
+        for (Element classElement : hbmDoc.getRootElement().elements(Constants.CLASS_TAG)) {
+            if (simpleName(ownerClass).equals(simpleName(classElement.attributeValue(Constants.NAME, "")))) {
+                for (Element child : classElement.elements()) {
+                    if (property.equals(child.attributeValue(Constants.NAME))) {
+                        return child;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the class of the entities referenced by a property.
+     *
+     * @param propertyElement The element mapping the property, may be null.
+     * @return The class of the referenced entity, or of the entities of a collection, null if unknown.
+     */
+    private static String getReferencedClass(Element propertyElement) {
+        if (propertyElement == null) {
+            return null;
+        }
+        if (TO_ONE_ELEMENTS.contains(propertyElement.getName())) {
+            return propertyElement.attributeValue(Constants.CLASS_TAG);
+        }
+        if (COLLECTION_ELEMENTS.contains(propertyElement.getName())) {
+            for (String classElement : COLLECTION_CLASS_ELEMENTS) {
+                Element element = propertyElement.element(classElement);
+                if (element != null) {
+                    return element.attributeValue(Constants.CLASS_TAG);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the name of a class without its package.
+     *
+     * @param className The name of the class, qualified or not.
+     * @return The simple name of the class.
+     */
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+}
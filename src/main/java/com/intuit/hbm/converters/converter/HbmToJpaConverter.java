@@ -1,9 +1,14 @@
 package com.intuit.hbm.converters.converter;
 
 import com.intuit.hbm.converters.common.Constants;
+import com.intuit.hbm.converters.common.ConversionContext;
 import com.intuit.hbm.converters.exception.FileConversionException;
 import com.intuit.hbm.converters.helper.FileHelper;
 import com.intuit.hbm.converters.model.ColumnResult;
+import com.intuit.hbm.converters.model.ConversionIssue;
+import com.intuit.hbm.converters.model.Entity;
+import com.intuit.hbm.converters.model.EntityMappings;
+import com.intuit.hbm.converters.model.EntityResult;
 import com.intuit.hbm.converters.model.NamedNativeQuery;
 import com.intuit.hbm.converters.model.NamedQuery;
 import com.intuit.hbm.converters.model.SqlResultSetMapping;
@@ -14,18 +19,28 @@ import org.dom4j.Document;
 import org.dom4j.Element;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Class responsible for converting a Hibernate XML mapping file (.hbm) of named query to a
- * JPA object-relational mapping.
+ * JPA object-relational mapping. When enabled, the class mappings are converted into entities too.
  */
 @Slf4j
 public class HbmToJpaConverter implements Converter {
     private static final Map<String, String> TYPE_MAPPING;
+    // Order of the converted elements by name, independent of the locale, elements without a name first
+    private static final Comparator<String> NAME_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
     private FileHelper fileHelper;
+    private ConversionContext context;
+    private EntityExtractor entityExtractor = new EntityExtractor();
+    private QueryHintExtractor queryHintExtractor = new QueryHintExtractor();
+    private EntityResultExtractor entityResultExtractor = new EntityResultExtractor();
+    private QueryTextNormalizer queryTextNormalizer = new QueryTextNormalizer();
 
     static {
         TYPE_MAPPING = new HashMap<>();
@@ -43,11 +58,25 @@ public class HbmToJpaConverter implements Converter {
      * @param fileHelper Specifies the current file reader
      */
     public HbmToJpaConverter(FileHelper fileHelper) {
+        this(fileHelper, ConversionContext.defaultContext());
+    }
+
+    /**
+     * A Constructor of HbmToJpaConverter class for a conversion run.
+     * The settings of the run decide what is converted, and the issues found are added to its report.
+     *
+     * @param fileHelper Specifies the current file reader
+     * @param context    The state shared by all the conversions of the run
+     */
+    public HbmToJpaConverter(FileHelper fileHelper, ConversionContext context) {
         this.fileHelper = fileHelper;
+        this.context = context;
     }
 
     /**
      * Converts .hbm file to ORM file using a string template.
+     * The issues found while extracting the mappings are added to the conversion report of the run,
+     * and the queries are linted while the file is rendered.
      *
      * @param hbmDoc            XML Document parsed from the .hbm file.
      * @param fileName          The name of the .hbm file.
@@ -58,23 +87,113 @@ public class HbmToJpaConverter implements Converter {
     @Override
     public StringTemplate convertFile(Document hbmDoc, String fileName, String destDirectoryPath) {
         StringTemplate t = null;
-        log.info("Event=HbmToJpaConversion SubEvent=convertFile Status=Started SourceFileName={}", hbmDoc.getName());
+        log.debug("Event=HbmToJpaConversion SubEvent=convertFile Status=Started SourceFileName={}", hbmDoc.getName());
         try {
-            StringTemplateGroup templates = new StringTemplateGroup("OrmFile", fileHelper.getTemplateLocation());
-            t = templates.getInstanceOf("OrmFile");
-
-            t.setAttribute(Constants.NAMED_QUERIES, getNamedQueries(hbmDoc));
-            ArrayList<NamedNativeQuery> namedNativeQueries = getNamedNativeQueries(hbmDoc);
-            t.setAttribute(Constants.NAMED_NATIVE_QUERIES, namedNativeQueries);
-            t.setAttribute(Constants.PACKAGE, hbmDoc.getRootElement().attributeValue("package"));
-            t.setAttribute(Constants.SQL_RESULT_SET_MAPPINGS, getSqlResultSetMappings(namedNativeQueries));
-            log.info("Event=HbmToJpaConversion SubEvent=convertFile Status=Done SourceFileName={} DestinationFileName={}", hbmDoc.getName(), fileName + Constants.FILE_ENDS_WITH_ORM_EXT);
+            t = render(collectEntityMappings(hbmDoc));
+            log.debug("Event=HbmToJpaConversion SubEvent=convertFile Status=Done SourceFileName={} DestinationFileName={}", hbmDoc.getName(), fileName + Constants.FILE_ENDS_WITH_ORM_EXT);
         } catch (Exception e) {
             throw new FileConversionException("File conversion fail", e);
         }
         return t;
     }
 
+    /**
+     * Renders the ORM file of a .hbm file without named queries. The ORM file has no mapping.
+     *
+     * @param packageName The package of the mappings of the .hbm file, may be null.
+     * @param sourceFile  The name of the .hbm file.
+     * @param fileName    The name of the converted file.
+     * @return Template of the converted file.
+     */
+    @Override
+    public StringTemplate convertEmpty(String packageName, String sourceFile, String fileName) {
+        return render(new EntityMappings(packageName, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(),
+                new ArrayList<>(), new ArrayList<>()));
+    }
+
+    /**
+     * Returns the names of the elements which are converted, the named queries.
+     * Every file is parsed when the class mappings are converted too, as nearly every file has some.
+     *
+     * @return The element names, an empty list when the class mappings are converted.
+     */
+    @Override
+    public List<String> getScannedElements() {
+        return context.getInputModel().isConvertEntities() ? Collections.emptyList() : Converter.super.getScannedElements();
+    }
+
+    /**
+     * Extracts the mappings of the .hbm file for the conversion run:
+     * <ul>
+     * <li>the cache settings and batch sizes are collected for the cache and fetch properties,</li>
+     * <li>the issues found are added to the conversion report,</li>
+     * <li>the check of the queries is scheduled on the query linter,</li>
+     * <li>the queries are staged for the query catalog until the converted file is written.</li>
+     * </ul>
+     *
+     * @param hbmDoc XML Document parsed from the .hbm file.
+     * @return The extracted mappings.
+     */
+    public EntityMappings collectEntityMappings(Document hbmDoc) {
+        EntityMappings entityMappings = getEntityMappings(hbmDoc);
+        entityMappings.getIssues().addAll(context.getCacheConfigWriter().add(hbmDoc.getName(), entityMappings));
+        entityMappings.getIssues().addAll(context.getFetchConfigWriter().add(hbmDoc.getName(), entityMappings));
+        context.getConversionReport().addIssues(entityMappings.getIssues());
+        context.getQueryLinter().lint(hbmDoc.getName(), entityMappings);
+        context.getQueryCatalogBuilder().stage(entityMappings);
+        return entityMappings;
+    }
+
+    /**
+     * Extracts everything that is converted from the .hbm file into an EntityMappings model.
+     * The queries and entities are sorted by name, so that the converted file does not depend on the order of the
+     * elements in the .hbm file. Elements of the same name keep their order.
+     *
+     * @param hbmDoc XML Document parsed from the .hbm file.
+     * @return The extracted mappings, with the issues found while extracting them.
+     */
+    public EntityMappings getEntityMappings(Document hbmDoc) {
+        ArrayList<ConversionIssue> issues = new ArrayList<>();
+        ArrayList<NamedQuery> namedQueries = getNamedQueries(hbmDoc, issues);
+        namedQueries.sort(Comparator.comparing(NamedQuery::getName, NAME_ORDER));
+        ArrayList<NamedNativeQuery> namedNativeQueries = getNamedNativeQueries(hbmDoc, issues);
+        namedNativeQueries.sort(Comparator.comparing(NamedNativeQuery::getName, NAME_ORDER));
+        ArrayList<Entity> entities = context.getInputModel().isConvertEntities() ? entityExtractor.getEntities(hbmDoc, issues) : new ArrayList<>();
+        entities.sort(Comparator.comparing(Entity::getClassName, NAME_ORDER));
+        return new EntityMappings(hbmDoc.getRootElement().attributeValue(Constants.PACKAGE), namedQueries,
+                namedNativeQueries, getSqlResultSetMappings(namedNativeQueries), entities, issues);
+    }
+
+    /**
+     * Renders an EntityMappings model into an ORM file template, as one of the output targets of a run.
+     *
+     * @param entityMappings The mappings extracted from a .hbm file.
+     * @param sourceFile     The name of the .hbm file, not part of the ORM file.
+     * @param fileName       The name of the converted file.
+     * @return Template of the ORM file.
+     */
+    @Override
+    public StringTemplate render(EntityMappings entityMappings, String sourceFile, String fileName) {
+        return render(entityMappings);
+    }
+
+    /**
+     * Renders an EntityMappings model into an ORM file template.
+     *
+     * @param entityMappings The mappings extracted from a .hbm file.
+     * @return Template of the ORM file.
+     */
+    public StringTemplate render(EntityMappings entityMappings) {
+        StringTemplateGroup templates = fileHelper.getTemplateGroup("OrmFile");
+        StringTemplate t = templates.getInstanceOf("OrmFile");
+        t.setAttribute(Constants.NAMED_QUERIES, entityMappings.getNamedQueries());
+        t.setAttribute(Constants.NAMED_NATIVE_QUERIES, entityMappings.getNamedNativeQueries());
+        t.setAttribute(Constants.PACKAGE, entityMappings.getPackageName());
+        t.setAttribute(Constants.SQL_RESULT_SET_MAPPINGS, entityMappings.getSqlResultSetMappings());
+        t.setAttribute(Constants.ENTITIES, entityMappings.getEntities());
+        return t;
+    }
+
     /**
      * Retrieves all NamedQuery from .hbm file.
      *
@@ -82,10 +201,23 @@ public class HbmToJpaConverter implements Converter {
      * @return ArrayList containing all named query objects.
      */
     public ArrayList<NamedQuery> getNamedQueries(Document hbmDoc) {
+        return getNamedQueries(hbmDoc, new ArrayList<>());
+    }
+
+    /**
+     * Retrieves all NamedQuery from .hbm file, with the hints carrying the attributes of the queries.
+     *
+     * @param hbmDoc XML-Document to fetch the NamedQueries from.
+     * @param issues List the query attributes without hint are added to.
+     * @return ArrayList containing all named query objects.
+     */
+    public ArrayList<NamedQuery> getNamedQueries(Document hbmDoc, List<ConversionIssue> issues) {
         ArrayList<NamedQuery> namedQueries = new ArrayList<>();
         if (namedQueries.isEmpty()) {
             hbmDoc.getRootElement().elements(Constants.QUERY).forEach(sqlQueryElement -> {
-                namedQueries.add(new NamedQuery(sqlQueryElement.attributeValue(Constants.NAME), sqlQueryElement.getText().trim().toString()));
+                NamedQuery namedQuery = new NamedQuery(sqlQueryElement.attributeValue(Constants.NAME), getQueryText(sqlQueryElement, hbmDoc.getName(), issues));
+                namedQuery.getHints().addAll(queryHintExtractor.getHints(sqlQueryElement, hbmDoc.getName(), issues));
+                namedQueries.add(namedQuery);
             });
         }
         return namedQueries;
@@ -98,17 +230,34 @@ public class HbmToJpaConverter implements Converter {
      * @return ArrayList containing all NamedNativeQuery objects.
      */
     public ArrayList<NamedNativeQuery> getNamedNativeQueries(Document hbmDoc) {
+        return getNamedNativeQueries(hbmDoc, new ArrayList<>());
+    }
+
+    /**
+     * Retrieves all NamedNativeQuery objects from the .hbm file, with the hints carrying the attributes of the queries.
+     * A query returning scalars, several entities or entities with property columns gets a result set mapping of its
+     * entity and column results, a query returning a single entity gets a result class.
+     *
+     * @param hbmDoc XML Document parsed from the .hbm file.
+     * @param issues List the query attributes without hint and the returns which cannot be converted are added to.
+     * @return ArrayList containing all NamedNativeQuery objects.
+     */
+    public ArrayList<NamedNativeQuery> getNamedNativeQueries(Document hbmDoc, List<ConversionIssue> issues) {
         ArrayList<NamedNativeQuery> nativeNamedQueries = new ArrayList<>();
         if (nativeNamedQueries.isEmpty()) {
             AtomicInteger index = new AtomicInteger();
             hbmDoc.getRootElement().elements(Constants.SQL_QUERY).forEach(sqlQueryElement -> {
                 int currentIndex = index.getAndIncrement();
-                nativeNamedQueries.add(new NamedNativeQuery(sqlQueryElement.attributeValue(Constants.NAME), sqlQueryElement.getText().trim().toString(),
-                        (sqlQueryElement.element(Constants.RETURN_TAG) != null) ? ((sqlQueryElement.element(Constants.RETURN_TAG)).attributeValue(Constants.CLASS_TAG)) : "",
-                        (sqlQueryElement.element(Constants.RETURN_SCALAR) != null) ? (sqlQueryElement.attributeValue(Constants.NAME) + Constants.MAPPING) : ""));
+                List<EntityResult> entityResults = entityResultExtractor.getEntityResults(sqlQueryElement, hbmDoc.getName(), issues);
+                boolean mapped = sqlQueryElement.element(Constants.RETURN_SCALAR) != null || !entityResults.isEmpty();
+                nativeNamedQueries.add(new NamedNativeQuery(sqlQueryElement.attributeValue(Constants.NAME), getQueryText(sqlQueryElement, hbmDoc.getName(), issues),
+                        (!mapped && sqlQueryElement.element(Constants.RETURN_TAG) != null) ? ((sqlQueryElement.element(Constants.RETURN_TAG)).attributeValue(Constants.CLASS_TAG)) : "",
+                        mapped ? (sqlQueryElement.attributeValue(Constants.NAME) + Constants.MAPPING) : ""));
+                nativeNamedQueries.get(currentIndex).getHints().addAll(queryHintExtractor.getHints(sqlQueryElement, hbmDoc.getName(), issues));
 
-                if (sqlQueryElement.element(Constants.RETURN_SCALAR) != null) {
+                if (mapped) {
                     SqlResultSetMapping sqlResultSetMapping = new SqlResultSetMapping(sqlQueryElement.attributeValue(Constants.NAME) + Constants.MAPPING, getColumnResults(sqlQueryElement));
+                    sqlResultSetMapping.getEntityResults().addAll(entityResults);
                     nativeNamedQueries.get(currentIndex).setResultSetMappings(sqlResultSetMapping);
                 }
             });
@@ -117,6 +266,29 @@ public class HbmToJpaConverter implements Converter {
         return nativeNamedQueries;
     }
 
+    /**
+     * Returns the text of a query element, normalized when the run normalizes the query texts. A text which cannot be
+     * normalized safely is kept as written and reported.
+     *
+     * @param queryElement The query or sql-query element.
+     * @param sourceFile   The name of the .hbm file, used in issues.
+     * @param issues       List the texts which cannot be normalized are added to.
+     * @return The query text.
+     */
+    private String getQueryText(Element queryElement, String sourceFile, List<ConversionIssue> issues) {
+        String query = queryElement.getText().trim();
+        if (!context.getInputModel().isNormalizeQueries()) {
+            return query;
+        }
+        String normalized = queryTextNormalizer.normalize(query);
+        if (normalized == null) {
+            issues.add(new ConversionIssue(sourceFile, queryElement.getName(), queryElement.attributeValue(Constants.NAME),
+                    "Query text cannot be normalized safely, it is kept as written"));
+            return query;
+        }
+        return normalized;
+    }
+
     /**
      * Retrieves SqlResultSetMappings objects from the given NamedNativeQuery.
      *
@@ -0,0 +1,139 @@
+package com.intuit.hbm.converters.converter;
+
+import com.intuit.hbm.converters.common.Constants;
+import com.intuit.hbm.converters.exception.FileConversionException;
+import com.intuit.hbm.converters.helper.FileHelper;
+import com.intuit.hbm.converters.model.EntityMappings;
+import lombok.extern.slf4j.Slf4j;
+import org.antlr.stringtemplate.StringTemplate;
+import org.antlr.stringtemplate.StringTemplateGroup;
+import org.dom4j.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class responsible for converting a Hibernate XML mapping file (.hbm) of named query to the Java source of a
+ * class registering the same named queries through {@code EntityManagerFactory.addNamedQuery}.
+ * Applications calling the generated class load their query metadata as compiled code instead of parsing an ORM file.
+ * The queries are extracted into the same model as the ORM file by {@link HbmToJpaConverter}.
+ */
+@Slf4j
+public class JavaRegistryConverter implements Converter {
+    // Suffix of the generated class names
+    private static final String CLASS_NAME_SUFFIX = "NamedQueries";
+    private FileHelper fileHelper;
+    private HbmToJpaConverter hbmToJpaConverter;
+
+    /**
+     * A Constructor of JavaRegistryConverter.
+     *
+     * @param fileHelper        Specifies the current file reader
+     * @param hbmToJpaConverter Extracts the mappings from the parsed .hbm files
+     */
+    public JavaRegistryConverter(FileHelper fileHelper, HbmToJpaConverter hbmToJpaConverter) {
+        this.fileHelper = fileHelper;
+        this.hbmToJpaConverter = hbmToJpaConverter;
+    }
+
+    /**
+     * Converts .hbm file to the Java source of a named query registry using a string template.
+     *
+     * @param hbmDoc            XML Document parsed from the .hbm file.
+     * @param fileName          The name of the .hbm file.
+     * @param destDirectoryPath Destination directory path for the generated file.
+     * @return Template of the generated Java source.
+     * @throws FileConversionException if error occurs while parsing the .hbm file.
+     */
+    @Override
+    public StringTemplate convertFile(Document hbmDoc, String fileName, String destDirectoryPath) {
+        log.debug("Event=HbmToJpaConversion SubEvent=convertFile Status=Started SourceFileName={}", hbmDoc.getName());
+        try {
+            StringTemplate t = render(hbmToJpaConverter.collectEntityMappings(hbmDoc), hbmDoc.getName(), fileName);
+            log.debug("Event=HbmToJpaConversion SubEvent=convertFile Status=Done SourceFileName={} DestinationFileName={}", hbmDoc.getName(), getOutputFileName(fileName) + getFileExtension());
+            return t;
+        } catch (Exception e) {
+            throw new FileConversionException("File conversion fail", e);
+        }
+    }
+
+    /**
+     * Renders the Java source of a named query registry for a .hbm file without named queries.
+     * The generated class registers no query.
+     *
+     * @param packageName The package of the mappings of the .hbm file, may be null.
+     * @param sourceFile  The name of the .hbm file.
+     * @param fileName    The name of the .hbm file without extension.
+     * @return Template of the generated Java source.
+     */
+    @Override
+    public StringTemplate convertEmpty(String packageName, String sourceFile, String fileName) {
+        return render(new EntityMappings(packageName, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(),
+                new ArrayList<>(), new ArrayList<>()), sourceFile, fileName);
+    }
+
+    /**
+     * Renders an EntityMappings model into the Java source of a named query registry.
+     *
+     * @param entityMappings The mappings extracted from a .hbm file.
+     * @param sourceFile     The name of the .hbm file, mentioned in the generated documentation.
+     * @param fileName       The name of the .hbm file without extension.
+     * @return Template of the generated Java source.
+     */
+    @Override
+    public StringTemplate render(EntityMappings entityMappings, String sourceFile, String fileName) {
+        StringTemplateGroup templates = fileHelper.getTemplateGroup("JavaRegistry");
+        templates.registerRenderer(String.class, new JavaSourceRenderer());
+        StringTemplate t = templates.getInstanceOf("JavaRegistry");
+        t.setAttribute(Constants.PACKAGE, entityMappings.getPackageName());
+        t.setAttribute("className", getOutputFileName(fileName));
+        t.setAttribute("sourceFile", sourceFile);
+        t.setAttribute(Constants.NAMED_QUERIES, entityMappings.getNamedQueries());
+        t.setAttribute(Constants.NAMED_NATIVE_QUERIES, entityMappings.getNamedNativeQueries());
+        return t;
+    }
+
+    /**
+     * Returns the names of the elements which are converted, the ones of the converter extracting the mappings.
+     *
+     * @return The element names.
+     */
+    @Override
+    public List<String> getScannedElements() {
+        return hbmToJpaConverter.getScannedElements();
+    }
+
+    /**
+     * Returns the name of the generated class, which is also the name of the generated file.
+     *
+     * @param fileName The name of the .hbm file without extension.
+     * @return The file name turned into a Java class name, followed by "NamedQueries".
+     */
+    @Override
+    public String getOutputFileName(String fileName) {
+        StringBuilder className = new StringBuilder();
+        boolean upperCase = true;
+        for (char c : fileName.toCharArray()) {
+            if (Character.isJavaIdentifierPart(c)) {
+                className.append(upperCase ? Character.toUpperCase(c) : c);
+                upperCase = false;
+            } else {
+                upperCase = true;
+            }
+        }
+        if (className.length() == 0 || !Character.isJavaIdentifierStart(className.charAt(0))) {
+            className.insert(0, '_');
+        }
+        return className.append(CLASS_NAME_SUFFIX).toString();
+    }
+
+    /**
+     * Returns the extension of the generated file.
+     *
+     * @return ".java"
+     */
+    @Override
+    public String getFileExtension() {
+        return Constants.FILE_ENDS_WITH_JAVA_EXT;
+    }
+}
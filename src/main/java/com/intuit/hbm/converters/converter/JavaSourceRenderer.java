@@ -0,0 +1,91 @@
+package com.intuit.hbm.converters.converter;
+
+import org.antlr.stringtemplate.AttributeRenderer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Renders string attributes of the Java source templates.
+ * Supports the formats "java", which renders the content of a Java string literal,
+ * and "scalarType", which renders the Hibernate type argument of a scalar column for a Java type.
+ */
+public class JavaSourceRenderer implements AttributeRenderer {
+    private static final Map<String, String> SCALAR_TYPES;
+
+    static {
+        SCALAR_TYPES = new HashMap<>();
+        SCALAR_TYPES.put("java.lang.String", "STRING");
+        SCALAR_TYPES.put("java.lang.Integer", "INTEGER");
+        SCALAR_TYPES.put("java.lang.Long", "LONG");
+        SCALAR_TYPES.put("java.lang.Double", "DOUBLE");
+        SCALAR_TYPES.put("java.lang.Boolean", "BOOLEAN");
+        SCALAR_TYPES.put("java.math.BigDecimal", "BIG_DECIMAL");
+        // Add more mappings as necessary
+    }
+
+    /**
+     * Renders an attribute without format.
+     *
+     * @param o The attribute value.
+     * @return The string value of the attribute.
+     */
+    @Override
+    public String toString(Object o) {
+        return String.valueOf(o);
+    }
+
+    /**
+     * Renders an attribute in the given format.
+     *
+     * @param o          The attribute value.
+     * @param formatName "java" or "scalarType".
+     * @return The rendered attribute.
+     */
+    @Override
+    public String toString(Object o, String formatName) {
+        String value = String.valueOf(o);
+        switch (formatName) {
+            case "java":
+                return escapeJava(value);
+            case "scalarType":
+                String type = SCALAR_TYPES.get(value);
+                return type == null ? "" : ", org.hibernate.type.StandardBasicTypes." + type;
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * Escapes a value so that it can be placed between the quotes of a Java string literal.
+     *
+     * @param value The value to escape.
+     * @return The escaped value.
+     */
+    private static String escapeJava(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 16);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+}
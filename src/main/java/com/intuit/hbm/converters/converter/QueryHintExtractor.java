@@ -0,0 +1,121 @@
+package com.intuit.hbm.converters.converter;
+
+import com.intuit.hbm.converters.common.Constants;
+import com.intuit.hbm.converters.model.ConversionIssue;
+import com.intuit.hbm.converters.model.QueryHint;
+import org.dom4j.Attribute;
+import org.dom4j.Element;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Extracts the hints of a named query from the attributes of its hbm query or sql-query element.
+ * The settings Hibernate applies to a named query, such as caching, fetch size, timeout or flush mode, have no
+ * dedicated element in the JPA ORM mapping and are carried as query hints understood by Hibernate.
+ * Every attribute which has no hint, or whose value cannot be carried, is reported as a {@link ConversionIssue}.
+ */
+public class QueryHintExtractor {
+    // Hints of the query attributes, in the order they are rendered
+    private static final Map<String, String> HINTS = new LinkedHashMap<>();
+    // Converts the value of an attribute into the value of its hint, null if the value is invalid
+    private static final Map<String, UnaryOperator<String>> VALUES = new HashMap<>();
+    // Hibernate flush modes of the hbm flush-mode values
+    private static final Map<String, String> FLUSH_MODES = new HashMap<>();
+    private static final Set<String> CACHE_MODES = new HashSet<>(Arrays.asList("get", "ignore", "normal", "put", "refresh"));
+
+    static {
+        HINTS.put(Constants.CACHEABLE, "org.hibernate.cacheable");
+        HINTS.put(Constants.CACHE_REGION, "org.hibernate.cacheRegion");
+        HINTS.put(Constants.CACHE_MODE, "org.hibernate.cacheMode");
+        HINTS.put(Constants.FETCH_SIZE, "org.hibernate.fetchSize");
+        HINTS.put(Constants.TIMEOUT, "javax.persistence.query.timeout");
+        HINTS.put(Constants.READ_ONLY, "org.hibernate.readOnly");
+        HINTS.put(Constants.FLUSH_MODE, "org.hibernate.flushMode");
+        HINTS.put(Constants.COMMENT, "org.hibernate.comment");
+        HINTS.put(Constants.CALLABLE, "org.hibernate.callable");
+
+        FLUSH_MODES.put("auto", "AUTO");
+        FLUSH_MODES.put("always", "ALWAYS");
+        FLUSH_MODES.put("commit", "COMMIT");
+        FLUSH_MODES.put("manual", "MANUAL");
+        FLUSH_MODES.put("never", "MANUAL");
+
+        VALUES.put(Constants.CACHEABLE, QueryHintExtractor::toBoolean);
+        VALUES.put(Constants.CACHE_MODE, value -> CACHE_MODES.contains(value) ? value.toUpperCase(Locale.ROOT) : null);
+        VALUES.put(Constants.FETCH_SIZE, value -> toInteger(value, 1));
+        // hbm timeouts are in seconds, the JPA timeout hint is in milliseconds
+        VALUES.put(Constants.TIMEOUT, value -> toInteger(value, 1000));
+        VALUES.put(Constants.READ_ONLY, QueryHintExtractor::toBoolean);
+        VALUES.put(Constants.FLUSH_MODE, FLUSH_MODES::get);
+        VALUES.put(Constants.CALLABLE, QueryHintExtractor::toBoolean);
+    }
+
+    /**
+     * Retrieves the hints of a query from the attributes of its element.
+     *
+     * @param queryElement The query or sql-query element.
+     * @param sourceFile   The name of the .hbm file, for the issues.
+     * @param issues       List the attributes without hint are added to.
+     * @return The hints, in a fixed order whatever the order of the attributes.
+     */
+    public List<QueryHint> getHints(Element queryElement, String sourceFile, List<ConversionIssue> issues) {
+        String queryName = queryElement.attributeValue(Constants.NAME);
+        for (Attribute attribute : queryElement.attributes()) {
+            String name = attribute.getName();
+            if (!Constants.NAME.equals(name) && !HINTS.containsKey(name)) {
+                issues.add(new ConversionIssue(sourceFile, queryElement.getName(), queryName,
+                        "Attribute " + name + " has no JPA query hint"));
+            }
+        }
+        List<QueryHint> hints = new ArrayList<>();
+        for (Map.Entry<String, String> hint : HINTS.entrySet()) {
+            String value = queryElement.attributeValue(hint.getKey());
+            if (value == null) {
+                continue;
+            }
+            String hintValue = VALUES.getOrDefault(hint.getKey(), UnaryOperator.identity()).apply(value.trim());
+            if (hintValue == null) {
+                issues.add(new ConversionIssue(sourceFile, queryElement.getName(), queryName,
+                        "Attribute " + hint.getKey() + "=\"" + value + "\" has no JPA query hint value"));
+            } else {
+                hints.add(new QueryHint(hint.getValue(), hintValue));
+            }
+        }
+        return hints;
+    }
+
+    /**
+     * Converts a boolean attribute value.
+     *
+     * @param value The attribute value.
+     * @return "true" or "false", null if the value is not a boolean.
+     */
+    private static String toBoolean(String value) {
+        return "true".equals(value) || "false".equals(value) ? value : null;
+    }
+
+    /**
+     * Converts a non-negative integer attribute value, scaled to the unit of the hint.
+     *
+     * @param value The attribute value.
+     * @param scale The factor converting the unit of the attribute to the unit of the hint.
+     * @return The scaled value, null if the value is not a non-negative integer or too large once scaled.
+     */
+    private static String toInteger(String value, int scale) {
+        try {
+            long scaled = Long.parseLong(value) * scale;
+            return scaled < 0 || scaled > Integer.MAX_VALUE ? null : String.valueOf(scaled);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.intuit.hbm.converters.converter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * QueryTextNormalizer shrinks the text of a named query: every run of whitespace and comments is collapsed into a
+ * single space, while string literals, quoted identifiers and optimizer hints are kept as they are written.
+ * <p>
+ * The normalized text is only used when it tokenizes as the original text does, which guards the collapsing against
+ * dropping or joining tokens. Both texts are scanned with the same rules, so the check cannot catch a quoting the
+ * scanner does not know: a text using the quoting or comments of a single database, such as backtick, bracket or
+ * dollar quoted text or # comments, is not normalized. Neither is a text which cannot be scanned safely, such as an
+ * unterminated literal or a literal with backslash escapes.
+ */
+public class QueryTextNormalizer {
+    private static final String BLOCK_COMMENT = "/*";
+    private static final String LINE_COMMENT = "--";
+    private static final char HINT = '+';
+    // Quotes and comments of a single database, whose content the scanner would take for whitespace or tokens
+    private static final String[] UNKNOWN_QUOTES = {"`", "[", "$$", "#"};
+
+    /**
+     * Normalizes the text of a query.
+     *
+     * @param query The query text.
+     * @return The normalized text, or null if the text cannot be normalized safely, such as a text using a quoting
+     * the scanner does not know.
+     */
+    public String normalize(String query) {
+        for (String quote : UNKNOWN_QUOTES) {
+            if (query.contains(quote)) {
+                return null;
+            }
+        }
+        StringBuilder normalized = new StringBuilder(query.length());
+        boolean separated = false;
+        int position = 0;
+        while (position < query.length()) {
+            char c = query.charAt(position);
+            int next;
+            if (c == '\'' || c == '"') {
+                next = skipQuoted(query, position);
+                if (next < 0) {
+                    return null;
+                }
+            } else if (query.startsWith(BLOCK_COMMENT, position) || query.startsWith(LINE_COMMENT, position)) {
+                next = skipComment(query, position);
+                if (next < 0) {
+                    return null;
+                }
+                if (!isHint(query, position)) {
+                    separated = true;
+                    position = next;
+                    continue;
+                }
+            } else if (Character.isWhitespace(c)) {
+                separated = true;
+                position++;
+                continue;
+            } else {
+                next = position + 1;
+            }
+            if (separated && normalized.length() > 0 && normalized.charAt(normalized.length() - 1) != '\n') {
+                normalized.append(' ');
+            }
+            normalized.append(query, position, next);
+            if (query.startsWith(LINE_COMMENT, position)) {
+                // a line hint ends with its line
+                normalized.append('\n');
+            }
+            separated = false;
+            position = next;
+        }
+        String result = normalized.toString().trim();
+        List<String> tokens = tokenize(query);
+        return tokens != null && tokens.equals(tokenize(result)) ? result : null;
+    }
+
+    /**
+     * Splits a query text into its tokens, dropping whitespace and comments.
+     *
+     * @param query The query text.
+     * @return The tokens, or null if the text cannot be scanned safely.
+     */
+    List<String> tokenize(String query) {
+        List<String> tokens = new ArrayList<>();
+        int position = 0;
+        while (position < query.length()) {
+            char c = query.charAt(position);
+            int next;
+            if (c == '\'' || c == '"') {
+                next = skipQuoted(query, position);
+            } else if (query.startsWith(BLOCK_COMMENT, position) || query.startsWith(LINE_COMMENT, position)) {
+                next = skipComment(query, position);
+                if (next >= 0 && !isHint(query, position)) {
+                    position = next;
+                    continue;
+                }
+            } else if (Character.isWhitespace(c)) {
+                position++;
+                continue;
+            } else {
+                next = position + 1;
+                while (isWordPart(c) && next < query.length() && isWordPart(query.charAt(next))) {
+                    next++;
+                }
+            }
+            if (next < 0) {
+                return null;
+            }
+            tokens.add(query.substring(position, next));
+            position = next;
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the offset following a literal or a quoted identifier, whose quote is escaped by doubling it.
+     *
+     * @param query    The query text.
+     * @param position The offset of the opening quote.
+     * @return The offset following the closing quote, or -1 if it is missing or the text uses backslash escapes.
+     */
+    private static int skipQuoted(String query, int position) {
+        char quote = query.charAt(position);
+        for (int i = position + 1; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (c == '\\') {
+                return -1;
+            }
+            if (c == quote) {
+                if (i + 1 < query.length() && query.charAt(i + 1) == quote) {
+                    i++;
+                } else {
+                    return i + 1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the offset following a block or line comment.
+     *
+     * @param query    The query text.
+     * @param position The offset the comment starts at.
+     * @return The offset following the comment, the line break of a line comment excluded, or -1 if a block comment
+     * is not closed.
+     */
+    private static int skipComment(String query, int position) {
+        if (query.startsWith(BLOCK_COMMENT, position)) {
+            int end = query.indexOf("*/", position + BLOCK_COMMENT.length());
+            return end < 0 ? -1 : end + 2;
+        }
+        int end = query.indexOf('\n', position);
+        return end < 0 ? query.length() : end;
+    }
+
+    /**
+     * Returns whether the comment starting at the given offset is an optimizer hint, such as /*+ INDEX(...) *&#47;.
+     *
+     * @param query    The query text.
+     * @param position The offset the comment starts at.
+     * @return true if the comment is a hint.
+     */
+    private static boolean isHint(String query, int position) {
+        return position + 2 < query.length() && query.charAt(position + 2) == HINT;
+    }
+
+    /**
+     * Returns whether a character is part of a word: an identifier, a keyword, a number or a parameter name.
+     *
+     * @param c The character.
+     * @return true if the character continues a word.
+     */
+    private static boolean isWordPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+}
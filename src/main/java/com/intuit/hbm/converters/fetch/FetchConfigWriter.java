@@ -0,0 +1,186 @@
+package com.intuit.hbm.converters.fetch;
+
+import com.intuit.hbm.converters.common.Constants;
+import com.intuit.hbm.converters.common.PropertiesConfigWriter;
+import com.intuit.hbm.converters.model.ConversionIssue;
+import com.intuit.hbm.converters.model.Entity;
+import com.intuit.hbm.converters.model.EntityMappings;
+import com.intuit.hbm.converters.model.OneToManyMapping;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * FetchConfigWriter collects the batch sizes of the converted class and collection mappings.
+ * <p>
+ * The ORM file has no batch size: Hibernate only batches the loading of the proxies and collections of a persistence
+ * unit as a whole, with the hibernate.default_batch_fetch_size property. The largest batch size of the run is written
+ * as this property to a properties file for the persistence unit when the run is closed, together with the batch size
+ * of every mapping for review, merged with the batch sizes of the files which were not converted in this run. As no
+ * single property is equivalent to the batch sizes of the mappings, each of them is
+ * reported as a conversion issue, saying whether it is carried by the properties file.
+ */
+@Slf4j
+public class FetchConfigWriter extends PropertiesConfigWriter {
+    public static final String DEFAULT_BATCH_FETCH_SIZE = "hibernate.default_batch_fetch_size";
+    private static final String BATCH_SIZE_PREFIX = "#   ";
+
+    /**
+     * Creates a FetchConfigWriter.
+     *
+     * @param configPath The path of the fetch properties file, or null to report the batch sizes as lost.
+     */
+    public FetchConfigWriter(String configPath) {
+        super(configPath, "fetch properties");
+    }
+
+    /**
+     * Adds the batch sizes of the entities extracted from a file.
+     *
+     * @param sourceFile     The name of the source file, used in the issues.
+     * @param entityMappings The mappings extracted from the file.
+     * @return The issues about the batch sizes, none of which is carried over exactly.
+     */
+    public List<ConversionIssue> add(String sourceFile, EntityMappings entityMappings) {
+        List<ConversionIssue> issues = new ArrayList<>();
+        addSource(sourceFile);
+        for (Entity entity : entityMappings.getEntities()) {
+            String className = qualify(entityMappings.getPackageName(), entity.getClassName());
+            if (entity.getBatchSize() != null) {
+                add(sourceFile, Constants.CLASS_TAG, entity.getClassName(), className, entity.getBatchSize(), issues);
+            }
+            for (OneToManyMapping oneToMany : entity.getOneToManyMappings()) {
+                if (oneToMany.getBatchSize() != null) {
+                    add(sourceFile, Constants.ONE_TO_MANY, entity.getClassName() + "." + oneToMany.getName(),
+                            className + "." + oneToMany.getName(), oneToMany.getBatchSize(), issues);
+                }
+            }
+        }
+        return issues;
+    }
+
+    /**
+     * Adds the batch size of a class or collection.
+     *
+     * @param sourceFile The name of the source file.
+     * @param element    The hbm element declaring the batch size.
+     * @param name       The name of the class or collection, used in the issues.
+     * @param role       The qualified name of the class or collection.
+     * @param batchSize  The batch size.
+     * @param issues     List the issues are added to.
+     */
+    private void add(String sourceFile, String element, String name, String role, int batchSize, List<ConversionIssue> issues) {
+        addProperty(sourceFile, role, String.valueOf(batchSize));
+        if (isEnabled()) {
+            issues.add(new ConversionIssue(sourceFile, element, name, "batch-size=\"" + batchSize
+                    + "\" is approximated by " + DEFAULT_BATCH_FETCH_SIZE + ", which applies the largest batch size to every mapping"));
+        } else {
+            issues.add(new ConversionIssue(sourceFile, element, name, "batch-size=\"" + batchSize
+                    + "\" is lost, it is only approximated by the properties written with --fetch-config"));
+        }
+    }
+
+    /**
+     * Takes the largest batch size of a mapping declared more than once.
+     *
+     * @param previous The batch size added first.
+     * @param value    The batch size added last.
+     * @return The largest batch size.
+     */
+    @Override
+    protected String mergeValues(String previous, String value) {
+        return String.valueOf(Math.max(Integer.parseInt(previous), Integer.parseInt(value)));
+    }
+
+    /**
+     * Returns the collected batch sizes.
+     *
+     * @return The batch sizes by qualified class or collection name, sorted by name.
+     */
+    public Map<String, Integer> getBatchSizes() {
+        Map<String, Integer> batchSizes = new TreeMap<>();
+        getProperties().forEach((role, batchSize) -> batchSizes.put(role, Integer.valueOf(batchSize)));
+        return batchSizes;
+    }
+
+    /**
+     * Returns the default batch fetch size suggested for the persistence unit.
+     *
+     * @return The largest batch size of the run, or null if no mapping is batched.
+     */
+    public Integer getDefaultBatchFetchSize() {
+        return getDefaultBatchFetchSize(getProperties());
+    }
+
+    /**
+     * Returns the largest of the batch sizes.
+     *
+     * @param batchSizes The batch sizes by qualified class or collection name.
+     * @return The largest batch size, or null if there is none.
+     */
+    private static Integer getDefaultBatchFetchSize(Map<String, String> batchSizes) {
+        return batchSizes.values().stream().map(Integer::valueOf).max(Integer::compare).orElse(null);
+    }
+
+    /**
+     * Logs the suggested default batch fetch size and the number of batched mappings.
+     *
+     * @param properties The batch sizes of every file by qualified class or collection name.
+     * @param keptCount  The number of source files whose batch sizes were kept from the existing file.
+     */
+    @Override
+    protected void logProperties(Map<String, String> properties, int keptCount) {
+        log.info("Event=HbmToJpaConversion SubEvent=FetchConfig BatchedMappings={} DefaultBatchFetchSize={} KeptFilesCount={} ConfigFile={}",
+                properties.size(), getDefaultBatchFetchSize(properties), keptCount, getConfigPath());
+    }
+
+    /**
+     * Writes the comment of the file and the default batch fetch size, when a batched mapping was converted. The
+     * batch size of every mapping follows as a comment.
+     *
+     * @param writer     The writer of the properties file.
+     * @param properties The batch sizes of every file by qualified class or collection name.
+     * @throws IOException if the file cannot be written.
+     */
+    @Override
+    protected void writeHeader(Writer writer, Map<String, String> properties) throws IOException {
+        writer.write("# Batch fetching of the converted hbm mappings, to add to the properties of the persistence unit.\n");
+        if (!properties.isEmpty()) {
+            writer.write("# The largest batch size of the hbm mappings, applied by Hibernate to every lazy entity and collection.\n");
+            writer.write(DEFAULT_BATCH_FETCH_SIZE + "=" + getDefaultBatchFetchSize(properties) + "\n");
+            writer.write("# Batch sizes of the hbm mappings:\n");
+        }
+    }
+
+    /**
+     * Returns the comment line of the batch size of a mapping.
+     *
+     * @param name  The qualified name of the class or collection.
+     * @param value The batch size.
+     * @return The comment line.
+     */
+    @Override
+    protected String formatProperty(String name, String value) {
+        return BATCH_SIZE_PREFIX + name + "=" + value;
+    }
+
+    /**
+     * Reads the batch size of a mapping from its comment line.
+     *
+     * @param line The line of the properties file.
+     * @return The qualified name of the class or collection and its batch size, or null if the line is not a batch size.
+     */
+    @Override
+    protected String[] parseProperty(String line) {
+        int separator = line.lastIndexOf('=');
+        if (!line.startsWith(BATCH_SIZE_PREFIX) || separator < 0 || !line.substring(separator + 1).matches("\\d{1,9}")) {
+            return null;
+        }
+        return new String[]{line.substring(BATCH_SIZE_PREFIX.length(), separator), line.substring(separator + 1)};
+    }
+}
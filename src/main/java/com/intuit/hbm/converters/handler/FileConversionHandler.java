@@ -50,7 +50,7 @@ public class FileConversionHandler {
         try {
             File[] hbmFiles = fileHelper.getFiles(inputModel.getSrcDirectoryPath(), inputModel.getFileEndsWith());
             if (hbmFiles != null && hbmFiles.length > 0) {
-                List<Callable<Boolean>> tasks = taskBuilder.buildTasks(hbmFiles, inputModel.getDestDirPath(), inputModel.getConverterType());
+                List<Callable<Boolean>> tasks = taskBuilder.buildTasks(hbmFiles, inputModel.getDestDirPath(), inputModel.getConverterTypes());
                 taskExecutor.executeTasks(tasks);
             }
         } catch (Exception e) {
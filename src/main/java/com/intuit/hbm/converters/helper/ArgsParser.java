@@ -2,10 +2,21 @@ package com.intuit.hbm.converters.helper;
 
 import com.intuit.hbm.converters.model.InputModel;
 import com.intuit.hbm.converters.model.ConverterType;
+import com.intuit.hbm.converters.model.RunMode;
+import com.intuit.hbm.converters.model.SchedulingPolicy;
+import com.intuit.hbm.converters.model.WriteMode;
+import com.intuit.hbm.converters.shard.ShardSpec;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 /**
  * This class is used to parse arguments for the conversion process.
@@ -14,8 +25,18 @@ import java.io.File;
 @Slf4j
 public class ArgsParser {
 
+    private static final String OPTION_PREFIX = "--";
+    private static final String MANIFEST_OPTION = OPTION_PREFIX + "manifest=";
+    // Options naming a file written by the run, which every job of a manifest writes to its own file
+    private static final List<String> OUTPUT_FILE_OPTIONS = Arrays.asList("journal", "report", "lint-report", "checkpoint",
+            "catalog", "cache-config", "fetch-config");
+
     /**
      * Parses input arguments and constructs an InputModel instance from them.
+     * Arguments starting with "--" are options, all the others are positional arguments.
+     * Without positional arguments, a --manifest option starts a run of the jobs listed in the manifest, each parsed
+     * with {@link #parseJobArgs}, and only the options are applied to the InputModel. The options naming a file
+     * written by the run are then given per job, as the jobs would write to the same file.
      * It validates the arguments before constructing the InputModel.
      * Also, logs the start and end of the parsing process.
      *
@@ -25,16 +46,77 @@ public class ArgsParser {
     public InputModel parseInputArgs(String[] args) {
         log.info("Event=HbmToJpaConversion SubEvent=ParseAndValidateArgs Status=Started");
 
+        List<String> positionalArgs = new ArrayList<>();
+        List<String> options = new ArrayList<>();
+        for (String arg : args) {
+            if (arg != null && arg.startsWith(OPTION_PREFIX)) {
+                options.add(arg);
+            } else {
+                positionalArgs.add(arg);
+            }
+        }
+        args = positionalArgs.toArray(new String[0]);
+
+        if (args.length == 0 && options.stream().anyMatch(option -> option.startsWith(MANIFEST_OPTION))) {
+            InputModel manifestModel = new InputModel(null, null, null, ConverterType.HBMToORM);
+            for (String option : options) {
+                if (OUTPUT_FILE_OPTIONS.contains(getOptionName(option))) {
+                    throw new IllegalArgumentException("Option --" + getOptionName(option)
+                            + " writes a file per job, it is given with the jobs of the manifest.");
+                }
+                applyOption(manifestModel, option);
+            }
+            log.info("Event=HbmToJpaConversion SubEvent=ParseAndValidateArgs Status=Done InputModel={}", manifestModel);
+            return manifestModel;
+        }
         validateMandatoryArgs(args);
-        validateFileLocation(args);
 
-        ConverterType converterType = getConverterType(args);
-        InputModel inputModel = new InputModel(args[0], args[1], args[2], converterType);
+        List<ConverterType> converterTypes = getConverterTypes(args);
+        InputModel inputModel = new InputModel(args[0], args[1], args[2], converterTypes);
+        for (String option : options) {
+            applyOption(inputModel, option);
+        }
+        if (inputModel.getManifestPath() != null) {
+            throw new IllegalArgumentException("Option --manifest replaces the source, extension and destination arguments.");
+        }
+        if (inputModel.getWriteMode() == WriteMode.MERGE) {
+            validateMergeLocation(args, converterTypes);
+        } else {
+            validateFileLocation(args);
+        }
+        if (inputModel.isResume() && inputModel.getCheckpointPath() == null) {
+            throw new IllegalArgumentException("Option --resume requires --checkpoint.");
+        }
 
         log.info("Event=HbmToJpaConversion SubEvent=ParseAndValidateArgs Status=Done InputModel={}", inputModel);
         return inputModel;
     }
 
+    /**
+     * Parses the arguments of a job of a manifest. The options of the command line apply to every job and are applied
+     * first, so that the options of the job override them.
+     *
+     * @param commandLineArgs The arguments of the command line, whose options are applied to the job.
+     * @param jobArgs         The arguments of the job, positional arguments and options.
+     * @return A InputModel object if the arguments are valid.
+     * @throws IllegalArgumentException if the arguments of the job are invalid or the job lists another manifest.
+     */
+    public InputModel parseJobArgs(String[] commandLineArgs, String[] jobArgs) {
+        List<String> args = new ArrayList<>();
+        for (String arg : commandLineArgs) {
+            if (arg != null && arg.startsWith(OPTION_PREFIX) && !arg.startsWith(MANIFEST_OPTION)) {
+                args.add(arg);
+            }
+        }
+        for (String arg : jobArgs) {
+            if (arg.startsWith(MANIFEST_OPTION)) {
+                throw new IllegalArgumentException("Option --manifest is not allowed in a manifest job.");
+            }
+            args.add(arg);
+        }
+        return parseInputArgs(args.toArray(new String[0]));
+    }
+
     /**
      * Validates the mandatory arguments including source path, extension, and destination path.
      * Throws an IllegalArgumentException if any of these arguments is missing.
@@ -65,18 +147,207 @@ public class ArgsParser {
     }
 
     /**
-     * Determines the ConverterType based on the arguments.
-     * If there are four arguments, it uses the fourth to determine the type.
+     * Validates the location of the source and destination files of a run merging into an orm file.
+     * Throws an IllegalArgumentException if the destination is not an existing file, if the source is neither a file
+     * nor a directory or if the run has another output target than orm files.
+     *
+     * @param args           An array of input arguments.
+     * @param converterTypes The output targets of the run.
+     */
+    private static void validateMergeLocation(String[] args, List<ConverterType> converterTypes) {
+        if (!converterTypes.equals(Collections.singletonList(ConverterType.HBMToORM))) {
+            throw new IllegalArgumentException("Write mode merge requires the HBMToORM converter.");
+        }
+        File src = new File(args[0]);
+        if (!new File(args[2]).isFile() || !(src.isFile() || src.isDirectory())) {
+            throw new IllegalArgumentException("Write mode merge requires an existing orm file as destination.");
+        }
+    }
+
+    /**
+     * Determines the output targets based on the arguments.
+     * If there are four arguments, the fourth is a comma separated list of types, such as
+     * "HBMToORM,HBMToJavaRegistry"; a type listed twice is converted once.
      * If there are less than four arguments, it defaults to HBMToORM.
      *
      * @param args An array of input arguments.
-     * @return The determined ConverterType.
+     * @return The determined ConverterTypes, in the order they are listed.
      */
-    private ConverterType getConverterType(String[] args) {
-        if (args.length == 4) {
-            return ConverterType.valueOf(args[4]);
-        } else {
-            return ConverterType.HBMToORM;
+    private List<ConverterType> getConverterTypes(String[] args) {
+        if (args.length != 4) {
+            return Collections.singletonList(ConverterType.HBMToORM);
+        }
+        Set<ConverterType> converterTypes = new LinkedHashSet<>();
+        for (String type : args[3].split(",")) {
+            converterTypes.add(ConverterType.valueOf(type.trim()));
+        }
+        return new ArrayList<>(converterTypes);
+    }
+
+    /**
+     * Applies an option of the form "--name" or "--name=value" to the InputModel.
+     * Throws an IllegalArgumentException if the option is unknown or its value is missing.
+     *
+     * @param inputModel The InputModel to update.
+     * @param option     The option argument.
+     */
+    private void applyOption(InputModel inputModel, String option) {
+        int separator = option.indexOf('=');
+        String name = getOptionName(option);
+        String value = separator < 0 ? null : option.substring(separator + 1);
+        switch (name) {
+            case "journal":
+                inputModel.setJournalPath(requireValue(name, value));
+                break;
+            case "verbose":
+                inputModel.setVerbose(true);
+                break;
+            case "report":
+                inputModel.setReportPath(requireValue(name, value));
+                break;
+            case "convert-entities":
+                inputModel.setConvertEntities(true);
+                break;
+            case "lint-report":
+                inputModel.setLintReportPath(requireValue(name, value));
+                break;
+            case "validate-output":
+                inputModel.setValidateOutput(true);
+                break;
+            case "verify":
+                inputModel.setRunMode(RunMode.VERIFY);
+                break;
+            case "checkpoint":
+                inputModel.setCheckpointPath(requireValue(name, value));
+                break;
+            case "resume":
+                inputModel.setResume(true);
+                break;
+            case "shard":
+                inputModel.setShardSpec(ShardSpec.parse(requireValue(name, value)));
+                break;
+            case "merge-shards":
+                inputModel.setRunMode(RunMode.MERGE_SHARDS);
+                break;
+            case "memory-budget":
+                inputModel.setMemoryBudgetMb((long) Math.ceil(requirePositive(name, value)));
+                break;
+            case "memory-factor":
+                inputModel.setMemoryExpansionFactor(requirePositive(name, value));
+                break;
+            case "file-timeout":
+                inputModel.setFileTimeoutMillis((long) Math.ceil(requirePositive(name, value) * 1000));
+                break;
+            case "run-timeout":
+                inputModel.setRunTimeoutMillis((long) Math.ceil(requirePositive(name, value) * 1000));
+                break;
+            case "batch-files":
+                inputModel.setBatchMaxFiles((int) Math.ceil(requirePositive(name, value)));
+                break;
+            case "batch-kb":
+                inputModel.setBatchMaxBytes((long) Math.ceil(requirePositive(name, value) * 1024));
+                break;
+            case "catalog":
+                inputModel.setCatalogPath(requireValue(name, value));
+                break;
+            case "cache-config":
+                inputModel.setCacheConfigPath(requireValue(name, value));
+                break;
+            case "fetch-config":
+                inputModel.setFetchConfigPath(requireValue(name, value));
+                break;
+            case "write-mode":
+                inputModel.setWriteMode(getWriteMode(requireValue(name, value)));
+                break;
+            case "skip-empty":
+                inputModel.setSkipEmpty(true);
+                break;
+            case "manifest":
+                inputModel.setManifestPath(requireValue(name, value));
+                break;
+            case "normalize-queries":
+                inputModel.setNormalizeQueries(true);
+                break;
+            case "schedule":
+                inputModel.setSchedulingPolicy(getSchedulingPolicy(requireValue(name, value)));
+                break;
+            case "schedule-history":
+                inputModel.setScheduleHistoryPath(requireValue(name, value));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option: " + option);
+        }
+    }
+
+    /**
+     * Returns the name of an option of the form "--name" or "--name=value".
+     *
+     * @param option The option argument.
+     * @return The name of the option.
+     */
+    private static String getOptionName(String option) {
+        int separator = option.indexOf('=');
+        return separator < 0 ? option.substring(OPTION_PREFIX.length()) : option.substring(OPTION_PREFIX.length(), separator);
+    }
+
+    /**
+     * Returns the scheduling policy named by the value of the --schedule option: "largest-first" or "input-order".
+     *
+     * @param value The value of the option.
+     * @return The scheduling policy.
+     */
+    private static SchedulingPolicy getSchedulingPolicy(String value) {
+        try {
+            return SchedulingPolicy.valueOf(value.toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Option --schedule requires largest-first or input-order.");
+        }
+    }
+
+    /**
+     * Returns the write mode named by the value of the --write-mode option: "always", "if-changed" or "merge".
+     *
+     * @param value The value of the option.
+     * @return The write mode.
+     */
+    private static WriteMode getWriteMode(String value) {
+        try {
+            return WriteMode.valueOf(value.toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Option --write-mode requires always, if-changed or merge.");
+        }
+    }
+
+    /**
+     * Returns the value of an option, throwing an IllegalArgumentException if it is missing.
+     *
+     * @param name  The name of the option.
+     * @param value The value of the option, may be null.
+     * @return The value of the option.
+     */
+    private static String requireValue(String name, String value) {
+        if (StringUtils.isEmpty(value)) {
+            throw new IllegalArgumentException("Option --" + name + " requires a value.");
+        }
+        return value;
+    }
+
+    /**
+     * Returns the value of a numeric option, throwing an IllegalArgumentException if it is missing or not a positive number.
+     *
+     * @param name  The name of the option.
+     * @param value The value of the option, may be null.
+     * @return The value of the option.
+     */
+    private static double requirePositive(String name, String value) {
+        try {
+            double number = Double.parseDouble(requireValue(name, value));
+            if (number > 0) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
         }
+        throw new IllegalArgumentException("Option --" + name + " requires a positive number.");
     }
 }
@@ -2,14 +2,27 @@ package com.intuit.hbm.converters.helper;
 
 import com.intuit.hbm.converters.common.Constants;
 import com.intuit.hbm.converters.exception.FileConversionException;
+import com.intuit.hbm.converters.model.WriteMode;
 import lombok.extern.slf4j.Slf4j;
+import org.antlr.stringtemplate.AutoIndentWriter;
 import org.antlr.stringtemplate.StringTemplate;
+import org.antlr.stringtemplate.StringTemplateGroup;
 import org.dom4j.Document;
 import org.dom4j.DocumentException;
 import org.dom4j.io.SAXReader;
+import org.xml.sax.InputSource;
 
 import java.io.*;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * This class provides helper methods to handle file related operations.
@@ -21,6 +34,18 @@ import java.net.URL;
 public class FileHelper {
 
     private static FileHelper fileHelper = new FileHelper();
+    // Line separator of the converted files, whatever the platform
+    private static final String NEWLINE = "\n";
+    // Size of the chunks of an existing file compared with the converted content
+    private static final int COMPARE_BUFFER_SIZE = 64 * 1024;
+    // Classpath directory of the templates
+    private static final String TEMPLATE_LOCATION = "templates";
+    // Public identifier of the DTD of the .hbm files
+    private static final String HIBERNATE_MAPPING_DTD = "-//Hibernate/Hibernate Mapping DTD";
+
+    // Parsers and template groups are not thread safe, every worker thread keeps its own warm instances
+    private final ThreadLocal<SAXReader> saxReaders = ThreadLocal.withInitial(FileHelper::newSaxReader);
+    private final ThreadLocal<Map<String, StringTemplateGroup>> templateGroups = ThreadLocal.withInitial(HashMap::new);
 
     // Private constructor to enforce singleton pattern
     private FileHelper() {
@@ -38,6 +63,7 @@ public class FileHelper {
 
     /**
      * Returns an array of files from the given directory that end with a specific string.
+     * The files are sorted by path, as the order in which a directory lists its files depends on the file system.
      *
      * @param directoryPath the path to the directory to read
      * @param fileEndsWith  string that files must end with to be included in the returned array
@@ -47,10 +73,14 @@ public class FileHelper {
         File directory = new File(directoryPath);
         // If it's a directory, get all files that match the pattern
         if (directory.isDirectory()) {
-            return directory.listFiles(file -> file.getName().endsWith(fileEndsWith));
+            File[] files = directory.listFiles(file -> file.getName().endsWith(fileEndsWith));
+            if (files != null) {
+                Arrays.sort(files);
+            }
+            return files;
         } else {
             // If it's a file, check if it matches the pattern
-            if (directory.getName().toLowerCase().endsWith(fileEndsWith.toLowerCase())) {
+            if (directory.getName().toLowerCase(Locale.ROOT).endsWith(fileEndsWith.toLowerCase(Locale.ROOT))) {
                 return new File[]{directory};
             } else {
                 throw new FileConversionException("destination file and file ends ext should match");
@@ -65,16 +95,59 @@ public class FileHelper {
      * @return A Document representing the content of the input file.
      */
     public Document readInputFile(File hbmFile) {
-        Document document = null;
+        log.debug("Event=HbmToJpaConversion SubEvent=ReadInputFile Status=Started SourceFileName={}", hbmFile.getName());
+        try (InputStream inputStream = new FileInputStream(hbmFile)) {
+            Document document = readInput(new InputSource(inputStream), hbmFile.getName());
+            log.debug("Event=HbmToJpaConversion SubEvent=ReadInputFile Status=Done SourceFileName={}", hbmFile.getName());
+            return document;
+        } catch (IOException e) {
+            log.error("Event=HbmToJpaConversion SubEvent=ReadInputFile Status=Failed", e);
+            throw new FileConversionException("ReadInputFile Status=Failed", e);
+        }
+    }
+
+    /**
+     * Creates the parser of a worker thread. The DTD of the .hbm files is resolved to an empty document: the files are
+     * not validated, and the DTD would otherwise be fetched from the network for every file declaring it.
+     *
+     * @return A new parser.
+     */
+    private static SAXReader newSaxReader() {
+        SAXReader saxReader = new SAXReader();
+        saxReader.setEntityResolver((publicId, systemId) -> isHibernateMappingDtd(publicId, systemId)
+                ? new InputSource(new StringReader("")) : null);
+        return saxReader;
+    }
+
+    /**
+     * Checks whether an external entity is the DTD of the .hbm files.
+     *
+     * @param publicId The public identifier of the entity, may be null.
+     * @param systemId The system identifier of the entity, may be null.
+     * @return true if the entity is the hibernate mapping DTD.
+     */
+    static boolean isHibernateMappingDtd(String publicId, String systemId) {
+        if (publicId != null) {
+            return publicId.startsWith(HIBERNATE_MAPPING_DTD);
+        }
+        return systemId != null && systemId.contains("hibernate-mapping") && systemId.endsWith(".dtd");
+    }
+
+    /**
+     * This method parses the content of a .hbm file with the parser of the current thread, which is kept warm
+     * between the documents it parses.
+     *
+     * @param inputSource The content to parse, a stream or a reader.
+     * @param name        The name of the document, the name of its source file.
+     * @return A Document representing the content.
+     * @throws FileConversionException if the content is not well-formed XML.
+     */
+    public Document readInput(InputSource inputSource, String name) {
         try {
-            log.info("Event=HbmToJpaConversion SubEvent=ReadInputFile Status=Started SourceFileName={}", hbmFile.getName());
-            InputStream inputStream = new FileInputStream(hbmFile);
-            SAXReader reader = new SAXReader();
-            document = reader.read(inputStream);
-            document.setName(hbmFile.getName());
-            log.info("Event=HbmToJpaConversion SubEvent=ReadInputFile Status=Done SourceFileName={}", hbmFile.getName());
+            Document document = saxReaders.get().read(inputSource);
+            document.setName(name);
             return document;
-        } catch (DocumentException | FileNotFoundException e) {
+        } catch (DocumentException e) {
             log.error("Event=HbmToJpaConversion SubEvent=ReadInputFile Status=Failed", e);
             throw new FileConversionException("ReadInputFile Status=Failed", e);
         }
@@ -87,12 +160,30 @@ public class FileHelper {
      * @throws RuntimeException if the file is invalid.
      */
     public void validateInputFile(File file) {
-        log.info("Event=HbmToJpaConversion SubEvent=ValidateInputFile Status=Started");
+        log.debug("Event=HbmToJpaConversion SubEvent=ValidateInputFile Status=Started");
         if (!file.exists() || !file.isFile() || !file.canRead() || !file.canWrite()) {
             log.error("Event=HbmToJpaConversion SubEvent=ValidateInputFile Status=Failed Reason=IncorrectFilePath/InvalidPermissions");
             throw new FileConversionException("Ensure File Existence and Permissions");
         }
-        log.info("Event=HbmToJpaConversion SubEvent=ValidateInputFile Status=Done SourceFileName={}", file.getName());
+        log.debug("Event=HbmToJpaConversion SubEvent=ValidateInputFile Status=Done SourceFileName={}", file.getName());
+    }
+
+    /**
+     * This method renders a template with "\n" line separators, whatever the line separator of the platform, so that
+     * a converted file has the same bytes on every machine.
+     *
+     * @param t The template to render.
+     * @return The rendered content.
+     * @throws FileConversionException if the template cannot be rendered.
+     */
+    public static String render(StringTemplate t) {
+        StringWriter out = new StringWriter();
+        try {
+            t.write(new AutoIndentWriter(out, NEWLINE));
+        } catch (IOException e) {
+            throw new FileConversionException("Failed to render template " + t.getName(), e);
+        }
+        return out.toString();
     }
 
     /**
@@ -104,27 +195,190 @@ public class FileHelper {
      * @throws FileConversionException if an error occurs.
      */
     public void writeFile(StringTemplate t, String destDirectoryPath, String fileName) throws FileConversionException {
-        log.info("Event=HbmToJpaConversion SubEvent=WriteOutputFile Status=Started DestinationFileName={}", fileName + Constants.FILE_ENDS_WITH_ORM_EXT);
+        writeFile(t, destDirectoryPath, fileName, Constants.FILE_ENDS_WITH_ORM_EXT);
+    }
+
+    /**
+     * This method writes the processed content into a file with the given extension.
+     *
+     * @param t                 The StringTemplate object containing the processed content.
+     * @param destDirectoryPath The destination directory path where the file has to be written.
+     * @param fileName          The filename including which the content has to be written.
+     * @param fileExtension     The extension appended to the filename.
+     * @throws FileConversionException if an error occurs.
+     */
+    public void writeFile(StringTemplate t, String destDirectoryPath, String fileName, String fileExtension) throws FileConversionException {
+        writeContent(render(t), destDirectoryPath, fileName, fileExtension);
+    }
+
+    /**
+     * This method writes already rendered content into a file with the given extension.
+     * The content is written to a temporary file which is then moved over the destination file, so that a run
+     * killed while writing never leaves a truncated file behind.
+     *
+     * @param content           The rendered content.
+     * @param destDirectoryPath The destination directory path where the file has to be written.
+     * @param fileName          The filename including which the content has to be written.
+     * @param fileExtension     The extension appended to the filename.
+     * @throws FileConversionException if an error occurs.
+     */
+    public void writeContent(String content, String destDirectoryPath, String fileName, String fileExtension) throws FileConversionException {
+        writeContent(content, destDirectoryPath, fileName, fileExtension, WriteMode.ALWAYS);
+    }
+
+    /**
+     * This method writes already rendered content into a file with the given extension, encoded in UTF-8 whatever the
+     * platform encoding, unless the write mode keeps an existing file which already has the content. The existing file is compared with the content only when it
+     * has the same size, so a changed file is usually detected without reading it.
+     * The content is written to a temporary file which is then moved over the destination file, so that a run
+     * killed while writing never leaves a truncated file behind.
+     *
+     * @param content           The rendered content.
+     * @param destDirectoryPath The destination directory path where the file has to be written.
+     * @param fileName          The filename including which the content has to be written.
+     * @param fileExtension     The extension appended to the filename.
+     * @param writeMode         How the content is written over an existing file.
+     * @return true if the file was written, false if the existing file already had the content.
+     * @throws FileConversionException if an error occurs.
+     */
+    public boolean writeContent(String content, String destDirectoryPath, String fileName, String fileExtension, WriteMode writeMode) throws FileConversionException {
+        log.debug("Event=HbmToJpaConversion SubEvent=WriteOutputFile Status=Started DestinationFileName={}", fileName + fileExtension);
         try {
-            File hbmFolder = new File(destDirectoryPath);
-            String hbmFullFileName = null;
-            if (hbmFolder.isDirectory()) {
-                hbmFullFileName = destDirectoryPath + fileName + Constants.FILE_ENDS_WITH_ORM_EXT;
-            } else {
-                hbmFullFileName = destDirectoryPath;
+            Path target = getOutputPath(destDirectoryPath, fileName, fileExtension);
+            String hbmFullFileName = target.toString();
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            if (writeMode == WriteMode.IF_CHANGED && hasContent(target, bytes)) {
+                log.debug("Event=HbmToJpaConversion SubEvent=WriteOutputFile Status=Unchanged DestinationFileName={}", fileName + fileExtension);
+                return false;
             }
-            //deleting existing file if any
-            File file = new File(hbmFullFileName);
-            file.delete();
-            try (BufferedWriter outputFile = new BufferedWriter(new FileWriter(hbmFullFileName))) {
-                outputFile.write(t.toString());
+            Path tempFile = getTempPath(target);
+            try {
+                Files.write(tempFile, bytes);
+                moveReplacing(tempFile, target);
             } catch (Exception e) {
+                Files.deleteIfExists(tempFile);
                 throw new FileConversionException("Failed to write to file at " + hbmFullFileName, e);
             }
         } catch (Exception e) {
             throw new FileConversionException("Failed to write to file due to an exception", e);
         }
-        log.info("Event=HbmToJpaConversion SubEvent=WriteOutputFile Status=Done DestinationFileName={}", fileName + Constants.FILE_ENDS_WITH_ORM_EXT);
+        log.debug("Event=HbmToJpaConversion SubEvent=WriteOutputFile Status=Done DestinationFileName={}", fileName + fileExtension);
+        return true;
+    }
+
+    /**
+     * Returns whether a file has the given content, comparing its size first and then its bytes, chunk by chunk.
+     *
+     * @param file  The file.
+     * @param bytes The content.
+     * @return true if the file exists and has the content.
+     * @throws IOException if the file cannot be read.
+     */
+    private static boolean hasContent(Path file, byte[] bytes) throws IOException {
+        if (!Files.isRegularFile(file) || Files.size(file) != bytes.length) {
+            return false;
+        }
+        byte[] buffer = new byte[Math.min(COMPARE_BUFFER_SIZE, Math.max(bytes.length, 1))];
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            int offset = 0;
+            int read;
+            while ((read = inputStream.read(buffer)) > 0) {
+                if (offset + read > bytes.length) {
+                    return false;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] != bytes[offset + i]) {
+                        return false;
+                    }
+                }
+                offset += read;
+            }
+            return offset == bytes.length;
+        }
+    }
+
+    /**
+     * This method deletes the partial output left by the current thread for a converted file, which is the temporary
+     * file it was writing. It is used to clean up after a conversion which timed out. A converted file already moved
+     * in place is complete and is kept.
+     *
+     * @param destDirectoryPath The destination directory path where the file was written.
+     * @param fileName          The filename of the converted file.
+     * @param fileExtension     The extension appended to the filename.
+     */
+    public void deletePartialOutput(String destDirectoryPath, String fileName, String fileExtension) {
+        try {
+            if (Files.deleteIfExists(getTempPath(getOutputPath(destDirectoryPath, fileName, fileExtension)))) {
+                log.debug("Event=HbmToJpaConversion SubEvent=DeletePartialOutput Status=Done DestinationFileName={}", fileName + fileExtension);
+            }
+        } catch (IOException e) {
+            log.error("Event=HbmToJpaConversion SubEvent=DeletePartialOutput Status=Failed DestinationFileName={}", fileName + fileExtension, e);
+        }
+    }
+
+    /**
+     * This method returns the path a converted file is written to.
+     *
+     * @param destDirectoryPath The destination directory path or destination file path.
+     * @param fileName          The filename of the converted file.
+     * @param fileExtension     The extension appended to the filename.
+     * @return The absolute path of the converted file.
+     */
+    public String getOutputFile(String destDirectoryPath, String fileName, String fileExtension) {
+        return getOutputPath(destDirectoryPath, fileName, fileExtension).toString();
+    }
+
+    /**
+     * Returns the path of a converted file, which is the destination itself when the destination is a file.
+     *
+     * @param destDirectoryPath The destination directory path or destination file path.
+     * @param fileName          The filename of the converted file.
+     * @param fileExtension     The extension appended to the filename.
+     * @return The absolute path of the converted file.
+     */
+    private static Path getOutputPath(String destDirectoryPath, String fileName, String fileExtension) {
+        String hbmFullFileName = new File(destDirectoryPath).isDirectory() ? destDirectoryPath + fileName + fileExtension : destDirectoryPath;
+        return new File(hbmFullFileName).getAbsoluteFile().toPath();
+    }
+
+    /**
+     * Returns the path of the temporary file the current thread writes a converted file to.
+     * The writing thread is part of the name, as several source files may be written to the same destination file.
+     *
+     * @param target The path of the converted file.
+     * @return The path of the temporary file.
+     */
+    private static Path getTempPath(Path target) {
+        return target.resolveSibling(target.getFileName() + "." + Thread.currentThread().getId() + ".tmp");
+    }
+
+    /**
+     * Moves a file over another one, atomically when the file system supports it. Used to put the files written by a
+     * run in place, so that a reader never sees a partial file.
+     *
+     * @param source The file to move.
+     * @param target The file to replace.
+     * @throws IOException if the file cannot be moved.
+     */
+    public static void moveReplacing(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * This method returns the template group of the given name, loaded from the templates directory of the classpath,
+     * so that the templates are found when the tool runs from its jar.
+     * The group is created once per thread and keeps the templates it loaded, so that the template files are read
+     * once per thread instead of once per converted file.
+     *
+     * @param name The name of the template group.
+     * @return The template group of the current thread.
+     */
+    public StringTemplateGroup getTemplateGroup(String name) {
+        return templateGroups.get().computeIfAbsent(name, ClasspathTemplateGroup::new);
     }
 
     /**
@@ -135,7 +389,7 @@ public class FileHelper {
      * @throws IllegalStateException if unable to locate the resource path.
      */
     public final String getTemplateLocation() {
-        String templateLocation = "templates";
+        String templateLocation = TEMPLATE_LOCATION;
         URL resourceUrl = this.getClass().getClassLoader().getResource(templateLocation);
         if (resourceUrl == null) {
             throw new IllegalStateException("Unable to locate resource path: " + templateLocation);
@@ -143,4 +397,20 @@ public class FileHelper {
         String resourcePath = resourceUrl.getPath();
         return resourcePath;
     }
+
+    /**
+     * A template group loading its templates from the templates directory of the classpath, a directory or a jar.
+     */
+    private static class ClasspathTemplateGroup extends StringTemplateGroup {
+
+        private ClasspathTemplateGroup(String name) {
+            // without root directory, the templates are loaded as resources of the class loader
+            super(name, (String) null);
+        }
+
+        @Override
+        public String getFileNameFromTemplateName(String templateName) {
+            return TEMPLATE_LOCATION + "/" + super.getFileNameFromTemplateName(templateName);
+        }
+    }
 }
@@ -0,0 +1,93 @@
+package com.intuit.hbm.converters.helper;
+
+/**
+ * This class provides helper methods to write the small JSON documents produced by the tool
+ * (journals and reports) without pulling in a JSON library.
+ */
+public final class JsonHelper {
+
+    // Private constructor to prevent instantiation
+    private JsonHelper() {
+
+    }
+
+    /**
+     * Quotes and escapes the given value as a JSON string.
+     *
+     * @param value The value to quote, may be null.
+     * @return The JSON string literal, or {@code null} when the value is null.
+     */
+    public static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder builder = new StringBuilder(value.length() + 2);
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    /**
+     * Unescapes a JSON string literal produced by {@link #quote(String)}.
+     *
+     * @param literal The JSON string literal, including its quotes.
+     * @return The unescaped value, or {@code null} when the literal is null.
+     */
+    public static String unquote(String literal) {
+        if ("null".equals(literal)) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder(literal.length());
+        for (int i = 1; i < literal.length() - 1; i++) {
+            char c = literal.charAt(i);
+            if (c != '\\') {
+                builder.append(c);
+                continue;
+            }
+            char escaped = literal.charAt(++i);
+            switch (escaped) {
+                case 'n':
+                    builder.append('\n');
+                    break;
+                case 'r':
+                    builder.append('\r');
+                    break;
+                case 't':
+                    builder.append('\t');
+                    break;
+                case 'u':
+                    builder.append((char) Integer.parseInt(literal.substring(i + 1, i + 5), 16));
+                    i += 4;
+                    break;
+                default:
+                    builder.append(escaped);
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,181 @@
+package com.intuit.hbm.converters.helper;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * PreScanner checks the raw bytes of a .hbm file for the start tags of the elements a converter converts, so that
+ * a file without any of them does not have to be parsed.
+ * <p>
+ * The scan may report content for a file which has none, such as an element name in a comment, in which case the
+ * file is simply parsed. It never reports a file without content when the file may have some: a file declaring
+ * entities, which may include elements from other files, or a file which is not encoded with single bytes for
+ * ASCII characters, is always reported with content.
+ */
+public class PreScanner {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] ENTITY_DECLARATION = "<!ENTITY".getBytes(StandardCharsets.US_ASCII);
+    private static final Pattern ROOT_PACKAGE = Pattern.compile("<hibernate-mapping\\b[^>]*?\\spackage\\s*=\\s*([\"'])([^\"']*)\\1");
+    private static final Pattern ROOT_TAG = Pattern.compile("<hibernate-mapping\\b[^>]*>");
+
+    // The start tags looked for, such as "<query", followed by a byte which cannot be part of an element name
+    private final List<byte[]> startTags = new ArrayList<>();
+
+    /**
+     * Creates a PreScanner.
+     *
+     * @param elementNames The names of the elements looked for. No file is scanned when it is empty.
+     */
+    public PreScanner(Collection<String> elementNames) {
+        for (String elementName : elementNames) {
+            startTags.add(("<" + elementName).getBytes(StandardCharsets.US_ASCII));
+        }
+        startTags.add(ENTITY_DECLARATION);
+    }
+
+    /**
+     * Returns whether files are scanned.
+     *
+     * @return false if no element is looked for, in which case every file is parsed.
+     */
+    public boolean isEnabled() {
+        return startTags.size() > 1;
+    }
+
+    /**
+     * Scans a file for the start tags of the elements, stopping at the first one found.
+     * The package of the mappings is read from the root element when the file has no content.
+     *
+     * @param file The file to scan.
+     * @return The result of the scan.
+     * @throws IOException if the file cannot be read.
+     */
+    public Result scan(File file) throws IOException {
+        int overlap = 0;
+        for (byte[] startTag : startTags) {
+            overlap = Math.max(overlap, startTag.length);
+        }
+        byte[] buffer = new byte[BUFFER_SIZE + overlap];
+        String head = null;
+        try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+            int kept = 0;
+            int read;
+            while ((read = inputStream.read(buffer, kept, BUFFER_SIZE)) > 0) {
+                int length = kept + read;
+                if (head == null) {
+                    if (!isSingleByteAscii(buffer, length)) {
+                        return new Result(true, null);
+                    }
+                    head = new String(buffer, 0, length, StandardCharsets.ISO_8859_1);
+                }
+                if (containsStartTag(buffer, length)) {
+                    return new Result(true, null);
+                }
+                // keep the end of the buffer, a start tag may be split between two reads
+                kept = Math.min(overlap, length);
+                System.arraycopy(buffer, length - kept, buffer, 0, kept);
+            }
+        }
+        if (head == null) {
+            return new Result(false, null);
+        }
+        if (!ROOT_TAG.matcher(head).find()) {
+            // the root element does not fit in the first read, parse the file to read its package
+            return new Result(true, null);
+        }
+        Matcher matcher = ROOT_PACKAGE.matcher(head);
+        return new Result(false, matcher.find() ? matcher.group(2) : null);
+    }
+
+    /**
+     * Returns whether one of the start tags occurs in the buffer, followed by a byte ending an element name.
+     *
+     * @param buffer The buffer.
+     * @param length The number of bytes in the buffer.
+     * @return true if a start tag occurs in the buffer.
+     */
+    private boolean containsStartTag(byte[] buffer, int length) {
+        for (int i = 0; i < length; i++) {
+            if (buffer[i] != '<') {
+                continue;
+            }
+            for (byte[] startTag : startTags) {
+                int end = i + startTag.length;
+                if (end < length && regionMatches(buffer, i, startTag) && endsName(buffer[end])) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the bytes of the buffer at the given offset are the given bytes.
+     *
+     * @param buffer The buffer.
+     * @param offset The offset in the buffer.
+     * @param bytes  The bytes to compare.
+     * @return true if they match.
+     */
+    private static boolean regionMatches(byte[] buffer, int offset, byte[] bytes) {
+        for (int i = 1; i < bytes.length; i++) {
+            if (buffer[offset + i] != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether a byte cannot be part of an element name.
+     *
+     * @param b The byte following a start tag.
+     * @return true for whitespace, '>' and '/'.
+     */
+    private static boolean endsName(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '>' || b == '/';
+    }
+
+    /**
+     * Returns whether the start of a file encodes ASCII characters with single bytes, as UTF-8 and the ISO-8859
+     * encodings do. A byte order mark of UTF-16 or a zero byte reveal a wider encoding.
+     *
+     * @param buffer The first bytes of the file.
+     * @param length The number of bytes.
+     * @return true if the file can be scanned for ASCII start tags.
+     */
+    private static boolean isSingleByteAscii(byte[] buffer, int length) {
+        if (length >= 2 && ((buffer[0] == (byte) 0xFE && buffer[1] == (byte) 0xFF) || (buffer[0] == (byte) 0xFF && buffer[1] == (byte) 0xFE))) {
+            return false;
+        }
+        for (int i = 0; i < Math.min(length, 4); i++) {
+            if (buffer[i] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The result of the scan of a file.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Result {
+        // Whether the file may contain an element to convert, in which case it has to be parsed
+        private final boolean content;
+        // The package of the mappings of a file without content, null when it has none
+        private final String packageName;
+    }
+}
@@ -0,0 +1,273 @@
+package com.intuit.hbm.converters.journal;
+
+import com.intuit.hbm.converters.exception.FileConversionException;
+import com.intuit.hbm.converters.model.ConversionOutcome;
+import com.intuit.hbm.converters.model.ConversionStage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * EventJournal records the stages of every file conversion as compact {@link JournalEvent}s.
+ * <p>
+ * Events are collected in a buffer owned by the recording thread, so worker threads never contend on a shared lock.
+ * Full buffers are handed to a single background writer which appends them as JSON lines to the journal file.
+ * Counters for the run summary are kept in {@link LongAdder}s, and the summary is logged when the journal is closed.
+ * Per-file log lines are only written when the journal is verbose.
+ */
+@Slf4j
+public class EventJournal implements Closeable {
+    // Number of events buffered per thread before they are handed to the writer
+    private static final int BUFFER_SIZE = 512;
+
+    private final Path journalFile;
+    private final boolean verbose;
+    private final long runStartNanos = System.nanoTime();
+    private final List<ThreadBuffer> threadBuffers = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<ThreadBuffer> threadBuffer = ThreadLocal.withInitial(this::registerThreadBuffer);
+    private final Map<ConversionOutcome, LongAdder> fileOutcomes = new EnumMap<>(ConversionOutcome.class);
+    private final Map<ConversionStage, LongAdder> stageMicros = new EnumMap<>(ConversionStage.class);
+    // Number of converted files written, and of existing files kept as they already had the converted content
+    private final LongAdder changedOutputs = new LongAdder();
+    private final LongAdder unchangedOutputs = new LongAdder();
+    private ExecutorService writerService;
+    private BufferedWriter writer;
+    private volatile boolean closed;
+
+    /**
+     * Creates an EventJournal.
+     *
+     * @param journalFilePath The path of the JSONL file to write the events to, or null to only keep the run summary.
+     * @param verbose         Whether every event should also be logged.
+     * @throws FileConversionException if the journal file cannot be opened.
+     */
+    public EventJournal(String journalFilePath, boolean verbose) {
+        this.journalFile = journalFilePath == null ? null : Paths.get(journalFilePath);
+        this.verbose = verbose;
+        for (ConversionOutcome outcome : ConversionOutcome.values()) {
+            fileOutcomes.put(outcome, new LongAdder());
+        }
+        for (ConversionStage stage : ConversionStage.values()) {
+            stageMicros.put(stage, new LongAdder());
+        }
+        if (journalFile != null) {
+            try {
+                writer = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new FileConversionException("Unable to open journal file " + journalFile, e);
+            }
+            writerService = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "hbm-journal-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Marks the beginning of a stage.
+     *
+     * @return The timestamp to pass to {@link #record}.
+     */
+    public long begin() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the end of a stage.
+     *
+     * @param fileName   The path of the source file.
+     * @param stage      The stage which ended.
+     * @param beginNanos The timestamp returned by {@link #begin()} when the stage started.
+     * @param outcome    The outcome of the stage.
+     */
+    public void record(String fileName, ConversionStage stage, long beginNanos, ConversionOutcome outcome) {
+        record(fileName, stage, beginNanos, outcome, null);
+    }
+
+    /**
+     * Records the end of a stage with a detail message.
+     *
+     * @param fileName   The path of the source file.
+     * @param stage      The stage which ended.
+     * @param beginNanos The timestamp returned by {@link #begin()} when the stage started.
+     * @param outcome    The outcome of the stage.
+     * @param detail     A detail message such as the failure reason, may be null.
+     */
+    public void record(String fileName, ConversionStage stage, long beginNanos, ConversionOutcome outcome, String detail) {
+        long durationMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - beginNanos);
+        stageMicros.get(stage).add(durationMicros);
+        if (stage == ConversionStage.CONVERSION) {
+            fileOutcomes.get(outcome).increment();
+        }
+        if (verbose) {
+            log.info("Event=HbmToJpaConversion SubEvent={} Status={} SourceFileName={} TimeTaken={}us", stage, outcome, fileName, durationMicros);
+        }
+        if (writerService != null && !closed) {
+            long startMicros = TimeUnit.NANOSECONDS.toMicros(beginNanos - runStartNanos);
+            threadBuffer.get().add(new JournalEvent(fileName, stage, startMicros, durationMicros, outcome, detail));
+        }
+    }
+
+    /**
+     * Counts a converted file as written or as kept unchanged.
+     *
+     * @param changed true if the converted file was written, false if the existing file already had its content.
+     */
+    public void recordOutput(boolean changed) {
+        (changed ? changedOutputs : unchangedOutputs).increment();
+    }
+
+    /**
+     * Returns the number of converted files which were written or kept unchanged.
+     *
+     * @param changed true to count the files written, false to count the files kept unchanged.
+     * @return The number of files.
+     */
+    public long getOutputCount(boolean changed) {
+        return (changed ? changedOutputs : unchangedOutputs).sum();
+    }
+
+    /**
+     * Returns the number of files which finished their conversion with the given outcome.
+     *
+     * @param outcome The outcome to count.
+     * @return The number of files.
+     */
+    public long getFileCount(ConversionOutcome outcome) {
+        return fileOutcomes.get(outcome).sum();
+    }
+
+    /**
+     * Flushes the remaining buffered events, waits for the writer to finish and logs the run summary.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (writerService != null) {
+            for (ThreadBuffer buffer : threadBuffers) {
+                buffer.flush();
+            }
+            writerService.shutdown();
+            try {
+                if (!writerService.awaitTermination(1, TimeUnit.MINUTES)) {
+                    log.error("Event=HbmToJpaConversion SubEvent=EventJournal Status=Failed Reason=FlushTimedOut");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.error("Event=HbmToJpaConversion SubEvent=EventJournal Status=Failed", e);
+            }
+        }
+        logSummary();
+    }
+
+    /**
+     * Logs the summary of the run: file counts per outcome, converted files written and kept unchanged,
+     * and the cumulative time spent in every stage.
+     */
+    private void logSummary() {
+        long succeeded = getFileCount(ConversionOutcome.SUCCESS);
+        long failed = getFileCount(ConversionOutcome.FAILED);
+        long skipped = getFileCount(ConversionOutcome.SKIPPED);
+        log.info("Event=HbmToJpaConversion SubEvent=RunSummary Files={} Succeeded={} Failed={} Skipped={} Changed={} Unchanged={} ValidateMs={} PreScanMs={} ReadMs={} ExtractMs={} ConvertMs={} ValidateOutputMs={} WriteMs={} VerifyMs={} JournalFile={}",
+                succeeded + failed + skipped, succeeded, failed, skipped, changedOutputs.sum(), unchangedOutputs.sum(), stageMillis(ConversionStage.VALIDATE),
+                stageMillis(ConversionStage.PRESCAN), stageMillis(ConversionStage.READ), stageMillis(ConversionStage.EXTRACT),
+                stageMillis(ConversionStage.CONVERT), stageMillis(ConversionStage.VALIDATE_OUTPUT), stageMillis(ConversionStage.WRITE),
+                stageMillis(ConversionStage.VERIFY), journalFile);
+    }
+
+    /**
+     * Returns the cumulative time spent in a stage across all threads.
+     *
+     * @param stage The stage.
+     * @return The time in milliseconds.
+     */
+    private long stageMillis(ConversionStage stage) {
+        return TimeUnit.MICROSECONDS.toMillis(stageMicros.get(stage).sum());
+    }
+
+    /**
+     * Creates and registers the buffer of the calling thread.
+     *
+     * @return The new buffer.
+     */
+    private ThreadBuffer registerThreadBuffer() {
+        ThreadBuffer buffer = new ThreadBuffer();
+        threadBuffers.add(buffer);
+        return buffer;
+    }
+
+    /**
+     * Appends a batch of events to the journal file. Runs on the writer thread only.
+     *
+     * @param events The events to write.
+     */
+    private void writeEvents(List<JournalEvent> events) {
+        try {
+            for (JournalEvent event : events) {
+                writer.write(event.toJson());
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            log.error("Event=HbmToJpaConversion SubEvent=EventJournal Status=Failed", e);
+        }
+    }
+
+    /**
+     * A buffer of events owned by one recording thread. The lock is only contended while the journal is closing.
+     */
+    private class ThreadBuffer {
+        private List<JournalEvent> events = new ArrayList<>(BUFFER_SIZE);
+
+        /**
+         * Adds an event and hands the buffer to the writer once it is full.
+         *
+         * @param event The event to add.
+         */
+        synchronized void add(JournalEvent event) {
+            events.add(event);
+            if (events.size() >= BUFFER_SIZE) {
+                flush();
+            }
+        }
+
+        /**
+         * Hands the buffered events to the writer.
+         */
+        synchronized void flush() {
+            if (events.isEmpty()) {
+                return;
+            }
+            List<JournalEvent> batch = events;
+            events = new ArrayList<>(BUFFER_SIZE);
+            try {
+                writerService.execute(() -> writeEvents(batch));
+            } catch (RejectedExecutionException e) {
+                log.warn("Event=HbmToJpaConversion SubEvent=EventJournal Status=EventsDropped Count={}", batch.size());
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.intuit.hbm.converters.journal;
+
+import com.intuit.hbm.converters.helper.JsonHelper;
+import com.intuit.hbm.converters.model.ConversionOutcome;
+import com.intuit.hbm.converters.model.ConversionStage;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * JournalEvent is a compact record of one conversion stage of one file.
+ * It is buffered per thread by the {@link EventJournal} and written as a single JSON line.
+ */
+@Getter
+@AllArgsConstructor
+public class JournalEvent {
+    // A line written by toJson, capturing the file, stage, start, duration, outcome and optional detail
+    private static final Pattern JSON_LINE = Pattern.compile("\\{\"file\":(\"(?:[^\"\\\\]|\\\\.)*\"),\"stage\":\"(\\w+)\","
+            + "\"start\":(\\d+),\"micros\":(\\d+),\"outcome\":\"(\\w+)\"(?:,\"detail\":(\"(?:[^\"\\\\]|\\\\.)*\"))?}");
+
+    // Path of the source file the event belongs to
+    private String fileName;
+    // Stage of the conversion the event describes
+    private ConversionStage stage;
+    // Start of the stage in microseconds, relative to the start of the run
+    private long startMicros;
+    // Time taken by the stage in microseconds
+    private long durationMicros;
+    // Outcome of the stage
+    private ConversionOutcome outcome;
+    // Optional detail, such as the failure reason
+    private String detail;
+
+    /**
+     * Serializes the event as a single line of JSON.
+     *
+     * @return The JSON representation of the event.
+     */
+    public String toJson() {
+        StringBuilder builder = new StringBuilder(128);
+        builder.append("{\"file\":").append(JsonHelper.quote(fileName))
+                .append(",\"stage\":\"").append(stage)
+                .append("\",\"start\":").append(startMicros)
+                .append(",\"micros\":").append(durationMicros)
+                .append(",\"outcome\":\"").append(outcome).append('"');
+        if (detail != null) {
+            builder.append(",\"detail\":").append(JsonHelper.quote(detail));
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Parses a line of JSON written by {@link #toJson()}.
+     *
+     * @param line A line of a journal file.
+     * @return The event, or null when the line is not an event, such as a line torn by a killed run.
+     */
+    public static JournalEvent fromJson(String line) {
+        Matcher matcher = JSON_LINE.matcher(line);
+        if (!matcher.matches()) {
+            return null;
+        }
+        try {
+            return new JournalEvent(JsonHelper.unquote(matcher.group(1)), ConversionStage.valueOf(matcher.group(2)),
+                    Long.parseLong(matcher.group(3)), Long.parseLong(matcher.group(4)), ConversionOutcome.valueOf(matcher.group(5)),
+                    matcher.group(6) == null ? null : JsonHelper.unquote(matcher.group(6)));
+        } catch (IllegalArgumentException e) {
+            // a stage or outcome unknown to this version
+            return null;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.intuit.hbm.converters.lint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Flags queries listing several tables or entities in their {@code from} clause, one of which is not correlated in
+ * the {@code where} clause: such a query computes a cartesian product.
+ * <p>
+ * A table is taken as correlated when its alias appears in the {@code where} clause, and an HQL collection join,
+ * such as {@code in(p.items) i}, is correlated through its path. Joins correlated in the {@code where} clause are
+ * left to the reviewer, the rule only flags the ones which cannot be.
+ */
+public class ImplicitCrossJoinRule implements QueryLintRule {
+    private static final Pattern FROM_CLAUSE = Pattern.compile("\\bfrom\\b(.*?)(\\bwhere\\b|\\bgroup by\\b|\\border by\\b|\\bhaving\\b|\\bunion\\b|$)");
+    private static final Pattern WHERE_CLAUSE_END = Pattern.compile("\\bgroup by\\b|\\border by\\b|\\bhaving\\b|\\bunion\\b");
+    private static final Pattern COLLECTION_JOIN = Pattern.compile("^(?:in|elements)\\s*\\(");
+    private static final String WHERE = "where";
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return "ImplicitCrossJoin";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LintSeverity getSeverity() {
+        return LintSeverity.ERROR;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String check(LintQuery query) {
+        String text = query.getNormalizedQuery();
+        Matcher matcher = FROM_CLAUSE.matcher(text);
+        while (matcher.find()) {
+            List<String> tables = splitTopLevel(matcher.group(1));
+            if (tables.size() < 2) {
+                continue;
+            }
+            String whereClause = WHERE.equals(matcher.group(2)) ? getWhereClause(text, matcher.end()) : "";
+            for (String table : tables) {
+                String alias = getAlias(table);
+                if (alias != null && !Pattern.compile("\\b" + Pattern.quote(alias) + "\\b").matcher(whereClause).find()) {
+                    return "Joins " + alias + " with a comma in the from clause without correlating it in the where clause, "
+                            + "use an explicit join instead.";
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Splits a from clause at its commas outside of parentheses, i.e. not in a sub-query or function call.
+     *
+     * @param fromClause The text of the from clause.
+     * @return The tables of the clause, with their alias and explicit joins.
+     */
+    private static List<String> splitTopLevel(String fromClause) {
+        List<String> tables = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < fromClause.length(); i++) {
+            char c = fromClause.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                tables.add(fromClause.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        tables.add(fromClause.substring(start).trim());
+        return tables;
+    }
+
+    /**
+     * Returns the text of a where clause, up to the clause which follows it.
+     *
+     * @param query The normalized query.
+     * @param start The offset following the where keyword.
+     * @return The text of the where clause.
+     */
+    private static String getWhereClause(String query, int start) {
+        Matcher end = WHERE_CLAUSE_END.matcher(query);
+        return end.find(start) ? query.substring(start, end.start()) : query.substring(start);
+    }
+
+    /**
+     * Returns the alias a table of a from clause is referenced by.
+     *
+     * @param table The table, with its alias and explicit joins, such as "company as c join c.address a".
+     * @return The alias, the name of the table when it has none, or null for a collection join.
+     */
+    private static String getAlias(String table) {
+        if (table.isEmpty() || COLLECTION_JOIN.matcher(table).find()) {
+            return null;
+        }
+        String[] words = table.split(" ");
+        if (words.length >= 3 && "as".equals(words[1])) {
+            return words[2];
+        }
+        return words.length >= 2 ? words[1] : words[0];
+    }
+}
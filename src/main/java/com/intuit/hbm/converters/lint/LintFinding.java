@@ -0,0 +1,24 @@
+package com.intuit.hbm.converters.lint;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * LintFinding is a POJO that describes a query which breaks a {@link QueryLintRule}.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class LintFinding {
+    // Name of the source file the query was found in
+    private String sourceFile;
+    // Name of the query
+    private String queryName;
+    // Name of the rule which was broken
+    private String rule;
+    // Severity of the rule
+    private LintSeverity severity;
+    // What is wrong with the query
+    private String message;
+}
@@ -0,0 +1,49 @@
+package com.intuit.hbm.converters.lint;
+
+import lombok.Getter;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * LintQuery is the view of a named query which is checked by the {@link QueryLintRule}s.
+ * Besides the query text, it provides a normalized text which the rules can match without caring about
+ * case, line breaks or the content of string literals.
+ */
+@Getter
+public class LintQuery {
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Name of the source file the query was found in
+    private String sourceFile;
+    // Name of the query
+    private String name;
+    // Query text as written in the source file
+    private String query;
+    // Whether the query is a native SQL query rather than an HQL query
+    private boolean nativeQuery;
+    // Whether the results of a native query are mapped to a class or to typed scalars
+    private boolean resultMapped;
+    // Lower case query text with the whitespace collapsed and every string literal replaced by ''
+    private String normalizedQuery;
+
+    /**
+     * Creates a LintQuery.
+     *
+     * @param sourceFile   The name of the source file.
+     * @param name         The name of the query.
+     * @param query        The query text.
+     * @param nativeQuery  Whether the query is a native SQL query.
+     * @param resultMapped Whether the results of the query are mapped, always true for HQL queries.
+     */
+    public LintQuery(String sourceFile, String name, String query, boolean nativeQuery, boolean resultMapped) {
+        this.sourceFile = sourceFile;
+        this.name = name;
+        this.query = query;
+        this.nativeQuery = nativeQuery;
+        this.resultMapped = resultMapped;
+        String withoutLiterals = STRING_LITERAL.matcher(query).replaceAll("''");
+        this.normalizedQuery = WHITESPACE.matcher(withoutLiterals).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,75 @@
+package com.intuit.hbm.converters.lint;
+
+import com.intuit.hbm.converters.helper.JsonHelper;
+
+import java.util.List;
+
+/**
+ * This class serializes the findings of the query lint as a JSON document or as an HTML page.
+ */
+final class LintReportFormat {
+
+    // Private constructor to prevent instantiation
+    private LintReportFormat() {
+
+    }
+
+    /**
+     * Serializes the findings as a JSON document.
+     *
+     * @param findings The findings, in report order.
+     * @return The JSON document.
+     */
+    static String toJson(List<LintFinding> findings) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("{\n  \"findings\": [");
+        for (int i = 0; i < findings.size(); i++) {
+            LintFinding finding = findings.get(i);
+            builder.append(i == 0 ? "\n" : ",\n")
+                    .append("    {\"severity\": ").append(JsonHelper.quote(finding.getSeverity().name()))
+                    .append(", \"rule\": ").append(JsonHelper.quote(finding.getRule()))
+                    .append(", \"file\": ").append(JsonHelper.quote(finding.getSourceFile()))
+                    .append(", \"query\": ").append(JsonHelper.quote(finding.getQueryName()))
+                    .append(", \"message\": ").append(JsonHelper.quote(finding.getMessage())).append('}');
+        }
+        builder.append(findings.isEmpty() ? "]\n}\n" : "\n  ]\n}\n");
+        return builder.toString();
+    }
+
+    /**
+     * Serializes the findings as an HTML page with one table row per finding.
+     *
+     * @param findings The findings, in report order.
+     * @return The HTML page.
+     */
+    static String toHtml(List<LintFinding> findings) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\">\n<title>Query lint report</title>\n")
+                .append("<style>table{border-collapse:collapse}td,th{border:1px solid #ccc;padding:4px;text-align:left}")
+                .append(".ERROR{color:#b00020}.WARNING{color:#a05a00}</style>\n</head>\n<body>\n")
+                .append("<h1>Query lint report</h1>\n<p>").append(findings.size()).append(" findings</p>\n")
+                .append("<table>\n<tr><th>Severity</th><th>Rule</th><th>File</th><th>Query</th><th>Message</th></tr>\n");
+        for (LintFinding finding : findings) {
+            builder.append("<tr class=\"").append(finding.getSeverity()).append("\"><td>").append(finding.getSeverity())
+                    .append("</td><td>").append(escapeHtml(finding.getRule()))
+                    .append("</td><td>").append(escapeHtml(finding.getSourceFile()))
+                    .append("</td><td>").append(escapeHtml(finding.getQueryName()))
+                    .append("</td><td>").append(escapeHtml(finding.getMessage())).append("</td></tr>\n");
+        }
+        builder.append("</table>\n</body>\n</html>\n");
+        return builder.toString();
+    }
+
+    /**
+     * Escapes the characters of a value which are special in HTML.
+     *
+     * @param value The value to escape, may be null.
+     * @return The escaped value, or an empty string when the value is null.
+     */
+    private static String escapeHtml(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
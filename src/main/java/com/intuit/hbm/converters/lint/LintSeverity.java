@@ -0,0 +1,13 @@
+package com.intuit.hbm.converters.lint;
+
+/**
+ * LintSeverity ranks the findings of the query lint, from the most to the least severe.
+ */
+public enum LintSeverity {
+    // The query is likely to misbehave in production, e.g. a cartesian product
+    ERROR,
+    // The query is likely to perform poorly or defeat the statement cache
+    WARNING,
+    // The query could be improved
+    INFO
+}
@@ -0,0 +1,40 @@
+package com.intuit.hbm.converters.lint;
+
+import java.util.regex.Pattern;
+
+/**
+ * Flags queries comparing columns to literal values instead of bind parameters.
+ * Literals concatenated into the query text produce a different statement for every value, which defeats the
+ * statement cache of the driver and of the database.
+ */
+public class LiteralInsteadOfParameterRule implements QueryLintRule {
+    private static final Pattern LITERAL_COMPARISON = Pattern.compile(
+            "(?:=|<>|!=|<|>|\\blike|\\bin\\s*\\()\\s*(?:''|-?\\d+(?:\\.\\d+)?\\b)");
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return "LiteralInsteadOfParameter";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LintSeverity getSeverity() {
+        return LintSeverity.WARNING;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String check(LintQuery query) {
+        if (LITERAL_COMPARISON.matcher(query.getNormalizedQuery()).find()) {
+            return "Compares to a literal value instead of a bind parameter.";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,40 @@
+package com.intuit.hbm.converters.lint;
+
+import java.util.regex.Pattern;
+
+/**
+ * Flags queries reading, updating or deleting the rows of a table without a {@code where} clause.
+ * The tool does not know the size of the tables, so every unrestricted query is reported.
+ */
+public class MissingWhereRule implements QueryLintRule {
+    private static final Pattern FROM_OR_UPDATE = Pattern.compile("\\bfrom\\b|^update\\b");
+    private static final Pattern WHERE = Pattern.compile("\\bwhere\\b");
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return "MissingWhere";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LintSeverity getSeverity() {
+        return LintSeverity.WARNING;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String check(LintQuery query) {
+        String normalizedQuery = query.getNormalizedQuery();
+        if (FROM_OR_UPDATE.matcher(normalizedQuery).find() && !WHERE.matcher(normalizedQuery).find()) {
+            return "Has no where clause, every row of the table is processed.";
+        }
+        return null;
+    }
+}
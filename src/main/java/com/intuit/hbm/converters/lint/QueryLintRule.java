@@ -0,0 +1,33 @@
+package com.intuit.hbm.converters.lint;
+
+/**
+ * QueryLintRule is the SPI of the query lint. A rule checks one named query for a pattern which hurts in production.
+ * <p>
+ * Rules are loaded with {@link java.util.ServiceLoader}: additional rules are plugged in by listing their class names
+ * in a {@code META-INF/services/com.intuit.hbm.converters.lint.QueryLintRule} file on the classpath.
+ * Implementations need a public no-arg constructor and must be thread-safe, as queries are checked in parallel.
+ */
+public interface QueryLintRule {
+
+    /**
+     * Returns the name of the rule, shown in the lint report.
+     *
+     * @return The name of the rule.
+     */
+    String getName();
+
+    /**
+     * Returns the severity of the findings of the rule.
+     *
+     * @return The severity.
+     */
+    LintSeverity getSeverity();
+
+    /**
+     * Checks a query.
+     *
+     * @param query The query to check.
+     * @return A message describing what is wrong with the query, or null when the query does not break the rule.
+     */
+    String check(LintQuery query);
+}
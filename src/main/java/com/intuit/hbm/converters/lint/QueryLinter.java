@@ -0,0 +1,149 @@
+package com.intuit.hbm.converters.lint;
+
+import com.intuit.hbm.converters.exception.FileConversionException;
+import com.intuit.hbm.converters.model.EntityMappings;
+import com.intuit.hbm.converters.model.NamedNativeQuery;
+import com.intuit.hbm.converters.model.NamedQuery;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * QueryLinter checks the named queries of every converted file against the {@link QueryLintRule}s found on the
+ * classpath, and writes the findings to the lint report when the run is closed.
+ * <p>
+ * The queries of a file are checked on a background executor while the converter renders the file, so the lint
+ * does not lengthen the conversion of each file. The report is ranked by severity, then by file and query name.
+ * It is written as an HTML page when the report file name ends with ".html", as a JSON document otherwise.
+ * The linter is disabled when no report file was requested.
+ */
+@Slf4j
+public class QueryLinter implements Closeable {
+    private static final Comparator<LintFinding> FINDING_ORDER = Comparator.comparing(LintFinding::getSeverity)
+            .thenComparing(LintFinding::getSourceFile, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(LintFinding::getQueryName, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(LintFinding::getRule);
+
+    private final String reportPath;
+    private final List<QueryLintRule> rules = new ArrayList<>();
+    private final Queue<LintFinding> findings = new ConcurrentLinkedQueue<>();
+    private final Queue<CompletableFuture<Void>> pendingChecks = new ConcurrentLinkedQueue<>();
+    private ExecutorService lintService;
+
+    /**
+     * Creates a QueryLinter with the rules registered through {@link ServiceLoader}.
+     *
+     * @param reportPath The path of the lint report, or null to disable the lint.
+     */
+    public QueryLinter(String reportPath) {
+        this.reportPath = reportPath;
+        if (reportPath != null) {
+            ServiceLoader.load(QueryLintRule.class).forEach(rules::add);
+            lintService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "hbm-query-lint");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Returns whether queries are checked in this run.
+     *
+     * @return true if a lint report was requested.
+     */
+    public boolean isEnabled() {
+        return lintService != null;
+    }
+
+    /**
+     * Schedules the check of the named queries of a file and returns immediately.
+     *
+     * @param sourceFile     The name of the source file.
+     * @param entityMappings The mappings extracted from the file.
+     */
+    public void lint(String sourceFile, EntityMappings entityMappings) {
+        if (!isEnabled()) {
+            return;
+        }
+        pendingChecks.add(CompletableFuture.runAsync(() -> {
+            for (NamedQuery namedQuery : entityMappings.getNamedQueries()) {
+                check(new LintQuery(sourceFile, namedQuery.getName(), namedQuery.getQuery(), false, true));
+            }
+            for (NamedNativeQuery namedNativeQuery : entityMappings.getNamedNativeQueries()) {
+                check(new LintQuery(sourceFile, namedNativeQuery.getName(), namedNativeQuery.getQuery(), true,
+                        namedNativeQuery.getIsReturnClass() || namedNativeQuery.getIsResultSetMapping()));
+            }
+        }, lintService));
+    }
+
+    /**
+     * Checks a query against every rule. A failing rule is logged and does not stop the others.
+     *
+     * @param query The query to check.
+     */
+    public void check(LintQuery query) {
+        for (QueryLintRule rule : rules) {
+            try {
+                String message = rule.check(query);
+                if (message != null) {
+                    findings.add(new LintFinding(query.getSourceFile(), query.getName(), rule.getName(), rule.getSeverity(), message));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Event=HbmToJpaConversion SubEvent=QueryLint Status=RuleFailed Rule={} SourceFileName={} QueryName={}",
+                        rule.getName(), query.getSourceFile(), query.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Returns the findings collected so far, ranked by severity.
+     *
+     * @return A new list of the findings.
+     */
+    public List<LintFinding> getFindings() {
+        List<LintFinding> sortedFindings = new ArrayList<>(findings);
+        sortedFindings.sort(FINDING_ORDER);
+        return sortedFindings;
+    }
+
+    /**
+     * Waits for the scheduled checks and writes the lint report.
+     *
+     * @throws FileConversionException if the report file cannot be written.
+     */
+    @Override
+    public void close() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            CompletableFuture.allOf(pendingChecks.toArray(new CompletableFuture[0])).join();
+        } finally {
+            lintService.shutdown();
+        }
+        List<LintFinding> sortedFindings = getFindings();
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(reportPath), StandardCharsets.UTF_8)) {
+            writer.write(reportPath.endsWith(".html") ? LintReportFormat.toHtml(sortedFindings) : LintReportFormat.toJson(sortedFindings));
+        } catch (IOException e) {
+            throw new FileConversionException("Failed to write the lint report to " + reportPath, e);
+        }
+        log.info("Event=HbmToJpaConversion SubEvent=QueryLintReport Findings={} Errors={} Warnings={} ReportFile={}", sortedFindings.size(),
+                sortedFindings.stream().filter(finding -> finding.getSeverity() == LintSeverity.ERROR).count(),
+                sortedFindings.stream().filter(finding -> finding.getSeverity() == LintSeverity.WARNING).count(), reportPath);
+    }
+}
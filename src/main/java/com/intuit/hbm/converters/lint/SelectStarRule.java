@@ -0,0 +1,38 @@
+package com.intuit.hbm.converters.lint;
+
+import java.util.regex.Pattern;
+
+/**
+ * Flags queries selecting every column, with {@code select *}, {@code alias.*} or the {@code {alias.*}} placeholder
+ * of Hibernate native queries. They over-fetch, and break when columns are added to the table.
+ */
+public class SelectStarRule implements QueryLintRule {
+    private static final Pattern SELECT_STAR = Pattern.compile("(?:^|[\\s,(])(?:\\{?\\w+\\.)?\\*\\}?\\s*(?:,|from\\b)");
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return "SelectStar";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LintSeverity getSeverity() {
+        return LintSeverity.WARNING;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String check(LintQuery query) {
+        if (SELECT_STAR.matcher(query.getNormalizedQuery()).find()) {
+            return "Selects every column instead of the columns which are used.";
+        }
+        return null;
+    }
+}
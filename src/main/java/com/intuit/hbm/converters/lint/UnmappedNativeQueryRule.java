@@ -0,0 +1,35 @@
+package com.intuit.hbm.converters.lint;
+
+/**
+ * Flags native queries selecting rows without a result class or scalar mapping.
+ * Their results are untyped {@code Object[]} rows, converted by the driver defaults.
+ */
+public class UnmappedNativeQueryRule implements QueryLintRule {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return "UnmappedNativeQuery";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LintSeverity getSeverity() {
+        return LintSeverity.INFO;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String check(LintQuery query) {
+        if (query.isNativeQuery() && !query.isResultMapped() && query.getNormalizedQuery().startsWith("select")) {
+            return "Has no result class or scalar mapping, rows are returned as Object[].";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,128 @@
+package com.intuit.hbm.converters.manifest;
+
+import com.intuit.hbm.converters.exception.FileConversionException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * BatchManifest lists the jobs of a run converting many source locations in one invocation.
+ * <p>
+ * Every line is a job, written as the arguments of the command line: source path, extension, destination path,
+ * optional converter types and options. Arguments are separated by whitespace, and an argument containing
+ * whitespace is enclosed in double quotes. Blank lines and lines starting with '#' are ignored.
+ */
+@Getter
+public class BatchManifest {
+    public static final String STANDARD_INPUT = "-";
+
+    // The jobs, in the order of the manifest
+    private final List<Job> jobs;
+
+    private BatchManifest(List<Job> jobs) {
+        this.jobs = Collections.unmodifiableList(jobs);
+    }
+
+    /**
+     * Reads a manifest from a file or from the standard input.
+     *
+     * @param manifestPath The path of the manifest, or "-" for the standard input.
+     * @return The manifest.
+     * @throws FileConversionException if the manifest cannot be read or a line is malformed.
+     */
+    public static BatchManifest read(String manifestPath) {
+        try {
+            if (STANDARD_INPUT.equals(manifestPath)) {
+                // the standard input is not closed, as it is not ours
+                return read(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            }
+            try (Reader reader = Files.newBufferedReader(Paths.get(manifestPath), StandardCharsets.UTF_8)) {
+                return read(reader);
+            }
+        } catch (IOException e) {
+            throw new FileConversionException("Failed to read the manifest " + manifestPath, e);
+        }
+    }
+
+    /**
+     * Reads a manifest.
+     *
+     * @param reader The text of the manifest.
+     * @return The manifest.
+     * @throws IOException             if the text cannot be read.
+     * @throws FileConversionException if a line is malformed.
+     */
+    public static BatchManifest read(Reader reader) throws IOException {
+        List<Job> jobs = new ArrayList<>();
+        BufferedReader lines = new BufferedReader(reader);
+        int lineNumber = 0;
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                jobs.add(new Job(lineNumber, tokenize(trimmed, lineNumber)));
+            }
+        }
+        return new BatchManifest(jobs);
+    }
+
+    /**
+     * Splits a line of the manifest into its arguments.
+     *
+     * @param line       The line.
+     * @param lineNumber The number of the line, used in errors.
+     * @return The arguments.
+     * @throws FileConversionException if a quote is not closed.
+     */
+    static String[] tokenize(String line, int lineNumber) {
+        List<String> args = new ArrayList<>();
+        StringBuilder arg = new StringBuilder();
+        boolean quoted = false;
+        boolean started = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+                started = true;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (started) {
+                    args.add(arg.toString());
+                    arg.setLength(0);
+                    started = false;
+                }
+            } else {
+                arg.append(c);
+                started = true;
+            }
+        }
+        if (quoted) {
+            throw new FileConversionException("Malformed manifest: quote not closed on line " + lineNumber);
+        }
+        if (started) {
+            args.add(arg.toString());
+        }
+        return args.toArray(new String[0]);
+    }
+
+    /**
+     * A job of the manifest: the arguments converting one source location.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Job {
+        // Number of the line of the job in the manifest
+        private final int lineNumber;
+        // Arguments of the job, as on the command line
+        private final String[] args;
+    }
+}
@@ -0,0 +1,193 @@
+package com.intuit.hbm.converters.manifest;
+
+import com.intuit.hbm.converters.common.ConversionContext;
+import com.intuit.hbm.converters.helper.ArgsParser;
+import com.intuit.hbm.converters.helper.FileHelper;
+import com.intuit.hbm.converters.model.ConversionOutcome;
+import com.intuit.hbm.converters.model.InputModel;
+import com.intuit.hbm.converters.model.RunMode;
+import com.intuit.hbm.converters.shard.ShardMerger;
+import com.intuit.hbm.converters.task.ConversionTaskBuilder;
+import com.intuit.hbm.converters.task.TaskExecutor;
+import com.intuit.hbm.converters.task.TaskScheduler;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+/**
+ * ManifestRunner converts the jobs of a {@link BatchManifest} in one run.
+ * <p>
+ * Every job has its own {@link ConversionContext}, built from the options of the command line and the options of
+ * the job, which collects its issues, reports and summary. The tasks of all the jobs are ordered by the scheduling
+ * policy of the command line and executed by one task executor, so that the jobs share its worker pool and memory
+ * budget, as well as the templates and parsers kept by the process. Once every task has ended, the context of every
+ * job is closed, which logs its run summary, and a summary of every job and of the manifest is logged.
+ * A job which cannot be started, such as a job with invalid arguments or a job writing to the destination or a file
+ * of an earlier job, fails without stopping the others.
+ */
+@Slf4j
+public class ManifestRunner {
+    private final InputModel inputModel;
+    private final String[] commandLineArgs;
+    private final FileHelper fileHelper;
+    private final TaskExecutor taskExecutor;
+    private final ArgsParser argsParser = new ArgsParser();
+    // Line of the job writing every destination and output file, by absolute path
+    private final Map<Path, Integer> outputOwners = new HashMap<>();
+
+    /**
+     * Creates a ManifestRunner.
+     *
+     * @param inputModel      The settings of the run, with the path of the manifest.
+     * @param commandLineArgs The arguments of the command line, whose options apply to every job.
+     * @param fileHelper      Helps with file operations such as listing the source files.
+     * @param taskExecutor    Executes the tasks of all the jobs.
+     */
+    public ManifestRunner(InputModel inputModel, String[] commandLineArgs, FileHelper fileHelper, TaskExecutor taskExecutor) {
+        this.inputModel = inputModel;
+        this.commandLineArgs = commandLineArgs.clone();
+        this.fileHelper = fileHelper;
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * Converts the jobs of the manifest.
+     *
+     * @return true if every job succeeded.
+     * @throws InterruptedException if the run is interrupted while the tasks are executed.
+     */
+    public boolean run() throws InterruptedException {
+        BatchManifest manifest = BatchManifest.read(inputModel.getManifestPath());
+        List<JobRun> jobRuns = new ArrayList<>();
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        try {
+            for (BatchManifest.Job job : manifest.getJobs()) {
+                JobRun jobRun = new JobRun(job);
+                jobRuns.add(jobRun);
+                tasks.addAll(jobRun.start());
+            }
+            if (!tasks.isEmpty()) {
+                TaskScheduler taskScheduler = TaskScheduler.forRun(inputModel);
+                taskExecutor.executeTasks(taskScheduler.schedule(tasks));
+                taskScheduler.close();
+            }
+        } finally {
+            for (JobRun jobRun : jobRuns) {
+                jobRun.close();
+            }
+        }
+        long failedCount = jobRuns.stream().filter(jobRun -> !jobRun.isSucceeded()).count();
+        log.info("Event=HbmToJpaConversion SubEvent=ManifestSummary Jobs={} Succeeded={} Failed={} TasksCount={} Manifest={}",
+                jobRuns.size(), jobRuns.size() - failedCount, failedCount, tasks.size(), inputModel.getManifestPath());
+        return failedCount == 0;
+    }
+
+    /**
+     * Records the destination and output files of a job, before any of them is opened.
+     *
+     * @param jobModel   The settings of the job.
+     * @param lineNumber The line of the job in the manifest.
+     * @throws IllegalArgumentException if an earlier job writes to the same destination or file.
+     */
+    private void claimOutputs(InputModel jobModel, int lineNumber) {
+        List<String> outputPaths = Arrays.asList(jobModel.getDestDirPath(), jobModel.getJournalPath(), jobModel.getReportPath(),
+                jobModel.getLintReportPath(), jobModel.getCheckpointPath(), jobModel.getCatalogPath(),
+                jobModel.getCacheConfigPath(), jobModel.getFetchConfigPath());
+        for (String outputPath : outputPaths) {
+            if (outputPath == null) {
+                continue;
+            }
+            Integer owner = outputOwners.putIfAbsent(Paths.get(outputPath).toAbsolutePath().normalize(), lineNumber);
+            if (owner != null && !Objects.equals(owner, lineNumber)) {
+                throw new IllegalArgumentException("Output " + outputPath + " is already written by the job on line " + owner);
+            }
+        }
+    }
+
+    /**
+     * The state of a job of the manifest during the run.
+     */
+    private final class JobRun {
+        private final BatchManifest.Job job;
+        private InputModel jobModel;
+        private ConversionContext context;
+        private int filesCount;
+        private boolean failed;
+
+        private JobRun(BatchManifest.Job job) {
+            this.job = job;
+        }
+
+        /**
+         * Parses the arguments of the job and builds the tasks converting its files. A job merging the reports of
+         * a sharded run has no task, its reports are merged right away.
+         *
+         * @return The tasks of the job, none if the job cannot be started.
+         */
+        private List<Callable<Boolean>> start() {
+            try {
+                jobModel = argsParser.parseJobArgs(commandLineArgs, job.getArgs());
+                claimOutputs(jobModel, job.getLineNumber());
+                context = new ConversionContext(jobModel);
+                if (jobModel.getRunMode() == RunMode.MERGE_SHARDS) {
+                    failed = !new ShardMerger(fileHelper, context).merge();
+                    return Collections.emptyList();
+                }
+                File[] files = fileHelper.getFiles(jobModel.getSrcDirectoryPath(), jobModel.getFileEndsWith());
+                if (files == null || files.length == 0) {
+                    return Collections.emptyList();
+                }
+                filesCount = files.length;
+                return new ConversionTaskBuilder(context).buildTasks(files, jobModel.getDestDirPath(), jobModel.getConverterTypes());
+            } catch (RuntimeException e) {
+                fail(e);
+                return Collections.emptyList();
+            }
+        }
+
+        /**
+         * Closes the context of the job and logs its summary.
+         */
+        private void close() {
+            if (context != null) {
+                try {
+                    context.close();
+                } catch (RuntimeException e) {
+                    fail(e);
+                }
+            }
+            log.info("Event=HbmToJpaConversion SubEvent=JobSummary Line={} Source={} Destination={} Files={} Succeeded={} Failed={} Skipped={} Status={}",
+                    job.getLineNumber(), jobModel == null ? null : jobModel.getSrcDirectoryPath(), jobModel == null ? null : jobModel.getDestDirPath(),
+                    filesCount, getFileCount(ConversionOutcome.SUCCESS), getFileCount(ConversionOutcome.FAILED),
+                    getFileCount(ConversionOutcome.SKIPPED), isSucceeded() ? "Succeeded" : "Failed");
+        }
+
+        private void fail(RuntimeException e) {
+            failed = true;
+            log.error("Event=HbmToJpaConversion SubEvent=ManifestJob Line={} Status=Failed", job.getLineNumber(), e);
+        }
+
+        private long getFileCount(ConversionOutcome outcome) {
+            return context == null ? 0 : context.getEventJournal().getFileCount(outcome);
+        }
+
+        /**
+         * Returns whether the job succeeded: it was started, and none of its files failed.
+         *
+         * @return true if the job succeeded.
+         */
+        private boolean isSucceeded() {
+            return !failed && getFileCount(ConversionOutcome.FAILED) == 0;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.intuit.hbm.converters.merge;
+
+import com.intuit.hbm.converters.exception.FileConversionException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * OrmDocument locates the top-level elements of an orm file in its text, without parsing it into a tree, so that
+ * single elements can be replaced while every other byte of the file is kept as it is.
+ * <p>
+ * The text is scanned once from start to end. Comments, CDATA sections, processing instructions and the doctype are
+ * skipped, so that markup in their text is not taken for elements, and quoted attribute values may contain '>'.
+ * Only the children of the root element are recorded, with their name attribute and their offsets in the text.
+ */
+@Getter
+public class OrmDocument {
+    private static final Pattern NAME_ATTRIBUTE = Pattern.compile("\\sname\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)')");
+
+    // The children of the root element, in document order
+    private final List<Element> elements;
+    // Offset of the end of the start tag of the root element
+    private final int rootStartEnd;
+
+    private OrmDocument(List<Element> elements, int rootStartEnd) {
+        this.elements = Collections.unmodifiableList(elements);
+        this.rootStartEnd = rootStartEnd;
+    }
+
+    /**
+     * Scans the text of an orm file for the children of its root element.
+     *
+     * @param text The text of the file.
+     * @return The document.
+     * @throws FileConversionException if the text is not well-formed enough to locate the elements.
+     */
+    public static OrmDocument parse(String text) {
+        List<Element> elements = new ArrayList<>();
+        int rootStartEnd = -1;
+        int depth = 0;
+        // the child of the root element being scanned
+        int childStart = -1;
+        String childTag = null;
+        String childName = null;
+        int position = text.indexOf('<');
+        while (position >= 0) {
+            int next;
+            if (text.startsWith("<!--", position)) {
+                next = skipPast(text, position, "-->");
+            } else if (text.startsWith("<![CDATA[", position)) {
+                next = skipPast(text, position, "]]>");
+            } else if (text.startsWith("<?", position)) {
+                next = skipPast(text, position, "?>");
+            } else if (text.startsWith("<!", position)) {
+                next = skipDeclaration(text, position);
+            } else if (text.startsWith("</", position)) {
+                next = skipPast(text, position, ">");
+                depth--;
+                if (depth == 1) {
+                    elements.add(new Element(childTag, childName, childStart, next));
+                } else if (depth < 0) {
+                    throw new FileConversionException("Malformed orm file: unexpected end tag at offset " + position);
+                }
+            } else {
+                next = skipTag(text, position);
+                boolean empty = text.charAt(next - 2) == '/';
+                if (depth == 0) {
+                    rootStartEnd = next;
+                } else if (depth == 1) {
+                    childStart = position;
+                    childTag = getTagName(text, position);
+                    childName = getNameAttribute(text.substring(position, next));
+                    if (empty) {
+                        elements.add(new Element(childTag, childName, childStart, next));
+                    }
+                }
+                if (!empty) {
+                    depth++;
+                }
+            }
+            position = text.indexOf('<', next);
+        }
+        if (rootStartEnd < 0 || depth != 0) {
+            throw new FileConversionException("Malformed orm file: the root element is missing or not closed");
+        }
+        return new OrmDocument(elements, rootStartEnd);
+    }
+
+    /**
+     * Returns the offset following the given terminator.
+     *
+     * @param text       The text.
+     * @param position   The offset the construct starts at.
+     * @param terminator The end of the construct.
+     * @return The offset following the terminator.
+     * @throws FileConversionException if the terminator is missing.
+     */
+    private static int skipPast(String text, int position, String terminator) {
+        int end = text.indexOf(terminator, position + 1);
+        if (end < 0) {
+            throw new FileConversionException("Malformed orm file: '" + terminator + "' missing after offset " + position);
+        }
+        return end + terminator.length();
+    }
+
+    /**
+     * Returns the offset following a declaration such as the doctype, whose internal subset may contain '>'.
+     *
+     * @param text     The text.
+     * @param position The offset the declaration starts at.
+     * @return The offset following the declaration.
+     * @throws FileConversionException if the declaration is not closed.
+     */
+    private static int skipDeclaration(String text, int position) {
+        int brackets = 0;
+        for (int i = position + 2; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '[') {
+                brackets++;
+            } else if (c == ']') {
+                brackets--;
+            } else if (c == '>' && brackets == 0) {
+                return i + 1;
+            }
+        }
+        throw new FileConversionException("Malformed orm file: declaration not closed after offset " + position);
+    }
+
+    /**
+     * Returns the offset following a start tag, whose quoted attribute values may contain '>'.
+     *
+     * @param text     The text.
+     * @param position The offset the tag starts at.
+     * @return The offset following the tag.
+     * @throws FileConversionException if the tag is not closed.
+     */
+    private static int skipTag(String text, int position) {
+        char quote = 0;
+        for (int i = position + 1; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                return i + 1;
+            }
+        }
+        throw new FileConversionException("Malformed orm file: tag not closed after offset " + position);
+    }
+
+    /**
+     * Returns the name of the tag starting at the given offset, without its namespace prefix.
+     *
+     * @param text     The text.
+     * @param position The offset the tag starts at.
+     * @return The local name of the tag.
+     */
+    private static String getTagName(String text, int position) {
+        int end = position + 1;
+        while (end < text.length() && !Character.isWhitespace(text.charAt(end)) && text.charAt(end) != '>' && text.charAt(end) != '/') {
+            end++;
+        }
+        String name = text.substring(position + 1, end);
+        return name.substring(name.indexOf(':') + 1);
+    }
+
+    /**
+     * Returns the value of the name attribute of a start tag, as written in the file.
+     *
+     * @param tag The text of the start tag.
+     * @return The value of the attribute, null if the tag has none.
+     */
+    private static String getNameAttribute(String tag) {
+        Matcher matcher = NAME_ATTRIBUTE.matcher(tag);
+        if (!matcher.find()) {
+            return null;
+        }
+        return matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+    }
+
+    /**
+     * A child of the root element, from the start of its start tag to the end of its end tag.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Element {
+        private final String tag;
+        private final String name;
+        private final int start;
+        private final int end;
+
+        /**
+         * Returns the text of the element.
+         *
+         * @param text The text of the document.
+         * @return The text of the element.
+         */
+        public String getText(String text) {
+            return text.substring(start, end);
+        }
+    }
+}
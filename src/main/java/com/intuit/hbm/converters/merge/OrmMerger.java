@@ -0,0 +1,522 @@
+package com.intuit.hbm.converters.merge;
+
+import com.intuit.hbm.converters.catalog.QueryCatalog;
+import com.intuit.hbm.converters.exception.FileConversionException;
+import com.intuit.hbm.converters.helper.FileHelper;
+import com.intuit.hbm.converters.model.InputModel;
+import com.intuit.hbm.converters.model.WriteMode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrmMerger merges the named queries and result set mappings of the converted files into an existing orm file,
+ * instead of writing one converted file per source file, so that a hand-maintained orm file can hold converted
+ * queries next to hand-written mappings.
+ * <p>
+ * The converted content of a file is staged on the converting thread and committed once its conversion completes,
+ * like the queries of the {@link com.intuit.hbm.converters.catalog.QueryCatalogBuilder}. When the run is closed,
+ * the orm file is scanned once and only the {@code named-query}, {@code named-native-query} and
+ * {@code sql-result-set-mapping} elements of the source files which changed are replaced, added or removed; every
+ * other byte of the file is kept. A new element is added after the last element of its kind, or where the schema
+ * order of the orm file puts it.
+ * <p>
+ * An index file next to the orm file records, for every source file merged, its size and modification time and the
+ * hash of each element it contributed. A source file which has not changed since is not converted again, and the
+ * orm file is not even read when no element changed, so the cost of a run follows the change rather than the size
+ * of the corpus. The elements of a source file which no longer exists are removed. An element of the orm file which
+ * is not in the index is left alone, unless a converted element has its name, which then takes it over.
+ * The index also records the version of the tool and the options changing the converted content; when they differ
+ * from those of the run, every source file is converted again.
+ * The merger is disabled when the run does not merge.
+ */
+@Slf4j
+public class OrmMerger implements Closeable {
+    // Suffix of the index file, next to the orm file
+    public static final String INDEX_SUFFIX = ".merge-index";
+    // The children of entity-mappings in the order of the orm schema
+    private static final List<String> ELEMENT_ORDER = Arrays.asList("description", "persistence-unit-metadata", "package",
+            "schema", "catalog", "access", "sequence-generator", "table-generator", "named-query", "named-native-query",
+            "named-stored-procedure-query", "sql-result-set-mapping", "mapped-superclass", "entity", "embeddable", "converter");
+    // The children of entity-mappings merged from the converted files
+    private static final Set<String> MERGED_ELEMENTS = new HashSet<>(Arrays.asList("named-query", "named-native-query", "sql-result-set-mapping"));
+    // Start of the line of the index recording the settings of the run which wrote it
+    private static final String SETTINGS_PREFIX = "#settings" + "\t";
+    // Separator of the fields of an index line
+    private static final String SEPARATOR = "\t";
+    // Indentation of a new element when the orm file has no element to take it from
+    private static final String DEFAULT_INDENT = "  ";
+
+    private final Path ormFile;
+    private final Path indexFile;
+    // Hash of the tool version and of the options changing the converted content
+    private final String settings;
+    // Whether the index was written with other settings, in which case every source file is converted again
+    private boolean settingsChanged;
+    // The source files merged by the previous runs, by absolute path
+    private final Map<String, MergedSource> index = new HashMap<>();
+    private final Map<String, MergedSource> committedSources = new ConcurrentHashMap<>();
+    // The converted content of the file being converted by the current thread, until it is committed or discarded
+    private final ThreadLocal<MergedSource> stagedSource = new ThreadLocal<>();
+
+    /**
+     * Creates an OrmMerger and loads the index of the previous runs.
+     *
+     * @param ormFilePath The path of the orm file to merge into, or null to disable merging.
+     * @param inputModel  The settings of the run.
+     * @throws FileConversionException if the index file cannot be read.
+     */
+    public OrmMerger(String ormFilePath, InputModel inputModel) {
+        this.ormFile = ormFilePath == null ? null : Paths.get(ormFilePath).toAbsolutePath();
+        this.indexFile = ormFile == null ? null : ormFile.resolveSibling(ormFile.getFileName() + INDEX_SUFFIX);
+        this.settings = getSettings(inputModel);
+        if (indexFile == null || !Files.exists(indexFile)) {
+            return;
+        }
+        String indexSettings = null;
+        try {
+            for (String line : Files.readAllLines(indexFile, StandardCharsets.UTF_8)) {
+                if (line.startsWith(SETTINGS_PREFIX)) {
+                    indexSettings = line.substring(SETTINGS_PREFIX.length());
+                    continue;
+                }
+                String[] fields = line.split(SEPARATOR, -1);
+                if (fields.length < 3) {
+                    continue;
+                }
+                MergedSource source = index.computeIfAbsent(fields[0], path -> new MergedSource(path, fields[1] + SEPARATOR + fields[2]));
+                if (fields.length == 6) {
+                    source.add(new MergedElement(fields[3], fields[4], Long.parseUnsignedLong(fields[5], 16), null));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw new FileConversionException("Unable to read merge index " + indexFile, e);
+        }
+        settingsChanged = !settings.equals(indexSettings);
+        log.info("Event=HbmToJpaConversion SubEvent=OrmMerge Status=Started MergedFilesCount={} SettingsChanged={} IndexFile={}",
+                index.size(), settingsChanged, indexFile);
+    }
+
+    /**
+     * Returns the hash of the settings of a run which change the converted content: the version of the tool, and the
+     * conversion options.
+     *
+     * @param inputModel The settings of the run.
+     * @return The hash, in hexadecimal.
+     */
+    static String getSettings(InputModel inputModel) {
+        String version = OrmMerger.class.getPackage().getImplementationVersion();
+        String settings = "version=" + version + " convertEntities=" + inputModel.isConvertEntities()
+                + " normalizeQueries=" + inputModel.isNormalizeQueries();
+        return String.format("%016x", QueryCatalog.hash(settings.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Returns whether the converted files are merged into an orm file in this run.
+     *
+     * @return true if an orm file to merge into was given.
+     */
+    public boolean isEnabled() {
+        return ormFile != null;
+    }
+
+    /**
+     * Returns the orm file the converted files are merged into.
+     *
+     * @return The absolute path of the orm file, null when the run does not merge.
+     */
+    public String getOrmFilePath() {
+        return ormFile == null ? null : ormFile.toString();
+    }
+
+    /**
+     * Checks whether a source file was merged by a previous run with the same settings and has not changed since.
+     *
+     * @param sourceFile The source file.
+     * @return true if the file does not have to be converted again.
+     */
+    public boolean isUnchanged(File sourceFile) {
+        MergedSource source = index.get(sourceFile.getAbsolutePath());
+        return !settingsChanged && source != null && source.signature.equals(getSignature(sourceFile));
+    }
+
+    /**
+     * Stages the converted content of the file being converted by the current thread.
+     *
+     * @param sourceFile The source file.
+     * @param content    The converted content of the file, an orm file.
+     * @return true if the merged elements of the file differ from the ones it contributed to the previous run.
+     * @throws FileConversionException if the converted content cannot be scanned.
+     */
+    public boolean stage(File sourceFile, String content) {
+        MergedSource source = new MergedSource(sourceFile.getAbsolutePath(), getSignature(sourceFile));
+        for (OrmDocument.Element element : OrmDocument.parse(content).getElements()) {
+            if (MERGED_ELEMENTS.contains(element.getTag()) && element.getName() != null) {
+                String text = element.getText(content);
+                source.add(new MergedElement(element.getTag(), element.getName(), QueryCatalog.hash(text.getBytes(StandardCharsets.UTF_8)), text));
+            }
+        }
+        stagedSource.set(source);
+        MergedSource previous = index.get(source.path);
+        return previous == null || !previous.hasSameElements(source);
+    }
+
+    /**
+     * Commits the content staged by the current thread, once the conversion of its file completed.
+     */
+    public void commit() {
+        MergedSource source = stagedSource.get();
+        if (source != null) {
+            stagedSource.remove();
+            committedSources.put(source.path, source);
+        }
+    }
+
+    /**
+     * Drops the content staged by the current thread, when the conversion of its file did not complete.
+     */
+    public void discard() {
+        stagedSource.remove();
+    }
+
+    /**
+     * Merges the committed files into the orm file and writes the index.
+     *
+     * @throws FileConversionException if the orm file or the index cannot be read or written.
+     */
+    @Override
+    public void close() {
+        if (!isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        Map<String, MergedSource> changedSources = new TreeMap<>();
+        for (MergedSource source : committedSources.values()) {
+            MergedSource previous = index.get(source.path);
+            if (previous == null || !previous.hasSameElements(source)) {
+                changedSources.put(source.path, source);
+            }
+        }
+        List<String> removedSources = new ArrayList<>();
+        for (String path : index.keySet()) {
+            if (!committedSources.containsKey(path) && !new File(path).exists()) {
+                removedSources.add(path);
+            }
+        }
+        Map<String, MergedSource> mergedSources = new TreeMap<>(index);
+        mergedSources.keySet().removeAll(removedSources);
+        mergedSources.putAll(committedSources);
+
+        MergeCounts counts = new MergeCounts();
+        if (!changedSources.isEmpty() || !removedSources.isEmpty()) {
+            merge(changedSources, removedSources, mergedSources, counts);
+        }
+        if (!committedSources.isEmpty() || !removedSources.isEmpty() || settingsChanged) {
+            writeIndex(mergedSources);
+        }
+        log.info("Event=HbmToJpaConversion SubEvent=OrmMerge Status=Done ChangedFilesCount={} RemovedFilesCount={} AddedCount={} "
+                        + "ReplacedCount={} RemovedCount={} TimeTaken={}ms OrmFile={}", changedSources.size(), removedSources.size(),
+                counts.added, counts.replaced, counts.removed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), ormFile);
+    }
+
+    /**
+     * Replaces, adds and removes the elements of the changed and removed source files in the orm file.
+     *
+     * @param changedSources The committed source files whose elements changed, by path.
+     * @param removedSources The paths of the source files which no longer exist.
+     * @param mergedSources  The source files of the index after the merge, by path; the elements which another
+     *                       source file already defines are dropped from them.
+     * @param counts         The counts of the merged elements, updated.
+     */
+    private void merge(Map<String, MergedSource> changedSources, List<String> removedSources, Map<String, MergedSource> mergedSources, MergeCounts counts) {
+        String text;
+        try {
+            text = new String(Files.readAllBytes(ormFile), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new FileConversionException("Unable to read orm file " + ormFile, e);
+        }
+        OrmDocument document = OrmDocument.parse(text);
+
+        // the elements of the unchanged source files keep their owner, the first source file defining an element owns it
+        Map<String, String> owners = new HashMap<>();
+        for (MergedSource source : mergedSources.values()) {
+            if (!changedSources.containsKey(source.path)) {
+                source.elements.keySet().forEach(key -> owners.putIfAbsent(key, source.path));
+            }
+        }
+        Map<String, MergedElement> wantedElements = new HashMap<>();
+        for (MergedSource source : changedSources.values()) {
+            for (MergedElement element : new ArrayList<>(source.elements.values())) {
+                String owner = owners.putIfAbsent(element.getKey(), source.path);
+                if (owner == null) {
+                    wantedElements.put(element.getKey(), element);
+                } else {
+                    log.warn("Event=HbmToJpaConversion SubEvent=OrmMerge Status=Duplicate Element={} Name={} SourceFileName={} DefinedIn={}",
+                            element.tag, element.name, source.path, owner);
+                    source.elements.remove(element.getKey());
+                }
+            }
+        }
+        // the elements which may change: the ones the changed and removed source files had or have
+        Set<String> touchedKeys = new HashSet<>(wantedElements.keySet());
+        for (MergedSource source : index.values()) {
+            if (changedSources.containsKey(source.path) || removedSources.contains(source.path)) {
+                touchedKeys.addAll(source.elements.keySet());
+            }
+        }
+
+        List<Edit> edits = new ArrayList<>();
+        Set<String> presentKeys = new HashSet<>();
+        for (OrmDocument.Element element : document.getElements()) {
+            String key = getKey(element.getTag(), element.getName());
+            if (!MERGED_ELEMENTS.contains(element.getTag()) || element.getName() == null || !touchedKeys.contains(key)) {
+                continue;
+            }
+            // an element no longer wanted is removed, and so is a second element with the same name
+            MergedElement wanted = presentKeys.add(key) ? wantedElements.get(key) : null;
+            if (wanted == null) {
+                edits.add(new Edit(getLineStart(text, element.getStart()), element.getEnd(), ""));
+                counts.removed++;
+            } else if (!wanted.text.equals(element.getText(text))) {
+                edits.add(new Edit(element.getStart(), element.getEnd(), wanted.text));
+                counts.replaced++;
+            }
+        }
+        List<MergedElement> newElements = new ArrayList<>();
+        for (MergedElement element : wantedElements.values()) {
+            if (!presentKeys.contains(element.getKey())) {
+                newElements.add(element);
+            }
+        }
+        newElements.sort(Comparator.comparingInt((MergedElement element) -> getRank(element.tag)).thenComparing(element -> element.name));
+        for (MergedElement element : newElements) {
+            OrmDocument.Element anchor = null;
+            for (OrmDocument.Element candidate : document.getElements()) {
+                if (getRank(candidate.getTag()) <= getRank(element.tag)) {
+                    anchor = candidate;
+                }
+            }
+            String indent = getIndent(text, anchor != null ? anchor : document.getElements().isEmpty() ? null : document.getElements().get(0));
+            int offset = anchor != null ? anchor.getEnd() : document.getRootStartEnd();
+            edits.add(new Edit(offset, offset, "\n" + indent + element.text));
+            counts.added++;
+        }
+        if (edits.isEmpty()) {
+            return;
+        }
+        // an insertion goes before the removal of the line following its anchor
+        edits.sort(Comparator.comparingInt((Edit edit) -> edit.start).thenComparingInt(edit -> edit.end - edit.start));
+        StringBuilder merged = new StringBuilder(text.length());
+        int copied = 0;
+        for (Edit edit : edits) {
+            merged.append(text, copied, edit.start).append(edit.replacement);
+            copied = edit.end;
+        }
+        merged.append(text, copied, text.length());
+        FileHelper.getInstance().writeContent(merged.toString(), ormFile.toString(), "", "", WriteMode.IF_CHANGED);
+    }
+
+    /**
+     * Writes the index to a temporary file renamed in place, so that an interrupted run leaves the previous index.
+     *
+     * @param mergedSources The source files merged, by path.
+     * @throws FileConversionException if the index cannot be written.
+     */
+    private void writeIndex(Map<String, MergedSource> mergedSources) {
+        StringBuilder content = new StringBuilder(SETTINGS_PREFIX).append(settings).append('\n');
+        for (MergedSource source : mergedSources.values()) {
+            String prefix = source.path + SEPARATOR + source.signature;
+            if (source.elements.isEmpty()) {
+                content.append(prefix).append('\n');
+            }
+            for (MergedElement element : source.elements.values()) {
+                content.append(prefix).append(SEPARATOR).append(element.tag).append(SEPARATOR).append(element.name)
+                        .append(SEPARATOR).append(String.format("%016x", element.hash)).append('\n');
+            }
+        }
+        Path tempFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try {
+            Files.write(tempFile, content.toString().getBytes(StandardCharsets.UTF_8));
+            FileHelper.moveReplacing(tempFile, indexFile);
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw new FileConversionException("Unable to write merge index " + indexFile, e);
+        }
+    }
+
+    /**
+     * Returns the offset an element is removed from: the end of the previous line when the element starts its
+     * line, so that its line is removed with it.
+     *
+     * @param text  The text of the orm file.
+     * @param start The offset of the element.
+     * @return The offset the removal starts at.
+     */
+    private static int getLineStart(String text, int start) {
+        int position = start;
+        while (position > 0 && (text.charAt(position - 1) == ' ' || text.charAt(position - 1) == '\t')) {
+            position--;
+        }
+        if (position > 0 && text.charAt(position - 1) == '\n') {
+            position--;
+            if (position > 0 && text.charAt(position - 1) == '\r') {
+                position--;
+            }
+            return position;
+        }
+        return start;
+    }
+
+    /**
+     * Returns the indentation of the line of an element, used for the elements added next to it.
+     *
+     * @param text    The text of the orm file.
+     * @param element The element, may be null.
+     * @return The whitespace before the element on its line, or the default indentation.
+     */
+    private static String getIndent(String text, OrmDocument.Element element) {
+        if (element == null) {
+            return DEFAULT_INDENT;
+        }
+        int position = element.getStart();
+        while (position > 0 && (text.charAt(position - 1) == ' ' || text.charAt(position - 1) == '\t')) {
+            position--;
+        }
+        return position == 0 || text.charAt(position - 1) == '\n' ? text.substring(position, element.getStart()) : DEFAULT_INDENT;
+    }
+
+    /**
+     * Returns the position of an element in the schema order, an unknown element being ordered last.
+     *
+     * @param tag The name of the element.
+     * @return The position of the element.
+     */
+    private static int getRank(String tag) {
+        int rank = ELEMENT_ORDER.indexOf(tag);
+        return rank < 0 ? Integer.MAX_VALUE : rank;
+    }
+
+    /**
+     * Returns the key identifying an element of the orm file.
+     *
+     * @param tag  The name of the element.
+     * @param name The value of its name attribute.
+     * @return The key.
+     */
+    private static String getKey(String tag, String name) {
+        return tag + SEPARATOR + name;
+    }
+
+    /**
+     * Returns the signature of a source file: its size and modification time.
+     *
+     * @param sourceFile The source file.
+     * @return The signature.
+     */
+    private static String getSignature(File sourceFile) {
+        return sourceFile.length() + SEPARATOR + sourceFile.lastModified();
+    }
+
+    /**
+     * A source file and the elements it contributes to the orm file.
+     */
+    private static class MergedSource {
+        private final String path;
+        private final String signature;
+        private final Map<String, MergedElement> elements = new LinkedHashMap<>();
+
+        private MergedSource(String path, String signature) {
+            this.path = path;
+            this.signature = signature;
+        }
+
+        private void add(MergedElement element) {
+            elements.put(element.getKey(), element);
+        }
+
+        /**
+         * Returns whether another version of the source file contributes the same elements.
+         *
+         * @param other The other version.
+         * @return true if both versions have the same elements with the same hashes.
+         */
+        private boolean hasSameElements(MergedSource other) {
+            if (!elements.keySet().equals(other.elements.keySet())) {
+                return false;
+            }
+            for (MergedElement element : elements.values()) {
+                if (element.hash != other.elements.get(element.getKey()).hash) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * An element contributed by a source file, with its text when it was converted in this run.
+     */
+    private static class MergedElement {
+        private final String tag;
+        private final String name;
+        private final long hash;
+        private final String text;
+
+        private MergedElement(String tag, String name, long hash, String text) {
+            this.tag = tag;
+            this.name = name;
+            this.hash = hash;
+            this.text = text;
+        }
+
+        private String getKey() {
+            return OrmMerger.getKey(tag, name);
+        }
+    }
+
+    /**
+     * A change of the text of the orm file: the text from start to end is replaced.
+     */
+    private static class Edit {
+        private final int start;
+        private final int end;
+        private final String replacement;
+
+        private Edit(int start, int end, String replacement) {
+            this.start = start;
+            this.end = end;
+            this.replacement = replacement;
+        }
+    }
+
+    /**
+     * The number of elements added, replaced and removed by a merge.
+     */
+    private static class MergeCounts {
+        private int added;
+        private int replaced;
+        private int removed;
+    }
+}
@@ -0,0 +1,42 @@
+package com.intuit.hbm.converters.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * BasicMapping is a POJO that represents a basic or version attribute of an entity in an ORM tool configuration.
+ * It provides the structure for the attribute name and the column it is mapped to.
+ */
+@Getter
+@Setter
+public class BasicMapping {
+    // Name of the attribute
+    private String name;
+    // Name of the column
+    private String column;
+    // Length of the column, null when not specified
+    private String length;
+    // Whether the column is declared not null
+    private boolean notNull;
+    // Whether the column is declared unique
+    private boolean unique;
+    // Whether the column is included in SQL inserts
+    private boolean insertable = true;
+    // Whether the column is included in SQL updates
+    private boolean updatable = true;
+    // Temporal type of the attribute (DATE, TIME or TIMESTAMP), null when not temporal
+    private String temporal;
+    // Whether the attribute is a large object
+    private boolean lob;
+
+    /**
+     * Creates an instance of BasicMapping.
+     *
+     * @param name   The name of the attribute.
+     * @param column The name of the column.
+     */
+    public BasicMapping(String name, String column) {
+        this.name = name;
+        this.column = column;
+    }
+}
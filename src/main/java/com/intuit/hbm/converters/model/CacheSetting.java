@@ -0,0 +1,26 @@
+package com.intuit.hbm.converters.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * CacheSetting is a POJO that represents the second-level cache declaration of a class or collection mapping.
+ * It provides the structure for the cache concurrency strategy and the cache region.
+ */
+@Getter
+@AllArgsConstructor
+public class CacheSetting {
+    // Cache concurrency strategy (read-only, read-write, nonstrict-read-write or transactional)
+    private String usage;
+    // Name of the cache region, null when it defaults to the name of the class or collection
+    private String region;
+
+    /**
+     * Returns the value of the Hibernate class or collection cache property: the usage followed by the region, if any.
+     *
+     * @return The value of the cache property.
+     */
+    public String getPropertyValue() {
+        return region == null ? usage : usage + "," + region;
+    }
+}
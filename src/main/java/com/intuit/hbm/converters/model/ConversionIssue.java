@@ -0,0 +1,23 @@
+package com.intuit.hbm.converters.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * ConversionIssue is a POJO that describes a part of a source file which could not be converted,
+ * or was converted with a difference the user has to review.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ConversionIssue {
+    // Name of the source file the issue was found in
+    private String sourceFile;
+    // Name of the hbm element the issue is about
+    private String element;
+    // Name of the mapped class, property or query the issue is about
+    private String name;
+    // Why the element could not be converted as is
+    private String reason;
+}
@@ -0,0 +1,19 @@
+package com.intuit.hbm.converters.model;
+
+/**
+ * An enumeration of the outcomes recorded for a conversion stage.
+ */
+public enum ConversionOutcome {
+    /**
+     * The stage completed successfully.
+     */
+    SUCCESS,
+    /**
+     * The stage failed with an error.
+     */
+    FAILED,
+    /**
+     * The file was not converted again, as a previous run completed it.
+     */
+    SKIPPED
+}
@@ -0,0 +1,43 @@
+package com.intuit.hbm.converters.model;
+
+/**
+ * An enumeration of the stages a single file passes through while it is being converted.
+ */
+public enum ConversionStage {
+    /**
+     * Checks that the source file exists and can be accessed.
+     */
+    VALIDATE,
+    /**
+     * Scans the raw bytes of the source file for the elements to convert, before it is parsed.
+     */
+    PRESCAN,
+    /**
+     * Parses the source file into a Document.
+     */
+    READ,
+    /**
+     * Extracts the mappings of the parsed Document once, when they are rendered to several output targets.
+     */
+    EXTRACT,
+    /**
+     * Converts the parsed Document into the target format.
+     */
+    CONVERT,
+    /**
+     * Validates the converted content against the ORM schema.
+     */
+    VALIDATE_OUTPUT,
+    /**
+     * Writes the converted content to the destination.
+     */
+    WRITE,
+    /**
+     * Compares a converted file with the mappings of its source file.
+     */
+    VERIFY,
+    /**
+     * The complete conversion of a file, from validation to write.
+     */
+    CONVERSION
+}
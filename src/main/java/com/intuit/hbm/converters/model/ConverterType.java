@@ -7,5 +7,10 @@ public enum ConverterType {
     /**
      * HBMToORM indicates a conversion from Hibernate HBM (Hibernate XML mapping) files to ORM (Object Relational Mapping) files.
      */
-    HBMToORM
+    HBMToORM,
+    /**
+     * HBMToJavaRegistry indicates a conversion from Hibernate HBM files to the Java source of a class registering
+     * the named queries through the JPA EntityManagerFactory.
+     */
+    HBMToJavaRegistry
 }
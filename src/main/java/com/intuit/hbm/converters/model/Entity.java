@@ -0,0 +1,51 @@
+package com.intuit.hbm.converters.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entity is a POJO that represents an entity mapping in an ORM tool configuration.
+ * It provides the structure for the mapped class, its table and its attributes.
+ */
+@Getter
+@Setter
+public class Entity {
+    // Name of the mapped class
+    private String className;
+    // Access type of the attributes (PROPERTY or FIELD)
+    private String access;
+    // Name of the table, null when it defaults to the class name
+    private String table;
+    // Schema of the table, may be null
+    private String schema;
+    // Catalog of the table, may be null
+    private String catalog;
+    // Identifier attribute
+    private IdMapping id;
+    // Version attribute, may be null
+    private BasicMapping version;
+    // Basic attributes
+    private List<BasicMapping> basicMappings = new ArrayList<>();
+    // Many-to-one associations
+    private List<ManyToOneMapping> manyToOneMappings = new ArrayList<>();
+    // One-to-many collections
+    private List<OneToManyMapping> oneToManyMappings = new ArrayList<>();
+    // Second-level cache declaration, null when the entity is not cached
+    private CacheSetting cache;
+    // Number of proxies of the entity initialized together, null when the instances are loaded one by one
+    private Integer batchSize;
+
+    /**
+     * Creates an instance of Entity.
+     *
+     * @param className The name of the mapped class.
+     * @param access    The access type of the attributes.
+     */
+    public Entity(String className, String access) {
+        this.className = className;
+        this.access = access;
+    }
+}
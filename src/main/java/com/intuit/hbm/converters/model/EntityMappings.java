@@ -0,0 +1,28 @@
+package com.intuit.hbm.converters.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+
+/**
+ * EntityMappings is a POJO that represents everything extracted from one hbm file:
+ * the named queries, the native queries with their result set mappings, the entities,
+ * and the issues found while extracting them.
+ */
+@Getter
+@AllArgsConstructor
+public class EntityMappings {
+    // Default package of the mapped classes
+    private String packageName;
+    // Named HQL queries
+    private ArrayList<NamedQuery> namedQueries;
+    // Named native SQL queries
+    private ArrayList<NamedNativeQuery> namedNativeQueries;
+    // Result set mappings of the native queries
+    private ArrayList<SqlResultSetMapping> sqlResultSetMappings;
+    // Entities converted from the class mappings
+    private ArrayList<Entity> entities;
+    // Parts of the file which could not be converted
+    private ArrayList<ConversionIssue> issues;
+}
@@ -0,0 +1,62 @@
+package com.intuit.hbm.converters.model;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * EntityResult is a POJO that represents an entity hydrated from the result set of a native query.
+ * It is either a root entity, returned by a hbm return element, or an entity fetched through a property of another
+ * entity of the result, returned by a hbm return-join element.
+ */
+@Getter
+public class EntityResult {
+    // Alias of the entity in the query
+    private String alias;
+    // Class of the entity, null if the class of a fetched entity could not be resolved
+    private String entityClass;
+    // Alias of the owner of the fetched property, null for a root entity
+    private String ownerAlias;
+    // Name of the fetched property of the owner, null for a root entity
+    private String property;
+    // Column of the discriminator, empty if there is none
+    private String discriminatorColumn;
+    // Columns of the properties, in the order of the hbm return-property elements
+    private final List<FieldResult> fieldResults = new ArrayList<>();
+
+    /**
+     * Creates an instance of EntityResult with all the attribute values.
+     *
+     * @param alias               The alias of the entity in the query.
+     * @param entityClass         The class of the entity, null if it could not be resolved.
+     * @param ownerAlias          The alias of the owner of the fetched property, null for a root entity.
+     * @param property            The name of the fetched property, null for a root entity.
+     * @param discriminatorColumn The column of the discriminator, empty if there is none.
+     */
+    public EntityResult(String alias, String entityClass, String ownerAlias, String property, String discriminatorColumn) {
+        this.alias = alias;
+        this.entityClass = entityClass;
+        this.ownerAlias = ownerAlias;
+        this.property = property;
+        this.discriminatorColumn = discriminatorColumn;
+    }
+
+    /**
+     * Checks if the entity is fetched through a property of another entity of the result.
+     *
+     * @return boolean - true for an entity of a return-join, false for a root entity
+     */
+    public boolean getIsFetch() {
+        return ownerAlias != null;
+    }
+
+    /**
+     * Checks if the entity has a discriminator column.
+     *
+     * @return boolean - true if there is a discriminatorColumn, false otherwise
+     */
+    public boolean getIsDiscriminated() {
+        return !discriminatorColumn.isEmpty();
+    }
+}
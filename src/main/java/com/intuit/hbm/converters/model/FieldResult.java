@@ -0,0 +1,18 @@
+package com.intuit.hbm.converters.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * FieldResult is a POJO that represents a field result of an entity result in an ORM tool configuration.
+ * It maps a property of the entity to a column of the result set.
+ */
+@Getter
+@AllArgsConstructor
+public class FieldResult {
+    // name of the property of the entity
+    private String name;
+    // name of the column of the result set
+    private String column;
+
+}
@@ -0,0 +1,41 @@
+package com.intuit.hbm.converters.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * IdMapping is a POJO that represents the identifier attribute of an entity in an ORM tool configuration.
+ * It provides the structure for the attribute name, its column and how its values are generated.
+ */
+@Getter
+@Setter
+public class IdMapping {
+    // Name of the identifier attribute
+    private String name;
+    // Name of the identifier column
+    private String column;
+    // JPA generation strategy (AUTO, IDENTITY or SEQUENCE), null when values are assigned
+    private String generationStrategy;
+    // Name of the database sequence when the strategy is SEQUENCE
+    private String sequenceName;
+
+    /**
+     * Creates an instance of IdMapping.
+     *
+     * @param name   The name of the identifier attribute.
+     * @param column The name of the identifier column.
+     */
+    public IdMapping(String name, String column) {
+        this.name = name;
+        this.column = column;
+    }
+
+    /**
+     * Returns the name of the sequence generator declared for this identifier.
+     *
+     * @return The generator name, or null when the strategy is not SEQUENCE.
+     */
+    public String getGeneratorName() {
+        return sequenceName == null ? null : sequenceName + "_generator";
+    }
+}
@@ -1,20 +1,128 @@
 package com.intuit.hbm.converters.model;
 
-import lombok.AllArgsConstructor;
+import com.intuit.hbm.converters.shard.ShardSpec;
+import com.intuit.hbm.converters.task.MemoryBudget;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.ToString;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * InputModel is a class which stores the target directory path and
- * the destination directory path which were parsed from input arguments.
+ * the destination directory path which were parsed from input arguments,
+ * along with the optional settings of the conversion run.
  */
 @ToString
 @Getter
-@AllArgsConstructor
 public class InputModel {
     private String srcDirectoryPath;
     private String fileEndsWith;
     private String destDirPath;
-    private ConverterType converterType;
+    // The output targets every source file is converted to, at least one
+    private List<ConverterType> converterTypes;
+    // What the run does with the source files
+    @Setter
+    private RunMode runMode = RunMode.CONVERT;
+    // Path of the JSONL event journal, null when no journal file should be written
+    @Setter
+    private String journalPath;
+    // Whether every conversion stage of every file should be logged
+    @Setter
+    private boolean verbose;
+    // Path of the JSON conversion report, null when the report should be logged
+    @Setter
+    private String reportPath;
+    // Whether class mappings should be converted into entities
+    @Setter
+    private boolean convertEntities;
+    // Path of the query lint report, null when the queries should not be linted
+    @Setter
+    private String lintReportPath;
+    // Whether the converted ORM files should be validated against the ORM schema
+    @Setter
+    private boolean validateOutput;
+    // Path of the checkpoint file recording the completed files, null when no checkpoint should be kept
+    @Setter
+    private String checkpointPath;
+    // Whether the files completed by a previous run should be skipped
+    @Setter
+    private boolean resume;
+    // The shard of the source files converted by this node, null when the run is not sharded
+    @Setter
+    private ShardSpec shardSpec;
+    // Memory budget of the conversions running at the same time in megabytes, 0 for half of the maximum heap
+    @Setter
+    private long memoryBudgetMb;
+    // Estimated number of bytes of heap used per byte of source file
+    @Setter
+    private double memoryExpansionFactor = MemoryBudget.DEFAULT_EXPANSION_FACTOR;
+    // Maximum time the conversion of a single file may take in milliseconds, 0 for no limit
+    @Setter
+    private long fileTimeoutMillis;
+    // Maximum time of the whole run in milliseconds, 0 for no limit
+    @Setter
+    private long runTimeoutMillis;
+    // Maximum number of small files converted by one task, 1 to convert every file in its own task
+    @Setter
+    private int batchMaxFiles = 32;
+    // Maximum total size of the files converted by one task in bytes, larger files are converted in their own task
+    @Setter
+    private long batchMaxBytes = 64 * 1024;
+    // Path of the query catalog indexing every named query converted, null when no catalog should be written
+    @Setter
+    private String catalogPath;
+    // Path of the properties file of the second-level cache settings, null when no file should be written
+    @Setter
+    private String cacheConfigPath;
+    // Path of the properties file of the batch fetch settings, null when no file should be written
+    @Setter
+    private String fetchConfigPath;
+    // How a converted file is written over an existing file
+    @Setter
+    private WriteMode writeMode = WriteMode.IF_CHANGED;
+    // Whether no file is written for a source file without anything to convert
+    @Setter
+    private boolean skipEmpty;
+    // Whether the whitespace and comments of the query texts are collapsed
+    @Setter
+    private boolean normalizeQueries;
+    // Path of the manifest listing the jobs of the run, "-" for the standard input, null for a run of a single job
+    @Setter
+    private String manifestPath;
+    // Order in which the conversion tasks are started
+    @Setter
+    private SchedulingPolicy schedulingPolicy = SchedulingPolicy.LARGEST_FIRST;
+    // Path of the event journal of a previous run used to estimate the cost of the tasks, null to estimate it from the file sizes
+    @Setter
+    private String scheduleHistoryPath;
+
+    /**
+     * Creates an instance of InputModel with the mandatory arguments and default settings.
+     *
+     * @param srcDirectoryPath The source directory or file.
+     * @param fileEndsWith     The suffix of the files to convert.
+     * @param destDirPath      The destination directory or file.
+     * @param converterType    The type of conversion to perform.
+     */
+    public InputModel(String srcDirectoryPath, String fileEndsWith, String destDirPath, ConverterType converterType) {
+        this(srcDirectoryPath, fileEndsWith, destDirPath, Collections.singletonList(converterType));
+    }
 
+    /**
+     * Creates an instance of InputModel converting every source file to several output targets in one run.
+     *
+     * @param srcDirectoryPath The source directory or file.
+     * @param fileEndsWith     The suffix of the files to convert.
+     * @param destDirPath      The destination directory or file.
+     * @param converterTypes   The types of conversion to perform, at least one.
+     */
+    public InputModel(String srcDirectoryPath, String fileEndsWith, String destDirPath, List<ConverterType> converterTypes) {
+        this.srcDirectoryPath = srcDirectoryPath;
+        this.fileEndsWith = fileEndsWith;
+        this.destDirPath = destDirPath;
+        this.converterTypes = Collections.unmodifiableList(new ArrayList<>(converterTypes));
+    }
 }
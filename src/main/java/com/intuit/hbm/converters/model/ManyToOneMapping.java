@@ -0,0 +1,45 @@
+package com.intuit.hbm.converters.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ManyToOneMapping is a POJO that represents a many-to-one association of an entity in an ORM tool configuration.
+ * It provides the structure for the attribute name, the target entity and the join column.
+ */
+@Getter
+@Setter
+public class ManyToOneMapping {
+    // Name of the association attribute
+    private String name;
+    // Class of the associated entity
+    private String targetEntity;
+    // Name of the foreign key column
+    private String joinColumn;
+    // Whether the foreign key column is declared not null
+    private boolean notNull;
+    // Whether the column is included in SQL inserts
+    private boolean insertable = true;
+    // Whether the column is included in SQL updates
+    private boolean updatable = true;
+    // JPA fetch type, LAZY or EAGER
+    private String fetch = "LAZY";
+    // Cascade elements (cascade-all, cascade-persist, ...)
+    private List<String> cascades = new ArrayList<>();
+
+    /**
+     * Creates an instance of ManyToOneMapping.
+     *
+     * @param name         The name of the association attribute.
+     * @param targetEntity The class of the associated entity.
+     * @param joinColumn   The name of the foreign key column.
+     */
+    public ManyToOneMapping(String name, String targetEntity, String joinColumn) {
+        this.name = name;
+        this.targetEntity = targetEntity;
+        this.joinColumn = joinColumn;
+    }
+}
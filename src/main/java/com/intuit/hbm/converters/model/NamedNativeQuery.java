@@ -4,9 +4,12 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * NamedNativeQuery is a POJO that represents a named native SQL query in an ORM tool configuration.
- * It contains the query name, the SQL query, associated result class and result mapping.
+ * It contains the query name, the SQL query, associated result class, result mapping and hints.
  */
 @Getter
 public class NamedNativeQuery {
@@ -21,6 +24,8 @@ public class NamedNativeQuery {
     // Result set mappings associated with this query
     @Setter
     private SqlResultSetMapping resultSetMappings;
+    // Hints carrying the settings of the hbm query
+    private final List<QueryHint> hints = new ArrayList<>();
 
     /**
      * Creates an instance of NamedNativeQuery with all the attribute values.
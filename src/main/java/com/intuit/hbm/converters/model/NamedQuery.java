@@ -3,9 +3,12 @@ package com.intuit.hbm.converters.model;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * NamedQuery is a simple POJO that represents a named query in an ORM tool configuration.
- * It provides the structure for storing the name of the query and the corresponding SQL query.
+ * It provides the structure for storing the name of the query, the corresponding SQL query and its hints.
  */
 @Getter
 @AllArgsConstructor
@@ -14,5 +17,7 @@ public class NamedQuery {
     private String name;
     // The SQL query corresponding to the named query.
     private String query;
+    // The hints carrying the settings of the hbm query, in the order of the hbm attributes.
+    private final List<QueryHint> hints = new ArrayList<>();
 
 }
@@ -0,0 +1,51 @@
+package com.intuit.hbm.converters.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OneToManyMapping is a POJO that represents a one-to-many collection of an entity in an ORM tool configuration.
+ * The collection is either mapped by an attribute of the target entity or owned through a join column.
+ */
+@Getter
+@Setter
+public class OneToManyMapping {
+    // Name of the collection attribute
+    private String name;
+    // Class of the entities in the collection
+    private String targetEntity;
+    // Attribute of the target entity owning the association, null when owned through the join column
+    private String mappedBy;
+    // Foreign key column in the table of the target entity
+    private String joinColumn;
+    // Column holding the position of the elements of a list, null for sets and bags
+    private String orderColumn;
+    // Whether the join column is read-only because the association is owned by the other side
+    private boolean inverse;
+    // Whether orphaned elements are removed
+    private boolean orphanRemoval;
+    // Cascade elements (cascade-all, cascade-persist, ...)
+    private List<String> cascades = new ArrayList<>();
+    // Second-level cache declaration, null when the collection is not cached
+    private CacheSetting cache;
+    // JPA fetch type, LAZY or EAGER
+    private String fetch = "LAZY";
+    // Number of collections of this role initialized together, null when they are loaded one by one
+    private Integer batchSize;
+
+    /**
+     * Creates an instance of OneToManyMapping.
+     *
+     * @param name         The name of the collection attribute.
+     * @param targetEntity The class of the entities in the collection.
+     * @param joinColumn   The foreign key column in the table of the target entity.
+     */
+    public OneToManyMapping(String name, String targetEntity, String joinColumn) {
+        this.name = name;
+        this.targetEntity = targetEntity;
+        this.joinColumn = joinColumn;
+    }
+}
@@ -0,0 +1,46 @@
+package com.intuit.hbm.converters.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * QueryHint is a POJO that represents a hint of a named query in an ORM tool configuration,
+ * carrying a setting of the hbm query which has no dedicated element in the JPA ORM mapping.
+ */
+@Getter
+@AllArgsConstructor
+public class QueryHint {
+    // Name of the hint, as understood by the JPA provider
+    private String name;
+    // Value of the hint
+    private String value;
+
+    /**
+     * Returns the value of the hint escaped for an XML attribute.
+     *
+     * @return The escaped value.
+     */
+    public String getXmlValue() {
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&':
+                    builder.append("&amp;");
+                    break;
+                case '<':
+                    builder.append("&lt;");
+                    break;
+                case '>':
+                    builder.append("&gt;");
+                    break;
+                case '"':
+                    builder.append("&quot;");
+                    break;
+                default:
+                    builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+}
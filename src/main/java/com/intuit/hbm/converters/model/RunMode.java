@@ -0,0 +1,20 @@
+package com.intuit.hbm.converters.model;
+
+/**
+ * An enumeration of what a run does with the source files.
+ */
+public enum RunMode {
+    /**
+     * Converts the source files and writes the converted files to the destination.
+     */
+    CONVERT,
+    /**
+     * Compares the converted files found in the destination with their source files, without writing anything.
+     */
+    VERIFY,
+    /**
+     * Combines the partial reports of the shards of a run found in the destination, and checks that every
+     * source file was converted by exactly one shard.
+     */
+    MERGE_SHARDS
+}
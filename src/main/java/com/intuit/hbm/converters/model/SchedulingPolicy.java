@@ -0,0 +1,16 @@
+package com.intuit.hbm.converters.model;
+
+/**
+ * An enumeration of the orders in which the conversion tasks of a run are started.
+ */
+public enum SchedulingPolicy {
+    /**
+     * Starts the tasks in the order the source files are listed.
+     */
+    INPUT_ORDER,
+    /**
+     * Starts the tasks with the largest estimated cost first, so that no long task starts at the end of the run
+     * while the other workers are idle.
+     */
+    LARGEST_FIRST
+}
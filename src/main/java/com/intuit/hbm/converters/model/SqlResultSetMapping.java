@@ -4,10 +4,13 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * SqlResultSetMapping is a POJO that represents a SQL result set mapping in an ORM tool configuration.
- * It provides the structure for storing the name of the mapping and the corresponding column results.
+ * It provides the structure for storing the name of the mapping and the corresponding entity and column results.
  */
 @Getter
 @AllArgsConstructor
@@ -16,5 +19,24 @@ public class SqlResultSetMapping {
     private String name;
     // The list of column results corresponding to the SQL result set mapping.
     private ArrayList<ColumnResult> columnResults;
+    // The entities hydrated from the result set, in the order of the hbm return and return-join elements.
+    private final List<EntityResult> entityResults = new ArrayList<>();
 
+    /**
+     * Returns the entity results whose class is known, which are the ones an ORM file can declare.
+     *
+     * @return The entity results with an entity class.
+     */
+    public List<EntityResult> getResolvedEntityResults() {
+        return entityResults.stream().filter(entityResult -> entityResult.getEntityClass() != null).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the column results as a single group, which a template renders once around all of them.
+     *
+     * @return A list holding the column results, empty if there are none.
+     */
+    public List<List<ColumnResult>> getColumnResultGroups() {
+        return columnResults.isEmpty() ? Collections.emptyList() : Collections.singletonList(columnResults);
+    }
 }
@@ -0,0 +1,21 @@
+package com.intuit.hbm.converters.model;
+
+/**
+ * An enumeration of the ways a converted file is written over an existing file.
+ */
+public enum WriteMode {
+    /**
+     * Replaces the existing file in every run.
+     */
+    ALWAYS,
+    /**
+     * Keeps the existing file when it already has the converted content, so that its modification time only changes
+     * with its content and the incremental builds depending on it are not invalidated.
+     */
+    IF_CHANGED,
+    /**
+     * Merges the named queries and result set mappings of every converted file into the existing orm file given as
+     * destination, keeping the rest of that file as it is.
+     */
+    MERGE
+}
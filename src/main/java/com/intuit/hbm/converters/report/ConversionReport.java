@@ -0,0 +1,105 @@
+package com.intuit.hbm.converters.report;
+
+import com.intuit.hbm.converters.exception.FileConversionException;
+import com.intuit.hbm.converters.helper.JsonHelper;
+import com.intuit.hbm.converters.model.ConversionIssue;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * ConversionReport collects the results of a conversion run which need the attention of the user,
+ * such as the parts of the source files which could not be converted.
+ * <p>
+ * It is shared by all the tasks of the run. When it is closed, it is written as a JSON document to the report file,
+ * or every entry is logged as a warning when no report file was requested.
+ */
+@Slf4j
+public class ConversionReport implements Closeable {
+    private final String reportPath;
+    private final Queue<ConversionIssue> issues = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates a ConversionReport.
+     *
+     * @param reportPath The path of the JSON report file, or null to log the report instead.
+     */
+    public ConversionReport(String reportPath) {
+        this.reportPath = reportPath;
+    }
+
+    /**
+     * Adds the conversion issues found in a file.
+     *
+     * @param conversionIssues The issues to add.
+     */
+    public void addIssues(Collection<ConversionIssue> conversionIssues) {
+        issues.addAll(conversionIssues);
+    }
+
+    /**
+     * Returns the conversion issues collected so far, ordered by source file.
+     *
+     * @return A new list of the issues.
+     */
+    public List<ConversionIssue> getIssues() {
+        List<ConversionIssue> sortedIssues = new ArrayList<>(issues);
+        sortedIssues.sort(Comparator.comparing(ConversionIssue::getSourceFile, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return sortedIssues;
+    }
+
+    /**
+     * Writes the report file, or logs the report when no report file was requested.
+     *
+     * @throws FileConversionException if the report file cannot be written.
+     */
+    @Override
+    public void close() {
+        List<ConversionIssue> sortedIssues = getIssues();
+        if (reportPath == null) {
+            for (ConversionIssue issue : sortedIssues) {
+                log.warn("Event=HbmToJpaConversion SubEvent=ConversionIssue SourceFileName={} Element={} Name={} Reason={}",
+                        issue.getSourceFile(), issue.getElement(), issue.getName(), issue.getReason());
+            }
+        } else {
+            try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(reportPath), StandardCharsets.UTF_8)) {
+                writer.write(toJson(sortedIssues));
+            } catch (IOException e) {
+                throw new FileConversionException("Failed to write the conversion report to " + reportPath, e);
+            }
+        }
+        log.info("Event=HbmToJpaConversion SubEvent=ConversionReport Issues={} ReportFile={}", sortedIssues.size(), reportPath);
+    }
+
+    /**
+     * Serializes the report as a JSON document.
+     *
+     * @param sortedIssues The issues to include.
+     * @return The JSON document.
+     */
+    private String toJson(List<ConversionIssue> sortedIssues) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("{\n  \"issues\": [");
+        for (int i = 0; i < sortedIssues.size(); i++) {
+            ConversionIssue issue = sortedIssues.get(i);
+            builder.append(i == 0 ? "\n" : ",\n")
+                    .append("    {\"file\": ").append(JsonHelper.quote(issue.getSourceFile()))
+                    .append(", \"element\": ").append(JsonHelper.quote(issue.getElement()))
+                    .append(", \"name\": ").append(JsonHelper.quote(issue.getName()))
+                    .append(", \"reason\": ").append(JsonHelper.quote(issue.getReason())).append('}');
+        }
+        builder.append(sortedIssues.isEmpty() ? "]\n}\n" : "\n  ]\n}\n");
+        return builder.toString();
+    }
+}
@@ -1,14 +1,25 @@
 package com.intuit.hbm.converters.service;
 
 import com.intuit.hbm.converters.common.Constants;
+import com.intuit.hbm.converters.common.ConversionContext;
 import com.intuit.hbm.converters.exception.FileConversionException;
 import com.intuit.hbm.converters.helper.FileHelper;
+import com.intuit.hbm.converters.helper.PreScanner;
 import com.intuit.hbm.converters.converter.Converter;
+import com.intuit.hbm.converters.journal.EventJournal;
+import com.intuit.hbm.converters.model.ConversionOutcome;
+import com.intuit.hbm.converters.model.ConversionStage;
+import com.intuit.hbm.converters.model.EntityMappings;
+import com.intuit.hbm.converters.task.ConversionTask;
 import lombok.extern.slf4j.Slf4j;
 import org.antlr.stringtemplate.StringTemplate;
 import org.dom4j.Document;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
 
 /**
  * Abstract class that provides the base for all file converter services.
@@ -18,9 +29,15 @@ import java.io.File;
  */
 @Slf4j
 public abstract class ConverterService {
+    // Detail recorded for a source file skipped by the pre-scan
+    private static final String NOTHING_TO_CONVERT = "Nothing to convert";
     // Helper for file operations
     private FileHelper fileHelper;
     protected Converter converter;
+    // State shared by all the conversions of the run
+    protected ConversionContext context;
+    // Scans the source files for the elements the converter converts
+    private final PreScanner preScanner;
 
     /**
      * Constructor for ConverterService
@@ -28,8 +45,21 @@ public abstract class ConverterService {
      * @param fileHelper Helper for reading, writing and validating files
      */
     public ConverterService(FileHelper fileHelper, Converter converter) {
+        this(fileHelper, converter, ConversionContext.defaultContext());
+    }
+
+    /**
+     * Constructor for ConverterService within a conversion run
+     *
+     * @param fileHelper Helper for reading, writing and validating files
+     * @param converter  Converter for the target format
+     * @param context    State shared by all the conversions of the run
+     */
+    public ConverterService(FileHelper fileHelper, Converter converter, ConversionContext context) {
         this.fileHelper = fileHelper;
         this.converter = converter;
+        this.context = context;
+        this.preScanner = new PreScanner(converter.getScannedElements());
     }
 
     /**
@@ -64,19 +94,102 @@ public abstract class ConverterService {
     abstract StringTemplate convertFile(Document hbmDoc, String fileName, String destDirectoryPath);
 
     /**
-     * Writes a StringTemplate to a file
+     * Returns the converters of the output targets the files are converted to, every one writing its own file.
      *
-     * @param t                 StringTemplate to write
+     * @return The converter of the service by default.
+     */
+    List<Converter> getTargets() {
+        return Collections.singletonList(converter);
+    }
+
+    /**
+     * Extracts the mappings of a parsed file once for all the output targets.
+     * A service with a single target converts the parsed file itself, so nothing is extracted by default.
+     *
+     * @param hbmDoc Document representing the file
+     * @return The extracted mappings, null when every target converts the parsed file itself
+     */
+    EntityMappings extractMappings(Document hbmDoc) {
+        return null;
+    }
+
+    /**
+     * Converts a parsed file for one output target.
+     *
+     * @param target            The converter of the output target
+     * @param hbmDoc            Document representing the file
+     * @param entityMappings    The mappings returned by {@link #extractMappings}, may be null
+     * @param fileName          Name of the file
+     * @param destDirectoryPath Path of the destination directory
+     * @return StringTemplate representing the converted file, by default the one of {@link #convertFile}
+     */
+    StringTemplate convertTarget(Converter target, Document hbmDoc, EntityMappings entityMappings, String fileName, String destDirectoryPath) {
+        return convertFile(hbmDoc, fileName, destDirectoryPath);
+    }
+
+    /**
+     * Validates the rendered content against the ORM schema and adds the violations to the conversion report.
+     * Only the ORM files are validated.
+     *
+     * @param content    The rendered content
+     * @param sourceFile Name of the source file
+     */
+    void validateOutput(String content, String sourceFile) {
+        context.getConversionReport().addIssues(context.getOrmSchemaValidator().validate(content, sourceFile));
+    }
+
+    /**
+     * Writes the rendered content of an output target to its file
+     *
+     * @param target            The converter of the output target, which names the file
+     * @param content           The rendered content to write
      * @param destDirectoryPath Path of the destination directory
      * @param fileName          Name of the file
+     * @return true if the file was written, false if the existing file already had the content
      * @throws FileConversionException When an error occurs
      */
-    void writeFile(StringTemplate t, String destDirectoryPath, String fileName) throws FileConversionException {
-        fileHelper.writeFile(t, destDirectoryPath, fileName);
+    boolean writeFile(Converter target, String content, String destDirectoryPath, String fileName) throws FileConversionException {
+        return fileHelper.writeContent(content, destDirectoryPath, target.getOutputFileName(fileName), target.getFileExtension(),
+                context.getInputModel().getWriteMode());
+    }
+
+    /**
+     * Returns the path the converted file is written to
+     *
+     * @param destDirectoryPath Path of the destination directory
+     * @param fileName          Name of the file
+     * @return The absolute path of the converted file
+     */
+    String getOutputFile(String destDirectoryPath, String fileName) {
+        return fileHelper.getOutputFile(destDirectoryPath, converter.getOutputFileName(fileName), converter.getFileExtension());
     }
 
     /**
-     * Template method for performing the conversion process
+     * Deletes the partial output of a conversion which timed out, for every output target
+     *
+     * @param destDirectoryPath Path of the destination directory
+     * @param fileName          Name of the file
+     */
+    void deletePartialOutput(String destDirectoryPath, String fileName) {
+        for (Converter target : getTargets()) {
+            fileHelper.deletePartialOutput(destDirectoryPath, target.getOutputFileName(fileName), target.getFileExtension());
+        }
+    }
+
+    /**
+     * Template method for performing the conversion process.
+     * Every step is recorded as a stage in the event journal of the run,
+     * and the file is recorded in the checkpoint journal and its queries in the query catalog once its converted file
+     * is written. When the run merges into an orm file, the converted content is staged for the merge instead of
+     * being written, and committed to it once the conversion completes.
+     * When the conversion runs as a {@link ConversionTask} which timed out, its outcome has already been recorded
+     * by the executor, so the conversion only cleans up its partial output.
+     * A file found by the pre-scan to contain nothing to convert is not parsed: its converted file is rendered
+     * without mappings, or not written at all and recorded as skipped when the run skips empty files and does not
+     * merge, as the merge has to remove the queries the file used to define.
+     * When the service has several output targets, the parsed file is extracted once and rendered by every target in
+     * turn. A target which fails does not stop the others from writing their file, and the file is recorded as
+     * failed with the errors of the failed targets.
      *
      * @param hbmFile           File to convert
      * @param filename          Name of the file
@@ -84,21 +197,193 @@ public abstract class ConverterService {
      * @throws FileConversionException When an error occurs
      */
     public final boolean performConversion(File hbmFile, String filename, String destDirectoryPath) {
+        EventJournal eventJournal = context.getEventJournal();
+        String sourceFile = hbmFile.getPath();
+        long start = eventJournal.begin();
         try {
-            log.info("Event=HbmToJpaConversion SubEvent=FileConversion Status=Started SourceFileName={}", hbmFile.getName());
+            log.debug("Event=HbmToJpaConversion SubEvent=FileConversion Status=Started SourceFileName={}", hbmFile.getName());
             //Validate File
-            validateInputFile(hbmFile);
-            //Read Input File
-            Document hbmDoc = readInputFile(hbmFile);
-            //Convert File to Target Format
-            StringTemplate t = convertFile(hbmDoc, filename, destDirectoryPath);
-            //Write Output File
-            writeFile(t, destDirectoryPath, filename);
-            log.info("Event=HbmToJpaConversion SubEvent=FileConversion Status=Done SourceFileName={} DestinationFileName={}", hbmFile.getName(), filename + Constants.FILE_ENDS_WITH_ORM_EXT);
+            runStage(ConversionStage.VALIDATE, sourceFile, () -> {
+                validateInputFile(hbmFile);
+                return null;
+            });
+            //Scan the raw bytes of the Input File for elements to convert
+            PreScanner.Result scanResult = preScanner.isEnabled()
+                    ? runStage(ConversionStage.PRESCAN, sourceFile, () -> preScanner.scan(hbmFile)) : null;
+            Document hbmDoc;
+            if (scanResult == null || scanResult.isContent()) {
+                //Read Input File
+                hbmDoc = runStage(ConversionStage.READ, sourceFile, () -> readInputFile(hbmFile));
+            } else if (context.getInputModel().isSkipEmpty() && !context.getOrmMerger().isEnabled()) {
+                //Skip the file, which has nothing to convert
+                return skipEmptyFile(hbmFile, start);
+            } else {
+                hbmDoc = null;
+            }
+            //Convert the file for every output target
+            List<Boolean> changedOutputs = convertTargets(hbmFile, hbmDoc, scanResult, filename, destDirectoryPath);
+            //Commit the converted file to the run
+            return commitConversion(hbmFile, changedOutputs, start, filename, destDirectoryPath);
         } catch (Exception e) {
+            if (!ConversionTask.complete()) {
+                deletePartialOutput(destDirectoryPath, filename);
+                return false;
+            }
+            eventJournal.record(sourceFile, ConversionStage.CONVERSION, start, ConversionOutcome.FAILED, String.valueOf(e.getMessage()));
             log.error("Event=HbmToJpaConversion SubEvent=FileConversion Status=Failed SourceFileName={}", filename, e);
             return false;
+        } finally {
+            context.getQueryCatalogBuilder().discard();
+            context.getOrmMerger().discard();
         }
+    }
+
+    /**
+     * Records a file the pre-scan found nothing to convert in as skipped, without writing its converted file.
+     * The file is completed in the checkpoint journal and has no query left in the query catalog.
+     *
+     * @param hbmFile File to skip
+     * @param start   The start of the conversion, from the event journal
+     * @return false if the conversion timed out, true otherwise
+     */
+    private boolean skipEmptyFile(File hbmFile, long start) {
+        if (!ConversionTask.complete()) {
+            return false;
+        }
+        context.getCheckpointJournal().recordCompleted(hbmFile);
+        // a file with nothing to convert has no query left in the catalog
+        context.getQueryCatalogBuilder().commit(hbmFile.getAbsolutePath(), null);
+        context.getEventJournal().record(hbmFile.getPath(), ConversionStage.CONVERSION, start, ConversionOutcome.SKIPPED, NOTHING_TO_CONVERT);
+        log.debug("Event=HbmToJpaConversion SubEvent=FileConversion Status=Skipped SourceFileName={}", hbmFile.getName());
+        return true;
+    }
+
+    /**
+     * Converts a file for every output target, extracting its mappings once when there are several targets.
+     * A target which fails does not stop the others from writing their file.
+     *
+     * @param hbmFile           File to convert
+     * @param hbmDoc            Document representing the file, null when the pre-scan found nothing to convert
+     * @param scanResult        The result of the pre-scan, used when the file was not parsed
+     * @param filename          Name of the file
+     * @param destDirectoryPath Path of the destination directory
+     * @return Whether the converted file of every target was written, in the order of the targets
+     * @throws Exception When the only target fails, or a FileConversionException with the errors of the targets which failed
+     */
+    private List<Boolean> convertTargets(File hbmFile, Document hbmDoc, PreScanner.Result scanResult, String filename,
+                                         String destDirectoryPath) throws Exception {
+        List<Converter> targets = getTargets();
+        //Extract the mappings once for all the output targets
+        EntityMappings entityMappings = hbmDoc != null && targets.size() > 1
+                ? runStage(ConversionStage.EXTRACT, hbmFile.getPath(), () -> extractMappings(hbmDoc)) : null;
+        List<Boolean> changedOutputs = new ArrayList<>();
+        List<String> failedTargets = new ArrayList<>();
+        for (Converter target : targets) {
+            try {
+                changedOutputs.add(convertAndWrite(target, hbmFile, hbmDoc, entityMappings, scanResult, filename, destDirectoryPath));
+            } catch (Exception e) {
+                if (targets.size() == 1) {
+                    throw e;
+                }
+                // the other targets are still written
+                failedTargets.add(target.getClass().getName() + ": " + e.getMessage());
+                log.error("Event=HbmToJpaConversion SubEvent=OutputTarget Status=Failed SourceFileName={} Target={}",
+                        hbmFile.getName(), target.getClass().getName(), e);
+            }
+        }
+        if (!failedTargets.isEmpty()) {
+            throw new FileConversionException("Output targets failed: " + String.join("; ", failedTargets));
+        }
+        return changedOutputs;
+    }
+
+    /**
+     * Commits a converted file to the run once its conversion completed: the file is recorded in the checkpoint
+     * journal, its queries in the query catalog, its staged content is committed for the merge into the orm file and
+     * its outputs are recorded in the event journal. The partial output of a conversion which timed out is deleted
+     * instead.
+     *
+     * @param hbmFile           File converted
+     * @param changedOutputs    Whether the converted file of every target was written
+     * @param start             The start of the conversion, from the event journal
+     * @param filename          Name of the file
+     * @param destDirectoryPath Path of the destination directory
+     * @return false if the conversion timed out, true otherwise
+     */
+    private boolean commitConversion(File hbmFile, List<Boolean> changedOutputs, long start, String filename, String destDirectoryPath) {
+        if (!ConversionTask.complete()) {
+            deletePartialOutput(destDirectoryPath, filename);
+            return false;
+        }
+        context.getCheckpointJournal().recordCompleted(hbmFile);
+        if (context.getQueryCatalogBuilder().isEnabled()) {
+            // in merge mode, the queries are defined by the orm file they are merged into
+            context.getQueryCatalogBuilder().commit(hbmFile.getAbsolutePath(), context.getOrmMerger().isEnabled()
+                    ? context.getOrmMerger().getOrmFilePath() : getOutputFile(destDirectoryPath, filename));
+        }
+        context.getOrmMerger().commit();
+        EventJournal eventJournal = context.getEventJournal();
+        changedOutputs.forEach(eventJournal::recordOutput);
+        eventJournal.record(hbmFile.getPath(), ConversionStage.CONVERSION, start, ConversionOutcome.SUCCESS);
+        log.debug("Event=HbmToJpaConversion SubEvent=FileConversion Status=Done SourceFileName={} DestinationFileName={}", hbmFile.getName(), converter.getOutputFileName(filename) + converter.getFileExtension());
         return true;
     }
+
+    /**
+     * Converts a file for one output target, validates the converted content when it is an ORM file and writes it,
+     * or stages it for the merge into the orm file.
+     *
+     * @param target            The converter of the output target
+     * @param hbmFile           File to convert
+     * @param hbmDoc            Document representing the file, null when the pre-scan found nothing to convert
+     * @param entityMappings    The mappings extracted for all the targets, may be null
+     * @param scanResult        The result of the pre-scan, used when the file was not parsed
+     * @param filename          Name of the file
+     * @param destDirectoryPath Path of the destination directory
+     * @return true if the converted file was written, false if the existing file already had the content
+     * @throws Exception When a stage fails
+     */
+    private boolean convertAndWrite(Converter target, File hbmFile, Document hbmDoc, EntityMappings entityMappings,
+                                    PreScanner.Result scanResult, String filename, String destDirectoryPath) throws Exception {
+        String sourceFile = hbmFile.getPath();
+        //Convert File to Target Format and render it, without mappings when there is nothing to convert
+        String content = runStage(ConversionStage.CONVERT, sourceFile, () -> FileHelper.render(hbmDoc != null
+                ? convertTarget(target, hbmDoc, entityMappings, filename, destDirectoryPath)
+                : target.convertEmpty(scanResult.getPackageName(), hbmFile.getName(), filename)));
+        //Validate Output File against the ORM schema
+        if (context.getOrmSchemaValidator().isEnabled() && Constants.FILE_ENDS_WITH_ORM_EXT.equals(target.getFileExtension())) {
+            runStage(ConversionStage.VALIDATE_OUTPUT, sourceFile, () -> {
+                validateOutput(content, hbmFile.getName());
+                return null;
+            });
+        }
+        //Write Output File, or stage it for the merge into the orm file
+        return runStage(ConversionStage.WRITE, sourceFile, () -> context.getOrmMerger().isEnabled()
+                ? context.getOrmMerger().stage(hbmFile, content) : writeFile(target, content, destDirectoryPath, filename));
+    }
+
+    /**
+     * Runs one step of the conversion and records it as a stage in the event journal.
+     * The stage is reported to the running {@link ConversionTask}, which stops the conversion if it timed out.
+     *
+     * @param stage      The stage the step belongs to
+     * @param sourceFile Path of the file being converted
+     * @param step       The step to run
+     * @param <T>        The result type of the step
+     * @return The result of the step
+     * @throws Exception When the step fails
+     */
+    private <T> T runStage(ConversionStage stage, String sourceFile, Callable<T> step) throws Exception {
+        ConversionTask.enterStage(stage);
+        EventJournal eventJournal = context.getEventJournal();
+        long start = eventJournal.begin();
+        try {
+            T result = step.call();
+            eventJournal.record(sourceFile, stage, start, ConversionOutcome.SUCCESS);
+            return result;
+        } catch (Exception e) {
+            eventJournal.record(sourceFile, stage, start, ConversionOutcome.FAILED, String.valueOf(e.getMessage()));
+            throw e;
+        }
+    }
 }
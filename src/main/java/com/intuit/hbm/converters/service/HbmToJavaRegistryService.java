@@ -0,0 +1,39 @@
+package com.intuit.hbm.converters.service;
+
+import com.intuit.hbm.converters.common.ConversionContext;
+import com.intuit.hbm.converters.converter.JavaRegistryConverter;
+import com.intuit.hbm.converters.exception.FileConversionException;
+import com.intuit.hbm.converters.helper.FileHelper;
+import org.antlr.stringtemplate.StringTemplate;
+import org.dom4j.Document;
+
+/**
+ * This class extends ConverterService. It represents a converter service specifically for
+ * converting Hibernate mapping files (HBM) to the Java source of a named query registry.
+ **/
+public class HbmToJavaRegistryService extends ConverterService {
+    /**
+     * Constructor that calls the parent's constructor within a conversion run.
+     *
+     * @param fileHelper            Helps with file operations such as reading and writing.
+     * @param javaRegistryConverter Converts the parsed hbm documents.
+     * @param context               State shared by all the conversions of the run.
+     */
+    public HbmToJavaRegistryService(FileHelper fileHelper, JavaRegistryConverter javaRegistryConverter, ConversionContext context) {
+        super(fileHelper, javaRegistryConverter, context);
+    }
+
+    /**
+     * Overridden convertFile method for converting Hibernate mapping documents to a Java named query registry.
+     *
+     * @param hbmDoc            Document representing the input Hibernate mapping file.
+     * @param fileName          Name of the file to be converted.
+     * @param destDirectoryPath Destination directory path for the converted file.
+     * @return StringTemplate representing the generated Java source.
+     * @throws FileConversionException If there is an error while processing the Document.
+     */
+    @Override
+    StringTemplate convertFile(Document hbmDoc, String fileName, String destDirectoryPath) {
+        return converter.convertFile(hbmDoc, fileName, destDirectoryPath);
+    }
+}
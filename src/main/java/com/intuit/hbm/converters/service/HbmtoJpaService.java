@@ -1,5 +1,6 @@
 package com.intuit.hbm.converters.service;
 
+import com.intuit.hbm.converters.common.ConversionContext;
 import com.intuit.hbm.converters.exception.FileConversionException;
 import com.intuit.hbm.converters.helper.FileHelper;
 import com.intuit.hbm.converters.converter.HbmToJpaConverter;
@@ -20,6 +21,17 @@ public class HbmtoJpaService extends ConverterService {
         super(fileHelper, hbmToJpaConverter);
     }
 
+    /**
+     * Constructor that calls the parent's constructor within a conversion run.
+     *
+     * @param fileHelper        Helps with file operations such as reading and writing.
+     * @param hbmToJpaConverter Converts the parsed hbm documents.
+     * @param context           State shared by all the conversions of the run.
+     */
+    public HbmtoJpaService(FileHelper fileHelper, HbmToJpaConverter hbmToJpaConverter, ConversionContext context) {
+        super(fileHelper, hbmToJpaConverter, context);
+    }
+
     /**
      * Overridden convertFile method for converting Hibernate mapping documents to ORM.
      *
@@ -0,0 +1,88 @@
+package com.intuit.hbm.converters.service;
+
+import com.intuit.hbm.converters.common.ConversionContext;
+import com.intuit.hbm.converters.converter.Converter;
+import com.intuit.hbm.converters.converter.HbmToJpaConverter;
+import com.intuit.hbm.converters.helper.FileHelper;
+import com.intuit.hbm.converters.model.EntityMappings;
+import org.antlr.stringtemplate.StringTemplate;
+import org.dom4j.Document;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class extends ConverterService. It represents a converter service converting Hibernate mapping files (HBM)
+ * to several output targets in one run: every file is parsed and its mappings extracted once, and the same
+ * mappings are rendered by the converter of every target, each writing its own file.
+ **/
+public class MultiTargetService extends ConverterService {
+    // Extracts the mappings rendered by all the targets
+    private final HbmToJpaConverter hbmToJpaConverter;
+    private final List<Converter> targets;
+
+    /**
+     * Constructor that calls the parent's constructor within a conversion run.
+     *
+     * @param fileHelper        Helps with file operations such as reading and writing.
+     * @param hbmToJpaConverter Extracts the mappings from the parsed hbm documents.
+     * @param targets           The converters of the output targets, the first one naming the files of the catalog.
+     * @param context           State shared by all the conversions of the run.
+     */
+    public MultiTargetService(FileHelper fileHelper, HbmToJpaConverter hbmToJpaConverter, List<Converter> targets, ConversionContext context) {
+        super(fileHelper, targets.get(0), context);
+        this.hbmToJpaConverter = hbmToJpaConverter;
+        this.targets = Collections.unmodifiableList(new ArrayList<>(targets));
+    }
+
+    /**
+     * Overridden convertFile method converting Hibernate mapping documents for the first output target.
+     *
+     * @param hbmDoc            Document representing the input Hibernate mapping file.
+     * @param fileName          Name of the file to be converted.
+     * @param destDirectoryPath Destination directory path for the converted file.
+     * @return StringTemplate representing the converted file of the first target.
+     */
+    @Override
+    StringTemplate convertFile(Document hbmDoc, String fileName, String destDirectoryPath) {
+        return convertTarget(converter, hbmDoc, extractMappings(hbmDoc), fileName, destDirectoryPath);
+    }
+
+    /**
+     * Returns the converters of all the output targets.
+     *
+     * @return The converters, in the order of the targets of the run.
+     */
+    @Override
+    List<Converter> getTargets() {
+        return targets;
+    }
+
+    /**
+     * Extracts the mappings of a parsed file for the run: its issues are reported, its queries linted and staged for
+     * the query catalog, once whatever the number of targets.
+     *
+     * @param hbmDoc Document representing the input Hibernate mapping file.
+     * @return The extracted mappings.
+     */
+    @Override
+    EntityMappings extractMappings(Document hbmDoc) {
+        return hbmToJpaConverter.collectEntityMappings(hbmDoc);
+    }
+
+    /**
+     * Renders the extracted mappings for one output target.
+     *
+     * @param target            The converter of the output target.
+     * @param hbmDoc            Document representing the input Hibernate mapping file.
+     * @param entityMappings    The mappings extracted from the document.
+     * @param fileName          Name of the file to be converted.
+     * @param destDirectoryPath Destination directory path for the converted file.
+     * @return StringTemplate representing the converted file of the target.
+     */
+    @Override
+    StringTemplate convertTarget(Converter target, Document hbmDoc, EntityMappings entityMappings, String fileName, String destDirectoryPath) {
+        return target.render(entityMappings, hbmDoc.getName(), fileName);
+    }
+}
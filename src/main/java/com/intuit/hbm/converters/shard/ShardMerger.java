@@ -0,0 +1,177 @@
+package com.intuit.hbm.converters.shard;
+
+import com.intuit.hbm.converters.common.ConversionContext;
+import com.intuit.hbm.converters.exception.FileConversionException;
+import com.intuit.hbm.converters.helper.FileHelper;
+import com.intuit.hbm.converters.model.ConversionIssue;
+import com.intuit.hbm.converters.model.ConversionOutcome;
+import com.intuit.hbm.converters.model.InputModel;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * ShardMerger combines the partial reports written by the nodes of a sharded run, and checks that every source file
+ * was converted by exactly one node, the node of its shard.
+ * <p>
+ * The partial reports are read from the destination directory, where the outputs of all the nodes are collected.
+ * Source files not covered by any report, covered more than once or by the wrong shard, failed conversions and
+ * missing shard reports are added to the conversion report of the run.
+ */
+@Slf4j
+public class ShardMerger {
+    private static final Pattern REPORT_FILE_NAME = Pattern.compile("shard-\\d+-of-\\d+\\.tsv");
+    // Element name of the issues reported by the merge
+    private static final String SHARD = "shard";
+
+    private final FileHelper fileHelper;
+    private final ConversionContext context;
+
+    /**
+     * Creates a ShardMerger.
+     *
+     * @param fileHelper Helper for listing the source files
+     * @param context    The state of the merge run
+     */
+    public ShardMerger(FileHelper fileHelper, ConversionContext context) {
+        this.fileHelper = fileHelper;
+        this.context = context;
+    }
+
+    /**
+     * Merges the partial reports found in the destination directory.
+     *
+     * @return true if every source file was converted successfully by exactly one shard.
+     * @throws FileConversionException if a partial report cannot be read.
+     */
+    public boolean merge() {
+        InputModel inputModel = context.getInputModel();
+        File dest = new File(inputModel.getDestDirPath()).getAbsoluteFile();
+        File reportDirectory = dest.isDirectory() ? dest : dest.getParentFile();
+        File[] reportFiles = reportDirectory.listFiles(file -> REPORT_FILE_NAME.matcher(file.getName()).matches());
+        if (reportFiles == null || reportFiles.length == 0) {
+            throw new FileConversionException("No shard report found in " + reportDirectory);
+        }
+        Arrays.sort(reportFiles);
+
+        List<ConversionIssue> issues = new ArrayList<>();
+        Map<String, Integer> coveringShards = new HashMap<>();
+        Map<ConversionOutcome, Integer> outcomeCounts = new EnumMap<>(ConversionOutcome.class);
+        Set<Integer> shards = new HashSet<>();
+        int shardCount = 0;
+        for (File reportFile : reportFiles) {
+            List<String> lines = readLines(reportFile);
+            String[] header = lines.isEmpty() ? new String[0] : lines.get(0).split(ShardReport.SEPARATOR);
+            if (header.length != 3 || !ShardReport.HEADER.equals(header[0])) {
+                issues.add(new ConversionIssue(null, SHARD, reportFile.getName(), "Not a shard report"));
+                continue;
+            }
+            ShardSpec shardSpec;
+            try {
+                shardSpec = ShardSpec.parse(header[1] + "/" + header[2]);
+            } catch (IllegalArgumentException e) {
+                issues.add(new ConversionIssue(null, SHARD, reportFile.getName(), "Malformed shard report header: " + e.getMessage()));
+                continue;
+            }
+            if (shardCount == 0) {
+                shardCount = shardSpec.getCount();
+            } else if (shardCount != shardSpec.getCount()) {
+                issues.add(new ConversionIssue(null, SHARD, reportFile.getName(),
+                        "Shard of a run split in " + shardSpec.getCount() + " shards instead of " + shardCount));
+                continue;
+            }
+            shards.add(shardSpec.getIndex());
+            for (int lineNumber = 2; lineNumber <= lines.size(); lineNumber++) {
+                String[] fields = lines.get(lineNumber - 1).split(ShardReport.SEPARATOR);
+                ConversionOutcome outcome = fields.length == 2 && !fields[0].isEmpty() ? parseOutcome(fields[1]) : null;
+                if (outcome == null) {
+                    issues.add(new ConversionIssue(null, SHARD, reportFile.getName(), "Malformed shard report line " + lineNumber));
+                    continue;
+                }
+                String relativePath = fields[0];
+                outcomeCounts.merge(outcome, 1, Integer::sum);
+                Integer coveringShard = coveringShards.putIfAbsent(relativePath, shardSpec.getIndex());
+                if (coveringShard != null) {
+                    issues.add(new ConversionIssue(relativePath, SHARD, reportFile.getName(), "Also converted by shard " + coveringShard));
+                } else if (!shardSpec.contains(relativePath)) {
+                    issues.add(new ConversionIssue(relativePath, SHARD, reportFile.getName(),
+                            "Belongs to shard " + ShardSpec.shardOf(relativePath, shardCount) + ", the nodes listed different source files"));
+                }
+                if (outcome == ConversionOutcome.FAILED) {
+                    issues.add(new ConversionIssue(relativePath, SHARD, reportFile.getName(), "Conversion failed"));
+                }
+            }
+        }
+        for (int index = 1; index <= shardCount; index++) {
+            if (!shards.contains(index)) {
+                issues.add(new ConversionIssue(null, SHARD, new ShardSpec(index, shardCount).getReportFileName(), "Shard report not found"));
+            }
+        }
+
+        int missingCount = 0;
+        Set<String> sourceFiles = new HashSet<>();
+        File[] hbmFiles = fileHelper.getFiles(inputModel.getSrcDirectoryPath(), inputModel.getFileEndsWith());
+        for (File hbmFile : hbmFiles == null ? new File[0] : hbmFiles) {
+            String relativePath = ShardSpec.relativePath(hbmFile, inputModel.getSrcDirectoryPath());
+            sourceFiles.add(relativePath);
+            if (!coveringShards.containsKey(relativePath)) {
+                missingCount++;
+                issues.add(new ConversionIssue(relativePath, SHARD, null, "Not covered by any shard"));
+            }
+        }
+        for (String relativePath : coveringShards.keySet()) {
+            if (!sourceFiles.contains(relativePath)) {
+                issues.add(new ConversionIssue(relativePath, SHARD, null, "Not found in the source directory"));
+            }
+        }
+
+        context.getConversionReport().addIssues(issues);
+        log.info("Event=HbmToJpaConversion SubEvent=MergeShards Status={} Shards={} Reports={} SourceFiles={} Succeeded={} Failed={} Skipped={} Missing={} Issues={}",
+                issues.isEmpty() ? "Done" : "Failed", shardCount, reportFiles.length, sourceFiles.size(),
+                outcomeCounts.getOrDefault(ConversionOutcome.SUCCESS, 0), outcomeCounts.getOrDefault(ConversionOutcome.FAILED, 0),
+                outcomeCounts.getOrDefault(ConversionOutcome.SKIPPED, 0), missingCount, issues.size());
+        return issues.isEmpty();
+    }
+
+    /**
+     * Parses the outcome of a line of a partial report.
+     *
+     * @param value The outcome field of the line.
+     * @return The outcome, null if the field is not an outcome.
+     */
+    private static ConversionOutcome parseOutcome(String value) {
+        for (ConversionOutcome outcome : ConversionOutcome.values()) {
+            if (outcome.name().equals(value)) {
+                return outcome;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the lines of a partial report.
+     *
+     * @param reportFile The partial report.
+     * @return The lines of the report.
+     * @throws FileConversionException if the report cannot be read.
+     */
+    private static List<String> readLines(File reportFile) {
+        try {
+            return Files.readAllLines(reportFile.toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new FileConversionException("Unable to read shard report " + reportFile, e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.intuit.hbm.converters.shard;
+
+import com.intuit.hbm.converters.exception.FileConversionException;
+import com.intuit.hbm.converters.model.ConversionOutcome;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ShardReport is the partial result of a node which converted one shard of the source files.
+ * <p>
+ * It lists every source file assigned to the shard with the outcome of its conversion, and is written to
+ * {@code shard-i-of-N.tsv} in the destination directory when the run is closed. The first line holds the shard,
+ * every other line a relative source path and its outcome, separated by a tab.
+ * The partial reports of all the nodes are combined by {@link ShardMerger}.
+ * The report is disabled when the run is not sharded.
+ */
+@Slf4j
+public class ShardReport implements Closeable {
+    // Separator of the fields of a line
+    static final String SEPARATOR = "\t";
+    // First field of the header line
+    static final String HEADER = "shard";
+
+    private final ShardSpec shardSpec;
+    private final String srcDirectoryPath;
+    private final Path reportFile;
+    private final Map<String, ConversionOutcome> outcomes = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a ShardReport.
+     *
+     * @param shardSpec        The shard converted by this node, or null when the run is not sharded.
+     * @param srcDirectoryPath The source directory of the run.
+     * @param destDirPath      The destination directory or file of the run.
+     */
+    public ShardReport(ShardSpec shardSpec, String srcDirectoryPath, String destDirPath) {
+        this.shardSpec = shardSpec;
+        this.srcDirectoryPath = srcDirectoryPath;
+        if (shardSpec == null) {
+            this.reportFile = null;
+        } else {
+            File dest = new File(destDirPath).getAbsoluteFile();
+            this.reportFile = (dest.isDirectory() ? dest : dest.getParentFile()).toPath().resolve(shardSpec.getReportFileName());
+        }
+    }
+
+    /**
+     * Returns whether the run is sharded.
+     *
+     * @return true if this node converts one shard of the source files.
+     */
+    public boolean isEnabled() {
+        return shardSpec != null;
+    }
+
+    /**
+     * Checks whether a source file is converted by this node.
+     *
+     * @param file The source file.
+     * @return true if the run is not sharded or the file belongs to the shard of this node.
+     */
+    public boolean isAssigned(File file) {
+        return shardSpec == null || shardSpec.contains(ShardSpec.relativePath(file, srcDirectoryPath));
+    }
+
+    /**
+     * Records the outcome of a source file of the shard.
+     *
+     * @param file    The source file.
+     * @param outcome The outcome of its conversion.
+     */
+    public void record(File file, ConversionOutcome outcome) {
+        if (isEnabled()) {
+            outcomes.put(ShardSpec.relativePath(file, srcDirectoryPath), outcome);
+        }
+    }
+
+    /**
+     * Writes the partial report of the shard.
+     *
+     * @throws FileConversionException if the report cannot be written.
+     */
+    @Override
+    public void close() {
+        if (!isEnabled()) {
+            return;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8)) {
+            writer.write(HEADER + SEPARATOR + shardSpec.getIndex() + SEPARATOR + shardSpec.getCount() + "\n");
+            for (Map.Entry<String, ConversionOutcome> entry : new TreeMap<>(outcomes).entrySet()) {
+                writer.write(entry.getKey() + SEPARATOR + entry.getValue() + "\n");
+            }
+        } catch (IOException e) {
+            throw new FileConversionException("Failed to write the shard report to " + reportFile, e);
+        }
+        log.info("Event=HbmToJpaConversion SubEvent=ShardReport Shard={} Files={} ReportFile={}", shardSpec, outcomes.size(), reportFile);
+    }
+}
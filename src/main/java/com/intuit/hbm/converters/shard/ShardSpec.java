@@ -0,0 +1,117 @@
+package com.intuit.hbm.converters.shard;
+
+import lombok.Getter;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.CRC32;
+
+/**
+ * ShardSpec identifies the part of the source files converted by one node when a run is split across nodes.
+ * <p>
+ * A file belongs to the shard selected by a CRC32 hash of its path relative to the source directory, so every node
+ * computes the same partition from the same source tree, whatever the order the files are listed in.
+ * Shards are numbered from 1 to the shard count, as in {@code --shard=2/4}.
+ */
+@Getter
+public class ShardSpec {
+    // Number of this shard, from 1 to count
+    private final int index;
+    // Number of shards the run is split into
+    private final int count;
+
+    /**
+     * Creates a ShardSpec.
+     *
+     * @param index The number of this shard, from 1 to count.
+     * @param count The number of shards.
+     * @throws IllegalArgumentException if the index is not between 1 and count.
+     */
+    public ShardSpec(int index, int count) {
+        if (count < 1 || index < 1 || index > count) {
+            throw new IllegalArgumentException("Shard must be i/N with 1 <= i <= N, was " + index + "/" + count);
+        }
+        this.index = index;
+        this.count = count;
+    }
+
+    /**
+     * Parses a shard of the form "i/N".
+     *
+     * @param value The shard, e.g. "2/4".
+     * @return The parsed ShardSpec.
+     * @throws IllegalArgumentException if the value is not of the form "i/N".
+     */
+    public static ShardSpec parse(String value) {
+        String[] parts = value.split("/");
+        try {
+            if (parts.length == 2) {
+                return new ShardSpec(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Shard must be of the form i/N, was " + value);
+    }
+
+    /**
+     * Returns the shard a source file belongs to.
+     *
+     * @param relativePath The path of the source file relative to the source directory, see {@link #relativePath}.
+     * @param count        The number of shards.
+     * @return The number of the shard, from 1 to count.
+     */
+    public static int shardOf(String relativePath, int count) {
+        CRC32 crc = new CRC32();
+        crc.update(relativePath.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % count) + 1;
+    }
+
+    /**
+     * Checks whether a source file belongs to this shard.
+     *
+     * @param relativePath The path of the source file relative to the source directory.
+     * @return true if this node converts the file.
+     */
+    public boolean contains(String relativePath) {
+        return shardOf(relativePath, count) == index;
+    }
+
+    /**
+     * Returns the path of a source file relative to the source directory, with '/' separators on every platform.
+     * When the source is a single file, its name is returned.
+     *
+     * @param file             The source file.
+     * @param srcDirectoryPath The source directory or file of the run.
+     * @return The relative path.
+     */
+    public static String relativePath(File file, String srcDirectoryPath) {
+        Path src = Paths.get(srcDirectoryPath).toAbsolutePath().normalize();
+        Path path = file.toPath().toAbsolutePath().normalize();
+        if (path.equals(src) || !path.startsWith(src)) {
+            return file.getName();
+        }
+        return src.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Returns the name of the partial report written by this shard.
+     *
+     * @return The file name, e.g. "shard-2-of-4.tsv".
+     */
+    public String getReportFileName() {
+        return "shard-" + index + "-of-" + count + ".tsv";
+    }
+
+    /**
+     * Returns the shard in the form "i/N".
+     *
+     * @return The shard.
+     */
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+}
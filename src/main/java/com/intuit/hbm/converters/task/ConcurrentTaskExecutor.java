@@ -3,52 +3,267 @@ package com.intuit.hbm.converters.task;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Implements TaskExecutor to provide functionality for concurrently executing tasks.
+ * Tasks are started in order while their estimated memory cost fits in the {@link MemoryBudget} of the run.
+ * <p>
+ * A task running longer than the per-file timeout, and every task still pending or running when the whole run
+ * exceeds the run timeout, is timed out by a watchdog: it is marked as failed and its worker is interrupted. Its memory
+ * cost is only released once its worker leaves it, as a worker ignoring the interrupt still holds the memory of the
+ * file. So that such a worker does not stall the rest of the run, the pool lends it an extra worker until it returns,
+ * up to as many extra workers as the pool has workers.
  */
 @Slf4j
 public class ConcurrentTaskExecutor implements TaskExecutor {
+    private static final long MIN_WATCHDOG_INTERVAL_MILLIS = 10;
+    private static final long MAX_WATCHDOG_INTERVAL_MILLIS = 1000;
+
+    private final MemoryBudget memoryBudget;
+    // Maximum time a single task may run in milliseconds, 0 for no limit
+    private final long fileTimeoutMillis;
+    // Maximum time of the whole run in milliseconds, 0 for no limit
+    private final long runTimeoutMillis;
+
+    /**
+     * Creates a ConcurrentTaskExecutor with the default memory budget.
+     */
+    public ConcurrentTaskExecutor() {
+        this(MemoryBudget.defaultBudget());
+    }
+
+    /**
+     * Creates a ConcurrentTaskExecutor without deadlines.
+     *
+     * @param memoryBudget The budget limiting the memory used by the tasks running at the same time.
+     */
+    public ConcurrentTaskExecutor(MemoryBudget memoryBudget) {
+        this(memoryBudget, 0, 0);
+    }
+
+    /**
+     * Creates a ConcurrentTaskExecutor.
+     *
+     * @param memoryBudget      The budget limiting the memory used by the tasks running at the same time.
+     * @param fileTimeoutMillis The maximum time a single task may run in milliseconds, 0 for no limit.
+     * @param runTimeoutMillis  The maximum time of the whole run in milliseconds, 0 for no limit.
+     */
+    public ConcurrentTaskExecutor(MemoryBudget memoryBudget, long fileTimeoutMillis, long runTimeoutMillis) {
+        this.memoryBudget = memoryBudget;
+        this.fileTimeoutMillis = fileTimeoutMillis;
+        this.runTimeoutMillis = runTimeoutMillis;
+    }
+
     /**
      * Executes a list of tasks concurrently.
+     * A task is submitted once its estimated memory cost fits in the budget, and releases its cost when it ends.
+     * Once the run timeout has expired, the remaining tasks are timed out without being started.
+     * A task may convert a batch of files, so the counts logged here are counts of tasks; the outcome of every file is
+     * counted by the event journal of the run.
      *
      * @param tasks A list of Callable<Void> tasks to be executed.
      */
     @Override
     public void executeTasks(List<Callable<Boolean>> tasks) throws InterruptedException {
-        log.info("Event=HbmToJpaConversion SubEvent=ExecuteTasks InputFilesCount={}", tasks.size());
+        log.info("Event=HbmToJpaConversion SubEvent=ExecuteTasks InputFilesCount={} TasksCount={}", getFileCount(tasks), tasks.size());
+        long runDeadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(runTimeoutMillis);
         List<Future<Boolean>> futureList = new ArrayList<Future<Boolean>>();
-        // get the number of available processors
-        int processors = Runtime.getRuntime().availableProcessors();
-        // set the thread count as twice the number of available processors
-        int threadCount = processors * 2;
-        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        Queue<Submission> submissions = new ConcurrentLinkedQueue<>();
+        int notStartedCount = 0;
+        int threadCount = getThreadCount();
+        // workers are daemons, so that a worker stuck in a timed-out task cannot keep the JVM alive
+        ThreadPoolExecutor executorService = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), daemonThreads("hbm-conversion"));
+        ScheduledExecutorService watchdog = null;
+        if (fileTimeoutMillis > 0 || runTimeoutMillis > 0) {
+            long interval = getWatchdogInterval();
+            watchdog = Executors.newSingleThreadScheduledExecutor(daemonThreads("hbm-conversion-watchdog"));
+            watchdog.scheduleWithFixedDelay(() -> checkDeadlines(submissions, runDeadlineNanos, executorService),
+                    interval, interval, TimeUnit.MILLISECONDS);
+        }
         try {
-            // submit all tasks to the executor service and store futures in the list
-            futureList = executorService.invokeAll(tasks);
-            waitForCompletion(futureList);
+            // submit the tasks as the memory budget admits them and store futures in the list
+            for (Callable<Boolean> callable : tasks) {
+                ConversionTask task = callable instanceof ConversionTask ? (ConversionTask) callable : new ConversionTask(null, callable);
+                long cost = memoryBudget.estimate(task);
+                boolean admitted = acquire(cost, runDeadlineNanos);
+                if (!admitted || isExpired(runDeadlineNanos) && task.timeOut()) {
+                    if (admitted) {
+                        memoryBudget.release(cost);
+                    } else {
+                        task.timeOut();
+                    }
+                    notStartedCount++;
+                    continue;
+                }
+                Submission submission = new Submission(task, cost, executorService, threadCount);
+                try {
+                    submission.future = executorService.submit(() -> {
+                        if (!submission.start()) {
+                            // timed out and released before its worker took it
+                            return false;
+                        }
+                        try {
+                            return task.call();
+                        } finally {
+                            submission.end();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    submission.end();
+                    throw e;
+                }
+                submissions.add(submission);
+                futureList.add(submission.future);
+            }
+            waitForCompletion(futureList, notStartedCount);
+            memoryBudget.logUsage();
         } finally {
-            // At this point, we can guarantee all tasks have finished their execution
+            if (watchdog != null) {
+                watchdog.shutdownNow();
+            }
+            // At this point, we can guarantee all tasks have finished their execution or have been timed out
             executorService.shutdownNow();
         }
     }
 
+    /**
+     * Waits until the memory budget admits a task, at most until the run timeout expires.
+     *
+     * @param cost             The estimated cost of the task.
+     * @param runDeadlineNanos The System.nanoTime() at which the run timeout expires.
+     * @return true if the task was admitted, false if the run timeout expired first.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    private boolean acquire(long cost, long runDeadlineNanos) throws InterruptedException {
+        if (runTimeoutMillis <= 0) {
+            memoryBudget.acquire(cost);
+            return true;
+        }
+        return memoryBudget.tryAcquire(cost, runDeadlineNanos - System.nanoTime());
+    }
+
+    /**
+     * Returns the number of source files the tasks work on, a task which is not a ConversionTask working on one.
+     *
+     * @param tasks The tasks.
+     * @return The number of files.
+     */
+    private static int getFileCount(List<Callable<Boolean>> tasks) {
+        int fileCount = 0;
+        for (Callable<Boolean> task : tasks) {
+            fileCount += task instanceof ConversionTask ? ((ConversionTask) task).getFiles().size() : 1;
+        }
+        return fileCount;
+    }
+
+    /**
+     * Returns the number of workers running the tasks.
+     *
+     * @return Twice the number of available processors.
+     */
+    static int getThreadCount() {
+        // get the number of available processors
+        int processors = Runtime.getRuntime().availableProcessors();
+        // set the thread count as twice the number of available processors
+        return processors * 2;
+    }
+
+    /**
+     * Times out the submitted tasks which exceeded the per-file timeout, or all of them once the run timeout expired.
+     * A timed-out task is interrupted. The memory cost of a task which had not started is released right away, the
+     * cost of a running task when its worker leaves it. When its worker was running the task and the run goes on, the
+     * pool lends it an extra worker until it returns, as a worker blocked in a call ignoring interrupts would otherwise
+     * be lost for the run.
+     *
+     * @param submissions      The submitted tasks which have not ended yet.
+     * @param runDeadlineNanos The System.nanoTime() at which the run timeout expires.
+     * @param executorService  The pool running the tasks.
+     */
+    private void checkDeadlines(Queue<Submission> submissions, long runDeadlineNanos, ThreadPoolExecutor executorService) {
+        long now = System.nanoTime();
+        boolean runExpired = isExpired(runDeadlineNanos);
+        for (Iterator<Submission> iterator = submissions.iterator(); iterator.hasNext(); ) {
+            Submission submission = iterator.next();
+            ConversionTask task = submission.task;
+            if (submission.future.isDone()) {
+                iterator.remove();
+                continue;
+            }
+            boolean running = task.getState() == ConversionTask.State.RUNNING;
+            boolean fileExpired = running && fileTimeoutMillis > 0
+                    && now - task.getStartNanos() >= TimeUnit.MILLISECONDS.toNanos(fileTimeoutMillis);
+            if ((fileExpired || runExpired) && task.timeOut()) {
+                log.error("Event=HbmToJpaConversion SubEvent=TaskTimeout Status=TimedOut SourceFileName={} Stage={} Deadline={}",
+                        task.getFile() == null ? null : task.getFile().getName(), task.getStage(), fileExpired ? "File" : "Run");
+                if (running && !runExpired) {
+                    submission.addWorker();
+                }
+                submission.future.cancel(true);
+                submission.releaseIfNotStarted();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns whether the run timeout is set and has expired.
+     *
+     * @param runDeadlineNanos The System.nanoTime() at which the run timeout expires.
+     * @return true if the run timeout has expired.
+     */
+    private boolean isExpired(long runDeadlineNanos) {
+        return runTimeoutMillis > 0 && System.nanoTime() - runDeadlineNanos >= 0;
+    }
+
+    /**
+     * Returns the interval of the deadline checks, a tenth of the shortest timeout within sensible bounds.
+     *
+     * @return The interval in milliseconds.
+     */
+    private long getWatchdogInterval() {
+        long shortestTimeout = Math.min(fileTimeoutMillis > 0 ? fileTimeoutMillis : Long.MAX_VALUE,
+                runTimeoutMillis > 0 ? runTimeoutMillis : Long.MAX_VALUE);
+        return Math.max(MIN_WATCHDOG_INTERVAL_MILLIS, Math.min(MAX_WATCHDOG_INTERVAL_MILLIS, shortestTimeout / 10));
+    }
+
+    /**
+     * Creates a factory of daemon threads.
+     *
+     * @param name The name of the threads.
+     * @return The thread factory.
+     */
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
     /**
      * This method waits for all tasks to complete their execution. It iterates through a list of Future objects,
      * each representing a result of an asynchronous computation or task. It blocks the current thread if the computation is not yet complete
      * and gets the completion status of each task.
+     * The wait is bounded by the deadlines, as the watchdog cancels the future of every timed-out task.
      * <p>
      * For each task, it increments 'successCount' if the task completed successfully or 'failedCount' if the task failed.
+     * A batch task fails when any of its files fails, the outcome of each file is logged by the run summary.
      *
-     * @param futureList A list of Future<Void> objects representing each task submitted to the executor service.
-     *                   <p>
-     *                   It also logs count of how many tasks completed successfully and how many tasks failed.
+     * @param futureList      A list of Future<Void> objects representing each task submitted to the executor service.
+     *                        <p>
+     *                        It also logs count of how many tasks completed successfully and how many tasks failed.
+     * @param notStartedCount The number of tasks timed out before they were submitted.
      */
-    private void waitForCompletion(List<Future<Boolean>> futureList) {
+    private void waitForCompletion(List<Future<Boolean>> futureList, int notStartedCount) {
         int successCount = 0;
-        int failedCount = 0;
+        int failedCount = notStartedCount;
+        int timedOutCount = notStartedCount;
         // Wait for all tasks to complete
         try {
             for (Future<Boolean> future : futureList) {
@@ -59,13 +274,92 @@ public class ConcurrentTaskExecutor implements TaskExecutor {
                     } else {
                         failedCount++;
                     }
+                } catch (CancellationException e) {
+                    failedCount++;
+                    timedOutCount++;
                 } catch (InterruptedException | ExecutionException e) {
                     log.error("Event=HbmToJpaConversion SubEvent=ConcurrentTaskExecutor", e);
                     failedCount++;
                 }
             }
         } finally {
-            log.info("Event=HbmToJpaConversion SubEvent=ConcurrentTaskExecutor SuccessCount={} FailedCount={}", successCount, failedCount);
+            log.info("Event=HbmToJpaConversion SubEvent=ConcurrentTaskExecutor SucceededTasksCount={} FailedTasksCount={} TimedOutTasksCount={}",
+                    successCount, failedCount, timedOutCount);
+        }
+    }
+
+    /**
+     * A task submitted to the pool. Its memory cost is released exactly once: by its worker when it leaves the task,
+     * or by the watchdog when the task timed out before a worker took it.
+     */
+    private final class Submission {
+        private final ConversionTask task;
+        private final long cost;
+        private final ThreadPoolExecutor executorService;
+        private final int threadCount;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private volatile Future<Boolean> future;
+        private boolean ended;
+        private boolean extraWorker;
+
+        private Submission(ConversionTask task, long cost, ThreadPoolExecutor executorService, int threadCount) {
+            this.task = task;
+            this.cost = cost;
+            this.executorService = executorService;
+            this.threadCount = threadCount;
+        }
+
+        /**
+         * Marks the task as taken by its worker.
+         *
+         * @return false if the watchdog already released the task, which must not run.
+         */
+        private boolean start() {
+            return started.compareAndSet(false, true);
+        }
+
+        /**
+         * Releases the memory cost of a task no worker took, as no worker will release it.
+         */
+        private void releaseIfNotStarted() {
+            if (started.compareAndSet(false, true)) {
+                end();
+            }
+        }
+
+        /**
+         * Adds a worker to the pool while the worker of the timed-out task is stuck in it, unless the pool already
+         * has as many extra workers as workers.
+         */
+        private synchronized void addWorker() {
+            if (ended) {
+                return;
+            }
+            synchronized (executorService) {
+                if (executorService.getMaximumPoolSize() - threadCount >= threadCount) {
+                    return;
+                }
+                executorService.setMaximumPoolSize(executorService.getMaximumPoolSize() + 1);
+                executorService.setCorePoolSize(executorService.getCorePoolSize() + 1);
+            }
+            extraWorker = true;
+        }
+
+        /**
+         * Releases the memory cost of the task once its worker left it, and removes the worker added for it.
+         */
+        private synchronized void end() {
+            if (ended) {
+                return;
+            }
+            ended = true;
+            memoryBudget.release(cost);
+            if (extraWorker) {
+                synchronized (executorService) {
+                    executorService.setCorePoolSize(executorService.getCorePoolSize() - 1);
+                    executorService.setMaximumPoolSize(executorService.getMaximumPoolSize() - 1);
+                }
+            }
         }
     }
 }
@@ -0,0 +1,238 @@
+package com.intuit.hbm.converters.task;
+
+import com.intuit.hbm.converters.exception.FileConversionException;
+import com.intuit.hbm.converters.model.ConversionStage;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * ConversionTask is a task working on one source file, or on a batch of small source files converted one after the
+ * other on the same thread. Besides the work itself, it exposes the files so that the {@link TaskExecutor} can
+ * schedule the task according to their size, and the file and stage the work is in so that a task exceeding its
+ * deadline can be reported with the stage it was stuck in.
+ * <p>
+ * The conversion of each file ends exactly once, either by completing or by timing out. Only the side ending it
+ * records its outcome, so a timed-out conversion finishing late never reports a second outcome. A batch stops at
+ * the file which timed out.
+ */
+@Getter
+public class ConversionTask implements Callable<Boolean> {
+    // The task run by the current thread, used by the work to report its stage
+    private static final ThreadLocal<ConversionTask> CURRENT = new ThreadLocal<>();
+
+    /**
+     * The states of the conversion of the current file of a task.
+     */
+    public enum State {
+        PENDING, RUNNING, DONE, TIMED_OUT
+    }
+
+    /**
+     * The work done on each file of a task.
+     */
+    @FunctionalInterface
+    public interface FileWork {
+        /**
+         * Converts one file.
+         *
+         * @param file The file, null for a task not working on a file.
+         * @return true if the conversion succeeded.
+         * @throws Exception if the conversion fails.
+         */
+        boolean convert(File file) throws Exception;
+    }
+
+    // The source files the task works on, a single null file for a task not working on a file
+    private final List<File> files;
+    // Size of the largest source file in bytes, read once when the task is built. The files of a batch are
+    // converted one after the other, so the largest one bounds the memory used by the task.
+    private final long fileSize;
+    // Total size of the source files in bytes
+    private final long totalFileSize;
+    @Getter(AccessLevel.NONE)
+    private final FileWork work;
+    @Getter(AccessLevel.NONE)
+    private final AtomicReference<State> state = new AtomicReference<>(State.PENDING);
+    // Index of the file the work is on
+    private volatile int fileIndex;
+    // The stage the work is in, null until the work enters the first stage of the current file
+    private volatile ConversionStage stage;
+    // System.nanoTime() when the work on the current file started, 0 while the task is pending
+    private volatile long startNanos;
+    // Number of files converted successfully
+    private volatile int succeededCount;
+    // Records the outcome of the task when it times out
+    @Setter
+    private Consumer<ConversionTask> timeoutHandler;
+
+    /**
+     * Creates a ConversionTask working on a single file.
+     *
+     * @param file The source file the task works on, may be null.
+     * @param work The work of the task.
+     */
+    public ConversionTask(File file, Callable<Boolean> work) {
+        this(Collections.singletonList(file), ignored -> work.call());
+    }
+
+    /**
+     * Creates a ConversionTask working on a batch of files.
+     *
+     * @param files The source files the task works on, in the order they are converted.
+     * @param work  The work done on each file.
+     */
+    public ConversionTask(List<File> files, FileWork work) {
+        this.files = files;
+        this.work = work;
+        long largest = 0;
+        long total = 0;
+        for (File file : files) {
+            long length = file == null ? 0 : file.length();
+            largest = Math.max(largest, length);
+            total += length;
+        }
+        this.fileSize = largest;
+        this.totalFileSize = total;
+    }
+
+    /**
+     * Runs the work on every file of the task, unless the task timed out before it started.
+     * The deadline of a file starts when the work on it starts.
+     *
+     * @return true if the work succeeded on every file.
+     * @throws Exception if the work fails.
+     */
+    @Override
+    public Boolean call() throws Exception {
+        startNanos = System.nanoTime();
+        if (!state.compareAndSet(State.PENDING, State.RUNNING)) {
+            return false;
+        }
+        CURRENT.set(this);
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                if (i > 0 && !startNextFile(i)) {
+                    return false;
+                }
+                if (work.convert(files.get(i))) {
+                    succeededCount++;
+                }
+            }
+            return succeededCount == files.size();
+        } finally {
+            CURRENT.remove();
+            state.compareAndSet(State.RUNNING, State.DONE);
+        }
+    }
+
+    /**
+     * Moves the work to the next file of a batch, unless the task timed out.
+     *
+     * @param index The index of the next file.
+     * @return true if the work may go on with the next file.
+     */
+    private boolean startNextFile(int index) {
+        while (true) {
+            State current = state.get();
+            if (current == State.TIMED_OUT) {
+                return false;
+            }
+            // the deadline is reset before the state, so that the watchdog never sees a stale start
+            startNanos = System.nanoTime();
+            stage = null;
+            fileIndex = index;
+            if (state.compareAndSet(current, State.RUNNING)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the file the work is on, the first file while the task is pending.
+     *
+     * @return The current file, null for a task not working on a file.
+     */
+    public File getFile() {
+        return files.get(fileIndex);
+    }
+
+    /**
+     * Returns the files the work has not started yet.
+     *
+     * @return The files after the current file.
+     */
+    public List<File> getRemainingFiles() {
+        return files.subList(fileIndex + 1, files.size());
+    }
+
+    /**
+     * Returns the state of the conversion of the current file.
+     *
+     * @return The state of the task.
+     */
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * Ends the conversion of the current file as timed out, if it has not ended yet, and records the outcome of the
+     * task with the timeout handler.
+     *
+     * @return true if the task timed out, false if the conversion had already ended.
+     */
+    public boolean timeOut() {
+        if (!state.compareAndSet(State.RUNNING, State.TIMED_OUT) && !state.compareAndSet(State.PENDING, State.TIMED_OUT)) {
+            return false;
+        }
+        if (timeoutHandler != null) {
+            timeoutHandler.accept(this);
+        }
+        return true;
+    }
+
+    /**
+     * Reports the stage the work of the task run by the current thread enters.
+     * Throws a FileConversionException if the task already timed out, so that the work stops at the next stage.
+     *
+     * @param stage The stage the work enters.
+     */
+    public static void enterStage(ConversionStage stage) {
+        ConversionTask task = CURRENT.get();
+        if (task == null) {
+            return;
+        }
+        if (task.getState() == State.TIMED_OUT) {
+            throw new FileConversionException("Timed out in stage " + task.stage);
+        }
+        task.stage = stage;
+    }
+
+    /**
+     * Ends the conversion of the current file of the task run by the current thread as done, before the work records
+     * its outcome.
+     *
+     * @return true if the work should record its outcome, false if the task timed out and its outcome is already recorded.
+     */
+    public static boolean complete() {
+        ConversionTask task = CURRENT.get();
+        return task == null || task.state.compareAndSet(State.RUNNING, State.DONE);
+    }
+
+    /**
+     * Returns whether the task run by the current thread timed out.
+     *
+     * @return true if the task timed out, false if it did not or the current thread runs no task.
+     */
+    public static boolean isTimedOut() {
+        ConversionTask task = CURRENT.get();
+        return task != null && task.getState() == State.TIMED_OUT;
+    }
+}
@@ -1,12 +1,22 @@
 package com.intuit.hbm.converters.task;
 
+import com.intuit.hbm.converters.checkpoint.CheckpointJournal;
+import com.intuit.hbm.converters.common.ConversionContext;
 import com.intuit.hbm.converters.converter.ConverterFactory;
+import com.intuit.hbm.converters.helper.FileHelper;
+import com.intuit.hbm.converters.merge.OrmMerger;
+import com.intuit.hbm.converters.model.ConversionOutcome;
+import com.intuit.hbm.converters.model.ConversionStage;
 import com.intuit.hbm.converters.model.ConverterType;
+import com.intuit.hbm.converters.model.RunMode;
 import com.intuit.hbm.converters.service.ConverterService;
+import com.intuit.hbm.converters.shard.ShardReport;
+import com.intuit.hbm.converters.validation.RoundTripVerifier;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
 
@@ -15,20 +25,124 @@ import java.util.concurrent.Callable;
  */
 @Slf4j
 public class ConversionTaskBuilder implements TaskBuilder {
+    private final ConversionContext context;
+
+    /**
+     * Creates a ConversionTaskBuilder with default settings.
+     */
+    public ConversionTaskBuilder() {
+        this(ConversionContext.defaultContext());
+    }
+
+    /**
+     * Creates a ConversionTaskBuilder whose tasks belong to the given conversion run.
+     *
+     * @param context The state shared by all the conversions of the run.
+     */
+    public ConversionTaskBuilder(ConversionContext context) {
+        this.context = context;
+    }
 
     /**
      * Builds a list of tasks where each task is a conversion operation on a file.
+     * When the run verifies converted files, each task verifies the converted file of a source file instead.
+     * When the run is sharded, only the files of the shard of this node are converted.
+     * When the run merges into an orm file, the files merged by a previous run which have not changed since are skipped.
+     * When the run resumes a previous run, the files completed by the previous run are skipped.
+     * Small files are converted in batches, see {@link #buildBatchedTasks}.
+     * The tasks are returned in the order chosen by the {@link TaskScheduler} of the run.
      *
      * @param files             An array of files to convert.
      * @param destDirectoryPath The path of the destination directory to store the converted files.
+     * @param converterTypes    The output targets every file is converted to.
      * @return A list of Callable<Void> tasks. Each task performs the conversion operation on a file.
      */
     @Override
-    public List<Callable<Boolean>> buildTasks(File[] files, String destDirectoryPath, ConverterType converterType) {
+    public List<Callable<Boolean>> buildTasks(File[] files, String destDirectoryPath, List<ConverterType> converterTypes) {
         List<Callable<Boolean>> tasks = new ArrayList<>();
-        ConverterService converterService = ConverterFactory.getConverter(converterType);
+        if (context.getInputModel().getRunMode() == RunMode.VERIFY) {
+            RoundTripVerifier verifier = new RoundTripVerifier(FileHelper.getInstance(), context);
+            for (File file : files) {
+                tasks.add(new ConversionTask(file, () -> verifier.verify(file, getFileName(file), destDirectoryPath)));
+            }
+            return context.getTaskScheduler().schedule(tasks);
+        }
+        ConverterService converterService = ConverterFactory.getConverter(converterTypes, context);
+        CheckpointJournal checkpointJournal = context.getCheckpointJournal();
+        OrmMerger ormMerger = context.getOrmMerger();
+        ShardReport shardReport = context.getShardReport();
+        List<File> pendingFiles = new ArrayList<>();
+        int skippedCount = 0;
+        int unchangedCount = 0;
         for (File file : files) {
-            tasks.add(buildTask(file, destDirectoryPath, converterService));
+            if (!shardReport.isAssigned(file)) {
+                continue;
+            }
+            if (checkpointJournal.isCompleted(file)) {
+                skippedCount++;
+                shardReport.record(file, ConversionOutcome.SKIPPED);
+            } else if (ormMerger.isEnabled() && ormMerger.isUnchanged(file)) {
+                unchangedCount++;
+                shardReport.record(file, ConversionOutcome.SKIPPED);
+            } else {
+                pendingFiles.add(file);
+            }
+        }
+        if (shardReport.isEnabled()) {
+            log.info("Event=HbmToJpaConversion SubEvent=Shard Shard={} FilesCount={} ShardFilesCount={}",
+                    context.getInputModel().getShardSpec(), files.length, pendingFiles.size() + skippedCount + unchangedCount);
+        }
+        if (skippedCount > 0) {
+            log.info("Event=HbmToJpaConversion SubEvent=Resume SkippedFilesCount={} RemainingFilesCount={}", skippedCount, pendingFiles.size());
+        }
+        if (unchangedCount > 0) {
+            log.info("Event=HbmToJpaConversion SubEvent=OrmMerge UnchangedFilesCount={} RemainingFilesCount={}", unchangedCount, pendingFiles.size());
+        }
+        tasks.addAll(buildBatchedTasks(pendingFiles, destDirectoryPath, converterService));
+        return context.getTaskScheduler().schedule(tasks);
+    }
+
+    /**
+     * Builds the tasks converting a list of files. Small files are grouped into batches converted one after the other
+     * by a single task, up to the maximum number of files and total size of a batch, so that the cost of a task is
+     * shared by many small files. A file larger than a batch is converted by its own task.
+     *
+     * @param pendingFiles      The files to convert.
+     * @param destDirectoryPath The path of the destination directory to store the converted files.
+     * @param converterService  {@link ConverterService}
+     * @return The tasks converting the files.
+     */
+    private List<Callable<Boolean>> buildBatchedTasks(List<File> pendingFiles, String destDirectoryPath, ConverterService converterService) {
+        int maxFiles = context.getInputModel().getBatchMaxFiles();
+        long maxBytes = context.getInputModel().getBatchMaxBytes();
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        List<File> batch = new ArrayList<>();
+        long batchBytes = 0;
+        int batchCount = 0;
+        for (File file : pendingFiles) {
+            long size = file.length();
+            if (maxFiles <= 1 || size > maxBytes) {
+                tasks.add(buildTask(file, destDirectoryPath, converterService));
+                continue;
+            }
+            if (batch.size() == maxFiles || batchBytes + size > maxBytes) {
+                tasks.add(buildTask(batch, destDirectoryPath, converterService));
+                batchCount++;
+                batch = new ArrayList<>();
+                batchBytes = 0;
+            }
+            batch.add(file);
+            batchBytes += size;
+        }
+        if (batch.size() == 1) {
+            tasks.add(buildTask(batch.get(0), destDirectoryPath, converterService));
+        } else if (!batch.isEmpty()) {
+            tasks.add(buildTask(batch, destDirectoryPath, converterService));
+            batchCount++;
+        }
+        if (batchCount > 0) {
+            log.info("Event=HbmToJpaConversion SubEvent=Batch FilesCount={} TasksCount={} BatchesCount={}",
+                    pendingFiles.size(), tasks.size(), batchCount);
         }
         return tasks;
     }
@@ -43,10 +157,66 @@ public class ConversionTaskBuilder implements TaskBuilder {
      */
     @Override
     public Callable<Boolean> buildTask(File file, String destDirectoryPath, ConverterService converterService) {
-        String fileName = file.getName().split("\\.")[0];
-        Callable<Boolean> task = () -> {
-            return converterService.performConversion(file, fileName, destDirectoryPath);
-        };
+        return buildTask(Collections.singletonList(file), destDirectoryPath, converterService);
+    }
+
+    /**
+     * Builds a single task that converts a batch of files one after the other on the same thread.
+     * Every file is still converted, journaled and reported on its own.
+     *
+     * @param batch             The files to convert.
+     * @param destDirectoryPath The path of the destination directory to store the converted files.
+     * @param converterService  {@link ConverterService}
+     * @return A task that converts the files.
+     */
+    private ConversionTask buildTask(List<File> batch, String destDirectoryPath, ConverterService converterService) {
+        ConversionTask task = new ConversionTask(batch, file -> {
+            boolean converted = converterService.performConversion(file, getFileName(file), destDirectoryPath);
+            if (!ConversionTask.isTimedOut()) {
+                context.getShardReport().record(file, converted ? ConversionOutcome.SUCCESS : ConversionOutcome.FAILED);
+            }
+            return converted;
+        });
+        task.setTimeoutHandler(this::recordTimeout);
         return task;
     }
+
+    /**
+     * Records a conversion which timed out as failed, with the stage it was stuck in.
+     * The files of a batch after the file which timed out are not converted, and are recorded as failed as well.
+     *
+     * @param task The task which timed out.
+     */
+    private void recordTimeout(ConversionTask task) {
+        String stage = task.getStage() == null ? "NotStarted" : task.getStage().name();
+        long start = task.getStartNanos() == 0 ? context.getEventJournal().begin() : task.getStartNanos();
+        context.getEventJournal().record(task.getFile().getPath(), ConversionStage.CONVERSION, start, ConversionOutcome.FAILED,
+                "Timed out in stage " + stage);
+        context.getShardReport().record(task.getFile(), ConversionOutcome.FAILED);
+        for (File file : task.getRemainingFiles()) {
+            context.getEventJournal().record(file.getPath(), ConversionStage.CONVERSION, context.getEventJournal().begin(),
+                    ConversionOutcome.FAILED, "Timed out in stage NotStarted");
+            context.getShardReport().record(file, ConversionOutcome.FAILED);
+        }
+    }
+
+    /**
+     * Returns the name of a source file up to its first dot, which is also the name of its converted file.
+     *
+     * @param file A source file.
+     * @return The name of the file without extension.
+     */
+    private static String getFileName(File file) {
+        return getFileName(file.getName());
+    }
+
+    /**
+     * Returns the name of a source file up to its first dot, which is also the name of its converted file.
+     *
+     * @param sourceFileName The name of a source file, such as Paycheck.query.hbm.xml.
+     * @return The name of the file without extension, such as Paycheck.
+     */
+    public static String getFileName(String sourceFileName) {
+        return sourceFileName.split("\\.")[0];
+    }
 }
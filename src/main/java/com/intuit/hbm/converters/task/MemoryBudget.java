@@ -0,0 +1,138 @@
+package com.intuit.hbm.converters.task;
+
+import com.intuit.hbm.converters.model.InputModel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MemoryBudget limits the memory used by the conversions running at the same time.
+ * <p>
+ * The memory cost of a task is estimated from the size of its source file multiplied by an expansion factor, which
+ * covers the parsed Document, the extracted model and the rendered string of the file. The default factor is a
+ * conservative estimate, not a measurement: it is tuned with --memory-factor for the files of a code base, from the
+ * heap used by a run and the peak estimated cost it logs.
+ * <p>
+ * A task is admitted while the total cost of the admitted tasks stays under the budget. A task whose cost exceeds
+ * the budget on its own is admitted once no other task is running, and runs alone.
+ */
+@Slf4j
+@Getter
+public class MemoryBudget {
+    // Default estimate of the number of bytes of heap used per byte of source file
+    public static final double DEFAULT_EXPANSION_FACTOR = 8;
+    // Cost of the templates and buffers of a conversion, whatever the size of the file
+    private static final long MINIMUM_TASK_COST = 256 * 1024;
+
+    private final long budgetBytes;
+    private final double expansionFactor;
+    private volatile long inFlightBytes;
+    private long peakInFlightBytes;
+    private int delayedTaskCount;
+
+    /**
+     * Creates a MemoryBudget.
+     *
+     * @param budgetBytes     The total estimated cost of the tasks allowed to run at the same time.
+     * @param expansionFactor The number of bytes of heap used per byte of source file.
+     */
+    public MemoryBudget(long budgetBytes, double expansionFactor) {
+        this.budgetBytes = budgetBytes;
+        this.expansionFactor = expansionFactor;
+    }
+
+    /**
+     * Creates the default MemoryBudget: half of the maximum heap, with the default expansion factor.
+     *
+     * @return A new MemoryBudget.
+     */
+    public static MemoryBudget defaultBudget() {
+        return new MemoryBudget(Runtime.getRuntime().maxMemory() / 2, DEFAULT_EXPANSION_FACTOR);
+    }
+
+    /**
+     * Creates the MemoryBudget of a run from its settings. Half of the maximum heap is used when no budget is set.
+     *
+     * @param inputModel The settings of the run.
+     * @return A new MemoryBudget.
+     */
+    public static MemoryBudget forRun(InputModel inputModel) {
+        long budgetBytes = inputModel.getMemoryBudgetMb() > 0 ? inputModel.getMemoryBudgetMb() << 20 : Runtime.getRuntime().maxMemory() / 2;
+        return new MemoryBudget(budgetBytes, inputModel.getMemoryExpansionFactor());
+    }
+
+    /**
+     * Estimates the memory cost of a task.
+     *
+     * @param task The task.
+     * @return The estimated cost in bytes, the minimum cost when the task does not work on a file.
+     */
+    public long estimate(Callable<Boolean> task) {
+        if (task instanceof ConversionTask) {
+            return Math.max(MINIMUM_TASK_COST, (long) (((ConversionTask) task).getFileSize() * expansionFactor));
+        }
+        return MINIMUM_TASK_COST;
+    }
+
+    /**
+     * Waits until a task of the given cost can be admitted, and admits it.
+     *
+     * @param cost The estimated cost of the task.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public synchronized void acquire(long cost) throws InterruptedException {
+        if (inFlightBytes > 0 && inFlightBytes + cost > budgetBytes) {
+            delayedTaskCount++;
+            while (inFlightBytes > 0 && inFlightBytes + cost > budgetBytes) {
+                wait();
+            }
+        }
+        inFlightBytes += cost;
+        peakInFlightBytes = Math.max(peakInFlightBytes, inFlightBytes);
+    }
+
+    /**
+     * Waits until a task of the given cost can be admitted, at most for the given time, and admits it.
+     *
+     * @param cost         The estimated cost of the task.
+     * @param timeoutNanos The maximum time to wait in nanoseconds.
+     * @return true if the task was admitted, false if the time elapsed first.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public synchronized boolean tryAcquire(long cost, long timeoutNanos) throws InterruptedException {
+        long deadlineNanos = System.nanoTime() + timeoutNanos;
+        if (inFlightBytes > 0 && inFlightBytes + cost > budgetBytes) {
+            delayedTaskCount++;
+            while (inFlightBytes > 0 && inFlightBytes + cost > budgetBytes) {
+                long remainingNanos = deadlineNanos - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+            }
+        }
+        inFlightBytes += cost;
+        peakInFlightBytes = Math.max(peakInFlightBytes, inFlightBytes);
+        return true;
+    }
+
+    /**
+     * Releases the cost of a finished task.
+     *
+     * @param cost The estimated cost of the task.
+     */
+    public synchronized void release(long cost) {
+        inFlightBytes -= cost;
+        notifyAll();
+    }
+
+    /**
+     * Logs how the budget was used by the run.
+     */
+    public synchronized void logUsage() {
+        log.info("Event=HbmToJpaConversion SubEvent=MemoryBudget BudgetMb={} PeakInFlightMb={} DelayedTasksCount={}",
+                budgetBytes >> 20, peakInFlightBytes >> 20, delayedTaskCount);
+    }
+}
@@ -4,6 +4,7 @@ import com.intuit.hbm.converters.model.ConverterType;
 import com.intuit.hbm.converters.service.ConverterService;
 
 import java.io.File;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
 
@@ -17,10 +18,22 @@ public interface TaskBuilder {
      *
      * @param files             An array of files to convert.
      * @param destDirectoryPath The path of the destination directory to store the converted files.
+     * @param converterTypes    The output targets every file is converted to, see {@link ConverterType}
+     * @return A list of Callable<Void> tasks.
+     */
+    List<Callable<Boolean>> buildTasks(File[] files, String destDirectoryPath, List<ConverterType> converterTypes);
+
+    /**
+     * Builds a list of tasks converting the given files to a single output target.
+     *
+     * @param files             An array of files to convert.
+     * @param destDirectoryPath The path of the destination directory to store the converted files.
      * @param converterType     {@link ConverterType}
      * @return A list of Callable<Void> tasks.
      */
-    List<Callable<Boolean>> buildTasks(File[] files, String destDirectoryPath, ConverterType converterType);
+    default List<Callable<Boolean>> buildTasks(File[] files, String destDirectoryPath, ConverterType converterType) {
+        return buildTasks(files, destDirectoryPath, Collections.singletonList(converterType));
+    }
 
     /**
      * Builds a single task based on the given file, IConverter, and destination directory path.
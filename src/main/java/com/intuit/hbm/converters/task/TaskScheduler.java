@@ -0,0 +1,241 @@
+package com.intuit.hbm.converters.task;
+
+import com.intuit.hbm.converters.exception.FileConversionException;
+import com.intuit.hbm.converters.journal.JournalEvent;
+import com.intuit.hbm.converters.model.ConversionOutcome;
+import com.intuit.hbm.converters.model.ConversionStage;
+import com.intuit.hbm.converters.model.InputModel;
+import com.intuit.hbm.converters.model.SchedulingPolicy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskScheduler orders the conversion tasks of a run according to its {@link SchedulingPolicy}, and predicts the
+ * time the run takes with that order.
+ * <p>
+ * The cost of a task is the duration of the conversion of its file in a previous run, read from the event journal
+ * of that run, or else an estimate from the size of its file: a fixed cost per file plus a cost per byte. The
+ * estimate only has to rank the files and predict the run roughly, the journal of a previous run giving the actual
+ * durations.
+ * <p>
+ * The predicted time simulates the workers taking the tasks in order, each task going to the first idle worker.
+ * It is logged with the actual time once the run is closed.
+ */
+@Slf4j
+public class TaskScheduler implements Closeable {
+    // Estimated cost of converting a file whatever its size, such as parsing and writing it, in microseconds
+    static final long FIXED_COST_MICROS = 10_000;
+    // Estimated cost of converting a byte of source file, in microseconds
+    static final double MICROS_PER_BYTE = 1.5;
+    // Number of tasks listed in the logged order
+    private static final int LOGGED_ORDER_COUNT = 10;
+
+    private final SchedulingPolicy policy;
+    // Duration of the conversion of each file in a previous run in microseconds, by absolute path
+    private final Map<String, Long> historyMicros;
+    private final int workerCount;
+    // Predicted time of the scheduled tasks in milliseconds
+    @Getter
+    private long predictedMillis;
+    // System.nanoTime() when the tasks were scheduled, 0 when no task was scheduled
+    private long scheduledNanos;
+
+    /**
+     * Creates a TaskScheduler.
+     *
+     * @param policy        The order in which the tasks are started.
+     * @param historyMicros The duration of the conversion of each file in a previous run, by absolute path.
+     * @param workerCount   The number of workers running the tasks.
+     */
+    public TaskScheduler(SchedulingPolicy policy, Map<String, Long> historyMicros, int workerCount) {
+        this.policy = policy;
+        this.historyMicros = historyMicros;
+        this.workerCount = workerCount;
+    }
+
+    /**
+     * Creates the TaskScheduler of a run from its settings, reading the durations of the previous run from its
+     * event journal when one is set.
+     *
+     * @param inputModel The settings of the run.
+     * @return A new TaskScheduler.
+     */
+    public static TaskScheduler forRun(InputModel inputModel) {
+        Map<String, Long> historyMicros = inputModel.getScheduleHistoryPath() == null
+                ? Collections.emptyMap() : readHistory(inputModel.getScheduleHistoryPath());
+        return new TaskScheduler(inputModel.getSchedulingPolicy(), historyMicros, ConcurrentTaskExecutor.getThreadCount());
+    }
+
+    /**
+     * Reads the duration of every file converted successfully from the event journal of a previous run.
+     * A missing journal is not an error, as the journal of the first run does not exist yet.
+     *
+     * @param journalPath The path of the JSONL event journal.
+     * @return The durations in microseconds, by absolute path.
+     * @throws FileConversionException if the journal cannot be read.
+     */
+    static Map<String, Long> readHistory(String journalPath) {
+        Map<String, Long> historyMicros = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(journalPath), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JournalEvent event = JournalEvent.fromJson(line);
+                if (event != null && event.getStage() == ConversionStage.CONVERSION && event.getOutcome() == ConversionOutcome.SUCCESS) {
+                    historyMicros.put(new File(event.getFileName()).getAbsolutePath(), event.getDurationMicros());
+                }
+            }
+        } catch (NoSuchFileException e) {
+            log.warn("Event=HbmToJpaConversion SubEvent=Schedule Status=NoHistory JournalFile={}", journalPath);
+        } catch (IOException e) {
+            throw new FileConversionException("Unable to read schedule history " + journalPath, e);
+        }
+        return historyMicros;
+    }
+
+    /**
+     * Estimates the duration of a task, the sum of the estimated durations of its files.
+     *
+     * @param task The task.
+     * @return The estimated duration in microseconds.
+     */
+    public long estimateMicros(Callable<Boolean> task) {
+        if (!(task instanceof ConversionTask)) {
+            return FIXED_COST_MICROS;
+        }
+        long micros = 0;
+        for (File file : ((ConversionTask) task).getFiles()) {
+            micros += estimateMicros(file);
+        }
+        return micros;
+    }
+
+    /**
+     * Estimates the duration of the conversion of a file, from the previous run when the file was converted by it,
+     * or else from the size of the file.
+     *
+     * @param file The file, may be null.
+     * @return The estimated duration in microseconds.
+     */
+    private long estimateMicros(File file) {
+        if (file == null) {
+            return FIXED_COST_MICROS;
+        }
+        Long previousMicros = historyMicros.get(file.getAbsolutePath());
+        if (previousMicros != null) {
+            return previousMicros;
+        }
+        return FIXED_COST_MICROS + (long) (file.length() * MICROS_PER_BYTE);
+    }
+
+    /**
+     * Orders the tasks according to the policy, predicts the time they take and logs the chosen order.
+     * Tasks of equal cost keep the order of the source files.
+     *
+     * @param tasks The tasks in the order of the source files.
+     * @return The tasks in the order they should be started.
+     */
+    public List<Callable<Boolean>> schedule(List<Callable<Boolean>> tasks) {
+        Map<Callable<Boolean>, Long> estimates = new IdentityHashMap<>();
+        int historyCount = 0;
+        for (Callable<Boolean> task : tasks) {
+            estimates.put(task, estimateMicros(task));
+            if (task instanceof ConversionTask) {
+                for (File file : ((ConversionTask) task).getFiles()) {
+                    if (file != null && historyMicros.containsKey(file.getAbsolutePath())) {
+                        historyCount++;
+                    }
+                }
+            }
+        }
+        List<Callable<Boolean>> ordered = new ArrayList<>(tasks);
+        if (policy == SchedulingPolicy.LARGEST_FIRST) {
+            ordered.sort(Comparator.comparingLong((Callable<Boolean> task) -> estimates.get(task)).reversed());
+        }
+        List<Long> orderedEstimates = new ArrayList<>(ordered.size());
+        for (Callable<Boolean> task : ordered) {
+            orderedEstimates.add(estimates.get(task));
+        }
+        predictedMillis = TimeUnit.MICROSECONDS.toMillis(predictMicros(orderedEstimates, workerCount));
+        scheduledNanos = System.nanoTime();
+
+        List<String> head = new ArrayList<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            String name = getName(ordered.get(i));
+            if (i < LOGGED_ORDER_COUNT) {
+                head.add(name);
+            }
+            log.debug("Event=HbmToJpaConversion SubEvent=Schedule Position={} SourceFileName={} EstimatedMs={}",
+                    i + 1, name, TimeUnit.MICROSECONDS.toMillis(orderedEstimates.get(i)));
+        }
+        log.info("Event=HbmToJpaConversion SubEvent=Schedule Policy={} TasksCount={} HistoryFilesCount={} Workers={} PredictedMs={} Order={}",
+                policy, ordered.size(), historyCount, workerCount, predictedMillis, head);
+        return ordered;
+    }
+
+    /**
+     * Predicts the time taken by workers starting the tasks in order, each task going to the first idle worker.
+     *
+     * @param estimates   The estimated duration of the tasks, in the order they are started.
+     * @param workerCount The number of workers.
+     * @return The time until the last task ends, in the unit of the estimates.
+     */
+    static long predictMicros(List<Long> estimates, int workerCount) {
+        PriorityQueue<Long> workerEnds = new PriorityQueue<>();
+        for (int i = 0; i < workerCount; i++) {
+            workerEnds.add(0L);
+        }
+        long end = 0;
+        for (long estimate : estimates) {
+            long taskEnd = workerEnds.poll() + estimate;
+            workerEnds.add(taskEnd);
+            end = Math.max(end, taskEnd);
+        }
+        return end;
+    }
+
+    /**
+     * Returns the name logged for a task.
+     *
+     * @param task The task.
+     * @return The name of the first file of the task followed by the number of other files of a batch,
+     * or "task" when it works on no file.
+     */
+    private static String getName(Callable<Boolean> task) {
+        if (task instanceof ConversionTask && ((ConversionTask) task).getFile() != null) {
+            ConversionTask conversionTask = (ConversionTask) task;
+            int otherFiles = conversionTask.getFiles().size() - 1;
+            return conversionTask.getFile().getName() + (otherFiles > 0 ? "+" + otherFiles : "");
+        }
+        return "task";
+    }
+
+    /**
+     * Logs the predicted time of the scheduled tasks next to the actual time since they were scheduled.
+     */
+    @Override
+    public void close() {
+        if (scheduledNanos != 0) {
+            log.info("Event=HbmToJpaConversion SubEvent=Schedule Policy={} PredictedMs={} ActualMs={}",
+                    policy, predictedMillis, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scheduledNanos));
+        }
+    }
+}
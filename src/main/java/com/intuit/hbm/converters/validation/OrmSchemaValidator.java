@@ -0,0 +1,168 @@
+package com.intuit.hbm.converters.validation;
+
+import com.intuit.hbm.converters.exception.FileConversionException;
+import com.intuit.hbm.converters.model.ConversionIssue;
+import lombok.extern.slf4j.Slf4j;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OrmSchemaValidator validates the rendered ORM files against the JPA 2.2 ORM schema before they are written,
+ * so that an invalid file is found by the conversion run instead of at application startup.
+ * <p>
+ * The schema is compiled once from the classpath when the validator is created. The compiled {@link Schema} is
+ * thread-safe and shared by all the worker threads, each of which reuses its own {@link Validator}.
+ * Documents are validated as a stream, without building a DOM.
+ * The validator is disabled unless the run asks for output validation.
+ */
+@Slf4j
+public class OrmSchemaValidator {
+    // Classpath location of the ORM schema the converted files declare
+    private static final String ORM_SCHEMA = "javax/persistence/orm_2_2.xsd";
+    // Element name of the issues reported for the converted files
+    private static final String ORM_FILE = "orm.xml";
+
+    private final Schema schema;
+    private final ThreadLocal<Validator> validator;
+
+    /**
+     * Creates an OrmSchemaValidator.
+     *
+     * @param enabled Whether the converted files should be validated.
+     * @throws FileConversionException if the ORM schema cannot be found or compiled.
+     */
+    public OrmSchemaValidator(boolean enabled) {
+        this.schema = enabled ? compileSchema() : null;
+        this.validator = enabled ? ThreadLocal.withInitial(schema::newValidator) : null;
+    }
+
+    /**
+     * Returns whether the converted files are validated in this run.
+     *
+     * @return true if output validation was requested.
+     */
+    public boolean isEnabled() {
+        return schema != null;
+    }
+
+    /**
+     * Validates a rendered ORM file.
+     *
+     * @param content    The rendered ORM file.
+     * @param sourceFile The name of the source file, used in the reported issues.
+     * @return The schema violations, empty when the file is valid or the validator is disabled.
+     */
+    public List<ConversionIssue> validate(String content, String sourceFile) {
+        List<ConversionIssue> issues = new ArrayList<>();
+        if (!isEnabled()) {
+            return issues;
+        }
+        Validator documentValidator = validator.get();
+        documentValidator.setErrorHandler(new IssueCollector(sourceFile, issues));
+        try {
+            documentValidator.validate(new StreamSource(new StringReader(content)));
+        } catch (SAXParseException e) {
+            // fatal error, already collected by the error handler
+        } catch (SAXException | IOException e) {
+            issues.add(new ConversionIssue(sourceFile, ORM_FILE, null, "Schema validation failed: " + e.getMessage()));
+        } finally {
+            documentValidator.reset();
+        }
+        return issues;
+    }
+
+    /**
+     * Compiles the ORM schema found on the classpath.
+     *
+     * @return The compiled schema.
+     * @throws FileConversionException if the ORM schema cannot be found or compiled.
+     */
+    private static Schema compileSchema() {
+        URL schemaUrl = OrmSchemaValidator.class.getClassLoader().getResource(ORM_SCHEMA);
+        if (schemaUrl == null) {
+            throw new FileConversionException("Unable to locate the ORM schema " + ORM_SCHEMA);
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Schema compiledSchema = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI).newSchema(schemaUrl);
+            log.debug("Event=HbmToJpaConversion SubEvent=CompileOrmSchema Status=Done TimeTaken={}ms", System.currentTimeMillis() - start);
+            return compiledSchema;
+        } catch (SAXException e) {
+            throw new FileConversionException("Unable to compile the ORM schema " + ORM_SCHEMA, e);
+        }
+    }
+
+    /**
+     * Collects the schema violations of one document as conversion issues.
+     */
+    private static class IssueCollector implements ErrorHandler {
+        private final String sourceFile;
+        private final List<ConversionIssue> issues;
+
+        /**
+         * Creates an IssueCollector.
+         *
+         * @param sourceFile The name of the source file.
+         * @param issues     The list to add the issues to.
+         */
+        IssueCollector(String sourceFile, List<ConversionIssue> issues) {
+            this.sourceFile = sourceFile;
+            this.issues = issues;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void warning(SAXParseException exception) {
+            add(exception);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void error(SAXParseException exception) {
+            add(exception);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void fatalError(SAXParseException exception) throws SAXException {
+            add(exception);
+            throw exception;
+        }
+
+        /**
+         * Adds a schema violation, located by its line and column in the converted file.
+         * The validator reports some violations twice in a row, the repetition is skipped.
+         *
+         * @param exception The violation.
+         */
+        private void add(SAXParseException exception) {
+            ConversionIssue issue = new ConversionIssue(sourceFile, ORM_FILE,
+                    "line " + exception.getLineNumber() + ", column " + exception.getColumnNumber(), exception.getMessage());
+            if (!issues.isEmpty()) {
+                ConversionIssue previous = issues.get(issues.size() - 1);
+                if (previous.getName().equals(issue.getName()) && previous.getReason().equals(issue.getReason())) {
+                    return;
+                }
+            }
+            issues.add(issue);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.intuit.hbm.converters.validation;
+
+import com.intuit.hbm.converters.common.Constants;
+import com.intuit.hbm.converters.common.ConversionContext;
+import com.intuit.hbm.converters.converter.HbmToJpaConverter;
+import com.intuit.hbm.converters.helper.FileHelper;
+import com.intuit.hbm.converters.journal.EventJournal;
+import com.intuit.hbm.converters.model.ColumnResult;
+import com.intuit.hbm.converters.model.ConversionIssue;
+import com.intuit.hbm.converters.model.ConversionOutcome;
+import com.intuit.hbm.converters.model.ConversionStage;
+import com.intuit.hbm.converters.model.EntityMappings;
+import com.intuit.hbm.converters.model.EntityResult;
+import com.intuit.hbm.converters.model.FieldResult;
+import com.intuit.hbm.converters.model.NamedNativeQuery;
+import com.intuit.hbm.converters.model.NamedQuery;
+import lombok.extern.slf4j.Slf4j;
+import org.dom4j.Document;
+import org.dom4j.Element;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * RoundTripVerifier checks that a converted ORM file still holds everything extracted from its source hbm file:
+ * the query names, the query texts with their whitespace normalized, the result classes and the
+ * column and type lists of the result set mappings.
+ * <p>
+ * Every call verifies one pair of files, so the pairs are verified on the worker threads like conversions,
+ * and only the files being verified are held in memory. The mismatches are added to the conversion report.
+ */
+@Slf4j
+public class RoundTripVerifier {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // Field names of the compared elements
+    private static final String QUERY_FIELD = "query";
+    private static final String COLUMNS_FIELD = "columns";
+    private static final String ENTITIES_FIELD = "entities";
+
+    private final FileHelper fileHelper;
+    private final HbmToJpaConverter hbmToJpaConverter;
+    private final ConversionContext context;
+
+    /**
+     * Creates a RoundTripVerifier for a run.
+     *
+     * @param fileHelper Helper for reading files
+     * @param context    The state shared by all the tasks of the run
+     */
+    public RoundTripVerifier(FileHelper fileHelper, ConversionContext context) {
+        this.fileHelper = fileHelper;
+        this.hbmToJpaConverter = new HbmToJpaConverter(fileHelper, context);
+        this.context = context;
+    }
+
+    /**
+     * Verifies the ORM file converted from an hbm file, and records the result in the event journal.
+     *
+     * @param hbmFile           The source hbm file.
+     * @param fileName          The name of the source file without extension.
+     * @param destDirectoryPath The destination directory of the conversion, or the converted file itself.
+     * @return true if the ORM file matches its source file.
+     */
+    public boolean verify(File hbmFile, String fileName, String destDirectoryPath) {
+        EventJournal eventJournal = context.getEventJournal();
+        String sourceFile = hbmFile.getPath();
+        long start = eventJournal.begin();
+        try {
+            File ormFile = new File(destDirectoryPath);
+            if (ormFile.isDirectory()) {
+                ormFile = new File(ormFile, fileName + Constants.FILE_ENDS_WITH_ORM_EXT);
+            }
+            List<ConversionIssue> mismatches = new ArrayList<>();
+            if (ormFile.isFile()) {
+                mismatches.addAll(compare(hbmFile.getName(), hbmToJpaConverter.getEntityMappings(fileHelper.readInputFile(hbmFile)),
+                        fileHelper.readInputFile(ormFile)));
+            } else {
+                mismatches.add(new ConversionIssue(hbmFile.getName(), Constants.ENTITY_MAPPINGS_TAG, ormFile.getPath(), "Converted file not found"));
+            }
+            context.getConversionReport().addIssues(mismatches);
+            ConversionOutcome outcome = mismatches.isEmpty() ? ConversionOutcome.SUCCESS : ConversionOutcome.FAILED;
+            eventJournal.record(sourceFile, ConversionStage.VERIFY, start, outcome);
+            eventJournal.record(sourceFile, ConversionStage.CONVERSION, start, outcome);
+            log.debug("Event=HbmToJpaConversion SubEvent=VerifyFile Status=Done SourceFileName={} Mismatches={}", hbmFile.getName(), mismatches.size());
+            return mismatches.isEmpty();
+        } catch (Exception e) {
+            eventJournal.record(sourceFile, ConversionStage.VERIFY, start, ConversionOutcome.FAILED, String.valueOf(e.getMessage()));
+            eventJournal.record(sourceFile, ConversionStage.CONVERSION, start, ConversionOutcome.FAILED, String.valueOf(e.getMessage()));
+            log.error("Event=HbmToJpaConversion SubEvent=VerifyFile Status=Failed SourceFileName={}", hbmFile.getName(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Compares the mappings extracted from an hbm file with its converted ORM file.
+     *
+     * @param sourceFile     The name of the source file, used in the reported mismatches.
+     * @param entityMappings The mappings extracted from the source file.
+     * @param ormDoc         The converted ORM file.
+     * @return The mismatches, empty when the files match.
+     */
+    public List<ConversionIssue> compare(String sourceFile, EntityMappings entityMappings, Document ormDoc) {
+        Map<String, Map<String, String>> expectedQueries = new LinkedHashMap<>();
+        for (NamedQuery namedQuery : entityMappings.getNamedQueries()) {
+            expectedQueries.put(namedQuery.getName(), fields(QUERY_FIELD, normalize(namedQuery.getQuery())));
+        }
+        Map<String, Map<String, String>> expectedNativeQueries = new LinkedHashMap<>();
+        Map<String, Map<String, String>> expectedMappings = new LinkedHashMap<>();
+        for (NamedNativeQuery namedNativeQuery : entityMappings.getNamedNativeQueries()) {
+            Map<String, String> fields = fields(QUERY_FIELD, normalize(namedNativeQuery.getQuery()));
+            fields.put(Constants.RESULT_CLASS, namedNativeQuery.getResultClass());
+            fields.put(Constants.RESULT_SET_MAPPING, namedNativeQuery.getResultSetMapping());
+            expectedNativeQueries.put(namedNativeQuery.getName(), fields);
+            if (namedNativeQuery.getResultSetMappings() != null) {
+                List<String> columns = new ArrayList<>();
+                for (ColumnResult columnResult : namedNativeQuery.getResultSetMappings().getColumnResults()) {
+                    columns.add(columnResult.getName() + ":" + columnResult.getClasses());
+                }
+                List<String> entities = new ArrayList<>();
+                for (EntityResult entityResult : namedNativeQuery.getResultSetMappings().getResolvedEntityResults()) {
+                    List<String> fieldResults = new ArrayList<>();
+                    for (FieldResult fieldResult : entityResult.getFieldResults()) {
+                        fieldResults.add(fieldResult.getName() + ":" + fieldResult.getColumn());
+                    }
+                    entities.add(entityResult.getEntityClass() + "(" + String.join(" ", fieldResults) + ")");
+                }
+                Map<String, String> mappingFields = fields(COLUMNS_FIELD, String.join(", ", columns));
+                mappingFields.put(ENTITIES_FIELD, String.join(", ", entities));
+                expectedMappings.put(namedNativeQuery.getResultSetMappings().getName(), mappingFields);
+            }
+        }
+
+        Map<String, Map<String, String>> actualQueries = new LinkedHashMap<>();
+        Map<String, Map<String, String>> actualNativeQueries = new LinkedHashMap<>();
+        Map<String, Map<String, String>> actualMappings = new LinkedHashMap<>();
+        Element root = ormDoc.getRootElement();
+        for (Element element : root.elements(Constants.NAMED_QUERY_TAG)) {
+            actualQueries.put(element.attributeValue(Constants.NAME), fields(QUERY_FIELD, normalize(element.elementText(Constants.QUERY))));
+        }
+        for (Element element : root.elements(Constants.NAMED_NATIVE_QUERY_TAG)) {
+            Map<String, String> fields = fields(QUERY_FIELD, normalize(element.elementText(Constants.QUERY)));
+            fields.put(Constants.RESULT_CLASS, element.attributeValue(Constants.RESULT_CLASS, ""));
+            fields.put(Constants.RESULT_SET_MAPPING, element.attributeValue(Constants.RESULT_SET_MAPPING, ""));
+            actualNativeQueries.put(element.attributeValue(Constants.NAME), fields);
+        }
+        for (Element element : root.elements(Constants.SQL_RESULT_SET_MAPPING_TAG)) {
+            List<String> columns = new ArrayList<>();
+            for (Element columnResult : element.elements(Constants.COLUMN_RESULT_TAG)) {
+                columns.add(columnResult.attributeValue(Constants.NAME) + ":" + columnResult.attributeValue(Constants.CLASS_TAG));
+            }
+            List<String> entities = new ArrayList<>();
+            for (Element entityResult : element.elements(Constants.ENTITY_RESULT_TAG)) {
+                List<String> fieldResults = new ArrayList<>();
+                for (Element fieldResult : entityResult.elements(Constants.FIELD_RESULT_TAG)) {
+                    fieldResults.add(fieldResult.attributeValue(Constants.NAME) + ":" + fieldResult.attributeValue(Constants.COLUMN));
+                }
+                entities.add(entityResult.attributeValue(Constants.ENTITY_CLASS) + "(" + String.join(" ", fieldResults) + ")");
+            }
+            Map<String, String> mappingFields = fields(COLUMNS_FIELD, String.join(", ", columns));
+            mappingFields.put(ENTITIES_FIELD, String.join(", ", entities));
+            actualMappings.put(element.attributeValue(Constants.NAME), mappingFields);
+        }
+
+        List<ConversionIssue> mismatches = new ArrayList<>();
+        compareElements(sourceFile, Constants.NAMED_QUERY_TAG, expectedQueries, actualQueries, mismatches);
+        compareElements(sourceFile, Constants.NAMED_NATIVE_QUERY_TAG, expectedNativeQueries, actualNativeQueries, mismatches);
+        compareElements(sourceFile, Constants.SQL_RESULT_SET_MAPPING_TAG, expectedMappings, actualMappings, mismatches);
+        return mismatches;
+    }
+
+    /**
+     * Compares the elements of one kind by name and field by field.
+     *
+     * @param sourceFile The name of the source file.
+     * @param element    The name of the ORM element being compared.
+     * @param expected   The fields of the expected elements by element name.
+     * @param actual     The fields of the elements found in the ORM file by element name.
+     * @param mismatches The list to add the mismatches to.
+     */
+    private static void compareElements(String sourceFile, String element, Map<String, Map<String, String>> expected,
+                                        Map<String, Map<String, String>> actual, List<ConversionIssue> mismatches) {
+        for (Map.Entry<String, Map<String, String>> entry : expected.entrySet()) {
+            Map<String, String> actualFields = actual.get(entry.getKey());
+            if (actualFields == null) {
+                mismatches.add(new ConversionIssue(sourceFile, element, entry.getKey(), "Missing in the converted file"));
+                continue;
+            }
+            for (Map.Entry<String, String> field : entry.getValue().entrySet()) {
+                String actualValue = actualFields.get(field.getKey());
+                if (!Objects.equals(field.getValue(), actualValue)) {
+                    mismatches.add(new ConversionIssue(sourceFile, element, entry.getKey(),
+                            describeDifference(field.getKey(), field.getValue(), actualValue)));
+                }
+            }
+        }
+        for (String name : actual.keySet()) {
+            if (!expected.containsKey(name)) {
+                mismatches.add(new ConversionIssue(sourceFile, element, name, "Not found in the source file"));
+            }
+        }
+    }
+
+    /**
+     * Describes the difference of a field. Query texts are long, so only the position of the first difference is given.
+     *
+     * @param field    The name of the field.
+     * @param expected The value from the source file.
+     * @param actual   The value from the converted file.
+     * @return The reason of the mismatch.
+     */
+    private static String describeDifference(String field, String expected, String actual) {
+        if (QUERY_FIELD.equals(field) && expected != null && actual != null) {
+            int position = 0;
+            while (position < expected.length() && position < actual.length() && expected.charAt(position) == actual.charAt(position)) {
+                position++;
+            }
+            return "Query text differs from character " + position;
+        }
+        return field + " differs: expected '" + expected + "', found '" + actual + "'";
+    }
+
+    /**
+     * Creates the field map of an element with its first field.
+     *
+     * @param name  The name of the field.
+     * @param value The value of the field.
+     * @return A new modifiable map.
+     */
+    private static Map<String, String> fields(String name, String value) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put(name, value);
+        return fields;
+    }
+
+    /**
+     * Collapses every run of whitespace into one space, so that the indentation added by the templates is ignored.
+     *
+     * @param query The query text, may be null.
+     * @return The normalized text.
+     */
+    private static String normalize(String query) {
+        return query == null ? null : WHITESPACE.matcher(query).replaceAll(" ").trim();
+    }
+}
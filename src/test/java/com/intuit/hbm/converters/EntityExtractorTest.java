@@ -0,0 +1,92 @@
+package com.intuit.hbm.converters;
+
+import com.intuit.hbm.converters.converter.EntityExtractor;
+import com.intuit.hbm.converters.helper.FileHelper;
+import com.intuit.hbm.converters.model.ConversionIssue;
+import com.intuit.hbm.converters.model.Entity;
+import com.intuit.hbm.converters.model.ManyToOneMapping;
+import com.intuit.hbm.converters.model.OneToManyMapping;
+import org.dom4j.Document;
+import org.dom4j.DocumentHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class EntityExtractorTest {
+    private List<Entity> entities;
+    private List<ConversionIssue> issues;
+
+    @Before
+    public void setup() {
+        Document hbmDoc = FileHelper.getInstance().readInputFile(new File("src/test/resources/hbm/Department.hbm.xml"));
+        issues = new ArrayList<>();
+        entities = new EntityExtractor().getEntities(hbmDoc, issues);
+    }
+
+    @Test
+    public void testClassMappingsAreConvertedToEntities() {
+        assertEquals(2, entities.size());
+        Entity department = entities.get(0);
+        assertEquals("Department", department.getClassName());
+        assertEquals("DEPARTMENT", department.getTable());
+        assertEquals("HR", department.getSchema());
+        assertEquals("PROPERTY", department.getAccess());
+
+        // id with its sequence generator
+        assertEquals("DEPARTMENT_ID", department.getId().getColumn());
+        assertEquals("SEQUENCE", department.getId().getGenerationStrategy());
+        assertEquals("DEPARTMENT_SEQ", department.getId().getSequenceName());
+
+        // version and basic properties, formula property is skipped
+        assertEquals("VERSION", department.getVersion().getColumn());
+        assertEquals(4, department.getBasicMappings().size());
+        assertTrue("not-null of nested column should be carried over", department.getBasicMappings().get(1).isNotNull());
+        assertEquals("TIMESTAMP", department.getBasicMappings().get(1).getTemporal());
+        assertTrue("text type should be mapped as lob", department.getBasicMappings().get(2).isLob());
+    }
+
+    @Test
+    public void testAssociationsAreConverted() {
+        ManyToOneMapping department = entities.get(1).getManyToOneMappings().get(0);
+        assertEquals("Department", department.getTargetEntity());
+        assertEquals("DEPARTMENT_ID", department.getJoinColumn());
+        assertEquals(2, department.getCascades().size());
+
+        // inverse set is mapped by the many-to-one of the other class
+        OneToManyMapping employees = entities.get(0).getOneToManyMappings().get(0);
+        assertEquals("department", employees.getMappedBy());
+        assertNull(employees.getJoinColumn());
+        assertTrue(employees.isOrphanRemoval());
+
+        // owned list keeps its join and order columns
+        OneToManyMapping tasks = entities.get(1).getOneToManyMappings().get(0);
+        assertEquals("EMPLOYEE_ID", tasks.getJoinColumn());
+        assertEquals("POSITION", tasks.getOrderColumn());
+    }
+
+    @Test
+    public void testUnconvertibleMappingsAreReported() {
+        assertEquals("yes_no type, formula and component should be reported", 3, issues.size());
+        assertEquals("Department.active", issues.get(0).getName());
+        assertEquals("Department.employeeCount", issues.get(1).getName());
+        assertEquals("component", issues.get(2).getElement());
+        assertEquals("Department.hbm.xml", issues.get(2).getSourceFile());
+    }
+
+    @Test
+    public void testGeneratorWithoutClassIsReported() throws Exception {
+        Document hbmDoc = DocumentHelper.parseText("<hibernate-mapping><class name=\"Region\" table=\"REGION\">"
+                + "<id name=\"id\" column=\"ID\"><generator/></id></class></hibernate-mapping>");
+        List<ConversionIssue> generatorIssues = new ArrayList<>();
+        Entity region = new EntityExtractor().getEntities(hbmDoc, generatorIssues).get(0);
+        assertNull("the identifier is assigned", region.getId().getGenerationStrategy());
+        assertEquals(1, generatorIssues.size());
+        assertEquals("Region.id", generatorIssues.get(0).getName());
+        assertEquals("Generator without class is not converted, identifier values must be assigned", generatorIssues.get(0).getReason());
+    }
+}
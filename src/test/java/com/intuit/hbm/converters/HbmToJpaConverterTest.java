@@ -5,12 +5,17 @@ import com.intuit.hbm.converters.converter.HbmToJpaConverter;
 import com.intuit.hbm.converters.exception.FileConversionException;
 import com.intuit.hbm.converters.helper.FileHelper;
 import com.intuit.hbm.converters.model.ColumnResult;
+import com.intuit.hbm.converters.model.ConversionIssue;
+import com.intuit.hbm.converters.model.EntityResult;
 import com.intuit.hbm.converters.model.NamedNativeQuery;
 import com.intuit.hbm.converters.model.NamedQuery;
+import com.intuit.hbm.converters.model.QueryHint;
 import com.intuit.hbm.converters.model.SqlResultSetMapping;
 import org.antlr.stringtemplate.StringTemplate;
 import org.antlr.stringtemplate.StringTemplateGroup;
 import org.dom4j.Document;
+import org.dom4j.DocumentException;
+import org.dom4j.DocumentHelper;
 import org.dom4j.Element;
 import org.junit.Assert;
 import org.junit.Before;
@@ -20,6 +25,7 @@ import org.mockito.Mockito;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.doNothing;
@@ -45,6 +51,7 @@ public class HbmToJpaConverterTest {
         // Arrange
         StringTemplateGroup mockTemplateGroup = Mockito.mock(StringTemplateGroup.class);
         Mockito.when(mockTemplateGroup.getInstanceOf("OrmFile")).thenReturn(mockTemplate);
+        Mockito.when(fileHelper.getTemplateGroup("OrmFile")).thenReturn(mockTemplateGroup);
 
         Document mockDocument = Mockito.mock(Document.class);
         Element mockRootElement = Mockito.mock(Element.class);
@@ -99,6 +106,25 @@ public class HbmToJpaConverterTest {
         assertEquals(expectedNamedQuery.getName(), actualNamedQueries.get(0).getName());
     }
 
+    @Test
+    public void testQueryAttributesAreCarriedAsHints() throws DocumentException {
+        Document document = DocumentHelper.parseText("<hibernate-mapping>"
+                + "<query name=\"Cached\" flush-mode=\"never\" timeout=\"5\" cacheable=\"true\" fetch-size=\"50\">from Paycheck</query>"
+                + "<sql-query name=\"Native\" read-only=\"yes\" cache-mode=\"ignore\" lazy=\"true\">select 1 from Dual</sql-query>"
+                + "</hibernate-mapping>");
+        List<ConversionIssue> issues = new ArrayList<>();
+
+        List<QueryHint> hints = converter.getNamedQueries(document, issues).get(0).getHints();
+        List<QueryHint> nativeHints = converter.getNamedNativeQueries(document, issues).get(0).getHints();
+
+        assertEquals(Arrays.asList("org.hibernate.cacheable=true", "org.hibernate.fetchSize=50",
+                "javax.persistence.query.timeout=5000", "org.hibernate.flushMode=MANUAL"), toStrings(hints));
+        assertEquals(Collections.singletonList("org.hibernate.cacheMode=IGNORE"), toStrings(nativeHints));
+        assertEquals(2, issues.size());
+        assertEquals("Attribute lazy has no JPA query hint", issues.get(0).getReason());
+        assertEquals("Attribute read-only=\"yes\" has no JPA query hint value", issues.get(1).getReason());
+    }
+
     @Test
     public void testGetNamedNativeQueries() {
         // Setup
@@ -106,15 +132,14 @@ public class HbmToJpaConverterTest {
         Element mockRootElement = Mockito.mock(Element.class);
         Element mockSqlQueryElement = Mockito.mock(Element.class);
         Element mockReturnTagElement = Mockito.mock(Element.class);
-        Element mockReturnScalarElement = Mockito.mock(Element.class);
 
         Mockito.when(mockDocument.getRootElement()).thenReturn(mockRootElement);
         Mockito.when(mockRootElement.elements(Constants.SQL_QUERY)).thenReturn(Collections.singletonList(mockSqlQueryElement));
         Mockito.when(mockSqlQueryElement.attributeValue(Constants.NAME)).thenReturn("testNamedQuery");
         Mockito.when(mockSqlQueryElement.getText()).thenReturn("SELECT * FROM Test");
         Mockito.when(mockSqlQueryElement.element(Constants.RETURN_TAG)).thenReturn(mockReturnTagElement);
+        Mockito.when(mockSqlQueryElement.elements(Constants.RETURN_TAG)).thenReturn(Collections.singletonList(mockReturnTagElement));
         Mockito.when(mockReturnTagElement.attributeValue(Constants.CLASS_TAG)).thenReturn("TestClass");
-        Mockito.when(mockSqlQueryElement.element(Constants.RETURN_SCALAR)).thenReturn(mockReturnScalarElement);
 
         // Execute
         ArrayList<NamedNativeQuery> actualNamedNativeQueries = converter.getNamedNativeQueries(mockDocument);
@@ -127,6 +152,42 @@ public class HbmToJpaConverterTest {
         assertEquals("TestClass", namedNativeQuery.getResultClass());
     }
 
+    @Test
+    public void testReturnsAreConvertedToEntityResults() throws DocumentException {
+        Document document = DocumentHelper.parseText("<hibernate-mapping>"
+                + "<class name=\"Paycheck\"><many-to-one name=\"employee\" class=\"Employee\"/></class>"
+                + "<sql-query name=\"Joined\">"
+                + "<return alias=\"p\" class=\"Paycheck\"><return-property name=\"id\" column=\"P_ID\"/></return>"
+                + "<return-join alias=\"e\" property=\"p.employee\"/>"
+                + "<return-join alias=\"m\" property=\"e.manager\"/>"
+                + "<return-scalar column=\"TOTAL\" type=\"long\"/>"
+                + "select p.ID as P_ID, e.*, m.*, count(*) as TOTAL from PAYCHECK p join EMPLOYEE e join EMPLOYEE m</sql-query>"
+                + "<sql-query name=\"Single\"><return alias=\"p\" class=\"Paycheck\"/>select * from PAYCHECK</sql-query>"
+                + "</hibernate-mapping>");
+        List<ConversionIssue> issues = new ArrayList<>();
+
+        ArrayList<NamedNativeQuery> namedNativeQueries = converter.getNamedNativeQueries(document, issues);
+
+        NamedNativeQuery joined = namedNativeQueries.get(0);
+        assertEquals("", joined.getResultClass());
+        assertEquals("JoinedMapping", joined.getResultSetMapping());
+        List<EntityResult> entityResults = joined.getResultSetMappings().getEntityResults();
+        assertEquals(3, entityResults.size());
+        assertEquals("Paycheck", entityResults.get(0).getEntityClass());
+        assertEquals("P_ID", entityResults.get(0).getFieldResults().get(0).getColumn());
+        assertEquals("Employee", entityResults.get(1).getEntityClass());
+        assertEquals("employee", entityResults.get(1).getProperty());
+        assertNull("the class of e.manager is not mapped in the file", entityResults.get(2).getEntityClass());
+        assertEquals(2, joined.getResultSetMappings().getResolvedEntityResults().size());
+        assertEquals(1, joined.getResultSetMappings().getColumnResults().size());
+        assertEquals(1, issues.size());
+        assertEquals("Joined", issues.get(0).getName());
+
+        NamedNativeQuery single = namedNativeQueries.get(1);
+        assertEquals("Paycheck", single.getResultClass());
+        assertNull(single.getResultSetMappings());
+    }
+
     @Test
     public void testGetSqlResultSetMappings() {
         // Setup
@@ -182,4 +243,12 @@ public class HbmToJpaConverterTest {
         assertEquals("column2", actualColumnResults.get(1).getName());
         assertEquals("java.lang.Integer", actualColumnResults.get(1).getClasses());
     }
+
+    private static List<String> toStrings(List<QueryHint> hints) {
+        List<String> strings = new ArrayList<>();
+        for (QueryHint hint : hints) {
+            strings.add(hint.getName() + "=" + hint.getValue());
+        }
+        return strings;
+    }
 }
@@ -0,0 +1,44 @@
+package com.intuit.hbm.converters;
+
+import com.intuit.hbm.converters.common.ConversionContext;
+import com.intuit.hbm.converters.converter.HbmToJpaConverter;
+import com.intuit.hbm.converters.converter.JavaRegistryConverter;
+import com.intuit.hbm.converters.helper.FileHelper;
+import org.dom4j.Document;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class JavaRegistryConverterTest {
+    private JavaRegistryConverter converter;
+
+    @Before
+    public void setup() {
+        FileHelper fileHelper = FileHelper.getInstance();
+        converter = new JavaRegistryConverter(fileHelper, new HbmToJpaConverter(fileHelper, ConversionContext.defaultContext()));
+    }
+
+    @Test
+    public void testOutputFileNameIsAClassName() {
+        assertEquals("PaycheckQueryNamedQueries", converter.getOutputFileName("Paycheck.query"));
+        assertEquals("_1PayrollNamedQueries", converter.getOutputFileName("1-payroll"));
+        assertEquals(".java", converter.getFileExtension());
+    }
+
+    @Test
+    public void testNamedQueriesAreRegistered() {
+        Document hbmDoc = FileHelper.getInstance().readInputFile(new File("Paycheck.query.hbm.xml"));
+        String source = converter.convertFile(hbmDoc, "Paycheck.query", "/dummy/path").toString();
+
+        assertTrue(source.startsWith("package com.intuit.sbd.payroll.psp.domain;\n"));
+        assertTrue(source.contains("public final class PaycheckQueryNamedQueries {"));
+        // query strings are escaped as Java string literals
+        assertTrue(source.contains("entityManagerFactory.addNamedQuery(\"NamedQuery\", entityManager.createQuery(\"Select entity1\\n"));
+        assertTrue(source.contains("AND pc.Id2 in (:id2)\", class1.class);"));
+        // scalar results are registered on the native query
+        assertTrue(source.contains(".addScalar(\"column1\").addScalar(\"column2\");"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.intuit.hbm.converters;
+
+import com.intuit.hbm.converters.common.ConversionContext;
+import com.intuit.hbm.converters.converter.Converter;
+import com.intuit.hbm.converters.converter.ConverterFactory;
+import com.intuit.hbm.converters.converter.HbmToJpaConverter;
+import com.intuit.hbm.converters.converter.JavaRegistryConverter;
+import com.intuit.hbm.converters.helper.FileHelper;
+import com.intuit.hbm.converters.model.ConverterType;
+import com.intuit.hbm.converters.model.EntityMappings;
+import com.intuit.hbm.converters.model.InputModel;
+import com.intuit.hbm.converters.service.MultiTargetService;
+import com.intuit.hbm.converters.task.ConversionTaskBuilder;
+import org.antlr.stringtemplate.StringTemplate;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static com.intuit.hbm.converters.TestFiles.read;
+
+public class MultiTargetServiceTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private Path directory;
+
+    @Before
+    public void setUp() {
+        directory = folder.getRoot().toPath();
+    }
+
+    @Test
+    public void testEveryTargetIsRenderedFromOneExtraction() throws Exception {
+        Path both = Files.createDirectory(directory.resolve("both"));
+        Path journal = directory.resolve("journal.jsonl");
+        convert(both, journal, ConverterType.HBMToORM, ConverterType.HBMToJavaRegistry);
+        Path orm = Files.createDirectory(directory.resolve("orm"));
+        convert(orm, null, ConverterType.HBMToORM);
+        Path java = Files.createDirectory(directory.resolve("java"));
+        convert(java, null, ConverterType.HBMToJavaRegistry);
+
+        Assert.assertEquals(read(orm.resolve("Paycheck.xml")), read(both.resolve("Paycheck.xml")));
+        Assert.assertEquals(read(java.resolve("PaycheckNamedQueries.java")), read(both.resolve("PaycheckNamedQueries.java")));
+        String events = read(journal);
+        Assert.assertEquals("the file is parsed once", 1, count(events, "\"stage\":\"READ\""));
+        Assert.assertEquals(1, count(events, "\"stage\":\"EXTRACT\""));
+        Assert.assertEquals(2, count(events, "\"stage\":\"WRITE\""));
+    }
+
+    @Test
+    public void testFailingTargetDoesNotStopTheOthers() throws IOException {
+        ConversionContext context = ConversionContext.defaultContext();
+        FileHelper fileHelper = FileHelper.getInstance();
+        HbmToJpaConverter hbmToJpaConverter = new HbmToJpaConverter(fileHelper, context);
+        Converter failingTarget = new JavaRegistryConverter(fileHelper, hbmToJpaConverter) {
+            @Override
+            public StringTemplate render(EntityMappings entityMappings, String sourceFile, String fileName) {
+                throw new IllegalStateException("Renderer failed");
+            }
+        };
+        MultiTargetService service = new MultiTargetService(fileHelper, hbmToJpaConverter,
+                Arrays.asList(failingTarget, hbmToJpaConverter), context);
+
+        Assert.assertFalse(service.performConversion(new File("Paycheck.query.hbm.xml"), "Paycheck", directory + "/"));
+        Assert.assertTrue(read(directory.resolve("Paycheck.xml")).contains("<named-query name=\"NamedQuery\">"));
+        Assert.assertFalse(Files.exists(directory.resolve("PaycheckNamedQueries.java")));
+    }
+
+    /**
+     * Converts the sample file to the given targets in one run.
+     *
+     * @param dest           The destination directory.
+     * @param journal        The event journal of the run, may be null.
+     * @param converterTypes The output targets.
+     */
+    private static void convert(Path dest, Path journal, ConverterType... converterTypes) throws Exception {
+        InputModel inputModel = new InputModel("Paycheck.query.hbm.xml", ".query.hbm.xml", dest + "/", Arrays.asList(converterTypes));
+        inputModel.setJournalPath(journal == null ? null : journal.toString());
+        ConversionContext context = new ConversionContext(inputModel);
+        List<Callable<Boolean>> tasks = new ConversionTaskBuilder(context).buildTasks(new File[]{new File("Paycheck.query.hbm.xml")},
+                dest + "/", inputModel.getConverterTypes());
+        for (Callable<Boolean> task : tasks) {
+            Assert.assertTrue(task.call());
+        }
+        context.close();
+        Assert.assertEquals(converterTypes.length > 1, ConverterFactory.getConverter(inputModel.getConverterTypes(), context) instanceof MultiTargetService);
+    }
+
+    private static int count(String text, String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,81 @@
+package com.intuit.hbm.converters;
+
+import com.intuit.hbm.converters.common.ConversionContext;
+import com.intuit.hbm.converters.converter.HbmToJpaConverter;
+import com.intuit.hbm.converters.converter.QueryTextNormalizer;
+import com.intuit.hbm.converters.helper.FileHelper;
+import com.intuit.hbm.converters.model.ConversionIssue;
+import com.intuit.hbm.converters.model.ConverterType;
+import com.intuit.hbm.converters.model.InputModel;
+import com.intuit.hbm.converters.model.NamedQuery;
+import org.dom4j.Document;
+import org.dom4j.DocumentHelper;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class QueryTextNormalizerTest {
+    private final QueryTextNormalizer normalizer = new QueryTextNormalizer();
+
+    @Test
+    public void testWhitespaceAndCommentsAreCollapsed() {
+        assertEquals("select e from Employee e where e.name = :name",
+                normalizer.normalize("select e\n\t\tfrom Employee e -- all of them\n\t\twhere /* by name */ e.name = :name"));
+        assertEquals("comments separating two tokens leave a space", "select a - - b from Dual",
+                normalizer.normalize("select a -/* minus */- b from Dual"));
+        assertEquals("literals and quoted identifiers are kept", "select '  --x  /* y */ ''z''' , \"My  Col\" from T",
+                normalizer.normalize("select '  --x  /* y */ ''z''' ,\n \"My  Col\"\nfrom T"));
+        assertEquals("hints are kept", "select /*+ INDEX(t  T_IDX) */ * from T t --+ ORDERED\nwhere t.id = ?",
+                normalizer.normalize("select  /*+ INDEX(t  T_IDX) */ *\nfrom T t --+ ORDERED\n   where t.id = ?"));
+    }
+
+    @Test
+    public void testTextsWhichCannotBeScannedAreNotNormalized() {
+        assertNull(normalizer.normalize("select 'unterminated from T"));
+        assertNull(normalizer.normalize("select 'it\\'s' from T"));
+        assertNull(normalizer.normalize("select x /* not closed"));
+    }
+
+    @Test
+    public void testTextsWithUnknownQuotingAreKeptAsWritten() throws Exception {
+        // the spaces and comment markers quoted by a single database are not seen by the scanner
+        assertNull(normalizer.normalize("select `my  col` from t"));
+        assertNull(normalizer.normalize("select [my  col] from t"));
+        assertNull(normalizer.normalize("select $$a  -- b$$ from t"));
+        assertNull(normalizer.normalize("select a # comment\nfrom t"));
+        assertEquals("positional parameters are words", "select a from t where b = $1",
+                normalizer.normalize("select a\nfrom t where b = $1"));
+
+        Document hbmDoc = DocumentHelper.parseText("<hibernate-mapping><sql-query name=\"byColumn\">select `my  col`\n"
+                + "from t</sql-query></hibernate-mapping>");
+        InputModel inputModel = new InputModel(null, null, null, ConverterType.HBMToORM);
+        inputModel.setNormalizeQueries(true);
+        HbmToJpaConverter converter = new HbmToJpaConverter(FileHelper.getInstance(), new ConversionContext(inputModel));
+        List<ConversionIssue> issues = new ArrayList<>();
+        assertEquals("select `my  col`\nfrom t", converter.getNamedNativeQueries(hbmDoc, issues).get(0).getQuery());
+        assertEquals(1, issues.size());
+        assertEquals("byColumn", issues.get(0).getName());
+        assertEquals("Query text cannot be normalized safely, it is kept as written", issues.get(0).getReason());
+    }
+
+    @Test
+    public void testNamedQueriesAreNormalizedWhenRequested() {
+        Document hbmDoc = FileHelper.getInstance().readInputFile(new File("Paycheck.query.hbm.xml"));
+        InputModel inputModel = new InputModel(null, null, null, ConverterType.HBMToORM);
+        HbmToJpaConverter converter = new HbmToJpaConverter(FileHelper.getInstance(), new ConversionContext(inputModel));
+        assertTrue(converter.getNamedQueries(hbmDoc).get(0).getQuery().contains("\n"));
+
+        inputModel.setNormalizeQueries(true);
+        List<ConversionIssue> issues = new ArrayList<>();
+        NamedQuery namedQuery = converter.getNamedQueries(hbmDoc, issues).get(0);
+        assertEquals("Select entity1 from EntityA as entity1 inner join entity1.EntityB as entity2 "
+                + "where entity2.Company =:company and entity1.SourcePaycheckId =:sourcePaycheckId", namedQuery.getQuery());
+        assertEquals("SELECT pc.column1,pc.column2 FROM Entity1 pc WHERE pc.Id1 = :id1 AND pc.Id2 in (:id2)",
+                converter.getNamedNativeQueries(hbmDoc, issues).get(1).getQuery());
+        assertTrue(issues.isEmpty());
+    }
+}
@@ -0,0 +1,101 @@
+package com.intuit.hbm.converters;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts the same files in JVMs with different locales, encodings, line separators and processor counts, and
+ * checks that every converted file has the same bytes.
+ */
+public class ReproducibleOutputTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = folder.getRoot().toPath();
+        Path src = Files.createDirectory(directory.resolve("src"));
+        Files.copy(Paths.get("Paycheck.query.hbm.xml"), src.resolve("Paycheck.query.hbm.xml"));
+        for (int i = 0; i < 8; i++) {
+            // queries out of name order, non-ASCII text and CRLF line endings
+            String hbm = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\r\n<hibernate-mapping package=\"com.intuit.sample\">\r\n"
+                    + "    <sql-query name=\"Zahlung" + i + "\">\r\n        select * from ZAHLUNG where BEZEICHNUNG = 'Geb\u00fchr'\r\n"
+                    + "        <return-scalar column=\"BETRAG\" type=\"double\"/>\r\n    </sql-query>\r\n"
+                    + "    <query name=\"Item" + i + "\">from Item where name = '\u0130stanbul'</query>\r\n"
+                    + "    <query name=\"Ann\u00e9e" + i + "\">from Year</query>\r\n"
+                    + "</hibernate-mapping>\r\n";
+            Files.write(src.resolve("Payment" + i + ".query.hbm.xml"), hbm.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testOutputDoesNotDependOnTheEnvironment() throws Exception {
+        Map<String, String> expected = convert("orm-default", "ORM", "-Duser.language=en", "-Duser.country=US",
+                "-Dfile.encoding=UTF-8", "-XX:ActiveProcessorCount=4");
+        Assert.assertEquals(9, expected.size());
+        Assert.assertEquals(expected, convert("orm-turkish", "ORM", "-Duser.language=tr", "-Duser.country=TR",
+                "-Dfile.encoding=ISO-8859-1", "-Dline.separator=\r\n", "-XX:ActiveProcessorCount=1"));
+        Assert.assertEquals(convert("java-default", "JAVA", "-Duser.language=en", "-XX:ActiveProcessorCount=4"),
+                convert("java-german", "JAVA", "-Duser.language=de", "-Dfile.encoding=US-ASCII",
+                        "-Dline.separator=\r\n", "-XX:ActiveProcessorCount=2", "--batch-files=1"));
+
+        String converted = new String(Files.readAllBytes(directory.resolve("orm-turkish").resolve("Payment0.xml")), StandardCharsets.UTF_8);
+        Assert.assertFalse(converted.contains("\r"));
+        Assert.assertTrue("the queries should be sorted by name", converted.indexOf("Ann\u00e9e0") < converted.indexOf("Item0"));
+        Assert.assertTrue(converted.contains("Geb\u00fchr"));
+    }
+
+    /**
+     * Converts the source files in a new JVM.
+     *
+     * @param destName  The name of the destination directory.
+     * @param converter The converter type, ORM or JAVA.
+     * @param options   The JVM options, followed by the options of the tool.
+     * @return The hash of every converted file, by file name.
+     */
+    private Map<String, String> convert(String destName, String converter, String... options)
+            throws IOException, InterruptedException, NoSuchAlgorithmException {
+        Path dest = Files.createDirectory(directory.resolve(destName));
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        List<String> toolOptions = new ArrayList<>();
+        for (String option : options) {
+            (option.startsWith("--") ? toolOptions : command).add(option);
+        }
+        command.addAll(Arrays.asList("-cp", System.getProperty("java.class.path"), HbmToJpaTool.class.getName(),
+                directory.resolve("src") + File.separator, ".query.hbm.xml", dest + File.separator,
+                "JAVA".equals(converter) ? "HBMToJavaRegistry" : "HBMToORM"));
+        command.addAll(toolOptions);
+        File log = directory.resolve(destName + ".log").toFile();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start();
+        Assert.assertTrue(process.waitFor(2, TimeUnit.MINUTES));
+        Assert.assertEquals(0, process.exitValue());
+
+        Map<String, String> hashes = new TreeMap<>();
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        for (File file : dest.toFile().listFiles()) {
+            hashes.put(file.getName(), Base64.getEncoder().encodeToString(digest.digest(Files.readAllBytes(file.toPath()))));
+        }
+        return hashes;
+    }
+}
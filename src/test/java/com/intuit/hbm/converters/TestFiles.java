@@ -0,0 +1,36 @@
+package com.intuit.hbm.converters;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads and writes the text files of the tests, in UTF-8 as the converted files.
+ */
+public final class TestFiles {
+
+    private TestFiles() {
+    }
+
+    /**
+     * Reads a text file.
+     *
+     * @param file The file.
+     * @return The content of the file.
+     */
+    public static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a text file.
+     *
+     * @param file The file.
+     * @param text The content of the file.
+     * @return The file.
+     */
+    public static Path write(Path file, String text) throws IOException {
+        return Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,185 @@
+package com.intuit.hbm.converters.api;
+
+import com.intuit.hbm.converters.common.ConversionContext;
+import com.intuit.hbm.converters.exception.FileConversionException;
+import com.intuit.hbm.converters.model.ConverterType;
+import com.intuit.hbm.converters.model.InputModel;
+import com.intuit.hbm.converters.task.ConversionTaskBuilder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import static com.intuit.hbm.converters.TestFiles.read;
+
+public class InMemoryConverterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private Path directory;
+
+    @Before
+    public void setUp() {
+        directory = folder.getRoot().toPath();
+    }
+
+    @Test
+    public void testContentIsConvertedAsTheToolWritesIt() throws Exception {
+        InputModel inputModel = new InputModel("Paycheck.query.hbm.xml", ".query.hbm.xml", directory + "/",
+                Arrays.asList(ConverterType.HBMToORM, ConverterType.HBMToJavaRegistry));
+        ConversionContext context = new ConversionContext(inputModel);
+        for (Callable<Boolean> task : new ConversionTaskBuilder(context).buildTasks(new File[]{new File("Paycheck.query.hbm.xml")},
+                directory + "/", inputModel.getConverterTypes())) {
+            Assert.assertTrue(task.call());
+        }
+        context.close();
+
+        InMemoryConverter converter = new InMemoryConverter(ConverterType.HBMToORM, ConverterType.HBMToJavaRegistry);
+        byte[] content = Files.readAllBytes(Paths.get("Paycheck.query.hbm.xml"));
+        ConversionResult result;
+        try (InputStream inputStream = Files.newInputStream(Paths.get("Paycheck.query.hbm.xml"))) {
+            result = converter.convert("Paycheck.query.hbm.xml", inputStream);
+        }
+        Assert.assertEquals(read(directory.resolve("Paycheck.xml")), result.getOutput(ConverterType.HBMToORM));
+        Assert.assertEquals(read(directory.resolve("PaycheckNamedQueries.java")), result.getOutput(ConverterType.HBMToJavaRegistry));
+        Assert.assertEquals("Paycheck.query.hbm.xml", result.getSourceFileName());
+        Assert.assertEquals("Paycheck.xml", result.getOutputFileName(ConverterType.HBMToORM));
+        Assert.assertEquals("PaycheckNamedQueries.java", result.getOutputFileName(ConverterType.HBMToJavaRegistry));
+        Assert.assertTrue(result.getIssues().isEmpty());
+        Assert.assertEquals(result.getOutputs(), converter.convert("Paycheck.query.hbm.xml", content).getOutputs());
+        Assert.assertEquals(result.getOutputs(), converter.convert("Paycheck.query.hbm.xml", new String(content, StandardCharsets.UTF_8)).getOutputs());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        result.writeTo(ConverterType.HBMToJavaRegistry, outputStream);
+        Assert.assertEquals(result.getOutput(ConverterType.HBMToJavaRegistry), new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testConverterRunsFromAJar() throws Exception {
+        String content = "<?xml version=\"1.0\"?>\n<!DOCTYPE hibernate-mapping PUBLIC \"-//Hibernate/Hibernate Mapping DTD 3.0//EN\"\n"
+                + "        \"http://www.hibernate.org/dtd/hibernate-mapping-3.0.dtd\">\n"
+                + "<hibernate-mapping package=\"com.intuit.sample\">\n    <query name=\"Alpha\">from Alpha</query>\n</hibernate-mapping>\n";
+        String expected = new InMemoryConverter(ConverterType.HBMToORM).convert("Alpha.hbm.xml", content).getOutput(ConverterType.HBMToORM);
+
+        Path jar = directory.resolve("hbm-to-orm-converter.jar");
+        Path classes = Paths.get(InMemoryConverter.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        try (JarOutputStream jarStream = new JarOutputStream(Files.newOutputStream(jar));
+             Stream<Path> files = Files.walk(classes)) {
+            for (Path file : (Iterable<Path>) files.filter(file -> !file.equals(classes))::iterator) {
+                String name = classes.relativize(file).toString().replace(File.separatorChar, '/');
+                // the directories have their entry, as in the jar of the build
+                jarStream.putNextEntry(new JarEntry(Files.isDirectory(file) ? name + "/" : name));
+                if (Files.isRegularFile(file)) {
+                    Files.copy(file, jarStream);
+                }
+                jarStream.closeEntry();
+            }
+        }
+        ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
+        try (URLClassLoader jarLoader = new JarFirstClassLoader(jar.toUri().toURL(), getClass().getClassLoader())) {
+            Thread.currentThread().setContextClassLoader(jarLoader);
+            Class<?> converterClass = jarLoader.loadClass(InMemoryConverter.class.getName());
+            Assert.assertEquals(jar.toUri().toURL(), converterClass.getProtectionDomain().getCodeSource().getLocation());
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            Class<Enum> typeClass = (Class<Enum>) jarLoader.loadClass(ConverterType.class.getName());
+            Object types = Array.newInstance(typeClass, 1);
+            Array.set(types, 0, Enum.valueOf(typeClass, ConverterType.HBMToORM.name()));
+            Object converter = converterClass.getConstructor(types.getClass()).newInstance(types);
+            Object result = converterClass.getMethod("convert", String.class, String.class).invoke(converter, "Alpha.hbm.xml", content);
+            Assert.assertEquals(expected, result.getClass().getMethod("getOutput", typeClass).invoke(result, Array.get(types, 0)));
+        } finally {
+            Thread.currentThread().setContextClassLoader(contextLoader);
+        }
+    }
+
+    @Test
+    public void testOneConverterIsSharedByConcurrentCallers() throws Exception {
+        InputModel inputModel = new InputModel(null, null, null, ConverterType.HBMToORM);
+        inputModel.setValidateOutput(true);
+        InMemoryConverter converter = new InMemoryConverter(inputModel);
+        byte[] content = Files.readAllBytes(Paths.get("Paycheck.query.hbm.xml"));
+        String expected = converter.convert("Paycheck.query.hbm.xml", content).getOutput(ConverterType.HBMToORM);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ConversionResult>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(() -> converter.convert("Paycheck.query.hbm.xml", content)));
+            }
+            for (Future<ConversionResult> result : results) {
+                Assert.assertEquals(expected, result.get().getOutput(ConverterType.HBMToORM));
+                Assert.assertTrue(result.get().getIssues().isEmpty());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        try {
+            converter.convert("Broken", "<hibernate-mapping><query name=\"q\">");
+            Assert.fail("content which is not well-formed should be rejected");
+        } catch (FileConversionException e) {
+            Assert.assertEquals("ReadInputFile Status=Failed", e.getMessage());
+        }
+        try {
+            converter.convert("Paycheck.query.hbm.xml", content).getOutput(ConverterType.HBMToJavaRegistry);
+            Assert.fail("a target which is not converted has no output");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("No output for converter type HBMToJavaRegistry", e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the classes and resources of the tool from a jar before its parent, which has them in a directory.
+     */
+    private static class JarFirstClassLoader extends URLClassLoader {
+        private static final String TOOL_PACKAGE = "com.intuit.hbm.converters.";
+
+        private JarFirstClassLoader(URL jar, ClassLoader parent) {
+            super(new URL[]{jar}, parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.startsWith(TOOL_PACKAGE)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loadedClass = findLoadedClass(name);
+                if (loadedClass == null) {
+                    loadedClass = findClass(name);
+                }
+                if (resolve) {
+                    resolveClass(loadedClass);
+                }
+                return loadedClass;
+            }
+        }
+
+        @Override
+        public URL getResource(String name) {
+            URL resource = findResource(name);
+            return resource != null ? resource : super.getResource(name);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.intuit.hbm.converters.cache;
+
+import com.intuit.hbm.converters.converter.EntityExtractor;
+import com.intuit.hbm.converters.model.CacheSetting;
+import com.intuit.hbm.converters.model.ConversionIssue;
+import com.intuit.hbm.converters.model.Entity;
+import com.intuit.hbm.converters.model.EntityMappings;
+import org.dom4j.Document;
+import org.dom4j.DocumentHelper;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.intuit.hbm.converters.TestFiles.read;
+import static com.intuit.hbm.converters.TestFiles.write;
+
+public class CacheConfigWriterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String HBM = "<hibernate-mapping package=\"com.intuit.sample\">"
+            + "<class name=\"Country\" table=\"COUNTRY\"><cache usage=\"read-only\" region=\"reference\"/><id name=\"id\" column=\"ID\"/>"
+            + "<set name=\"states\"><cache usage=\"read-write\"/><key column=\"COUNTRY_ID\"/><one-to-many class=\"State\"/></set>"
+            + "<map name=\"names\"><cache usage=\"read-only\"/><key column=\"COUNTRY_ID\"/><element column=\"NAME\" type=\"string\"/></map></class>"
+            + "<class name=\"State\" table=\"STATE\"><cache usage=\"nonstrict-read-write\" include=\"non-lazy\"/><id name=\"id\" column=\"ID\"/></class>"
+            + "<class name=\"Audit\" table=\"AUDIT\"><cache usage=\"bogus\"/><id name=\"id\" column=\"ID\"/></class>"
+            + "</hibernate-mapping>";
+
+    @Test
+    public void testCacheSettingsAreWrittenAsProperties() throws Exception {
+        List<ConversionIssue> issues = new ArrayList<>();
+        EntityMappings entityMappings = extract(issues);
+        Assert.assertEquals("read-only", entityMappings.getEntities().get(0).getCache().getUsage());
+        Assert.assertNull("an unknown usage is not cached", entityMappings.getEntities().get(2).getCache());
+        Assert.assertEquals(4, issues.size());
+        Assert.assertEquals("Country.names", issues.get(1).getName());
+        Assert.assertTrue(issues.get(2).getReason().startsWith("Cache include=\"non-lazy\""));
+        Assert.assertEquals("Audit", issues.get(3).getName());
+
+        Path configFile = folder.getRoot().toPath().resolve("cache.properties");
+        CacheConfigWriter writer = new CacheConfigWriter(configFile.toString());
+        Assert.assertTrue(writer.add("C.hbm.xml", entityMappings).isEmpty());
+        writer.close();
+        Assert.assertTrue(read(configFile).endsWith("\njavax.persistence.sharedCache.mode=ENABLE_SELECTIVE\n"
+                + "# Source: C.hbm.xml\n"
+                + "hibernate.classcache.com.intuit.sample.Country=read-only,reference\n"
+                + "hibernate.classcache.com.intuit.sample.State=nonstrict-read-write\n"
+                + "hibernate.collectioncache.com.intuit.sample.Country.states=read-write\n"));
+        Assert.assertFalse(Files.exists(configFile.resolveSibling("cache.properties.tmp")));
+    }
+
+    @Test
+    public void testPartialRunKeepsTheSettingsOfTheOtherFiles() throws Exception {
+        Path configFile = folder.getRoot().toPath().resolve("cache.properties");
+        CacheConfigWriter writer = new CacheConfigWriter(configFile.toString());
+        writer.add("C.hbm.xml", extract(new ArrayList<>()));
+        EntityMappings other = extract(new ArrayList<>());
+        other.getEntities().get(0).setClassName("Region");
+        other.getEntities().get(0).setCache(new CacheSetting("read-write", "west\\1"));
+        writer.add("D.hbm.xml", other);
+        writer.close();
+        String config = read(configFile);
+
+        // a run which converted no file, such as a verification, leaves the file as it is
+        new CacheConfigWriter(configFile.toString()).close();
+        Assert.assertEquals(config, read(configFile));
+
+        // C.hbm.xml is converted again without its cache, the settings of D.hbm.xml are kept
+        writer = new CacheConfigWriter(configFile.toString());
+        EntityMappings uncached = extract(new ArrayList<>());
+        uncached.getEntities().forEach(entity -> entity.setCache(null));
+        uncached.getEntities().forEach(entity -> entity.getOneToManyMappings().forEach(oneToMany -> oneToMany.setCache(null)));
+        writer.add("C.hbm.xml", uncached);
+        writer.close();
+        Assert.assertTrue(read(configFile).endsWith("\njavax.persistence.sharedCache.mode=ENABLE_SELECTIVE\n"
+                + "# Source: D.hbm.xml\n"
+                + "hibernate.classcache.com.intuit.sample.Region=read-write,west\\\\1\n"
+                + "hibernate.classcache.com.intuit.sample.State=nonstrict-read-write\n"
+                + "hibernate.collectioncache.com.intuit.sample.Region.states=read-write\n"));
+
+        // the kept values are read back as written
+        writer = new CacheConfigWriter(configFile.toString());
+        writer.add("E.hbm.xml", uncached);
+        writer.close();
+        Assert.assertTrue(read(configFile).contains("Region=read-write,west\\\\1\n"));
+
+        // a file which is not a cache properties file is replaced
+        write(configFile, "hibernate.classcache.com.intuit.sample.Stale=read-only\n");
+        writer = new CacheConfigWriter(configFile.toString());
+        writer.add("C.hbm.xml", uncached);
+        writer.close();
+        Assert.assertFalse(read(configFile).contains("Stale"));
+    }
+
+    @Test
+    public void testSettingsWhichAreNotCarriedAreReported() throws Exception {
+        EntityMappings entityMappings = extract(new ArrayList<>());
+        CacheConfigWriter writer = new CacheConfigWriter(null);
+        List<ConversionIssue> issues = writer.add("C.hbm.xml", entityMappings);
+        Assert.assertEquals("every cached entity and collection is reported", 3, issues.size());
+        Assert.assertEquals("Country.states", issues.get(1).getName());
+
+        // the same entity cached differently in another file
+        Entity country = entityMappings.getEntities().get(0);
+        country.setCache(new CacheSetting("read-write", null));
+        issues = writer.add("D.hbm.xml", entityMappings);
+        Assert.assertTrue(issues.get(0).getReason().contains("conflicts with cache read-only,reference"));
+        writer.close();
+    }
+
+    private static EntityMappings extract(List<ConversionIssue> issues) throws Exception {
+        Document hbmDoc = DocumentHelper.parseText(HBM);
+        return new EntityMappings("com.intuit.sample", new ArrayList<>(), new ArrayList<>(), new ArrayList<>(),
+                new EntityExtractor().getEntities(hbmDoc, issues), new ArrayList<>());
+    }
+}
@@ -0,0 +1,164 @@
+package com.intuit.hbm.converters.catalog;
+
+import com.intuit.hbm.converters.common.ConversionContext;
+import com.intuit.hbm.converters.model.ConverterType;
+import com.intuit.hbm.converters.model.EntityMappings;
+import com.intuit.hbm.converters.model.InputModel;
+import com.intuit.hbm.converters.model.NamedNativeQuery;
+import com.intuit.hbm.converters.model.NamedQuery;
+import com.intuit.hbm.converters.task.ConversionTaskBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+public class QueryCatalogTest {
+
+    @Test
+    public void testQueriesCommittedByAllThreadsAreLookedUp() throws IOException, InterruptedException {
+        Path catalogFile = Files.createTempFile("catalog", ".idx");
+        QueryCatalogBuilder builder = new QueryCatalogBuilder(catalogFile.toString());
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int threadIndex = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 250; i++) {
+                    builder.stage(mappings("Query" + threadIndex + "_" + i, "Shared"));
+                    builder.commit("File" + threadIndex + "_" + i + ".hbm.xml", "File" + threadIndex + "_" + i + ".xml");
+                }
+                // a file which failed is not cataloged
+                builder.stage(mappings("Failed" + threadIndex, "Shared"));
+                builder.discard();
+                builder.commit("Failed.hbm.xml", "Failed.xml");
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        builder.close();
+
+        try (QueryCatalog catalog = new QueryCatalog(catalogFile)) {
+            Assert.assertEquals(2000, catalog.getEntryCount());
+            List<CatalogEntry> entries = catalog.lookup("Query2_17");
+            Assert.assertEquals(1, entries.size());
+            Assert.assertEquals("File2_17.hbm.xml", entries.get(0).getSourceFile());
+            Assert.assertEquals("File2_17.xml", entries.get(0).getOutputFile());
+            Assert.assertEquals(QueryKind.HQL, entries.get(0).getKind());
+            Assert.assertNull(entries.get(0).getResult());
+
+            List<CatalogEntry> shared = catalog.lookup("Shared");
+            Assert.assertEquals("every definition of a query is found", 1000, shared.size());
+            Assert.assertEquals(QueryKind.NATIVE, shared.get(0).getKind());
+            Assert.assertEquals("com.intuit.Paycheck", shared.get(0).getResult());
+            Assert.assertEquals(QueryCatalog.hashQuery("select *  from\n PAYCHECK"), shared.get(0).getQueryHash());
+
+            Assert.assertTrue(catalog.lookup("Failed0").isEmpty());
+            Assert.assertTrue(catalog.lookup("Unknown").isEmpty());
+        }
+        Files.delete(catalogFile);
+    }
+
+    @Test
+    public void testConversionRunWritesTheCatalog() throws Exception {
+        Path destDirectory = Files.createTempDirectory("orm");
+        Path catalogFile = destDirectory.resolve("queries.idx");
+        InputModel inputModel = new InputModel("Paycheck.query.hbm.xml", ".query.hbm.xml", destDirectory + "/", ConverterType.HBMToORM);
+        inputModel.setCatalogPath(catalogFile.toString());
+        ConversionContext context = new ConversionContext(inputModel);
+        File file = new File("Paycheck.query.hbm.xml");
+        List<Callable<Boolean>> tasks = new ConversionTaskBuilder(context).buildTasks(new File[]{file}, destDirectory + "/", ConverterType.HBMToORM);
+        for (Callable<Boolean> task : tasks) {
+            Assert.assertTrue(task.call());
+        }
+        context.close();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int notFoundCount = QueryCatalogTool.lookup(new String[]{catalogFile.toString(), "NativeNamedQuery", "Missing"},
+                new PrintStream(output, true, "UTF-8"));
+        Assert.assertEquals(1, notFoundCount);
+        String[] lines = new String(output.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        Assert.assertEquals(2, lines.length);
+        String[] columns = lines[0].split("\t");
+        Assert.assertEquals(Arrays.asList("NativeNamedQuery", "NATIVE", file.getAbsolutePath(),
+                destDirectory.resolve("Paycheck.xml").toAbsolutePath().toString(), "class1"), Arrays.asList(columns).subList(0, 5));
+        Assert.assertEquals("Missing\tNOT_FOUND", lines[1]);
+
+        for (File written : destDirectory.toFile().listFiles()) {
+            Files.delete(written.toPath());
+        }
+        Files.delete(destDirectory);
+    }
+
+    @Test
+    public void testPartialRunKeepsTheQueriesOfTheOtherFiles() throws IOException {
+        Path catalogFile = Files.createTempFile("catalog", ".idx");
+        Files.delete(catalogFile);
+        QueryCatalogBuilder firstRun = new QueryCatalogBuilder(catalogFile.toString());
+        firstRun.stage(mappings("QueryA", "NativeA"));
+        firstRun.commit("A.hbm.xml", "A.xml");
+        firstRun.stage(mappings("QueryB", "NativeB"));
+        firstRun.commit("B.hbm.xml", "B.xml");
+        firstRun.close();
+
+        // a resumed run converting A only, which no longer defines QueryA
+        QueryCatalogBuilder resumedRun = new QueryCatalogBuilder(catalogFile.toString());
+        resumedRun.stage(mappings("QueryA2", "NativeA"));
+        resumedRun.commit("A.hbm.xml", "A.xml");
+        resumedRun.close();
+        byte[] content = Files.readAllBytes(catalogFile);
+        // a run converting nothing, such as a verify run, leaves the catalog as it is
+        new QueryCatalogBuilder(catalogFile.toString()).close();
+        Assert.assertArrayEquals(content, Files.readAllBytes(catalogFile));
+
+        try (QueryCatalog catalog = new QueryCatalog(catalogFile)) {
+            Assert.assertEquals(4, catalog.getEntryCount());
+            Assert.assertTrue(catalog.lookup("QueryA").isEmpty());
+            Assert.assertEquals("A.hbm.xml", catalog.lookup("QueryA2").get(0).getSourceFile());
+            Assert.assertEquals("B.xml", catalog.lookup("QueryB").get(0).getOutputFile());
+            Assert.assertEquals(QueryCatalog.hashQuery("select * from PAYCHECK"), catalog.lookup("NativeB").get(0).getQueryHash());
+        }
+        Files.delete(catalogFile);
+    }
+
+    @Test
+    public void testOtherFilesAreRejected() throws IOException {
+        Path notACatalog = Files.write(Files.createTempFile("catalog", ".idx"), "not a catalog".getBytes(StandardCharsets.UTF_8));
+        try {
+            new QueryCatalog(notACatalog).close();
+            Assert.fail("a file which is not a catalog should be rejected");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getMessage().startsWith("Not a query catalog"));
+        }
+        Files.delete(notACatalog);
+        Assert.assertFalse(Files.exists(Paths.get(notACatalog + ".tmp")));
+    }
+
+    /**
+     * Creates the mappings of a file defining an HQL query and a native query.
+     *
+     * @param queryName       The name of the HQL query.
+     * @param nativeQueryName The name of the native query.
+     * @return The mappings.
+     */
+    private static EntityMappings mappings(String queryName, String nativeQueryName) {
+        ArrayList<NamedQuery> namedQueries = new ArrayList<>();
+        namedQueries.add(new NamedQuery(queryName, "from Paycheck"));
+        ArrayList<NamedNativeQuery> namedNativeQueries = new ArrayList<>();
+        namedNativeQueries.add(new NamedNativeQuery(nativeQueryName, "select * from PAYCHECK", "com.intuit.Paycheck", ""));
+        return new EntityMappings("com.intuit", namedQueries, namedNativeQueries, new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+    }
+}
@@ -0,0 +1,62 @@
+package com.intuit.hbm.converters.checkpoint;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+public class CheckpointJournalTest {
+
+    @Test
+    public void testResumeSkipsCompletedFiles() throws IOException {
+        Path checkpointFile = Files.createTempFile("checkpoint", ".txt");
+        File completed = Files.createTempFile("Completed", ".hbm.xml").toFile();
+        File changed = Files.createTempFile("Changed", ".hbm.xml").toFile();
+        File failed = Files.createTempFile("Failed", ".hbm.xml").toFile();
+
+        CheckpointJournal firstRun = new CheckpointJournal(checkpointFile.toString(), false);
+        firstRun.recordCompleted(completed);
+        firstRun.recordCompleted(changed);
+        firstRun.close();
+        // the run is killed while recording the next file
+        Files.write(checkpointFile, failed.getAbsolutePath().getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        Files.write(changed.toPath(), "changed".getBytes(StandardCharsets.UTF_8));
+
+        CheckpointJournal resumedRun = new CheckpointJournal(checkpointFile.toString(), true);
+        Assert.assertTrue(resumedRun.isCompleted(completed));
+        Assert.assertFalse("a file changed since its conversion should be converted again", resumedRun.isCompleted(changed));
+        Assert.assertFalse("a torn entry should be ignored", resumedRun.isCompleted(failed));
+        resumedRun.recordCompleted(failed);
+        resumedRun.close();
+
+        List<String> lines = Files.readAllLines(checkpointFile, StandardCharsets.UTF_8);
+        Assert.assertEquals(4, lines.size());
+        Assert.assertTrue(new CheckpointJournal(checkpointFile.toString(), true).isCompleted(failed));
+
+        Files.delete(checkpointFile);
+        Assert.assertTrue(completed.delete() && changed.delete() && failed.delete());
+    }
+
+    @Test
+    public void testNewRunStartsAnEmptyCheckpoint() throws IOException {
+        Path checkpointFile = Files.createTempFile("checkpoint", ".txt");
+        File completed = Files.createTempFile("Completed", ".hbm.xml").toFile();
+        CheckpointJournal firstRun = new CheckpointJournal(checkpointFile.toString(), false);
+        firstRun.recordCompleted(completed);
+        firstRun.close();
+
+        CheckpointJournal newRun = new CheckpointJournal(checkpointFile.toString(), false);
+        Assert.assertFalse(newRun.isCompleted(completed));
+        newRun.close();
+        Assert.assertEquals(0, Files.size(checkpointFile));
+
+        Files.delete(checkpointFile);
+        Assert.assertTrue(completed.delete());
+    }
+}
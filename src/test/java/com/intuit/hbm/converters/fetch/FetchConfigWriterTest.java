@@ -0,0 +1,122 @@
+package com.intuit.hbm.converters.fetch;
+
+import com.intuit.hbm.converters.converter.EntityExtractor;
+import com.intuit.hbm.converters.model.ConversionIssue;
+import com.intuit.hbm.converters.model.Entity;
+import com.intuit.hbm.converters.model.EntityMappings;
+import org.dom4j.Document;
+import org.dom4j.DocumentHelper;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.intuit.hbm.converters.TestFiles.read;
+
+public class FetchConfigWriterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String HBM = "<hibernate-mapping package=\"com.intuit.sample\">"
+            + "<class name=\"Order\" table=\"ORDERS\" batch-size=\"25\"><id name=\"id\" column=\"ID\"/>"
+            + "<many-to-one name=\"customer\" class=\"Customer\" column=\"CUSTOMER_ID\"/>"
+            + "<many-to-one name=\"warehouse\" class=\"Warehouse\" column=\"WAREHOUSE_ID\" fetch=\"join\"/>"
+            + "<many-to-one name=\"carrier\" class=\"Carrier\" column=\"CARRIER_ID\" lazy=\"false\"/>"
+            + "<many-to-one name=\"invoice\" class=\"Invoice\" column=\"INVOICE_ID\" lazy=\"no-proxy\"/>"
+            + "<set name=\"lines\" batch-size=\"50\"><key column=\"ORDER_ID\"/><one-to-many class=\"Line\"/></set>"
+            + "<bag name=\"notes\" lazy=\"extra\"><key column=\"ORDER_ID\"/><one-to-many class=\"Note\"/></bag>"
+            + "<bag name=\"events\" fetch=\"subselect\" batch-size=\"1\"><key column=\"ORDER_ID\"/><one-to-many class=\"Event\"/></bag>"
+            + "<bag name=\"parcels\" outer-join=\"true\"><key column=\"ORDER_ID\"/><one-to-many class=\"Parcel\"/></bag></class>"
+            + "<class name=\"Line\" table=\"LINE\" lazy=\"false\" batch-size=\"many\"><id name=\"id\" column=\"ID\"/></class>"
+            + "</hibernate-mapping>";
+
+    @Test
+    public void testFetchStrategiesAreConverted() throws Exception {
+        List<ConversionIssue> issues = new ArrayList<>();
+        Entity order = extract(issues).getEntities().get(0);
+        Assert.assertEquals("LAZY", order.getManyToOneMappings().get(0).getFetch());
+        Assert.assertEquals("EAGER", order.getManyToOneMappings().get(1).getFetch());
+        Assert.assertEquals("EAGER", order.getManyToOneMappings().get(2).getFetch());
+        Assert.assertEquals("LAZY", order.getManyToOneMappings().get(3).getFetch());
+        Assert.assertEquals("LAZY", order.getOneToManyMappings().get(0).getFetch());
+        Assert.assertEquals("LAZY", order.getOneToManyMappings().get(1).getFetch());
+        Assert.assertEquals("LAZY", order.getOneToManyMappings().get(2).getFetch());
+        Assert.assertEquals("EAGER", order.getOneToManyMappings().get(3).getFetch());
+        Assert.assertEquals(Integer.valueOf(25), order.getBatchSize());
+        Assert.assertNull("a batch size of one loads the collections one by one", order.getOneToManyMappings().get(2).getBatchSize());
+
+        // only the settings whose loading differs from the hbm mapping are reported
+        Assert.assertEquals(6, issues.size());
+        Assert.assertEquals("Order.carrier", issues.get(0).getName());
+        Assert.assertTrue(issues.get(1).getReason().startsWith("lazy=\"no-proxy\""));
+        Assert.assertTrue(issues.get(2).getReason().startsWith("lazy=\"extra\""));
+        Assert.assertTrue(issues.get(3).getReason().startsWith("fetch=\"subselect\""));
+        Assert.assertEquals("Line", issues.get(4).getName());
+        Assert.assertEquals("Attribute batch-size=\"many\" is not a batch size", issues.get(5).getReason());
+
+        // with a non-lazy default, a mapping without lazy attribute is eager
+        Document hbmDoc = DocumentHelper.parseText(HBM.replace("<hibernate-mapping ", "<hibernate-mapping default-lazy=\"false\" "));
+        order = new EntityExtractor().getEntities(hbmDoc, new ArrayList<>()).get(0);
+        Assert.assertEquals("EAGER", order.getManyToOneMappings().get(0).getFetch());
+        Assert.assertEquals("LAZY", order.getManyToOneMappings().get(3).getFetch());
+        Assert.assertEquals("EAGER", order.getOneToManyMappings().get(0).getFetch());
+    }
+
+    @Test
+    public void testBatchSizesAreWrittenAsProperties() throws Exception {
+        EntityMappings entityMappings = extract(new ArrayList<>());
+        Path configFile = folder.getRoot().toPath().resolve("fetch.properties");
+        FetchConfigWriter writer = new FetchConfigWriter(configFile.toString());
+        List<ConversionIssue> issues = writer.add("O.hbm.xml", entityMappings);
+        Assert.assertEquals("every batch size is reported, none being carried exactly", 2, issues.size());
+        Assert.assertEquals("Order.lines", issues.get(1).getName());
+        Assert.assertEquals(Integer.valueOf(50), writer.getDefaultBatchFetchSize());
+        writer.close();
+        String config = read(configFile);
+        Assert.assertTrue(config.contains("\nhibernate.default_batch_fetch_size=50\n"));
+        Assert.assertTrue(config.endsWith("# Source: O.hbm.xml\n#   com.intuit.sample.Order=25\n#   com.intuit.sample.Order.lines=50\n"));
+
+        issues = new FetchConfigWriter(null).add("O.hbm.xml", entityMappings);
+        Assert.assertTrue(issues.get(0).getReason().endsWith("only approximated by the properties written with --fetch-config"));
+    }
+
+    @Test
+    public void testPartialRunKeepsTheBatchSizesOfTheOtherFiles() throws Exception {
+        Path configFile = folder.getRoot().toPath().resolve("fetch.properties");
+        FetchConfigWriter writer = new FetchConfigWriter(configFile.toString());
+        writer.add("O.hbm.xml", extract(new ArrayList<>()));
+        EntityMappings other = extract(new ArrayList<>());
+        other.getEntities().get(0).setClassName("Invoice");
+        other.getEntities().get(0).setBatchSize(10);
+        other.getEntities().get(0).getOneToManyMappings().forEach(oneToMany -> oneToMany.setBatchSize(null));
+        writer.add("P.hbm.xml", other);
+        writer.close();
+
+        // O.hbm.xml is converted again with smaller batch sizes, the batch size of P.hbm.xml is kept
+        writer = new FetchConfigWriter(configFile.toString());
+        EntityMappings smaller = extract(new ArrayList<>());
+        smaller.getEntities().get(0).setBatchSize(5);
+        smaller.getEntities().get(0).getOneToManyMappings().forEach(oneToMany -> oneToMany.setBatchSize(null));
+        writer.add("O.hbm.xml", smaller);
+        Assert.assertEquals(Integer.valueOf(5), writer.getDefaultBatchFetchSize());
+        writer.close();
+        String config = read(configFile);
+        Assert.assertTrue(config.contains("\nhibernate.default_batch_fetch_size=10\n"));
+        Assert.assertTrue(config.endsWith("# Source: O.hbm.xml\n#   com.intuit.sample.Order=5\n"
+                + "# Source: P.hbm.xml\n#   com.intuit.sample.Invoice=10\n"));
+
+        // a run which converted no file leaves the file as it is
+        new FetchConfigWriter(configFile.toString()).close();
+        Assert.assertEquals(config, read(configFile));
+    }
+
+    private static EntityMappings extract(List<ConversionIssue> issues) throws Exception {
+        Document hbmDoc = DocumentHelper.parseText(HBM);
+        return new EntityMappings("com.intuit.sample", new ArrayList<>(), new ArrayList<>(), new ArrayList<>(),
+                new EntityExtractor().getEntities(hbmDoc, issues), new ArrayList<>());
+    }
+}
@@ -47,10 +47,10 @@ public class FileConversionHandlerTest {
         when(inputModel.getSrcDirectoryPath()).thenReturn("srcDirPath");
         when(inputModel.getFileEndsWith()).thenReturn("endsWith");
         when(inputModel.getDestDirPath()).thenReturn("destDirPath");
-        when(inputModel.getConverterType()).thenReturn(ConverterType.HBMToORM);
+        when(inputModel.getConverterTypes()).thenReturn(Collections.singletonList(ConverterType.HBMToORM));
 
         when(fileHelper.getFiles("srcDirPath", "endsWith")).thenReturn(files);
-        when(taskBuilder.buildTasks(any(File[].class), anyString(), any(ConverterType.class))).thenReturn(tasks);
+        when(taskBuilder.buildTasks(any(File[].class), anyString(), anyList())).thenReturn(tasks);
 
         // When
         fileConversionHandler.processTask();
@@ -2,7 +2,9 @@ package com.intuit.hbm.converters.helper;
 
 import com.intuit.hbm.converters.exception.FileConversionException;
 import com.intuit.hbm.converters.helper.FileHelper;
+import com.intuit.hbm.converters.model.WriteMode;
 import org.antlr.stringtemplate.StringTemplate;
+import org.antlr.stringtemplate.StringTemplateWriter;
 import org.dom4j.Document;
 import org.dom4j.DocumentException;
 import org.junit.After;
@@ -12,6 +14,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.xml.sax.InputSource;
 
 import java.io.*;
 import java.nio.file.Files;
@@ -45,6 +48,17 @@ public class FileHelperTest {
         assertNotNull(result.getRootElement());
     }
 
+    @Test
+    public void testReadInputDoesNotFetchTheHibernateDtd() {
+        // the DTD is on a host which does not resolve, the parser must not try to fetch it
+        String content = "<?xml version=\"1.0\"?>\n<!DOCTYPE hibernate-mapping SYSTEM \"http://hbm.invalid/hibernate-mapping-3.0.dtd\">\n"
+                + "<hibernate-mapping><query name=\"q\">from Q</query></hibernate-mapping>";
+        Document result = fileHelper.readInput(new InputSource(new StringReader(content)), "Q.hbm.xml");
+        assertEquals("hibernate-mapping", result.getRootElement().getName());
+        assertTrue(FileHelper.isHibernateMappingDtd("-//Hibernate/Hibernate Mapping DTD 3.0//EN", "http://www.hibernate.org/dtd/hibernate-mapping-3.0.dtd"));
+        assertFalse(FileHelper.isHibernateMappingDtd(null, "queries.xml"));
+    }
+
     @Test
     public void testReadInputFile_Exception() {
         File file = new File("file1.xml");
@@ -120,27 +134,28 @@ public class FileHelperTest {
     }
 
     @Test
-    public void testWriteFile_DesDirectory() {
+    public void testWriteFile_DesDirectory() throws IOException {
         String currentDirectory = System.getProperty("user.dir");
         String destDirectoryPath = currentDirectory + "/src/test/java/com/intuit/hbm/converters/";
         String fileName = "Paycheck";
 
-        // Mock the template's toString method
-        when(template.toString()).thenReturn("String to write to file");
+        // Mock the template's write method
+        when(template.write(any())).thenAnswer(invocation -> ((StringTemplateWriter) invocation.getArgument(0)).write("String to write to file"));
 
         // execute the method under test
         fileHelper.writeFile(template, destDirectoryPath, fileName);
         File file = new File(destDirectoryPath + fileName + ".xml");
         assertTrue(file.exists());
+        assertEquals("String to write to file", new String(Files.readAllBytes(file.toPath())));
     }
 
     @Test
-    public void testWriteFile_DesFile() {
+    public void testWriteFile_DesFile() throws IOException {
         String destDirectoryPath = "Paycheck.xml";
         String fileName = "Paycheck";
 
-        // Mock the template's toString method
-        when(template.toString()).thenReturn("String to write to file");
+        // Mock the template's write method
+        when(template.write(any())).thenAnswer(invocation -> ((StringTemplateWriter) invocation.getArgument(0)).write("String to write to file"));
 
         // execute the method under test
         fileHelper.writeFile(template, destDirectoryPath, fileName);
@@ -148,6 +163,28 @@ public class FileHelperTest {
         assertTrue(file.exists());
     }
 
+    @Test
+    public void testUnchangedContentIsNotRewritten() throws IOException {
+        Path destDirectory = Files.createTempDirectory("orm");
+        String destDirectoryPath = destDirectory + File.separator;
+        File file = new File(destDirectoryPath + "Paycheck.xml");
+
+        assertTrue(fileHelper.writeContent("<entity-mappings/>", destDirectoryPath, "Paycheck", ".xml", WriteMode.IF_CHANGED));
+        assertTrue(file.setLastModified(1_000_000_000L));
+        assertFalse("the same content should not be written again",
+                fileHelper.writeContent("<entity-mappings/>", destDirectoryPath, "Paycheck", ".xml", WriteMode.IF_CHANGED));
+        assertEquals(1_000_000_000L, file.lastModified());
+
+        // a change which keeps the size is detected by the content compare
+        assertTrue(fileHelper.writeContent("<entity-mappingz/>", destDirectoryPath, "Paycheck", ".xml", WriteMode.IF_CHANGED));
+        assertEquals("<entity-mappingz/>", new String(Files.readAllBytes(file.toPath())));
+        assertTrue(fileHelper.writeContent("<entity-mappingz/>", destDirectoryPath, "Paycheck", ".xml", WriteMode.ALWAYS));
+        assertEquals(1, destDirectory.toFile().list().length);
+
+        Files.delete(file.toPath());
+        Files.delete(destDirectory);
+    }
+
     @Test
     public void testGetFiles() throws IOException {
         String directoryPath = "directory";
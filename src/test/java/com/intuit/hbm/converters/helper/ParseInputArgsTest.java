@@ -2,6 +2,7 @@ package com.intuit.hbm.converters.helper;
 
 import com.intuit.hbm.converters.helper.ArgsParser;
 import com.intuit.hbm.converters.model.InputModel;
+import com.intuit.hbm.converters.model.WriteMode;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -46,6 +47,31 @@ public class ParseInputArgsTest {
         }
     }
 
+    @Test
+    public void testMergeRequiresAnOrmFileAsDestination() throws IOException {
+        File src = File.createTempFile("tempSrcFile", ".txt");
+        File dest = File.createTempFile("tempDestFile", ".xml");
+
+        // a source directory may be merged into a file
+        InputModel inputModel = argsParser.parseInputArgs(new String[]{src.getParent(), "txt", dest.getPath(), "--write-mode=merge"});
+        Assert.assertEquals(WriteMode.MERGE, inputModel.getWriteMode());
+
+        try {
+            argsParser.parseInputArgs(new String[]{src.getPath(), "txt", dest.getParent(), "--write-mode=merge"});
+            Assert.fail("Expected IllegalArgumentException to be thrown");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("Write mode merge requires an existing orm file as destination.", e.getMessage());
+        }
+        try {
+            argsParser.parseInputArgs(new String[]{src.getPath(), "txt", dest.getPath(), "HBMToJavaRegistry", "--write-mode=merge"});
+            Assert.fail("Expected IllegalArgumentException to be thrown");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("Write mode merge requires the HBMToORM converter.", e.getMessage());
+        }
+
+        logFilePathAndDeleteFile(src, dest);
+    }
+
     private void logFilePathAndDeleteFile(File... files) {
         // Display temp files paths and delete them
         for (File file : files) {
@@ -0,0 +1,123 @@
+package com.intuit.hbm.converters.helper;
+
+import com.intuit.hbm.converters.common.ConversionContext;
+import com.intuit.hbm.converters.converter.HbmToJpaConverter;
+import com.intuit.hbm.converters.model.ConversionOutcome;
+import com.intuit.hbm.converters.model.ConverterType;
+import com.intuit.hbm.converters.model.InputModel;
+import com.intuit.hbm.converters.task.ConversionTaskBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+public class PreScannerTest {
+    private static final String HEADER = "<?xml version=\"1.0\"?>\n<hibernate-mapping package=\"com.intuit.sample\">\n";
+    private static final String CLASS = "    <class name=\"Department\" table=\"DEPARTMENT\">\n        <id name=\"id\"/>\n    </class>\n";
+    private static final String FOOTER = "</hibernate-mapping>\n";
+
+    private final PreScanner preScanner = new PreScanner(Arrays.asList("query", "sql-query"));
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("hbm");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (Path path : new Path[]{directory.resolve("dest"), directory}) {
+            File[] files = path.toFile().listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    Files.delete(file.toPath());
+                }
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void testFileWithoutQueriesHasNoContent() throws IOException {
+        PreScanner.Result result = preScanner.scan(write("Department.hbm.xml", HEADER + CLASS
+                + "    <!-- <query-param> and <queries> are not named queries -->\n" + FOOTER));
+        Assert.assertFalse(result.isContent());
+        Assert.assertEquals("com.intuit.sample", result.getPackageName());
+    }
+
+    @Test
+    public void testFileWithQueriesHasContent() throws IOException {
+        Assert.assertTrue(preScanner.scan(write("Query.hbm.xml", HEADER + "    <query name=\"a\">from A</query>\n" + FOOTER)).isContent());
+        Assert.assertTrue(preScanner.scan(write("SqlQuery.hbm.xml", HEADER + "    <sql-query\n name=\"a\"/>\n" + FOOTER)).isContent());
+    }
+
+    @Test
+    public void testStartTagSplitBetweenReadsIsFound() throws IOException {
+        StringBuilder content = new StringBuilder(HEADER);
+        while (content.length() < 64 * 1024 - 3) {
+            content.append(' ');
+        }
+        content.append("<sql-query name=\"a\"/>\n").append(FOOTER);
+        Assert.assertTrue(preScanner.scan(write("Split.hbm.xml", content.toString())).isContent());
+    }
+
+    @Test
+    public void testFilesWhichMayHaveContentAreParsed() throws IOException {
+        String withEntity = "<?xml version=\"1.0\"?>\n<!DOCTYPE hibernate-mapping [ <!ENTITY queries SYSTEM \"queries.xml\"> ]>\n"
+                + "<hibernate-mapping>\n&queries;\n" + FOOTER;
+        Assert.assertTrue(preScanner.scan(write("Entity.hbm.xml", withEntity)).isContent());
+        File utf16 = directory.resolve("Utf16.hbm.xml").toFile();
+        Files.write(utf16.toPath(), (HEADER + CLASS + FOOTER).getBytes(StandardCharsets.UTF_16));
+        Assert.assertTrue(preScanner.scan(utf16).isContent());
+        Assert.assertFalse(new PreScanner(Arrays.asList()).isEnabled());
+    }
+
+    @Test
+    public void testEmptyOutputIsTheOutputOfTheParsedFile() throws IOException {
+        File file = write("Department.hbm.xml", HEADER + CLASS + FOOTER);
+        HbmToJpaConverter converter = new HbmToJpaConverter(FileHelper.getInstance());
+        String parsed = converter.convertFile(FileHelper.getInstance().readInputFile(file), "Department", null).toString();
+        Assert.assertEquals(parsed, converter.convertEmpty("com.intuit.sample", file.getName(), "Department").toString());
+    }
+
+    @Test
+    public void testSkipEmptyWritesNoFile() throws Exception {
+        File empty = write("Department.query.hbm.xml", HEADER + CLASS + FOOTER);
+        File withQuery = write("Paycheck.query.hbm.xml", HEADER + "    <query name=\"a\">from A</query>\n" + FOOTER);
+        Path dest = Files.createDirectory(directory.resolve("dest"));
+        InputModel inputModel = new InputModel(directory + "/", ".query.hbm.xml", dest + "/", ConverterType.HBMToORM);
+        inputModel.setSkipEmpty(true);
+        ConversionContext context = new ConversionContext(inputModel);
+
+        List<Callable<Boolean>> tasks = new ConversionTaskBuilder(context).buildTasks(new File[]{empty, withQuery}, dest + "/", ConverterType.HBMToORM);
+        for (Callable<Boolean> task : tasks) {
+            Assert.assertTrue(task.call());
+        }
+        context.close();
+
+        Assert.assertArrayEquals(new String[]{"Paycheck.xml"}, dest.toFile().list());
+        Assert.assertEquals(1, context.getEventJournal().getFileCount(ConversionOutcome.SKIPPED));
+        Assert.assertEquals(1, context.getEventJournal().getFileCount(ConversionOutcome.SUCCESS));
+    }
+
+    /**
+     * Writes a file in the temporary directory.
+     *
+     * @param name    The name of the file.
+     * @param content The content of the file.
+     * @return The file.
+     * @throws IOException if the file cannot be written.
+     */
+    private File write(String name, String content) throws IOException {
+        return Files.write(directory.resolve(name), content.getBytes(StandardCharsets.UTF_8)).toFile();
+    }
+}
@@ -0,0 +1,78 @@
+package com.intuit.hbm.converters.journal;
+
+import com.intuit.hbm.converters.model.ConversionOutcome;
+import com.intuit.hbm.converters.model.ConversionStage;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class EventJournalTest {
+
+    @Test
+    public void testEventsFromAllThreadsAreWrittenOnClose() throws IOException, InterruptedException {
+        Path journalFile = Files.createTempFile("journal", ".jsonl");
+        EventJournal eventJournal = new EventJournal(journalFile.toString(), false);
+
+        // record events from several threads, more than one buffer per thread
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int threadIndex = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 600; i++) {
+                    long start = eventJournal.begin();
+                    eventJournal.record("file" + threadIndex + "_" + i, ConversionStage.CONVERSION, start,
+                            i % 2 == 0 ? ConversionOutcome.SUCCESS : ConversionOutcome.FAILED);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        eventJournal.close();
+
+        List<String> lines = Files.readAllLines(journalFile, StandardCharsets.UTF_8);
+        Assert.assertEquals("Every event should be written as one line", 2400, lines.size());
+        Assert.assertTrue("Events should be JSON objects", lines.get(0).startsWith("{\"file\":\"file"));
+        Assert.assertEquals(1200, eventJournal.getFileCount(ConversionOutcome.SUCCESS));
+        Assert.assertEquals(1200, eventJournal.getFileCount(ConversionOutcome.FAILED));
+        Files.delete(journalFile);
+    }
+
+    @Test
+    public void testJournalWithoutFileOnlyCounts() {
+        EventJournal eventJournal = new EventJournal(null, true);
+        eventJournal.record("Paycheck.query.hbm.xml", ConversionStage.READ, eventJournal.begin(), ConversionOutcome.SUCCESS);
+        eventJournal.record("Paycheck.query.hbm.xml", ConversionStage.CONVERSION, eventJournal.begin(), ConversionOutcome.SUCCESS);
+        eventJournal.close();
+
+        Assert.assertEquals(1, eventJournal.getFileCount(ConversionOutcome.SUCCESS));
+        Assert.assertEquals(0, eventJournal.getFileCount(ConversionOutcome.FAILED));
+    }
+
+    @Test
+    public void testEventToJsonEscapesDetail() {
+        JournalEvent event = new JournalEvent("a\\b.hbm.xml", ConversionStage.WRITE, 1, 2, ConversionOutcome.FAILED, "bad \"quote\"");
+        Assert.assertEquals("{\"file\":\"a\\\\b.hbm.xml\",\"stage\":\"WRITE\",\"start\":1,\"micros\":2,\"outcome\":\"FAILED\",\"detail\":\"bad \\\"quote\\\"\"}",
+                event.toJson());
+    }
+
+    @Test
+    public void testEventIsParsedFromJson() {
+        JournalEvent event = new JournalEvent("a\\b \"c\".hbm.xml", ConversionStage.CONVERSION, 3, 4, ConversionOutcome.FAILED, "Timed out\n");
+        JournalEvent parsed = JournalEvent.fromJson(event.toJson());
+        Assert.assertEquals(event.getFileName(), parsed.getFileName());
+        Assert.assertEquals(ConversionStage.CONVERSION, parsed.getStage());
+        Assert.assertEquals(4, parsed.getDurationMicros());
+        Assert.assertEquals(event.getDetail(), parsed.getDetail());
+        Assert.assertNull(JournalEvent.fromJson("{\"file\":\"torn"));
+    }
+}
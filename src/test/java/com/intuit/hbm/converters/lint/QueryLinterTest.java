@@ -0,0 +1,80 @@
+package com.intuit.hbm.converters.lint;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class QueryLinterTest {
+
+    @Test
+    public void testRulesFlagQueries() {
+        Assert.assertNotNull(new SelectStarRule().check(hql("select * from Payroll p where p.id = :id")));
+        Assert.assertNotNull(new SelectStarRule().check(sql("select {pc.*} from PAYCHECK pc where pc.ID = :id", true)));
+        Assert.assertNull(new SelectStarRule().check(hql("select count(*) from Payroll p where p.id = :id")));
+
+        Assert.assertNotNull(new LiteralInsteadOfParameterRule().check(hql("from Payroll p where p.status = 'PAID'")));
+        Assert.assertNotNull(new LiteralInsteadOfParameterRule().check(hql("from Payroll p where p.active = 1")));
+        Assert.assertNull(new LiteralInsteadOfParameterRule().check(hql("from Payroll p where p.status = :status")));
+
+        Assert.assertNotNull(new MissingWhereRule().check(hql("from Payroll p order by p.id")));
+        Assert.assertNotNull(new MissingWhereRule().check(hql("update Payroll set status = :status")));
+        Assert.assertNull(new MissingWhereRule().check(hql("from Payroll p\n  WHERE p.id = :id")));
+
+        Assert.assertNotNull(new ImplicitCrossJoinRule().check(hql("select p from Payroll p, Company c where p.id = :id")));
+        Assert.assertNotNull(new ImplicitCrossJoinRule().check(hql("select p from Payroll p, Company as c order by p.id")));
+        Assert.assertNull(new ImplicitCrossJoinRule().check(hql("select p, c.name from Payroll p join p.company c where c.id in (:ids)")));
+    }
+
+    @Test
+    public void testCorrelatedCommaJoinsAreNotFlagged() {
+        ImplicitCrossJoinRule rule = new ImplicitCrossJoinRule();
+        Assert.assertNull(rule.check(hql("select p from Payroll p, Company c where p.company = c and c.id = :id")));
+        Assert.assertNull(rule.check(sql("select P.ID from PAYROLL P, COMPANY C where P.COMPANY_ID = C.ID", true)));
+        Assert.assertNull("a collection join is correlated through its path",
+                rule.check(hql("select i from Paycheck p, in(p.items) i where p.id = :id")));
+        Assert.assertNull(rule.check(hql("select p from Payroll p where p.id in (select c.id from Company c, Region r where c.region = r)")));
+        String message = rule.check(hql("select p from Payroll p, Company c, Region r where p.company = c order by p.id"));
+        Assert.assertTrue(message, message.startsWith("Joins r with a comma"));
+
+        Assert.assertNotNull(new UnmappedNativeQueryRule().check(sql("select ID, NAME from PAYROLL where ID = :id", false)));
+        Assert.assertNull(new UnmappedNativeQueryRule().check(sql("select ID, NAME from PAYROLL where ID = :id", true)));
+    }
+
+    @Test
+    public void testReportIsRankedBySeverity() throws IOException {
+        Path reportFile = Files.createTempFile("lint", ".json");
+        QueryLinter queryLinter = new QueryLinter(reportFile.toString());
+        Assert.assertTrue(queryLinter.isEnabled());
+        queryLinter.check(sql("select * from PAYROLL", false));
+        queryLinter.check(hql("select p from Payroll p, Company c where p.id = :id"));
+        queryLinter.close();
+
+        List<LintFinding> findings = queryLinter.getFindings();
+        Assert.assertEquals(4, findings.size());
+        Assert.assertEquals("ImplicitCrossJoin", findings.get(0).getRule());
+        Assert.assertEquals(LintSeverity.INFO, findings.get(3).getSeverity());
+        String report = new String(Files.readAllBytes(reportFile), StandardCharsets.UTF_8);
+        Assert.assertTrue(report.startsWith("{\n  \"findings\": [\n    {\"severity\": \"ERROR\", \"rule\": \"ImplicitCrossJoin\""));
+        Files.delete(reportFile);
+    }
+
+    @Test
+    public void testLinterWithoutReportIsDisabled() {
+        QueryLinter queryLinter = new QueryLinter(null);
+        Assert.assertFalse(queryLinter.isEnabled());
+        queryLinter.close();
+    }
+
+    private static LintQuery hql(String query) {
+        return new LintQuery("Payroll.hbm.xml", "query", query, false, true);
+    }
+
+    private static LintQuery sql(String query, boolean resultMapped) {
+        return new LintQuery("Payroll.hbm.xml", "nativeQuery", query, true, resultMapped);
+    }
+}
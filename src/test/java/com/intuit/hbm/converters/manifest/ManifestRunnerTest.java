@@ -0,0 +1,118 @@
+package com.intuit.hbm.converters.manifest;
+
+import com.intuit.hbm.converters.helper.ArgsParser;
+import com.intuit.hbm.converters.helper.FileHelper;
+import com.intuit.hbm.converters.model.InputModel;
+import com.intuit.hbm.converters.task.ConcurrentTaskExecutor;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static com.intuit.hbm.converters.TestFiles.read;
+import static com.intuit.hbm.converters.TestFiles.write;
+
+public class ManifestRunnerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private Path directory;
+
+    @Before
+    public void setUp() {
+        directory = folder.getRoot().toPath();
+    }
+
+    @Test
+    public void testEveryJobIsConvertedInOneRun() throws Exception {
+        Path payroll = createModule("payroll");
+        Path billing = createModule("billing dir");
+        Path manifest = directory.resolve("jobs.txt");
+        write(manifest, "# module jobs\n"
+                + payroll.resolve("src") + File.separator + " .query.hbm.xml " + payroll.resolve("dest") + File.separator + "\n"
+                + "\n"
+                + "\"" + billing.resolve("src") + File.separator + "\" .query.hbm.xml \"" + billing.resolve("dest") + File.separator
+                + "\" HBMToORM,HBMToJavaRegistry --normalize-queries\n"
+                + directory.resolve("missing") + " .query.hbm.xml " + directory.resolve("missing-dest") + "\n");
+
+        String[] args = {"--manifest=" + manifest};
+        InputModel inputModel = new ArgsParser().parseInputArgs(args);
+        Assert.assertNull(inputModel.getSrcDirectoryPath());
+        ManifestRunner runner = new ManifestRunner(inputModel, args, FileHelper.getInstance(), new ConcurrentTaskExecutor());
+        Assert.assertFalse("the job with a missing source fails", runner.run());
+
+        String payrollOrm = read(payroll.resolve("dest").resolve("Paycheck.xml"));
+        Assert.assertTrue(payrollOrm.contains("\t\t\tfrom EntityA as entity1"));
+        Assert.assertFalse(Files.exists(payroll.resolve("dest").resolve("PaycheckNamedQueries.java")));
+        // the options of a job apply to that job only
+        Assert.assertTrue(read(billing.resolve("dest").resolve("Paycheck.xml")).contains("Select entity1 from EntityA as entity1 inner join"));
+        Assert.assertTrue(Files.exists(billing.resolve("dest").resolve("PaycheckNamedQueries.java")));
+    }
+
+    @Test
+    public void testJobsWritingTheSameFilesAreRejected() throws Exception {
+        Path payroll = createModule("payroll");
+        Path billing = createModule("billing");
+        Path manifest = directory.resolve("jobs.txt");
+        String payrollJob = payroll.resolve("src") + File.separator + " .query.hbm.xml " + payroll.resolve("dest") + File.separator;
+        String billingJob = billing.resolve("src") + File.separator + " .query.hbm.xml " + billing.resolve("dest") + File.separator;
+        Path report = directory.resolve("report.json");
+        write(manifest, payrollJob + " --report=" + report + "\n"
+                + billingJob.replace(billing.resolve("dest").toString(), payroll.resolve("dest") + File.separator + ".") + "\n"
+                + billingJob + " --report=" + directory.resolve(".").resolve("report.json") + "\n");
+
+        String[] args = {"--manifest=" + manifest};
+        ManifestRunner runner = new ManifestRunner(new ArgsParser().parseInputArgs(args), args, FileHelper.getInstance(),
+                new ConcurrentTaskExecutor());
+        Assert.assertFalse("the jobs writing to the destination or report of the first job fail", runner.run());
+        Assert.assertTrue(Files.exists(payroll.resolve("dest").resolve("Paycheck.xml")));
+        Assert.assertFalse(Files.exists(billing.resolve("dest").resolve("Paycheck.xml")));
+        Assert.assertTrue(Files.exists(report));
+
+        // a file written by the run is given per job, not on the command line
+        try {
+            new ArgsParser().parseInputArgs(new String[]{"--manifest=" + manifest, "--journal=" + directory.resolve("journal.json")});
+            Assert.fail("a file option on the command line of a manifest run should be rejected");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("Option --journal writes a file per job, it is given with the jobs of the manifest.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testManifestLinesAreSplitIntoArguments() throws Exception {
+        Assert.assertArrayEquals(new String[]{"a b", "ext", "", "--report=c d.txt"},
+                BatchManifest.tokenize("\"a b\"  ext \"\" --report=\"c d.txt\"", 1));
+        try {
+            BatchManifest.tokenize("\"a b ext", 3);
+            Assert.fail("a quote which is not closed should be rejected");
+        } catch (RuntimeException e) {
+            Assert.assertEquals("Malformed manifest: quote not closed on line 3", e.getMessage());
+        }
+        try {
+            new ArgsParser().parseJobArgs(new String[]{"--manifest=jobs.txt"}, new String[]{"--manifest=other.txt"});
+            Assert.fail("a job listing another manifest should be rejected");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("Option --manifest is not allowed in a manifest job.", e.getMessage());
+        }
+    }
+
+    /**
+     * Creates a module with the sample file in its source directory and an empty destination directory.
+     *
+     * @param name The name of the module directory.
+     * @return The module directory.
+     */
+    private Path createModule(String name) throws IOException {
+        Path module = Files.createDirectory(directory.resolve(name));
+        Files.createDirectory(module.resolve("src"));
+        Files.createDirectory(module.resolve("dest"));
+        Files.copy(Paths.get("Paycheck.query.hbm.xml"), module.resolve("src").resolve("Paycheck.query.hbm.xml"));
+        return module;
+    }
+}
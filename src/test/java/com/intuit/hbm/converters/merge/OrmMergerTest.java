@@ -0,0 +1,212 @@
+package com.intuit.hbm.converters.merge;
+
+import com.intuit.hbm.converters.common.ConversionContext;
+import com.intuit.hbm.converters.model.ConverterType;
+import com.intuit.hbm.converters.model.InputModel;
+import com.intuit.hbm.converters.model.WriteMode;
+import com.intuit.hbm.converters.task.ConversionTaskBuilder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static com.intuit.hbm.converters.TestFiles.read;
+
+public class OrmMergerTest {
+    private static final String HAND_WRITTEN_HEAD = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<!-- <named-query name=\"InComment\"> is not an element -->\n"
+            + "<entity-mappings xmlns=\"http://xmlns.jcp.org/xml/ns/persistence/orm\" version=\"2.2\">\n"
+            + "    <package>com.intuit.sample</package>\n"
+            + "    <named-query name='HandWritten'><query><![CDATA[select '</named-query>' from Dual]]></query></named-query>\n";
+    private static final String STALE_QUERY = "    <named-query name=\"Alpha\"><query>from Stale</query></named-query>\n";
+    private static final String HAND_WRITTEN_TAIL = "    <entity class=\"com.intuit.sample.Item\" access=\"FIELD\">\n"
+            + "        <table name=\"ITEM\"/>\n"
+            + "    </entity>\n"
+            + "</entity-mappings>\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private Path directory;
+    private Path src;
+    private Path ormFile;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = folder.getRoot().toPath();
+        src = Files.createDirectory(directory.resolve("src"));
+        ormFile = directory.resolve("orm.xml");
+        Files.write(ormFile, (HAND_WRITTEN_HEAD + STALE_QUERY + HAND_WRITTEN_TAIL).getBytes(StandardCharsets.UTF_8));
+        writeHbm("A.query.hbm.xml", "<query name=\"Alpha\">from Alpha</query>");
+        writeHbm("B.query.hbm.xml", "<query name=\"Beta\">from Beta</query>",
+                "<sql-query name=\"Gamma\"><return-scalar column=\"TOTAL\" type=\"long\"/>select count(*) as TOTAL from GAMMA</sql-query>");
+    }
+
+    @Test
+    public void testOnlyTheElementsOfChangedFilesAreMerged() throws Exception {
+        Assert.assertEquals(2, merge());
+        String merged = read(ormFile);
+        Assert.assertTrue(merged.startsWith(HAND_WRITTEN_HEAD));
+        Assert.assertTrue(merged.endsWith(HAND_WRITTEN_TAIL));
+        Assert.assertFalse("the converted query takes over the query of the same name", merged.contains("from Stale"));
+        Assert.assertTrue(merged.contains("from Alpha"));
+        Assert.assertTrue("a new element follows the elements of its kind", merged.indexOf("\"Beta\"") > merged.indexOf("\"Alpha\""));
+        Assert.assertTrue("a new element is ordered as in the schema",
+                merged.indexOf("<named-native-query name=\"Gamma\"") < merged.indexOf("<sql-result-set-mapping name=\"GammaMapping\""));
+        Assert.assertTrue(merged.indexOf("<sql-result-set-mapping") < merged.indexOf("<entity "));
+        Assert.assertTrue(Files.exists(directory.resolve("orm.xml" + OrmMerger.INDEX_SUFFIX)));
+
+        // nothing changed: no file is converted and the orm file is kept
+        long modified = Files.getLastModifiedTime(ormFile).toMillis();
+        Assert.assertEquals(0, merge());
+        Assert.assertEquals(merged, read(ormFile));
+        Assert.assertEquals(modified, Files.getLastModifiedTime(ormFile).toMillis());
+
+        // the text of the orm file around the changed elements is kept as it is
+        String handEdited = merged.replace(HAND_WRITTEN_TAIL, "    <!-- kept -->\n" + HAND_WRITTEN_TAIL);
+        Files.write(ormFile, handEdited.getBytes(StandardCharsets.UTF_8));
+        Files.delete(src.resolve("A.query.hbm.xml"));
+        writeHbm("B.query.hbm.xml", "<query name=\"Beta\">from Beta where id = :id</query>");
+        Assert.assertEquals(1, merge());
+
+        String expected = handEdited;
+        OrmDocument document = OrmDocument.parse(handEdited);
+        for (OrmDocument.Element element : document.getElements()) {
+            String text = element.getText(handEdited);
+            if ("Alpha".equals(element.getName()) || "Gamma".equals(element.getName()) || "GammaMapping".equals(element.getName())) {
+                expected = expected.replace("\n    " + text, "");
+            } else if ("Beta".equals(element.getName())) {
+                expected = expected.replace(text, text.replace("from Beta", "from Beta where id = :id"));
+            }
+        }
+        Assert.assertEquals(expected, read(ormFile));
+    }
+
+    @Test
+    public void testChangedOptionsConvertEveryFileAgain() throws Exception {
+        Assert.assertEquals(2, merge());
+        Assert.assertEquals(0, merge());
+        writeHbm("A.query.hbm.xml", "<query name=\"Alpha\">from   Alpha</query>");
+        Files.setLastModifiedTime(src.resolve("A.query.hbm.xml"), Files.getLastModifiedTime(src.resolve("B.query.hbm.xml")));
+        Assert.assertEquals("the options changing the output are recorded by the index", 2, merge(true));
+        Assert.assertTrue(read(ormFile).contains("<query><![CDATA[from Alpha]]></query>"));
+        Assert.assertEquals(0, merge(true));
+    }
+
+    @Test
+    public void testResumedRunMergesTheFilesOfARunKilledBeforeItsMerge() throws Exception {
+        Path checkpointFile = directory.resolve("checkpoint.txt");
+        String original = read(ormFile);
+        // the run is killed once its files are converted, before the context merges them
+        ConversionContext killedRun = newContext(false, checkpointFile, false);
+        Assert.assertEquals(2, convert(killedRun));
+        Assert.assertEquals(original, read(ormFile));
+        Assert.assertEquals("the files are not completed before they are merged", 0, Files.size(checkpointFile));
+
+        ConversionContext resumedRun = newContext(false, checkpointFile, true);
+        Assert.assertEquals(2, convert(resumedRun));
+        resumedRun.close();
+        Assert.assertTrue(read(ormFile).contains("from Beta"));
+        Assert.assertEquals(2, Files.readAllLines(checkpointFile, StandardCharsets.UTF_8).size());
+
+        ConversionContext nextRun = newContext(false, checkpointFile, true);
+        Assert.assertEquals(0, convert(nextRun));
+        nextRun.close();
+    }
+
+    @Test
+    public void testElementsAreLocatedInTheText() {
+        String text = "<?xml version=\"1.0\"?>\n<!DOCTYPE entity-mappings [<!ENTITY x \"<named-query>\">]>\n"
+                + "<orm:entity-mappings xmlns:orm=\"urn:orm\">"
+                + "<orm:named-query name=\"a>b\" ><query><![CDATA[</orm:named-query>]]></query></orm:named-query>"
+                + "<!-- <entity> --><sql-result-set-mapping name='m'/>"
+                + "</orm:entity-mappings>";
+        OrmDocument document = OrmDocument.parse(text);
+        Assert.assertEquals(2, document.getElements().size());
+        OrmDocument.Element query = document.getElements().get(0);
+        Assert.assertEquals("named-query", query.getTag());
+        Assert.assertEquals("a>b", query.getName());
+        Assert.assertTrue(query.getText(text).endsWith("]]></query></orm:named-query>"));
+        Assert.assertEquals("<sql-result-set-mapping name='m'/>", document.getElements().get(1).getText(text));
+        Assert.assertEquals(text.indexOf("<orm:named-query"), document.getRootStartEnd());
+
+        try {
+            OrmDocument.parse("<entity-mappings><named-query name=\"a\">");
+            Assert.fail("an element which is not closed should be rejected");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getMessage().startsWith("Malformed orm file"));
+        }
+    }
+
+    /**
+     * Merges the source files into the orm file in a new run.
+     *
+     * @return The number of tasks of the run, which convert the files which changed.
+     */
+    private int merge() throws Exception {
+        return merge(false);
+    }
+
+    /**
+     * Merges the source files into the orm file in a new run.
+     *
+     * @param normalizeQueries Whether the run normalizes the query texts.
+     * @return The number of tasks of the run, which convert the files which changed.
+     */
+    private int merge(boolean normalizeQueries) throws Exception {
+        ConversionContext context = newContext(normalizeQueries, null, false);
+        int taskCount = convert(context);
+        context.close();
+        return taskCount;
+    }
+
+    /**
+     * Creates the context of a run merging the source files into the orm file.
+     *
+     * @param normalizeQueries Whether the run normalizes the query texts.
+     * @param checkpointFile   The checkpoint file of the run, may be null.
+     * @param resume           Whether the run resumes from the checkpoint file.
+     * @return The context of the run.
+     */
+    private ConversionContext newContext(boolean normalizeQueries, Path checkpointFile, boolean resume) {
+        InputModel inputModel = new InputModel(src + File.separator, ".query.hbm.xml", ormFile.toString(), ConverterType.HBMToORM);
+        inputModel.setWriteMode(WriteMode.MERGE);
+        inputModel.setNormalizeQueries(normalizeQueries);
+        inputModel.setBatchMaxFiles(1);
+        inputModel.setCheckpointPath(checkpointFile == null ? null : checkpointFile.toString());
+        inputModel.setResume(resume);
+        return new ConversionContext(inputModel);
+    }
+
+    /**
+     * Converts the source files which have to be merged, without closing the run.
+     *
+     * @param context The context of the run.
+     * @return The number of tasks of the run, which convert the files which changed.
+     */
+    private int convert(ConversionContext context) throws Exception {
+        File[] files = src.toFile().listFiles();
+        List<Callable<Boolean>> tasks = new ConversionTaskBuilder(context).buildTasks(files, ormFile.toString(), ConverterType.HBMToORM);
+        for (Callable<Boolean> task : tasks) {
+            Assert.assertTrue(task.call());
+        }
+        return tasks.size();
+    }
+
+    private void writeHbm(String fileName, String... queries) throws IOException {
+        StringBuilder hbm = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<hibernate-mapping package=\"com.intuit.sample\">\n");
+        for (String query : queries) {
+            hbm.append("    ").append(query).append('\n');
+        }
+        hbm.append("</hibernate-mapping>\n");
+        Files.write(src.resolve(fileName), hbm.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
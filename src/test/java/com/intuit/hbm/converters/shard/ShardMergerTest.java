@@ -0,0 +1,100 @@
+package com.intuit.hbm.converters.shard;
+
+import com.intuit.hbm.converters.common.ConversionContext;
+import com.intuit.hbm.converters.helper.FileHelper;
+import com.intuit.hbm.converters.model.ConversionIssue;
+import com.intuit.hbm.converters.model.ConversionOutcome;
+import com.intuit.hbm.converters.model.ConverterType;
+import com.intuit.hbm.converters.model.InputModel;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+public class ShardMergerTest {
+    private Path srcDirectory;
+    private Path destDirectory;
+    private ConversionContext context;
+
+    @Before
+    public void setup() throws IOException {
+        srcDirectory = Files.createTempDirectory("hbm");
+        destDirectory = Files.createTempDirectory("orm");
+        for (int i = 0; i < 20; i++) {
+            Files.createFile(srcDirectory.resolve("Paycheck" + i + ".query.hbm.xml"));
+        }
+        context = new ConversionContext(new InputModel(srcDirectory + "/", ".query.hbm.xml", destDirectory + "/", ConverterType.HBMToORM));
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        for (Path directory : new Path[]{srcDirectory, destDirectory}) {
+            for (File file : directory.toFile().listFiles()) {
+                Files.delete(file.toPath());
+            }
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void testCompleteShardsAreMerged() {
+        writeShardReports(2, null);
+        Assert.assertTrue(new ShardMerger(FileHelper.getInstance(), context).merge());
+        Assert.assertTrue(context.getConversionReport().getIssues().isEmpty());
+    }
+
+    @Test
+    public void testUncoveredFilesAndMissingShardsAreReported() {
+        writeShardReports(3, "Paycheck7.query.hbm.xml");
+        new File(destDirectory.toFile(), "shard-3-of-3.tsv").delete();
+
+        Assert.assertFalse(new ShardMerger(FileHelper.getInstance(), context).merge());
+        List<ConversionIssue> issues = context.getConversionReport().getIssues();
+        Assert.assertTrue(issues.stream().anyMatch(issue -> "Shard report not found".equals(issue.getReason())));
+        Assert.assertTrue(issues.stream().anyMatch(issue -> "Paycheck7.query.hbm.xml".equals(issue.getSourceFile())
+                && "Not covered by any shard".equals(issue.getReason())));
+    }
+
+    @Test
+    public void testMalformedReportLinesAreReported() throws IOException {
+        writeShardReports(2, null);
+        Path shardReport = destDirectory.resolve("shard-1-of-2.tsv");
+        int lineCount = Files.readAllLines(shardReport).size();
+        Files.write(shardReport, "\nPaycheck0.query.hbm.xml\tDONE\nPaycheck0.query.hbm.xml\n".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+        Files.write(destDirectory.resolve("shard-9-of-9.tsv"), "shard\t9\tx\n".getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertFalse(new ShardMerger(FileHelper.getInstance(), context).merge());
+        List<ConversionIssue> issues = context.getConversionReport().getIssues();
+        for (int lineNumber = lineCount + 1; lineNumber <= lineCount + 3; lineNumber++) {
+            String reason = "Malformed shard report line " + lineNumber;
+            Assert.assertTrue(reason, issues.stream().anyMatch(issue -> reason.equals(issue.getReason())));
+        }
+        Assert.assertTrue(issues.stream().anyMatch(issue -> "shard-9-of-9.tsv".equals(issue.getName())
+                && issue.getReason().startsWith("Malformed shard report header")));
+        Assert.assertEquals(4, issues.size());
+    }
+
+    /**
+     * Writes the reports of every shard as the nodes of a run would.
+     */
+    private void writeShardReports(int shardCount, String skippedFile) {
+        for (int index = 1; index <= shardCount; index++) {
+            ShardReport shardReport = new ShardReport(new ShardSpec(index, shardCount), srcDirectory + "/", destDirectory + "/");
+            for (File file : srcDirectory.toFile().listFiles()) {
+                if (shardReport.isAssigned(file) && !file.getName().equals(skippedFile)) {
+                    shardReport.record(file, ConversionOutcome.SUCCESS);
+                }
+            }
+            shardReport.close();
+        }
+    }
+}
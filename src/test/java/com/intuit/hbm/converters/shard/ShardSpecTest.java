@@ -0,0 +1,48 @@
+package com.intuit.hbm.converters.shard;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+
+public class ShardSpecTest {
+
+    @Test
+    public void testEveryFileBelongsToExactlyOneShard() {
+        ShardSpec[] shards = {ShardSpec.parse("1/3"), ShardSpec.parse("2/3"), ShardSpec.parse(" 3 / 3 ")};
+        int[] shardSizes = new int[3];
+        for (int i = 0; i < 3000; i++) {
+            String relativePath = "payroll/Paycheck" + i + ".query.hbm.xml";
+            int covering = 0;
+            for (int s = 0; s < shards.length; s++) {
+                if (shards[s].contains(relativePath)) {
+                    covering++;
+                    shardSizes[s]++;
+                }
+            }
+            Assert.assertEquals(1, covering);
+        }
+        for (int shardSize : shardSizes) {
+            Assert.assertTrue("shards should be balanced, was " + shardSize, shardSize > 900 && shardSize < 1100);
+        }
+        // the partition is stable across runs and nodes
+        Assert.assertEquals(ShardSpec.shardOf("Paycheck.query.hbm.xml", 4), ShardSpec.shardOf("Paycheck.query.hbm.xml", 4));
+    }
+
+    @Test
+    public void testRelativePath() {
+        Assert.assertEquals("payroll/Paycheck.query.hbm.xml", ShardSpec.relativePath(new File("/tmp/hbm/payroll/Paycheck.query.hbm.xml"), "/tmp/hbm/"));
+        Assert.assertEquals("Paycheck.query.hbm.xml", ShardSpec.relativePath(new File("/tmp/hbm/Paycheck.query.hbm.xml"), "/tmp/hbm/Paycheck.query.hbm.xml"));
+        Assert.assertEquals("shard-2-of-4.tsv", ShardSpec.parse("2/4").getReportFileName());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShardOutOfRange() {
+        ShardSpec.parse("5/4");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedShard() {
+        ShardSpec.parse("2of4");
+    }
+}
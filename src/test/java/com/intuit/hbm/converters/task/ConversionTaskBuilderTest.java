@@ -1,6 +1,9 @@
 package com.intuit.hbm.converters.task;
 
+import com.intuit.hbm.converters.common.ConversionContext;
 import com.intuit.hbm.converters.converter.ConverterFactory;
+import com.intuit.hbm.converters.model.ConversionOutcome;
+import com.intuit.hbm.converters.model.InputModel;
 import com.intuit.hbm.converters.model.ConverterType;
 import com.intuit.hbm.converters.service.ConverterService;
 import com.intuit.hbm.converters.task.ConversionTaskBuilder;
@@ -9,6 +12,9 @@ import org.junit.Test;
 import org.mockito.Mockito;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.concurrent.Callable;
 
@@ -32,4 +38,34 @@ public class ConversionTaskBuilderTest {
         Boolean result = task.call();
         Assert.assertTrue(result);
     }
+
+    @Test
+    public void testSmallFilesAreConvertedInBatches() throws Exception {
+        Path srcDirectory = Files.createTempDirectory("hbm");
+        Path destDirectory = Files.createTempDirectory("orm");
+        File[] files = new File[5];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = Files.copy(Paths.get("Paycheck.query.hbm.xml"), srcDirectory.resolve("Paycheck" + i + ".query.hbm.xml")).toFile();
+        }
+        InputModel inputModel = new InputModel(srcDirectory + "/", ".query.hbm.xml", destDirectory + "/", ConverterType.HBMToORM);
+        inputModel.setBatchMaxFiles(2);
+        ConversionContext context = new ConversionContext(inputModel);
+
+        List<Callable<Boolean>> tasks = new ConversionTaskBuilder(context).buildTasks(files, destDirectory + "/", ConverterType.HBMToORM);
+        Assert.assertEquals("two batches of two files and a single file", 3, tasks.size());
+        for (Callable<Boolean> task : tasks) {
+            Assert.assertTrue(task.call());
+        }
+
+        // every file of a batch is converted and journaled on its own
+        Assert.assertEquals(5, destDirectory.toFile().listFiles().length);
+        Assert.assertEquals(5, context.getEventJournal().getFileCount(ConversionOutcome.SUCCESS));
+        context.close();
+        for (Path directory : new Path[]{srcDirectory, destDirectory}) {
+            for (File file : directory.toFile().listFiles()) {
+                Files.delete(file.toPath());
+            }
+            Files.delete(directory);
+        }
+    }
 }
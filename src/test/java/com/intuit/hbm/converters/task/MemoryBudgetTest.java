@@ -0,0 +1,65 @@
+package com.intuit.hbm.converters.task;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MemoryBudgetTest {
+
+    @Test
+    public void testCostIsEstimatedFromFileSize() {
+        MemoryBudget memoryBudget = new MemoryBudget(64 << 20, 8);
+        File file = new File("Paycheck.query.hbm.xml");
+        Assert.assertEquals("small files cost the minimum", 256 * 1024,
+                memoryBudget.estimate(new ConversionTask(file, () -> true)));
+        Assert.assertEquals(256 * 1024, memoryBudget.estimate(() -> true));
+        Assert.assertEquals(file.length() * 1000, new MemoryBudget(64 << 20, 1000).estimate(new ConversionTask(file, () -> true)));
+    }
+
+    @Test
+    public void testInFlightCostStaysUnderBudget() throws InterruptedException {
+        // every task costs a third of the budget, so at most three run at the same time
+        MemoryBudget memoryBudget = new MemoryBudget(3 * 256 * 1024, 1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            tasks.add(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(50);
+                running.decrementAndGet();
+                return true;
+            });
+        }
+        new ConcurrentTaskExecutor(memoryBudget).executeTasks(tasks);
+
+        Assert.assertTrue(maxRunning.get() <= 3);
+        Assert.assertTrue(memoryBudget.getPeakInFlightBytes() <= 3 * 256 * 1024);
+        Assert.assertEquals(0, memoryBudget.getInFlightBytes());
+    }
+
+    @Test
+    public void testTaskOverBudgetRunsAlone() throws InterruptedException {
+        MemoryBudget memoryBudget = new MemoryBudget(1024, 1);
+        memoryBudget.acquire(4096);
+        Thread small = new Thread(() -> {
+            try {
+                memoryBudget.acquire(512);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        small.start();
+        small.join(200);
+        Assert.assertTrue("the small task should wait for the big one", small.isAlive());
+        memoryBudget.release(4096);
+        small.join(1000);
+        Assert.assertFalse(small.isAlive());
+        Assert.assertEquals(1, memoryBudget.getDelayedTaskCount());
+    }
+}
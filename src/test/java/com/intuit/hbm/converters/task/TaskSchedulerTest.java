@@ -0,0 +1,82 @@
+package com.intuit.hbm.converters.task;
+
+import com.intuit.hbm.converters.journal.JournalEvent;
+import com.intuit.hbm.converters.model.ConversionOutcome;
+import com.intuit.hbm.converters.model.ConversionStage;
+import com.intuit.hbm.converters.model.SchedulingPolicy;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+public class TaskSchedulerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private List<Callable<Boolean>> tasks;
+
+    @Before
+    public void setup() throws IOException {
+        tasks = Arrays.asList(task("Small", 1_000), task("Huge", 1_000_000), task("Medium", 100_000), task("Tiny", 10));
+    }
+
+    @Test
+    public void testLargestFilesStartFirst() {
+        List<Callable<Boolean>> ordered = new TaskScheduler(SchedulingPolicy.LARGEST_FIRST, Collections.emptyMap(), 2).schedule(tasks);
+        Assert.assertEquals(Arrays.asList("Huge", "Medium", "Small", "Tiny"), names(ordered));
+    }
+
+    @Test
+    public void testInputOrderIsKept() {
+        List<Callable<Boolean>> ordered = new TaskScheduler(SchedulingPolicy.INPUT_ORDER, Collections.emptyMap(), 2).schedule(tasks);
+        Assert.assertEquals(Arrays.asList("Small", "Huge", "Medium", "Tiny"), names(ordered));
+    }
+
+    @Test
+    public void testHistoryOverridesFileSize() throws IOException {
+        // in the previous run the tiny file took longest
+        File journal = folder.newFile("journal.jsonl");
+        String tinyPath = ((ConversionTask) tasks.get(3)).getFile().getPath();
+        Files.write(journal.toPath(), Arrays.asList(
+                new JournalEvent(tinyPath, ConversionStage.READ, 0, 9_000_000, ConversionOutcome.SUCCESS, null).toJson(),
+                new JournalEvent(tinyPath, ConversionStage.CONVERSION, 0, 10_000_000, ConversionOutcome.SUCCESS, null).toJson(),
+                "{\"file\":\"torn"), StandardCharsets.UTF_8);
+        Map<String, Long> history = TaskScheduler.readHistory(journal.getPath());
+        Assert.assertEquals(1, history.size());
+
+        TaskScheduler scheduler = new TaskScheduler(SchedulingPolicy.LARGEST_FIRST, history, 2);
+        List<Callable<Boolean>> ordered = scheduler.schedule(tasks);
+        Assert.assertEquals("Tiny", names(ordered).get(0));
+        Assert.assertEquals(10_000, scheduler.getPredictedMillis());
+        Assert.assertTrue(TaskScheduler.readHistory(new File(folder.getRoot(), "missing.jsonl").getPath()).isEmpty());
+    }
+
+    @Test
+    public void testPredictionOfLargestFirstIsShorter() {
+        // the long task started last keeps one worker busy while the other is idle
+        List<Long> inputOrder = Arrays.asList(2L, 2L, 2L, 2L, 8L);
+        List<Long> largestFirst = Arrays.asList(8L, 2L, 2L, 2L, 2L);
+        Assert.assertEquals(12, TaskScheduler.predictMicros(inputOrder, 2));
+        Assert.assertEquals(8, TaskScheduler.predictMicros(largestFirst, 2));
+    }
+
+    private ConversionTask task(String name, int size) throws IOException {
+        File file = folder.newFile(name + ".hbm.xml");
+        Files.write(file.toPath(), new byte[size]);
+        return new ConversionTask(file, () -> true);
+    }
+
+    private static List<String> names(List<Callable<Boolean>> tasks) {
+        return Arrays.asList(tasks.stream().map(task -> ((ConversionTask) task).getFile().getName().split("\\.")[0]).toArray(String[]::new));
+    }
+}
@@ -0,0 +1,168 @@
+package com.intuit.hbm.converters.task;
+
+import com.intuit.hbm.converters.model.ConversionStage;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TaskTimeoutTest {
+    private final File file = new File("Paycheck.query.hbm.xml");
+
+    @Test
+    public void testStuckTaskIsTimedOutWithItsStage() throws InterruptedException {
+        Map<ConversionTask, ConversionStage> timedOut = new ConcurrentHashMap<>();
+        AtomicInteger interrupted = new AtomicInteger();
+        ConversionTask stuck = new ConversionTask(file, () -> {
+            ConversionTask.enterStage(ConversionStage.READ);
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                interrupted.incrementAndGet();
+            }
+            // the next stage is not entered once the task timed out
+            ConversionTask.enterStage(ConversionStage.CONVERT);
+            return true;
+        });
+        stuck.setTimeoutHandler(task -> timedOut.put(task, task.getStage()));
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        tasks.add(stuck);
+        for (int i = 0; i < 4; i++) {
+            tasks.add(new ConversionTask(file, () -> true));
+        }
+
+        long start = System.nanoTime();
+        new ConcurrentTaskExecutor(MemoryBudget.defaultBudget(), 200, 0).executeTasks(tasks);
+
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 10_000);
+        Assert.assertEquals(ConversionTask.State.TIMED_OUT, stuck.getState());
+        Assert.assertEquals(ConversionStage.READ, timedOut.get(stuck));
+        Assert.assertFalse("a timed-out task cannot complete anymore", stuck.timeOut());
+        for (Callable<Boolean> task : tasks.subList(1, tasks.size())) {
+            Assert.assertEquals(ConversionTask.State.DONE, ((ConversionTask) task).getState());
+        }
+    }
+
+    @Test
+    public void testBatchStopsAtTheFileWhichTimedOut() throws InterruptedException {
+        List<File> converted = new ArrayList<>();
+        List<File> notStarted = new ArrayList<>();
+        List<File> files = Arrays.asList(new File("A.hbm.xml"), new File("B.hbm.xml"), new File("C.hbm.xml"));
+        ConversionTask batch = new ConversionTask(files, file -> {
+            ConversionTask.enterStage(ConversionStage.READ);
+            if (file.getName().startsWith("B")) {
+                Thread.sleep(60_000);
+            }
+            converted.add(file);
+            return ConversionTask.complete();
+        });
+        batch.setTimeoutHandler(task -> notStarted.addAll(task.getRemainingFiles()));
+
+        new ConcurrentTaskExecutor(MemoryBudget.defaultBudget(), 200, 0).executeTasks(Collections.singletonList(batch));
+
+        Assert.assertEquals(Collections.singletonList(files.get(0)), converted);
+        Assert.assertEquals("B.hbm.xml", batch.getFile().getName());
+        Assert.assertEquals(Collections.singletonList(files.get(2)), notStarted);
+        Assert.assertEquals(1, batch.getSucceededCount());
+    }
+
+    @Test
+    public void testTaskIgnoringInterruptsDoesNotStallTheRun() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        // more uninterruptible tasks than workers, the pool replaces the workers they block
+        int threadCount = Runtime.getRuntime().availableProcessors() * 2;
+        for (int i = 0; i < threadCount; i++) {
+            tasks.add(new ConversionTask(file, () -> {
+                while (release.getCount() > 0) {
+                    Thread.interrupted();
+                }
+                return true;
+            }));
+        }
+        ConversionTask last = new ConversionTask(file, () -> true);
+        tasks.add(last);
+
+        new ConcurrentTaskExecutor(MemoryBudget.defaultBudget(), 200, 0).executeTasks(tasks);
+        release.countDown();
+
+        Assert.assertEquals(ConversionTask.State.TIMED_OUT, ((ConversionTask) tasks.get(0)).getState());
+        Assert.assertEquals(ConversionTask.State.DONE, last.getState());
+    }
+
+    @Test
+    public void testTaskIgnoringInterruptsKeepsItsBudgetUntilItReturns() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch returned = new CountDownLatch(1);
+        MemoryBudget memoryBudget = new MemoryBudget(Long.MAX_VALUE, 1) {
+            @Override
+            public long estimate(Callable<Boolean> task) {
+                return 1;
+            }
+        };
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        ConversionTask stuck = new ConversionTask(file, () -> {
+            try {
+                while (release.getCount() > 0) {
+                    Thread.interrupted();
+                }
+                return true;
+            } finally {
+                returned.countDown();
+            }
+        });
+        tasks.add(stuck);
+        for (int i = 0; i < 4; i++) {
+            tasks.add(new ConversionTask(file, () -> true));
+        }
+
+        new ConcurrentTaskExecutor(memoryBudget, 200, 0).executeTasks(tasks);
+
+        Assert.assertEquals(ConversionTask.State.TIMED_OUT, stuck.getState());
+        Assert.assertEquals("the stuck worker still holds the memory of its file", 1, memoryBudget.getInFlightBytes());
+        release.countDown();
+        Assert.assertTrue(returned.await(10, TimeUnit.SECONDS));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (memoryBudget.getInFlightBytes() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(0, memoryBudget.getInFlightBytes());
+    }
+
+    @Test
+    public void testRunTimeoutTimesOutRemainingTasks() throws InterruptedException {
+        AtomicInteger notStarted = new AtomicInteger();
+        List<ConversionTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ConversionTask task = new ConversionTask(file, () -> {
+                Thread.sleep(100);
+                return true;
+            });
+            task.setTimeoutHandler(timedOutTask -> {
+                if (timedOutTask.getStartNanos() == 0) {
+                    notStarted.incrementAndGet();
+                }
+            });
+            tasks.add(task);
+        }
+
+        long start = System.nanoTime();
+        new ConcurrentTaskExecutor(MemoryBudget.defaultBudget(), 0, 300).executeTasks(new ArrayList<>(tasks));
+
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000);
+        Assert.assertTrue("tasks should not be started after the run timeout", notStarted.get() > 0);
+        for (ConversionTask task : tasks) {
+            Assert.assertTrue(task.getState() == ConversionTask.State.DONE || task.getState() == ConversionTask.State.TIMED_OUT);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.intuit.hbm.converters.validation;
+
+import com.intuit.hbm.converters.common.ConversionContext;
+import com.intuit.hbm.converters.converter.HbmToJpaConverter;
+import com.intuit.hbm.converters.helper.FileHelper;
+import com.intuit.hbm.converters.model.ConversionIssue;
+import com.intuit.hbm.converters.model.ConverterType;
+import com.intuit.hbm.converters.model.InputModel;
+import org.dom4j.Document;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+
+public class OrmSchemaValidatorTest {
+
+    @Test
+    public void testConvertedFilesAreValid() {
+        InputModel inputModel = new InputModel(null, null, null, ConverterType.HBMToORM);
+        inputModel.setConvertEntities(true);
+        HbmToJpaConverter converter = new HbmToJpaConverter(FileHelper.getInstance(), new ConversionContext(inputModel));
+        OrmSchemaValidator validator = new OrmSchemaValidator(true);
+
+        for (String hbmFile : new String[]{"Paycheck.query.hbm.xml", "src/test/resources/hbm/Department.hbm.xml"}) {
+            Document hbmDoc = FileHelper.getInstance().readInputFile(new File(hbmFile));
+            String content = converter.convertFile(hbmDoc, "orm", "/dummy/path").toString();
+            Assert.assertEquals(hbmFile + " should convert to a valid ORM file", "[]", validator.validate(content, hbmFile).toString());
+        }
+    }
+
+    @Test
+    public void testSchemaViolationsAreReported() {
+        String content = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<entity-mappings xmlns=\"http://xmlns.jcp.org/xml/ns/persistence/orm\" version=\"2.2\">\n"
+                + "  <named-query><query>from Payroll</query></named-query>\n"
+                + "</entity-mappings>\n";
+        List<ConversionIssue> issues = new OrmSchemaValidator(true).validate(content, "Payroll.hbm.xml");
+        Assert.assertEquals(1, issues.size());
+        Assert.assertEquals("line 3, column 16", issues.get(0).getName());
+        Assert.assertEquals("Payroll.hbm.xml", issues.get(0).getSourceFile());
+
+        List<ConversionIssue> notWellFormed = new OrmSchemaValidator(true).validate("<entity-mappings>", "Payroll.hbm.xml");
+        // the parse error ends the validation and is reported last
+        Assert.assertTrue(notWellFormed.get(notWellFormed.size() - 1).getReason().contains("must start and end within the same entity"));
+    }
+
+    @Test
+    public void testDisabledValidatorAcceptsEverything() {
+        OrmSchemaValidator validator = new OrmSchemaValidator(false);
+        Assert.assertFalse(validator.isEnabled());
+        Assert.assertTrue(validator.validate("<not-orm/>", "Payroll.hbm.xml").isEmpty());
+    }
+}
@@ -0,0 +1,53 @@
+package com.intuit.hbm.converters.validation;
+
+import com.intuit.hbm.converters.common.ConversionContext;
+import com.intuit.hbm.converters.converter.HbmToJpaConverter;
+import com.intuit.hbm.converters.helper.FileHelper;
+import com.intuit.hbm.converters.model.ConversionIssue;
+import com.intuit.hbm.converters.model.EntityMappings;
+import org.dom4j.Document;
+import org.dom4j.DocumentHelper;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+
+public class RoundTripVerifierTest {
+    private RoundTripVerifier verifier;
+    private EntityMappings entityMappings;
+    private String ormContent;
+
+    @Before
+    public void setup() {
+        ConversionContext context = ConversionContext.defaultContext();
+        HbmToJpaConverter converter = new HbmToJpaConverter(FileHelper.getInstance(), context);
+        Document hbmDoc = FileHelper.getInstance().readInputFile(new File("Paycheck.query.hbm.xml"));
+        entityMappings = converter.getEntityMappings(hbmDoc);
+        ormContent = converter.render(entityMappings).toString();
+        verifier = new RoundTripVerifier(FileHelper.getInstance(), context);
+    }
+
+    @Test
+    public void testConvertedFileMatchesSource() throws Exception {
+        Assert.assertEquals("[]", verifier.compare("Paycheck.query.hbm.xml", entityMappings, DocumentHelper.parseText(ormContent)).toString());
+    }
+
+    @Test
+    public void testMismatchesAreReported() throws Exception {
+        String tampered = ormContent.replace("=:company", "=:companyId")
+                .replace("result-class=\"class1\"", "result-class=\"class2\"")
+                .replace("name=\"column2\" class=\"type2\"", "name=\"column2\" class=\"java.lang.String\"")
+                .replace("name=\"NativeNamedQuery1\"", "name=\"RenamedQuery\"");
+        List<ConversionIssue> mismatches = verifier.compare("Paycheck.query.hbm.xml", entityMappings, DocumentHelper.parseText(tampered));
+
+        Assert.assertEquals(5, mismatches.size());
+        Assert.assertEquals("NamedQuery", mismatches.get(0).getName());
+        Assert.assertTrue(mismatches.get(0).getReason().startsWith("Query text differs"));
+        Assert.assertEquals("result-class differs: expected 'class1', found 'class2'", mismatches.get(1).getReason());
+        Assert.assertEquals("Missing in the converted file", mismatches.get(2).getReason());
+        Assert.assertEquals("RenamedQuery", mismatches.get(3).getName());
+        Assert.assertEquals("sql-result-set-mapping", mismatches.get(4).getElement());
+    }
+}